@@ -0,0 +1,53 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latencia (percentiles, Mode.SampleTime) del checkout asíncrono con muchos clientes
+ * concurrentes sobre pocos SKUs calientes, como en un flash sale.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(64)
+public class AsyncCheckoutBenchmark {
+
+    @Param({"4", "1024"})
+    public int hotSkus;
+
+    @Param({"64", "4096"})
+    public int maxPending;
+
+    private Map<String, Equipment> catalog;
+    private AsyncCheckoutService async;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        catalog = BenchmarkFixtures.catalog(hotSkus, BenchmarkFixtures.LARGE_STOCK);
+        async = new AsyncCheckoutService(new OrderService(catalog), maxPending, Duration.ofMillis(50), 256,
+                Runtime.getRuntime().availableProcessors());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() {
+        async.close();
+    }
+
+    @Benchmark
+    public Object checkout() {
+        Cart cart = new Cart();
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        cart.addItem(catalog.get(BenchmarkFixtures.idOf(rnd.nextInt(hotSkus))), 1);
+        cart.addItem(catalog.get(BenchmarkFixtures.idOf(rnd.nextInt(hotSkus))), 1);
+        // Los rechazos por saturación también son una respuesta (rápida) al cliente
+        return async.submit(cart, false).exceptionally(t -> null).join();
+    }
+}
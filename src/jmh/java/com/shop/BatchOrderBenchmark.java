@@ -0,0 +1,67 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Importación masiva: processOrder carrito a carrito vs processOrders en lote.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BatchOrderBenchmark {
+
+    @Param({"1000", "100000"})
+    public int orders;
+
+    @Param({"1000"})
+    public int catalogSize;
+
+    @Param({"3"})
+    public int cartLines;
+
+    private OrderService service;
+    private List<Cart> carts;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        Map<String, Equipment> catalog = BenchmarkFixtures.catalog(catalogSize, BenchmarkFixtures.LARGE_STOCK);
+        service = new OrderService(catalog);
+        carts = new ArrayList<>(orders);
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        for (int i = 0; i < orders; i++) {
+            Cart cart = new Cart();
+            for (int j = 0; j < cartLines; j++) {
+                cart.addItem(catalog.get(BenchmarkFixtures.idOf(rnd.nextInt(catalogSize))), 1 + rnd.nextInt(3));
+            }
+            carts.add(cart);
+        }
+    }
+
+    @Benchmark
+    public int oneByOne() {
+        int ok = 0;
+        for (Cart cart : carts) {
+            try {
+                service.processOrder(cart, false);
+                ok++;
+            } catch (IllegalArgumentException e) {
+                // rechazo contabilizado como no procesado
+            }
+        }
+        return ok;
+    }
+
+    @Benchmark
+    public List<BatchOrderResult> batch() {
+        return service.processOrders(carts, false);
+    }
+}
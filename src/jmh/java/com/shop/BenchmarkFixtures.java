@@ -0,0 +1,78 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Datos compartidos por los benchmarks: catálogos y carritos sintéticos.
+ */
+final class BenchmarkFixtures {
+
+    // Stock alto para que las iteraciones no agoten el catálogo
+    static final int LARGE_STOCK = 1_000_000_000;
+
+    private static final EquipmentType[] TYPES = EquipmentType.values();
+
+    private BenchmarkFixtures() {
+    }
+
+    /** Id determinístico para la posición i del catálogo. */
+    static String idOf(int i) {
+        return "SKU-" + i;
+    }
+
+    /**
+     * Crea un catálogo de size equipos, todos elegibles para alquiler.
+     * Precios variados con centavos para ejercitar BigDecimal.
+     */
+    static Map<String, Equipment> catalog(int size, int stock) {
+        Map<String, Equipment> catalog = new HashMap<>(size * 2);
+        for (int i = 0; i < size; i++) {
+            BigDecimal price = BigDecimal.valueOf(1_000 + (i % 97) * 137L, 2);
+            Equipment eq = new Equipment(idOf(i), "Item " + i, price, stock, TYPES[i % TYPES.length], true);
+            catalog.put(eq.getId(), eq);
+        }
+        return catalog;
+    }
+
+    /**
+     * Crea un carrito con lines líneas distintas (qty 1) tomadas del catálogo.
+     * Lanza IllegalArgumentException si lines supera el tamaño del catálogo: acotarlo
+     * mediría otro carrito que el del parámetro.
+     */
+    static Cart cart(Map<String, Equipment> catalog, int catalogSize, int lines) {
+        if (lines <= 0 || lines > catalogSize) {
+            throw new IllegalArgumentException("lines must be in 1.." + catalogSize + " (catalog size), was " + lines);
+        }
+        Cart cart = new Cart();
+        // Repartir las líneas a lo largo del catálogo para no tocar siempre los mismos buckets
+        int stride = Math.max(1, catalogSize / lines);
+        for (int i = 0; i < lines; i++) {
+            cart.addItem(catalog.get(idOf((i * stride) % catalogSize)), 1);
+        }
+        return cart;
+    }
+
+    /**
+     * Genera count posiciones de catálogo con distribución Zipf de parámetro skew
+     * (la posición 0 es la más pedida). skew = 0 equivale a uniforme.
+     */
+    static int[] zipfian(int size, double skew, int count, long seed) {
+        double[] cdf = new double[size];
+        double sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1.0 / Math.pow(i + 1, skew);
+            cdf[i] = sum;
+        }
+        Random rnd = new java.util.Random(seed);
+        int[] picks = new int[count];
+        for (int k = 0; k < count; k++) {
+            int idx = Arrays.binarySearch(cdf, rnd.nextDouble() * sum);
+            picks[k] = Math.min(size - 1, idx >= 0 ? idx : -idx - 1);
+        }
+        return picks;
+    }
+}
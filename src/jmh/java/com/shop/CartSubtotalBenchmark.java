@@ -0,0 +1,50 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Patrón de la UI: leer el subtotal tras cada cambio en un carrito grande.
+ * Cart.estimateSubtotal recorre todas las líneas; BoundCart lo mantiene en O(1).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CartSubtotalBenchmark {
+
+    @Param({"100", "10000"})
+    public int cartLines;
+
+    private Map<String, Equipment> catalog;
+    private Cart plain;
+    private BoundCart bound;
+    private Equipment touched;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        catalog = BenchmarkFixtures.catalog(cartLines, BenchmarkFixtures.LARGE_STOCK);
+        plain = BenchmarkFixtures.cart(catalog, cartLines, cartLines);
+        bound = new BoundCart(catalog);
+        for (String id : plain.getItems().keySet()) {
+            bound.addItem(catalog.get(id), 1);
+        }
+        touched = catalog.get(BenchmarkFixtures.idOf(cartLines / 2));
+    }
+
+    @Benchmark
+    public Object recomputeAfterChange() {
+        plain.addItem(touched, 1);
+        return plain.estimateSubtotal(catalog);
+    }
+
+    @Benchmark
+    public long incrementalAfterChange() {
+        bound.addItem(touched, 1);
+        return bound.getSubtotalCents();
+    }
+}
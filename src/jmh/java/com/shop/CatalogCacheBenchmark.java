@@ -0,0 +1,120 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lecturas Zipf (más un barrido de SKUs fríos cada tanto) contra un repositorio cuyo load
+ * cuesta ~missCost tokens de CPU: la caché con mayor hit rate gasta menos por lectura.
+ * lru es un LinkedHashMap en orden de acceso con un lock global, como referencia; los
+ * hit rates se imprimen al final de cada trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CatalogCacheBenchmark {
+    private static final int SKUS = 100_000;
+    private static final int TRACE = 1 << 20;
+
+    @Param({"1000"})
+    public int cacheSize;
+
+    @Param({"0.9"})
+    public double skew;
+
+    @Param({"20000"})
+    public int missCost;
+
+    private String[] trace;
+    private final AtomicInteger cursor = new AtomicInteger();
+    private CachingCatalog tinyLfu;
+    private SynchronizedLru lru;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Equipment> equipment = new ArrayList<>(BenchmarkFixtures.catalog(SKUS, BenchmarkFixtures.LARGE_STOCK).values());
+        InMemoryEquipmentRepository store = new InMemoryEquipmentRepository(equipment);
+        EquipmentRepository slow = id -> {
+            Blackhole.consumeCPU(missCost);
+            return store.load(id);
+        };
+        int[] picks = BenchmarkFixtures.zipfian(SKUS, skew, TRACE, 42L);
+        trace = new String[TRACE];
+        for (int i = 0; i < TRACE; i++) {
+            // Uno de cada 8 accesos es un barrido secuencial por SKUs que no se repiten pronto
+            trace[i] = BenchmarkFixtures.idOf((i & 7) == 0 ? SKUS - 1 - (i >>> 3) % (SKUS / 2) : picks[i]);
+        }
+        tinyLfu = new CachingCatalog(slow, cacheSize);
+        lru = new SynchronizedLru(slow, cacheSize);
+    }
+
+    @TearDown(Level.Trial)
+    public void report() {
+        // Cada corrida ejercita solo una de las dos cachés
+        CatalogCacheStats stats = tinyLfu.getStats();
+        if (stats.getHits() + stats.getMisses() > 0) {
+            System.out.printf("%n  tinyLfu hitRate=%.3f%n", stats.getHitRate());
+        }
+        if (lru.hits + lru.misses > 0) {
+            System.out.printf("%n  lru hitRate=%.3f%n", lru.hits / (double) (lru.hits + lru.misses));
+        }
+    }
+
+    private String next() {
+        return trace[cursor.getAndIncrement() & (TRACE - 1)];
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Equipment tinyLfu() {
+        return tinyLfu.get(next());
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Equipment lru() {
+        return lru.get(next());
+    }
+
+    /** LRU clásico: un lock global y carga dentro del lock. */
+    static final class SynchronizedLru {
+        private final EquipmentRepository repository;
+        private final Map<String, Equipment> map;
+        long hits;
+        long misses;
+
+        SynchronizedLru(EquipmentRepository repository, int maximumSize) {
+            this.repository = repository;
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Equipment> eldest) {
+                    return size() > maximumSize;
+                }
+            };
+        }
+
+        synchronized Equipment get(String id) {
+            Equipment eq = map.get(id);
+            if (eq != null) {
+                hits++;
+                return eq;
+            }
+            misses++;
+            eq = repository.load(id);
+            if (eq != null) {
+                map.put(id, eq);
+            }
+            return eq;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Throughput de CatalogImporter en filas por segundo (una operación = una fila),
+ * para CSV y binario, secuencial y en paralelo. El destino solo cuenta, para medir
+ * lectura y validación sin el costo del catálogo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CatalogImportBenchmark {
+    private static final int ROWS = 1_000_000;
+
+    @Param({"CSV", "BINARY"})
+    public String format;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path file;
+    private CatalogImporter importer;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("prices", "CSV".equals(format) ? ".csv" : ".bin");
+        List<Equipment> rows = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            rows.add(new Equipment(BenchmarkFixtures.idOf(i), "Item " + i, BigDecimal.valueOf(1_000 + i % 9_973, 2),
+                    i % 100, EquipmentType.values()[i % EquipmentType.values().length], i % 3 != 0));
+        }
+        if ("CSV".equals(format)) {
+            try (Writer out = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+                out.write(CatalogImporter.CSV_HEADER);
+                out.write('\n');
+                for (Equipment eq : rows) {
+                    out.write(eq.getId() + ',' + eq.getName() + ',' + eq.getPrice().toPlainString() + ',' + eq.getStock()
+                            + ',' + eq.getType() + ',' + eq.isRentalEligible() + '\n');
+                }
+            }
+        } else {
+            CatalogImporter.writeBinary(file, rows);
+        }
+        importer = new CatalogImporter(parallelism, 0);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public ImportReport load() throws IOException {
+        LongAdder count = new LongAdder();
+        return "CSV".equals(format)
+                ? importer.importCsv(file, eq -> count.increment())
+                : importer.importBinary(file, eq -> count.increment());
+    }
+}
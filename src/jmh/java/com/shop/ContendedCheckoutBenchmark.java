@@ -0,0 +1,73 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de checkout con varios hilos sobre un mismo catálogo compartido.
+ * hotSkus controla la contención: con pocos SKUs todos los hilos compiten por el
+ * mismo stock (CAS), con muchos SKUs el trabajo se reparte.
+ * Para medir escalado por núcleos: java -jar target/benchmarks.jar Contended -t 1,2,4,8
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ContendedCheckoutBenchmark {
+
+    @Param({"1", "16", "1024"})
+    public int hotSkus;
+
+    @Param({"1", "4"})
+    public int cartLines;
+
+    @Param({"false", "true"})
+    public boolean rental;
+
+    @Param({"false", "true"})
+    public boolean metrics;
+
+    private Map<String, Equipment> catalog;
+    private OrderService service;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        catalog = BenchmarkFixtures.catalog(hotSkus, BenchmarkFixtures.LARGE_STOCK);
+        service = new OrderService(catalog);
+        if (metrics) {
+            service.setMetrics(new RecordingOrderMetrics());
+        }
+    }
+
+    /** Carrito propio de cada hilo, con SKUs aleatorios dentro del rango caliente. */
+    @State(Scope.Thread)
+    public static class ThreadCart {
+        Cart cart;
+
+        @Setup(Level.Iteration)
+        public void setUp(ContendedCheckoutBenchmark shared) {
+            cart = new Cart();
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            for (int i = 0; i < shared.cartLines; i++) {
+                cart.addItem(shared.catalog.get(BenchmarkFixtures.idOf(rnd.nextInt(shared.hotSkus))), 1);
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public OrderReceipt singleThread(ThreadCart tc) {
+        return service.processOrder(tc.cart, rental);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public OrderReceipt contended(ThreadCart tc) {
+        return service.processOrder(tc.cart, rental);
+    }
+}
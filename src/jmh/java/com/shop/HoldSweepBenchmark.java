@@ -0,0 +1,56 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de un tick del barrido de holds con distinta cantidad de holds pendientes.
+ * En estado estable vence la misma cantidad por tick (holds / ticks del TTL), así que
+ * el costo por hold vencido debe mantenerse aunque crezca el total pendiente.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HoldSweepBenchmark {
+    private static final int TTL_TICKS = 1000;
+
+    @Param({"10000", "1000000"})
+    public int holds;
+
+    private long now;
+    private StockReservations reservations;
+    private Equipment equipment;
+    private int perTick;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        reservations = new StockReservations(Duration.ofNanos(TTL_TICKS), Duration.ofNanos(1), () -> now);
+        equipment = new Equipment("E1", "Equipment 1", new BigDecimal("10.00"),
+                BenchmarkFixtures.LARGE_STOCK, EquipmentType.BOARD, true);
+        perTick = Math.max(1, holds / TTL_TICKS);
+        // Repartir los holds a lo largo de un TTL completo
+        for (int t = 0; t < TTL_TICKS; t++) {
+            for (int i = 0; i < perTick; i++) {
+                reservations.tryHold(equipment, 1);
+            }
+            now++;
+        }
+    }
+
+    /** Avanza un tick, vence lo que corresponde y repone la misma cantidad de holds. */
+    @Benchmark
+    public int tick() {
+        now++;
+        int expired = reservations.sweep();
+        for (int i = 0; i < expired; i++) {
+            reservations.tryHold(equipment, 1);
+        }
+        return expired;
+    }
+}
@@ -0,0 +1,65 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Carritos B2B con decenas de miles de líneas: armado (cada id se agrega dos veces para
+ * ejercitar la acumulación) y checkout recorriendo las líneas por índice.
+ * linkedHashMap reproduce el almacenamiento anterior (Integer boxeado y merge) como referencia.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class HugeCartBenchmark {
+    @Param({"10000", "50000"})
+    public int lines;
+
+    private Equipment[] equipment;
+    private OrderService service;
+    private Cart cart;
+
+    @Setup
+    public void setUp() {
+        Map<String, Equipment> catalog = BenchmarkFixtures.catalog(lines, BenchmarkFixtures.LARGE_STOCK);
+        equipment = new Equipment[lines];
+        for (int i = 0; i < lines; i++) {
+            equipment[i] = catalog.get(BenchmarkFixtures.idOf(i));
+        }
+        service = new OrderService(catalog, MoneyMode.CENTS);
+        cart = buildCart();
+    }
+
+    @Benchmark
+    public Cart buildCart() {
+        Cart c = new Cart();
+        for (int round = 0; round < 2; round++) {
+            for (Equipment eq : equipment) {
+                c.addItem(eq, 1 + round);
+            }
+        }
+        return c;
+    }
+
+    @Benchmark
+    public Map<String, Integer> linkedHashMap() {
+        Map<String, Integer> items = new LinkedHashMap<>();
+        for (int round = 0; round < 2; round++) {
+            for (Equipment eq : equipment) {
+                items.merge(eq.getId(), 1 + round, Integer::sum);
+            }
+        }
+        return items;
+    }
+
+    @Benchmark
+    public OrderResult checkout() {
+        return service.tryProcessOrder(cart, false);
+    }
+}
@@ -0,0 +1,67 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de la deduplicación por clave de idempotencia frente a OrderService directo.
+ * retryRatio = fracción de llamadas que repiten una clave reciente (reintentos).
+ * Con claves nuevas constantes, el tope maxKeys mantiene la memoria acotada.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class IdempotencyBenchmark {
+    @Param({"1000"})
+    public int catalogSize;
+
+    @Param({"0.0", "0.5"})
+    public double retryRatio;
+
+    @Param({"65536"})
+    public int maxKeys;
+
+    private Map<String, Equipment> map;
+    private OrderService service;
+    private IdempotentOrderService idempotent;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        map = BenchmarkFixtures.catalog(catalogSize, BenchmarkFixtures.LARGE_STOCK);
+        service = new OrderService(map);
+        idempotent = new IdempotentOrderService(service, Duration.ofHours(1), maxKeys);
+    }
+
+    /** Secuencia de claves propia de cada hilo. */
+    @State(Scope.Thread)
+    public static class Keys {
+        final String prefix = Thread.currentThread().getName() + "-";
+        long next;
+    }
+
+    @Benchmark
+    public OrderResult direct() {
+        return service.tryProcessOrder(cart(), false);
+    }
+
+    @Benchmark
+    public OrderResult idempotent(Keys keys) {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        long id = (keys.next > 0 && rnd.nextDouble() < retryRatio) ? keys.next - 1 : keys.next++;
+        return idempotent.tryProcessOrder(keys.prefix + id, cart(), false);
+    }
+
+    private Cart cart() {
+        Cart cart = new Cart();
+        cart.addItem(map.get(BenchmarkFixtures.idOf(ThreadLocalRandom.current().nextInt(catalogSize))), 1);
+        return cart;
+    }
+}
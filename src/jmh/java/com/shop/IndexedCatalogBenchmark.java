@@ -0,0 +1,46 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consulta "SAILs elegibles para alquiler con stock": recorrido del mapa vs bitsets.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IndexedCatalogBenchmark {
+
+    @Param({"10000", "1000000"})
+    public int catalogSize;
+
+    private Map<String, Equipment> map;
+    private IndexedCatalog indexed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        map = BenchmarkFixtures.catalog(catalogSize, 5);
+        indexed = new IndexedCatalog(map.values());
+    }
+
+    @Benchmark
+    public int scanMap() {
+        int count = 0;
+        for (Equipment eq : map.values()) {
+            if (eq.getType() == EquipmentType.SAIL && eq.isRentalEligible() && eq.getStock() > 0) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public int indexedCount() {
+        return indexed.count(EquipmentType.SAIL, true, true);
+    }
+}
@@ -0,0 +1,126 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reportes sobre InventoryAnalytics con orders pedidos de 3 líneas repartidos en 48 horas:
+ * ventas por tipo y hora (todo el rango y solo la última hora) y SKUs bajo el punto de
+ * pedido, contra el mismo agregado recorriendo recibos y equipos (hourlyFromReceipts).
+ * ingest mide orderAccepted en el hilo del checkout (con un drain cada 4096 pedidos).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InventoryAnalyticsBenchmark {
+    private static final int SKUS = 10_000;
+    private static final int HOURS = 48;
+    private static final long START = Instant.parse("2026-03-01T00:00:00Z").toEpochMilli();
+    private static final int TYPES = EquipmentType.values().length;
+
+    @Param({"200000"})
+    public int orders;
+
+    private InventoryAnalytics analytics;
+    private InventoryAnalytics ingestTarget;
+    private final List<Recorded> receipts = new ArrayList<>();
+    private Instant from;
+    private Instant to;
+    private OrderReceipt sampleReceipt;
+    private Equipment[] sampleLines;
+    private int ingested;
+
+    /** Pedido guardado como objetos, como quedaría sin la analítica. */
+    private static final class Recorded {
+        final long atMillis;
+        final OrderReceipt receipt;
+        final Equipment[] lines;
+
+        Recorded(long atMillis, OrderReceipt receipt, Equipment[] lines) {
+            this.atMillis = atMillis;
+            this.receipt = receipt;
+            this.lines = lines;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Equipment> catalog = BenchmarkFixtures.catalog(SKUS, BenchmarkFixtures.LARGE_STOCK);
+        long[] clock = {START};
+        analytics = new InventoryAnalytics(() -> clock[0]);
+        SplittableRandom random = new SplittableRandom(42L);
+        long step = HOURS * 3_600_000L / orders;
+        analytics.captureStock(catalog.values()); // belowReorder descuenta todas las ventas
+        for (int o = 0; o < orders; o++) {
+            Equipment[] lines = new Equipment[3];
+            List<OrderReceipt.OrderItem> items = new ArrayList<>(3);
+            long subtotal = 0;
+            for (int i = 0; i < 3; i++) {
+                lines[i] = catalog.get(BenchmarkFixtures.idOf(random.nextInt(SKUS)));
+                int qty = 1 + random.nextInt(3);
+                items.add(new OrderReceipt.OrderItem(lines[i].getId(), qty));
+                subtotal += lines[i].getPriceCents() * qty;
+            }
+            OrderReceipt receipt = new OrderReceipt(items, subtotal, 0, subtotal, false);
+            clock[0] = START + o * step;
+            analytics.orderAccepted(receipt, lines);
+            receipts.add(new Recorded(clock[0], receipt, lines));
+        }
+        analytics.drain();
+        from = Instant.ofEpochMilli(START);
+        to = Instant.ofEpochMilli(START + HOURS * 3_600_000L);
+        sampleReceipt = receipts.get(0).receipt;
+        sampleLines = receipts.get(0).lines;
+        ingestTarget = new InventoryAnalytics();
+    }
+
+    @Benchmark
+    public HourlySales hourlyColumnar() {
+        return analytics.salesByTypeAndHour(from, to);
+    }
+
+    @Benchmark
+    public HourlySales lastHourColumnar() {
+        return analytics.salesByTypeAndHour(to.minusSeconds(3_600), to);
+    }
+
+    @Benchmark
+    public long[] hourlyFromReceipts() {
+        long[] units = new long[HOURS * TYPES];
+        long[] listAmount = new long[HOURS * TYPES];
+        for (Recorded r : receipts) {
+            int hour = (int) ((r.atMillis - START) / 3_600_000L);
+            List<OrderReceipt.OrderItem> items = r.receipt.getItems();
+            for (int i = 0; i < r.lines.length; i++) {
+                int cell = hour * TYPES + r.lines[i].getType().ordinal();
+                int qty = items.get(i).getQuantity();
+                units[cell] += qty;
+                listAmount[cell] += r.lines[i].getPriceCents() * qty;
+            }
+        }
+        return listAmount;
+    }
+
+    @Benchmark
+    public Map<String, Long> belowReorder() {
+        return analytics.belowReorder(BenchmarkFixtures.LARGE_STOCK - 120);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void ingest() {
+        ingestTarget.orderAccepted(sampleReceipt, sampleLines);
+        if ((++ingested & 4_095) == 0) {
+            ingestTarget.drain();
+        }
+    }
+}
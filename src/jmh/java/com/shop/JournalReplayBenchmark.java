@@ -0,0 +1,75 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Reconstrucción de proyecciones desde un OrderJournal con muchos segmentos,
+ * variando los hilos de replay; append mide el costo de registrar un pedido en el checkout.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JournalReplayBenchmark {
+    @Param({"200000"})
+    public int orders;
+
+    @Param({"1", "4"})
+    public int parallelism;
+
+    private Path dir;
+    private Map<String, Equipment> catalog;
+    private OrderService service;
+    private OrderJournal journal;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("journal-bench");
+        catalog = BenchmarkFixtures.catalog(1_000, BenchmarkFixtures.LARGE_STOCK);
+        service = new OrderService(catalog, MoneyMode.CENTS);
+        journal = new OrderJournal(dir, 4L << 20);
+        service.setOrderListener(journal);
+        for (int i = 0; i < orders; i++) {
+            service.tryProcessOrder(BenchmarkFixtures.cart(catalog, 1_000, 3), (i & 1) == 0);
+        }
+        journal.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        journal.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public SalesProjection replaySales() throws IOException {
+        return OrderJournal.replay(dir, new SalesProjection(), parallelism);
+    }
+
+    @Benchmark
+    public StockProjection replayStock() throws IOException {
+        return OrderJournal.replay(dir, new StockProjection(), parallelism);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public OrderResult checkoutWithJournal() {
+        int id = ThreadLocalRandom.current().nextInt(1_000);
+        Cart cart = new Cart();
+        cart.addItem(catalog.get(BenchmarkFixtures.idOf(id)), 1);
+        return service.tryProcessOrder(cart, false);
+    }
+}
@@ -0,0 +1,66 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Catálogo mapeado: tiempo de apertura (sin parseo) y checkout contra vistas fuera del heap.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MappedCatalogBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int skus;
+
+    private Path file;
+    private MappedCatalog catalog;
+    private OrderService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("mapped-catalog", ".bin");
+        Files.delete(file);
+        EquipmentType[] types = EquipmentType.values();
+        try (MappedCatalog building = MappedCatalog.create(file, skus)) {
+            for (int i = 0; i < skus; i++) {
+                building.add(new Equipment(BenchmarkFixtures.idOf(i), "Item " + i,
+                        BigDecimal.valueOf(1_000 + i % 997, 2), BenchmarkFixtures.LARGE_STOCK, types[i % types.length], true));
+            }
+        }
+        catalog = MappedCatalog.open(file);
+        service = new OrderService(catalog);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        catalog.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int open() throws IOException {
+        try (MappedCatalog reopened = MappedCatalog.open(file)) {
+            return reopened.size();
+        }
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public OrderReceipt checkout() {
+        Cart cart = new Cart();
+        cart.addItem(catalog.get(BenchmarkFixtures.idOf(ThreadLocalRandom.current().nextInt(skus))), 1);
+        return service.processOrder(cart, false);
+    }
+}
@@ -0,0 +1,71 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmark single-thread del camino de checkout: processOrder (compra y alquiler),
+ * Cart.addItem y Cart.estimateSubtotal, variando tamaño de carrito y de catálogo.
+ * Las líneas son SKUs distintos: la combinación cartLines > catalogSize (10000 con 100)
+ * falla en el setup en vez de medir un carrito más chico; JMH la reporta y sigue con el resto.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OrderServiceBenchmark {
+
+    @Param({"100", "10000", "1000000"})
+    public int catalogSize;
+
+    @Param({"1", "10", "100", "10000"})
+    public int cartLines;
+
+    @Param({"false", "true"})
+    public boolean rental;
+
+    @Param({"BIG_DECIMAL", "CENTS"})
+    public MoneyMode moneyMode;
+
+    private Map<String, Equipment> catalog;
+    private Equipment[] cartEquipment;
+    private Cart cart;
+    private OrderService service;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        // Se reconstruye por iteración para reponer el stock consumido
+        catalog = BenchmarkFixtures.catalog(catalogSize, BenchmarkFixtures.LARGE_STOCK);
+        cart = BenchmarkFixtures.cart(catalog, catalogSize, cartLines);
+        cartEquipment = cart.getItems().keySet().stream().map(catalog::get).toArray(Equipment[]::new);
+        service = new OrderService(catalog, moneyMode);
+    }
+
+    @Benchmark
+    public OrderReceipt processOrder() {
+        return service.processOrder(cart, rental);
+    }
+
+    @Benchmark
+    public Object estimateSubtotal() {
+        return cart.estimateSubtotal(catalog);
+    }
+
+    @Benchmark
+    public long estimateSubtotalCents() {
+        return cart.estimateSubtotalCents(catalog);
+    }
+
+    @Benchmark
+    public Cart addItems() {
+        Cart c = new Cart();
+        for (Equipment eq : cartEquipment) {
+            c.addItem(eq, 1);
+        }
+        return c;
+    }
+}
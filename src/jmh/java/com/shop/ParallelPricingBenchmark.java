@@ -0,0 +1,75 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tasación de carritos grandes en secuencia y por tramos fork/join, para elegir el umbral
+ * de PricingEngine.withParallelism: el punto donde parallel empieza a ganarle a sequential
+ * en la máquina de destino (con un solo núcleo nunca gana). Sin ese umbral, el motor tasa
+ * siempre en secuencia (DEFAULT_PARALLEL_THRESHOLD = Integer.MAX_VALUE).
+ * estimate* mide validación + BigDecimal (Cart.estimateSubtotal); checkout* el pedido completo.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParallelPricingBenchmark {
+    @Param({"2000", "8000", "32000"})
+    public int lines;
+
+    private ForkJoinPool pool;
+    private EquipmentCatalog catalog;
+    private Cart cart;
+    private PricingEngine sequential;
+    private PricingEngine parallel;
+    private OrderService sequentialService;
+    private OrderService parallelService;
+
+    @Setup
+    public void setUp() {
+        pool = new ForkJoinPool(Math.max(2, Runtime.getRuntime().availableProcessors()));
+        Map<String, Equipment> map = BenchmarkFixtures.catalog(lines, BenchmarkFixtures.LARGE_STOCK);
+        catalog = EquipmentCatalog.of(map);
+        cart = BenchmarkFixtures.cart(map, lines, lines);
+        PricingEngine rules = PricingEngine.compile(List.of(
+                PricingRule.typeDiscount(EquipmentType.SAIL, new BigDecimal("0.10")),
+                PricingRule.quantityBreak(EquipmentType.BOARD, 2, new BigDecimal("0.05"))));
+        sequential = rules.withParallelism(pool, Integer.MAX_VALUE);
+        parallel = rules.withParallelism(pool, 1);
+        sequentialService = new OrderService(catalog, MoneyMode.BIG_DECIMAL, sequential);
+        parallelService = new OrderService(catalog, MoneyMode.BIG_DECIMAL, parallel);
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public Object estimateSequential() {
+        return cart.estimateSubtotal(catalog, sequential);
+    }
+
+    @Benchmark
+    public Object estimateParallel() {
+        return cart.estimateSubtotal(catalog, parallel);
+    }
+
+    @Benchmark
+    public OrderResult checkoutSequential() {
+        return sequentialService.tryProcessOrder(cart, false);
+    }
+
+    @Benchmark
+    public OrderResult checkoutParallel() {
+        return parallelService.tryProcessOrder(cart, false);
+    }
+}
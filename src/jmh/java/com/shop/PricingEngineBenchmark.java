@@ -0,0 +1,64 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo de tasar un carrito según la cantidad de reglas compiladas.
+ * Las reglas son escalones por cantidad repartidos entre los tipos, más un combo completo:
+ * con las tablas por tipo el costo por línea crece con log(escalones del tipo), no con el total.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+    @Param({"0", "16", "1024"})
+    public int rules;
+
+    @Param({"8"})
+    public int cartLines;
+
+    private PricingEngine engine;
+    private Equipment[] lines;
+    private int[] quantities;
+
+    @Setup
+    public void setUp() {
+        List<PricingRule> compiled = new ArrayList<>();
+        EquipmentType[] types = EquipmentType.values();
+        for (int i = 0; i < rules; i++) {
+            compiled.add(PricingRule.quantityBreak(types[i % types.length], 2 + i / types.length,
+                    new BigDecimal("0.0001").multiply(BigDecimal.valueOf(1 + i % 100))));
+        }
+        if (rules > 0) {
+            compiled.add(PricingRule.bundle(EnumSet.allOf(EquipmentType.class), new BigDecimal("25.00")));
+        }
+        engine = PricingEngine.compile(compiled);
+        Map<String, Equipment> catalog = BenchmarkFixtures.catalog(1_000, BenchmarkFixtures.LARGE_STOCK);
+        lines = new Equipment[cartLines];
+        quantities = new int[cartLines];
+        for (int i = 0; i < cartLines; i++) {
+            lines[i] = catalog.get(BenchmarkFixtures.idOf(i * 37));
+            quantities[i] = 1 + i * 13 % 300;
+        }
+    }
+
+    @Benchmark
+    public long subtotalCents() {
+        return engine.subtotalCents(lines, quantities);
+    }
+
+    @Benchmark
+    public BigDecimal subtotal() {
+        return engine.subtotal(lines, quantities);
+    }
+}
@@ -0,0 +1,118 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Codificación de un recibo: ReceiptCodec frente a serialización Java y JSON.
+ * El proyecto no depende de una librería JSON: el JSON se arma con StringBuilder
+ * (cota inferior del costo de una librería). Para la serialización Java se usa una copia
+ * Serializable del recibo, ya que OrderReceipt no implementa Serializable.
+ * Los tamaños codificados se imprimen en el setup.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ReceiptCodecBenchmark {
+    @Param({"1", "8"})
+    public int lines;
+
+    private OrderReceipt receipt;
+    private SerializableReceipt serializable;
+    private ByteBuffer buffer;
+    private ByteBuffer encoded;
+
+    @Setup
+    public void setUp() throws IOException {
+        List<OrderReceipt.OrderItem> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(new OrderReceipt.OrderItem(BenchmarkFixtures.idOf(i * 7919), 1 + i % 3));
+        }
+        receipt = new OrderReceipt(items, new BigDecimal("1234.50"), new BigDecimal("123.45"),
+                new BigDecimal("1357.95"), true);
+        serializable = new SerializableReceipt(receipt);
+        buffer = ByteBuffer.allocateDirect(64 * 1024);
+        encoded = ByteBuffer.allocate(ReceiptCodec.encodedSize(receipt));
+        ReceiptCodec.encode(receipt, encoded);
+        encoded.flip();
+        System.out.printf("%nbytes: binary=%d java=%d json=%d%n", ReceiptCodec.encodedSize(receipt),
+                javaSerialization().length, json().length);
+    }
+
+    @Benchmark
+    public int binaryEncode() {
+        buffer.clear();
+        ReceiptCodec.encode(receipt, buffer);
+        return buffer.position();
+    }
+
+    @Benchmark
+    public OrderReceipt binaryDecode() {
+        return ReceiptCodec.decode(encoded.duplicate());
+    }
+
+    @Benchmark
+    public byte[] javaSerialization() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(serializable);
+        }
+        return bytes.toByteArray();
+    }
+
+    @Benchmark
+    public byte[] json() {
+        StringBuilder sb = new StringBuilder(128);
+        sb.append("{\"status\":\"").append(receipt.getStatus()).append("\",\"items\":[");
+        List<OrderReceipt.OrderItem> items = receipt.getItems();
+        for (int i = 0; i < items.size(); i++) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append("{\"id\":\"").append(items.get(i).getId())
+                    .append("\",\"quantity\":").append(items.get(i).getQuantity()).append('}');
+        }
+        sb.append("],\"subtotal\":").append(receipt.getSubtotal().toPlainString())
+                .append(",\"deposit\":").append(receipt.getDeposit().toPlainString())
+                .append(",\"total\":").append(receipt.getTotal().toPlainString())
+                .append(",\"rental\":").append(receipt.isRental()).append('}');
+        return sb.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Misma información que OrderReceipt, serializable con ObjectOutputStream. */
+    static final class SerializableReceipt implements Serializable {
+        private static final long serialVersionUID = 1L;
+        final String status;
+        final List<String> ids = new ArrayList<>();
+        final List<Integer> quantities = new ArrayList<>();
+        final BigDecimal subtotal;
+        final BigDecimal deposit;
+        final BigDecimal total;
+        final boolean rental;
+
+        SerializableReceipt(OrderReceipt r) {
+            status = r.getStatus();
+            for (OrderReceipt.OrderItem item : r.getItems()) {
+                ids.add(item.getId());
+                quantities.add(item.getQuantity());
+            }
+            subtotal = r.getSubtotal();
+            deposit = r.getDeposit();
+            total = r.getTotal();
+            rental = r.isRental();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costo del rechazo por falta de stock: processOrder (excepción con mensaje y stack trace)
+ * vs tryProcessOrder (OrderResult sin excepción). Conviene correrlo con -prof gc
+ * para comparar la asignación por operación.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RejectionPathBenchmark {
+
+    @Param({"1", "10"})
+    public int cartLines;
+
+    private Cart cart;
+    private OrderService service;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Map<String, Equipment> catalog = BenchmarkFixtures.catalog(cartLines, 1);
+        cart = BenchmarkFixtures.cart(catalog, cartLines, cartLines);
+        // La última línea pide más de lo que hay: el pedido siempre se rechaza
+        cart.setQuantity(BenchmarkFixtures.idOf(cartLines - 1), 2);
+        service = new OrderService(catalog);
+    }
+
+    @Benchmark
+    public Object throwing() {
+        try {
+            return service.processOrder(cart, false);
+        } catch (IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public OrderResult resultType() {
+        return service.tryProcessOrder(cart, false);
+    }
+}
@@ -0,0 +1,65 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Consultas de disponibilidad y reservas sobre una temporada con muchas reservas previas.
+ * El costo de available/book depende de log(franjas), no de la cantidad de reservas.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RentalAvailabilityBenchmark {
+    private static final Instant SEASON_START = Instant.parse("2026-05-01T00:00:00Z");
+    private static final Duration SEASON = Duration.ofDays(180);
+
+    @Param({"1000", "100000"})
+    public int bookings;
+
+    @Param({"PT15M", "PT1H"})
+    public String slot;
+
+    private RentalService service;
+    private Cart cart;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Equipment board = new Equipment("B1", "Board 1", new BigDecimal("50.00"),
+                BenchmarkFixtures.LARGE_STOCK, EquipmentType.BOARD, true);
+        service = new RentalService(Map.of("B1", board), SEASON_START, SEASON_START.plus(SEASON), Duration.parse(slot));
+        cart = new Cart();
+        cart.addItem(board, 1);
+        Random rnd = new Random(7);
+        for (int i = 0; i < bookings; i++) {
+            Instant start = randomStart(rnd.nextInt(180 * 24 - 8));
+            service.book(cart, start, start.plus(Duration.ofHours(1 + rnd.nextInt(8))));
+        }
+    }
+
+    private static Instant randomStart(int hour) {
+        return SEASON_START.plus(Duration.ofHours(hour));
+    }
+
+    @Benchmark
+    public int available() {
+        Instant from = randomStart(ThreadLocalRandom.current().nextInt(180 * 24 - 8));
+        return service.available("B1", from, from.plus(Duration.ofHours(4)));
+    }
+
+    @Benchmark
+    public boolean bookAndCancel() {
+        Instant from = randomStart(ThreadLocalRandom.current().nextInt(180 * 24 - 8));
+        return service.cancel(service.book(cart, from, from.plus(Duration.ofHours(4))));
+    }
+}
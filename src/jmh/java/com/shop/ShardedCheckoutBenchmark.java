@@ -0,0 +1,76 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput de checkout multihilo con SKUs elegidos según una distribución Zipf
+ * (pocos SKUs muy pedidos, cola larga), sobre un Map simple o un ShardedCatalog.
+ * Para medir escalado por núcleos: java -jar target/benchmarks.jar Sharded -t 1,2,4,8,16,32,64
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(Threads.MAX)
+public class ShardedCheckoutBenchmark {
+    private static final int CARTS_PER_THREAD = 4096;
+
+    @Param({"MAP", "SHARDED"})
+    public String catalogKind;
+
+    @Param({"100000"})
+    public int catalogSize;
+
+    @Param({"1", "4"})
+    public int cartLines;
+
+    @Param({"0.99"})
+    public double skew;
+
+    @Param({"256"})
+    public int shards;
+
+    private Map<String, Equipment> map;
+    private OrderService service;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        map = BenchmarkFixtures.catalog(catalogSize, BenchmarkFixtures.LARGE_STOCK);
+        EquipmentCatalog catalog = "SHARDED".equals(catalogKind)
+                ? new ShardedCatalog(map.values(), shards)
+                : EquipmentCatalog.of(map);
+        service = new OrderService(catalog);
+    }
+
+    /** Carritos pregenerados por hilo (SKUs Zipf), recorridos en ciclo. */
+    @State(Scope.Thread)
+    public static class ThreadCarts {
+        Cart[] carts;
+        int next;
+
+        @Setup(Level.Iteration)
+        public void setUp(ShardedCheckoutBenchmark shared) {
+            int[] picks = BenchmarkFixtures.zipfian(shared.catalogSize, shared.skew,
+                    CARTS_PER_THREAD * shared.cartLines, ThreadLocalRandom.current().nextLong());
+            carts = new Cart[CARTS_PER_THREAD];
+            for (int c = 0; c < carts.length; c++) {
+                carts[c] = new Cart();
+                for (int l = 0; l < shared.cartLines; l++) {
+                    carts[c].addItem(shared.map.get(BenchmarkFixtures.idOf(picks[c * shared.cartLines + l])), 1);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public OrderResult checkout(ThreadCarts tc) {
+        Cart cart = tc.carts[tc.next++ & (CARTS_PER_THREAD - 1)];
+        return service.tryProcessOrder(cart, false);
+    }
+}
@@ -0,0 +1,127 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Costo de persistir el stock: checkout con y sin write-ahead log (group commit),
+ * y tiempo de recuperación (foto + cola del log) para catálogos grandes.
+ */
+public class StockStoreBenchmark {
+
+    /** Checkout concurrente con el log activo; durable=true espera el fsync de grupo. */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2, time = 2)
+    @Measurement(iterations = 5, time = 2)
+    @Fork(1)
+    @Threads(Threads.MAX)
+    public static class Checkout {
+        @Param({"none", "async", "durable"})
+        public String persistence;
+
+        private Path dir;
+        private StockStore store;
+        private Map<String, Equipment> catalog;
+        private OrderService service;
+
+        @Setup(Level.Iteration)
+        public void setUp() throws IOException {
+            Map<String, Equipment> initial = BenchmarkFixtures.catalog(10_000, BenchmarkFixtures.LARGE_STOCK);
+            if ("none".equals(persistence)) {
+                catalog = initial;
+            } else {
+                dir = Files.createTempDirectory("stock-bench");
+                store = StockStore.open(dir, initial.values());
+                catalog = store.getCatalog();
+            }
+            service = new OrderService(catalog);
+        }
+
+        @TearDown(Level.Iteration)
+        public void tearDown() throws IOException {
+            if (store != null) {
+                store.close();
+                deleteRecursively(dir);
+                store = null;
+            }
+        }
+
+        @Benchmark
+        public OrderReceipt checkout() {
+            Cart cart = new Cart();
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            cart.addItem(catalog.get(BenchmarkFixtures.idOf(rnd.nextInt(10_000))), 1);
+            cart.addItem(catalog.get(BenchmarkFixtures.idOf(rnd.nextInt(10_000))), 1);
+            OrderReceipt receipt = service.processOrder(cart, false);
+            if ("durable".equals(persistence)) {
+                store.awaitDurable();
+            }
+            return receipt;
+        }
+    }
+
+    /** Recuperación: leer la foto de skus equipos y reproducir logEntries deltas. */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 5)
+    @Fork(1)
+    public static class Recovery {
+        @Param({"1000000"})
+        public int skus;
+
+        @Param({"100000", "1000000"})
+        public int logEntries;
+
+        private Path dir;
+
+        @Setup(Level.Trial)
+        public void setUp() throws IOException {
+            dir = Files.createTempDirectory("stock-recovery");
+            Map<String, Equipment> initial = BenchmarkFixtures.catalog(skus, BenchmarkFixtures.LARGE_STOCK);
+            try (StockStore store = StockStore.open(dir, initial.values())) {
+                ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                for (int i = 0; i < logEntries; i++) {
+                    store.getCatalog().get(BenchmarkFixtures.idOf(rnd.nextInt(skus))).decreaseStock(1);
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            deleteRecursively(dir);
+        }
+
+        @Benchmark
+        public int recover() throws IOException {
+            try (StockStore store = StockStore.open(dir, List.of())) {
+                return store.getCatalog().size();
+            }
+        }
+    }
+
+    private static void deleteRecursively(Path dir) throws IOException {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted(Comparator.reverseOrder()).forEach(p -> {
+                try {
+                    Files.delete(p);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.shop;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Checkout sobre un VersionedCatalog mientras un hilo aplica deltas de precio y stock.
+ * Grupo "refresh": 3 hilos de checkout y 1 de deltas; "baseline": solo checkout.
+ * Los lectores no esperan al escritor: la diferencia entre grupos es el costo del refresco.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class VersionedCatalogBenchmark {
+    @Param({"10000"})
+    public int catalogSize;
+
+    @Param({"16"})
+    public int deltaSize;
+
+    private Map<String, Equipment> map;
+    private VersionedCatalog catalog;
+    private OrderService service;
+
+    @Setup(Level.Iteration)
+    public void setUp() {
+        map = BenchmarkFixtures.catalog(catalogSize, BenchmarkFixtures.LARGE_STOCK);
+        catalog = new VersionedCatalog(map.values());
+        service = new OrderService(catalog);
+    }
+
+    @Benchmark
+    @Group("refresh")
+    @GroupThreads(3)
+    public OrderResult checkoutDuringRefresh() {
+        return checkout();
+    }
+
+    @Benchmark
+    @Group("refresh")
+    @GroupThreads(1)
+    public long applyDelta() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        CatalogDelta delta = new CatalogDelta();
+        for (int i = 0; i < deltaSize; i++) {
+            String id = BenchmarkFixtures.idOf(rnd.nextInt(catalogSize));
+            delta.setPrice(id, BigDecimal.valueOf(1_000 + rnd.nextInt(9_000), 2)).adjustStock(id, 1);
+        }
+        return catalog.apply(delta);
+    }
+
+    @Benchmark
+    @Group("baseline")
+    @GroupThreads(3)
+    public OrderResult checkoutBaseline() {
+        return checkout();
+    }
+
+    private OrderResult checkout() {
+        ThreadLocalRandom rnd = ThreadLocalRandom.current();
+        Cart cart = new Cart();
+        cart.addItem(map.get(BenchmarkFixtures.idOf(rnd.nextInt(catalogSize))), 1);
+        cart.addItem(map.get(BenchmarkFixtures.idOf(rnd.nextInt(catalogSize))), 1);
+        return service.tryProcessOrder(cart, false);
+    }
+}
@@ -0,0 +1,169 @@
+package com.shop;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * AsyncCheckoutService es un front-end asíncrono de OrderService.
+ * - submit() retorna CompletableFuture<OrderReceipt>; cada pedido corre en su propio hilo
+ *   virtual (Java 21+) o en un pool fijo de hilos de plataforma (Java 17)
+ * - Admisión acotada: como máximo maxPending pedidos admitidos (en curso + en espera);
+ *   al saturarse, submit espera hasta admissionTimeout y luego rechaza con
+ *   RejectedExecutionException (timeout cero = rechazo inmediato)
+ * - Serialización por SKU: los ids del carrito se asignan a franjas de locks que se toman
+ *   en orden ascendente (sin deadlock); así los SKUs calientes se atienden en fila en vez
+ *   de competir con reintentos CAS ilimitados
+ * El carrito no debe modificarse después de enviarlo.
+ */
+public class AsyncCheckoutService implements AutoCloseable {
+    private final OrderService service;
+    private final ExecutorService executor;
+    private final Semaphore admission;
+    private final long admissionTimeoutNanos;
+    private final ReentrantLock[] stripes;
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * @param maxPending       pedidos admitidos a la vez (> 0)
+     * @param admissionTimeout espera máxima por un lugar al saturarse (>= 0)
+     * @param skuStripes       cantidad de franjas de serialización por SKU (> 0)
+     * @param platformThreads  tamaño del pool si no hay hilos virtuales (> 0)
+     */
+    public AsyncCheckoutService(OrderService service, int maxPending, Duration admissionTimeout,
+                                int skuStripes, int platformThreads) {
+        if (service == null) {
+            throw new IllegalArgumentException("service must not be null");
+        }
+        if (maxPending <= 0) {
+            throw new IllegalArgumentException("maxPending must be > 0");
+        }
+        if (admissionTimeout == null || admissionTimeout.isNegative()) {
+            throw new IllegalArgumentException("admissionTimeout must be >= 0");
+        }
+        if (skuStripes <= 0) {
+            throw new IllegalArgumentException("skuStripes must be > 0");
+        }
+        this.service = service;
+        this.executor = VirtualThreads.newExecutor(true, platformThreads, "checkout");
+        this.admission = new Semaphore(maxPending);
+        this.admissionTimeoutNanos = admissionTimeout.toNanos();
+        this.stripes = new ReentrantLock[skuStripes];
+        for (int i = 0; i < skuStripes; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /** Valores por defecto: 1024 pendientes, rechazo inmediato, 256 franjas, un hilo por núcleo. */
+    public AsyncCheckoutService(OrderService service) {
+        this(service, 1024, Duration.ZERO, 256, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Envía un pedido. El futuro se completa con el recibo, o excepcionalmente con
+     * IllegalArgumentException (regla de negocio) o RejectedExecutionException (saturación).
+     */
+    public CompletableFuture<OrderReceipt> submit(Cart cart, boolean rental) {
+        if (cart == null) {
+            return CompletableFuture.failedFuture(new IllegalArgumentException("cart must not be null"));
+        }
+        if (!admit()) {
+            rejected.increment();
+            return CompletableFuture.failedFuture(new RejectedExecutionException("checkout saturated"));
+        }
+        CompletableFuture<OrderReceipt> result = new CompletableFuture<>();
+        try {
+            executor.execute(() -> {
+                try {
+                    result.complete(processSerialized(cart, rental));
+                } catch (Throwable t) {
+                    result.completeExceptionally(t);
+                } finally {
+                    admission.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // Ejecutor cerrado
+            admission.release();
+            rejected.increment();
+            result.completeExceptionally(e);
+        }
+        return result;
+    }
+
+    /** Pedidos rechazados por saturación o cierre. */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /** Lugares de admisión libres en este momento. */
+    public int getAvailableSlots() {
+        return admission.availablePermits();
+    }
+
+    /**
+     * Deja de aceptar pedidos y espera a que terminen los admitidos.
+     * Si el hilo se interrumpe deja de esperar y conserva la marca de interrupción.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean admit() {
+        if (admissionTimeoutNanos == 0) {
+            return admission.tryAcquire();
+        }
+        try {
+            return admission.tryAcquire(admissionTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    // Toma las franjas de los SKUs del carrito en orden ascendente y procesa el pedido
+    private OrderReceipt processSerialized(Cart cart, boolean rental) {
+        int[] order = stripesOf(cart);
+        int locked = 0;
+        try {
+            for (int stripe : order) {
+                stripes[stripe].lock();
+                locked++;
+            }
+            return service.processOrder(cart, rental);
+        } finally {
+            for (int i = locked - 1; i >= 0; i--) {
+                stripes[order[i]].unlock();
+            }
+        }
+    }
+
+    // Índices de franja únicos y ordenados para los ids del carrito
+    private int[] stripesOf(Cart cart) {
+        int n = cart.size();
+        int[] idx = new int[n];
+        for (int i = 0; i < n; i++) {
+            idx[i] = Math.floorMod(cart.getId(i).hashCode() * 0x9E3779B9, stripes.length);
+        }
+        Arrays.sort(idx);
+        int unique = 0;
+        for (int i = 0; i < n; i++) {
+            if (unique == 0 || idx[unique - 1] != idx[i]) {
+                idx[unique++] = idx[i];
+            }
+        }
+        return Arrays.copyOf(idx, unique);
+    }
+}
@@ -0,0 +1,90 @@
+package com.shop;
+
+/**
+ * AvailabilityIndex lleva las unidades reservadas por franja horaria de un equipo.
+ * Árbol de segmentos con propagación perezosa sobre [0, slots):
+ * - add(from, to, delta) suma delta a cada franja del rango en O(log n)
+ * - maxBooked(from, to) retorna el máximo reservado en el rango en O(log n)
+ * - available(from, to) = capacity - maxBooked: unidades libres durante todo el rango
+ * Rangos semiabiertos [from, to). No es thread-safe; RentalService lo protege con su lock.
+ */
+public class AvailabilityIndex {
+    private final int slots;
+    private final int[] max;  // máximo del subárbol (sin contar los lazy de los ancestros)
+    private final int[] lazy; // suma pendiente de propagar a los hijos
+    private int capacity;
+
+    public AvailabilityIndex(int slots, int capacity) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("slots must be > 0");
+        }
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 0");
+        }
+        this.slots = slots;
+        this.max = new int[4 * slots];
+        this.lazy = new int[4 * slots];
+        this.capacity = capacity;
+    }
+
+    public int getSlots() { return slots; }
+    public int getCapacity() { return capacity; }
+
+    public void setCapacity(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must be >= 0");
+        }
+        this.capacity = capacity;
+    }
+
+    /** Unidades libres durante todo [from, to) (puede ser negativo si se bajó la capacidad). */
+    public int available(int from, int to) {
+        return capacity - maxBooked(from, to);
+    }
+
+    /** Máximo de unidades reservadas en alguna franja de [from, to). */
+    public int maxBooked(int from, int to) {
+        checkRange(from, to);
+        return query(1, 0, slots, from, to);
+    }
+
+    /** Suma delta unidades reservadas a cada franja de [from, to). */
+    public void add(int from, int to, int delta) {
+        checkRange(from, to);
+        update(1, 0, slots, from, to, delta);
+    }
+
+    private void update(int node, int lo, int hi, int from, int to, int delta) {
+        if (to <= lo || hi <= from) {
+            return;
+        }
+        if (from <= lo && hi <= to) {
+            max[node] += delta;
+            lazy[node] += delta;
+            return;
+        }
+        int mid = (lo + hi) >>> 1;
+        update(2 * node, lo, mid, from, to, delta);
+        update(2 * node + 1, mid, hi, from, to, delta);
+        max[node] = Math.max(max[2 * node], max[2 * node + 1]) + lazy[node];
+    }
+
+    private int query(int node, int lo, int hi, int from, int to) {
+        if (to <= lo || hi <= from) {
+            return Integer.MIN_VALUE;
+        }
+        if (from <= lo && hi <= to) {
+            return max[node];
+        }
+        int mid = (lo + hi) >>> 1;
+        // El lazy del nodo aplica a todo el rango: se suma sin bajarlo a los hijos
+        int best = Math.max(query(2 * node, lo, mid, from, to), query(2 * node + 1, mid, hi, from, to));
+        return best + lazy[node];
+    }
+
+    private void checkRange(int from, int to) {
+        if (from < 0 || to > slots || from >= to) {
+            throw new IllegalArgumentException("invalid slot range: [" + from + ", " + to + ")");
+        }
+    }
+}
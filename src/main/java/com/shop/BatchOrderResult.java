@@ -0,0 +1,37 @@
+package com.shop;
+
+/**
+ * BatchOrderResult es el resultado inmutable de un carrito dentro de un lote.
+ * Contiene el recibo si el pedido se procesó, o el motivo del rechazo si falló.
+ */
+public class BatchOrderResult {
+    // Recibo del pedido (null si falló)
+    private final OrderReceipt receipt; // inmutable
+    // Mensaje de error (null si se procesó)
+    private final String error; // inmutable
+
+    private BatchOrderResult(OrderReceipt receipt, String error) {
+        this.receipt = receipt;
+        this.error = error;
+    }
+
+    /** Resultado exitoso con su recibo. */
+    public static BatchOrderResult success(OrderReceipt receipt) {
+        if (receipt == null) {
+            throw new IllegalArgumentException("receipt must not be null");
+        }
+        return new BatchOrderResult(receipt, null);
+    }
+
+    /** Resultado fallido con el motivo del rechazo. */
+    public static BatchOrderResult failure(String error) {
+        if (error == null || error.isBlank()) {
+            throw new IllegalArgumentException("error must not be blank");
+        }
+        return new BatchOrderResult(null, error);
+    }
+
+    public boolean isSuccess() { return receipt != null; }
+    public OrderReceipt getReceipt() { return receipt; }
+    public String getError() { return error; }
+}
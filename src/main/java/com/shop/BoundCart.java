@@ -0,0 +1,194 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * BoundCart es un carrito ligado a un catálogo que mantiene el subtotal al día.
+ * - addItem, removeItem y setQuantity ajustan un subtotal acumulado en centavos
+ * - getSubtotalCents/getSubtotal son O(1) mientras el catálogo no cambie de versión
+ * - Si cambia la versión del catálogo, el próximo acceso recalcula todo una vez
+ * - priceChanged(id) ajusta una sola línea cuando se sabe qué precio cambió
+ * Los precios siempre se toman del catálogo, no del Equipment recibido en addItem.
+ * Tasa con el PricingEngine dado (por defecto LIST_PRICES): cada línea guarda su importe
+ * con descuento y las unidades por tipo alimentan los combos, así que el subtotal coincide
+ * con Cart.estimateSubtotalCents(catalog, pricing) y con el del recibo en OrderService.
+ */
+public class BoundCart extends Cart {
+    private final EquipmentCatalog catalog; // catálogo de referencia
+    private final PricingEngine pricing;
+    // Precio, tipo e importe usados para cada línea en el subtotal acumulado
+    private final Map<String, Line> lines = new HashMap<>();
+    // Unidades por EquipmentType (índice = ordinal), para los combos
+    private final long[] units = new long[EquipmentType.values().length];
+    private long linesCents; // suma de las líneas, sin combos
+    private long seenVersion;
+
+    public BoundCart(EquipmentCatalog catalog) {
+        this(catalog, PricingEngine.LIST_PRICES);
+    }
+
+    public BoundCart(Map<String, Equipment> catalog) {
+        this(EquipmentCatalog.of(catalog));
+    }
+
+    public BoundCart(EquipmentCatalog catalog, PricingEngine pricing) {
+        if (catalog == null) {
+            throw new IllegalArgumentException("catalog must not be null");
+        }
+        if (pricing == null) {
+            throw new IllegalArgumentException("pricing must not be null");
+        }
+        this.catalog = catalog;
+        this.pricing = pricing;
+        this.seenVersion = catalog.version();
+    }
+
+    /**
+     * Agrega un item y suma su importe al subtotal.
+     * Además de las reglas de Cart, el id debe existir en el catálogo.
+     */
+    @Override
+    public void addItem(Equipment equipment, int qty) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        if (qty <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
+        }
+        String id = equipment.getId();
+        Equipment current = catalogEquipment(id);
+        int previous = getQuantity(id);
+        // Con precio cambiado o escalón nuevo, la línea se reprecia completa
+        long cents = pricing.lineCents(current.getPriceCents(), current.getType(), previous + qty);
+        Line line = new Line(current.getPriceCents(), current.getType(), cents);
+        Line old = lines.get(id);
+        long updated = Cents.add(linesCents, Cents.subtract(line.cents, old == null ? 0L : old.cents)); // validar antes de mutar
+        super.addItem(equipment, qty);
+        if (old != null) {
+            units[old.type.ordinal()] -= previous;
+        }
+        units[line.type.ordinal()] += previous + qty;
+        lines.put(id, line);
+        linesCents = updated;
+    }
+
+    @Override
+    public boolean removeItem(String id) {
+        int qty = id == null ? 0 : getQuantity(id);
+        if (!super.removeItem(id)) {
+            return false;
+        }
+        Line line = lines.remove(id);
+        units[line.type.ordinal()] -= qty;
+        linesCents = Cents.subtract(linesCents, line.cents);
+        return true;
+    }
+
+    @Override
+    public void setQuantity(String id, int qty) {
+        int previous = id == null ? 0 : getQuantity(id);
+        if (previous == 0) {
+            throw new IllegalArgumentException("item not in cart: " + id);
+        }
+        Line line = lines.get(id);
+        long cents = pricing.lineCents(line.unit, line.type, qty);
+        long updated = Cents.add(linesCents, Cents.subtract(cents, line.cents));
+        super.setQuantity(id, qty);
+        units[line.type.ordinal()] += qty - previous;
+        line.cents = cents;
+        linesCents = updated;
+    }
+
+    /**
+     * Ajusta una línea al precio vigente en el catálogo (invalidación puntual).
+     * No hace nada si el id no está en el carrito.
+     */
+    public void priceChanged(String id) {
+        Line line = id == null ? null : lines.get(id);
+        if (line == null) {
+            return;
+        }
+        Equipment current = catalogEquipment(id);
+        int qty = getQuantity(id);
+        long cents = pricing.lineCents(current.getPriceCents(), current.getType(), qty);
+        linesCents = Cents.add(linesCents, Cents.subtract(cents, line.cents));
+        units[line.type.ordinal()] -= qty;
+        units[current.getType().ordinal()] += qty;
+        line.unit = current.getPriceCents();
+        line.type = current.getType();
+        line.cents = cents;
+    }
+
+    /** Fuerza el recálculo completo en el próximo acceso al subtotal. */
+    public void invalidate() {
+        seenVersion = Long.MIN_VALUE;
+    }
+
+    /**
+     * Subtotal en centavos (líneas menos combos, mínimo 0). O(1) en la cantidad de líneas
+     * salvo tras un cambio de versión del catálogo.
+     * Lanza IllegalArgumentException si alguna línea ya no existe en el catálogo.
+     */
+    public long getSubtotalCents() {
+        long version = catalog.version();
+        if (version != seenVersion) {
+            recompute();
+            seenVersion = version;
+        }
+        if (pricing.getBundleCount() == 0) {
+            return linesCents;
+        }
+        return Math.max(0L, linesCents - pricing.bundleDiscountCents(units));
+    }
+
+    /** Subtotal como BigDecimal con escala 2. */
+    public BigDecimal getSubtotal() {
+        return Cents.toBigDecimal(getSubtotalCents());
+    }
+
+    /** Motor con el que se tasan las líneas. */
+    public PricingEngine getPricingEngine() {
+        return pricing;
+    }
+
+    // Recalcula todas las líneas con los precios vigentes
+    private void recompute() {
+        long total = 0L;
+        long[] counted = new long[units.length];
+        for (int i = 0; i < size(); i++) {
+            String id = getId(i);
+            Equipment current = catalogEquipment(id);
+            Line line = lines.get(id);
+            line.unit = current.getPriceCents();
+            line.type = current.getType();
+            line.cents = pricing.lineCents(line.unit, line.type, getQuantity(i));
+            counted[line.type.ordinal()] += getQuantity(i);
+            total = Cents.add(total, line.cents);
+        }
+        System.arraycopy(counted, 0, units, 0, units.length);
+        linesCents = total;
+    }
+
+    private Equipment catalogEquipment(String id) {
+        Equipment current = catalog.get(id);
+        if (current == null) {
+            throw new IllegalArgumentException("equipment not found in catalog: " + id);
+        }
+        return current;
+    }
+
+    /** Precio unitario, tipo e importe (con descuento de línea) de una línea. */
+    private static final class Line {
+        private long unit;
+        private EquipmentType type;
+        private long cents;
+
+        private Line(long unit, EquipmentType type, long cents) {
+            this.unit = unit;
+            this.type = type;
+            this.cents = cents;
+        }
+    }
+}
@@ -0,0 +1,507 @@
+package com.shop;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * CachingCatalog es un EquipmentCatalog que lee a través de un EquipmentRepository lento
+ * y guarda hasta maximumSize equipos en memoria (read-through).
+ * Reglas:
+ * - Single-flight: los misses concurrentes de un mismo id esperan una única carga; si
+ *   la carga falla, todos reciben la misma excepción y nada queda en caché
+ * - Desalojo W-TinyLFU: ventana LRU chica (1% del tamaño) + segmento principal SLRU
+ *   (prueba / protegido 80%). El equipo que sale de la ventana entra al principal solo si
+ *   su frecuencia estimada supera a la de la víctima (count-min sketch de 4 bits,
+ *   envejecido a la mitad cada 10 * maximumSize accesos): un barrido de SKUs fríos no
+ *   desplaza a los calientes
+ * - Refresh-ahead: un hit sobre un equipo cargado hace refreshAfter o más dispara una
+ *   recarga asíncrona (una por id) y mientras tanto se sirve el valor anterior. Si la
+ *   recarga falla se conserva el anterior hasta otro refreshAfter; si el id ya no existe,
+ *   se invalida
+ * - Las lecturas no bloquean: el orden de acceso se actualiza con tryLock y, con
+ *   contención, se pierde alguna actualización (el desalojo es aproximado, el contenido no)
+ * - No hay fotos: snapshot() es la caché misma, así que una recarga en medio de un
+ *   pedido puede dar precios de versiones distintas a sus líneas (ver VersionedCatalog)
+ * - version() sube cuando una recarga instala otro precio o tipo y cuando un equipo sale de
+ *   la caché (desalojo o invalidate): lo que se lea después, recarga incluida, se ve con
+ *   una versión nueva y un BoundCart recalcula su subtotal
+ * El stock vive en los equipos del repositorio (ver EquipmentRepository): desalojar y
+ * volver a cargar no pierde unidades. Estadísticas (hit rate, latencia de carga) en getStats().
+ */
+public class CachingCatalog implements EquipmentCatalog {
+    private final EquipmentRepository repository;
+    private final int maximumSize;
+    private final long refreshAfterNanos; // 0 = sin refresh-ahead
+    private final Executor refreshExecutor;
+    private final LongSupplier nanoClock;
+
+    // Incluye los nodos en carga (pending != null), que todavía no están en la política
+    private final ConcurrentHashMap<String, Node> data = new ConcurrentHashMap<>();
+
+    // Política de desalojo: todo lo siguiente se toca con policyLock tomado
+    private final ReentrantLock policyLock = new ReentrantLock();
+    private final FrequencySketch sketch;
+    private final AccessOrder window = new AccessOrder();
+    private final AccessOrder probation = new AccessOrder();
+    private final AccessOrder protectedMain = new AccessOrder();
+    private final int windowMax;
+    private final int protectedMax;
+    private int size;
+
+    private final AtomicLong version = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loads = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LatencyHistogram loadLatency = new LatencyHistogram();
+
+    /** Caché sin refresh-ahead. */
+    public CachingCatalog(EquipmentRepository repository, int maximumSize) {
+        this(repository, maximumSize, Duration.ZERO);
+    }
+
+    /** Recargas anticipadas en el pool común; refreshAfter = Duration.ZERO las desactiva. */
+    public CachingCatalog(EquipmentRepository repository, int maximumSize, Duration refreshAfter) {
+        this(repository, maximumSize, refreshAfter, ForkJoinPool.commonPool(), System::nanoTime);
+    }
+
+    /**
+     * @param maximumSize     equipos en caché como máximo (> 0)
+     * @param refreshAfter    antigüedad desde la que un hit dispara la recarga (>= 0; 0 = nunca)
+     * @param refreshExecutor dónde corren las recargas anticipadas
+     * @param nanoClock       reloj de la antigüedad de los equipos (System::nanoTime)
+     */
+    public CachingCatalog(EquipmentRepository repository, int maximumSize, Duration refreshAfter,
+                          Executor refreshExecutor, LongSupplier nanoClock) {
+        if (repository == null) {
+            throw new IllegalArgumentException("repository must not be null");
+        }
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("maximumSize must be > 0");
+        }
+        if (refreshAfter == null || refreshAfter.isNegative()) {
+            throw new IllegalArgumentException("refreshAfter must be >= 0");
+        }
+        if (refreshExecutor == null) {
+            throw new IllegalArgumentException("refreshExecutor must not be null");
+        }
+        if (nanoClock == null) {
+            throw new IllegalArgumentException("nanoClock must not be null");
+        }
+        this.repository = repository;
+        this.maximumSize = maximumSize;
+        this.refreshAfterNanos = refreshAfter.toNanos();
+        this.refreshExecutor = refreshExecutor;
+        this.nanoClock = nanoClock;
+        this.sketch = new FrequencySketch(maximumSize);
+        this.windowMax = Math.max(1, maximumSize / 100);
+        this.protectedMax = (maximumSize - windowMax) * 4 / 5;
+    }
+
+    /**
+     * Equipo del id: de la caché o, si falta, del repositorio (una sola carga por id a la vez).
+     * Retorna null si el repositorio no lo tiene; los errores del repositorio se propagan.
+     */
+    @Override
+    public Equipment get(String id) {
+        if (id == null) {
+            return null;
+        }
+        Node node = data.get(id);
+        if (node != null && node.pending == null) {
+            hits.increment();
+            afterRead(node);
+            if (refreshAfterNanos > 0 && nanoClock.getAsLong() - node.loadedAt >= refreshAfterNanos) {
+                refresh(node);
+            }
+            return node.value;
+        }
+        misses.increment();
+        return node != null ? await(node) : loadOnce(id);
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    /** Quita el id de la caché (la próxima lectura lo carga); retorna false si no estaba. */
+    public boolean invalidate(String id) {
+        if (id == null) {
+            return false;
+        }
+        policyLock.lock();
+        try {
+            Node node = data.get(id);
+            if (node == null) {
+                return false;
+            }
+            if (node.queue == null) {
+                data.remove(id, node); // en carga: su loader no lo publicará
+                version.incrementAndGet();
+            } else {
+                unlink(node);
+            }
+            return true;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    /** Equipos en caché (sin contar los que se están cargando). */
+    public int size() {
+        policyLock.lock();
+        try {
+            return size;
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    /** Foto de las estadísticas acumuladas. */
+    public CatalogCacheStats getStats() {
+        return new CatalogCacheStats(hits.sum(), misses.sum(), loads.sum(), loadFailures.sum(),
+                refreshes.sum(), evictions.sum(), loadLatency);
+    }
+
+    // Miss: un nodo pendiente en data reserva el id; las lecturas concurrentes esperan su carga
+    private Equipment loadOnce(String id) {
+        Node node = new Node(id);
+        Node existing = data.putIfAbsent(id, node);
+        if (existing != null) {
+            return await(existing);
+        }
+        CompletableFuture<Equipment> pending = node.pending;
+        try {
+            Equipment eq = timedLoad(id);
+            if (eq == null) {
+                data.remove(id, node); // los inexistentes no se guardan
+            } else {
+                node.value = eq;
+                node.loadedAt = nanoClock.getAsLong();
+                admit(node);
+            }
+            node.pending = null;
+            pending.complete(eq);
+            return eq;
+        } catch (RuntimeException | Error e) {
+            data.remove(id, node);
+            pending.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Valor de un nodo, esperando su carga si todavía está pendiente
+    private static Equipment await(Node node) {
+        CompletableFuture<Equipment> pending = node.pending;
+        if (pending == null) {
+            return node.value;
+        }
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private Equipment timedLoad(String id) {
+        loads.increment();
+        long start = System.nanoTime();
+        try {
+            Equipment eq = repository.load(id);
+            if (eq != null && !id.equals(eq.getId())) {
+                throw new IllegalStateException("repository returned " + eq.getId() + " for id " + id);
+            }
+            return eq;
+        } catch (RuntimeException e) {
+            loadFailures.increment();
+            throw e;
+        } finally {
+            loadLatency.record(System.nanoTime() - start);
+        }
+    }
+
+    // Recarga asíncrona; el flag del nodo evita recargas simultáneas del mismo id
+    private void refresh(Node node) {
+        if (!node.refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    Equipment eq = timedLoad(node.id);
+                    if (eq == null) {
+                        invalidateNode(node);
+                    } else {
+                        Equipment previous = node.value;
+                        node.value = eq;
+                        if (!samePricing(previous, eq)) {
+                            version.incrementAndGet();
+                        }
+                    }
+                    refreshes.increment();
+                } catch (RuntimeException e) {
+                    // Se sigue sirviendo el valor anterior; se reintenta pasado otro refreshAfter
+                } finally {
+                    node.loadedAt = nanoClock.getAsLong();
+                    node.refreshing.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            node.refreshing.set(false);
+        }
+    }
+
+    private static boolean samePricing(Equipment a, Equipment b) {
+        return a == b || (a.getType() == b.getType() && a.getPrice().compareTo(b.getPrice()) == 0);
+    }
+
+    private void invalidateNode(Node node) {
+        policyLock.lock();
+        try {
+            if (node.queue != null) {
+                unlink(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Hit: sube la frecuencia y reordena; si otro hilo tiene la política, se omite
+    private void afterRead(Node node) {
+        if (!policyLock.tryLock()) {
+            return;
+        }
+        try {
+            if (node.queue == null) {
+                return; // desalojado entre la lectura y el lock
+            }
+            sketch.increment(node.id);
+            if (node.queue == probation) {
+                probation.remove(node);
+                protectedMain.addLast(node);
+                if (protectedMain.size > protectedMax) {
+                    Node demoted = protectedMain.first();
+                    protectedMain.remove(demoted);
+                    probation.addLast(demoted);
+                }
+            } else {
+                node.queue.moveToEnd(node);
+            }
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Agrega a la ventana un nodo recién cargado (si no lo invalidaron mientras cargaba)
+    private void admit(Node node) {
+        policyLock.lock();
+        try {
+            if (data.get(node.id) != node) {
+                return;
+            }
+            size++;
+            sketch.increment(node.id);
+            window.addLast(node);
+            Node candidate = null;
+            if (window.size > windowMax) {
+                candidate = window.first();
+                window.remove(candidate);
+                probation.addLast(candidate);
+            }
+            evict(candidate);
+        } finally {
+            policyLock.unlock();
+        }
+    }
+
+    // Desaloja hasta volver a maximumSize; el candidato compite por frecuencia con la víctima
+    private void evict(Node candidate) {
+        while (size > maximumSize) {
+            Node victim = probation.first();
+            if (victim == null || victim == candidate) {
+                victim = protectedMain.first() != null ? protectedMain.first() : window.first();
+            }
+            Node loser = victim;
+            if (candidate != null && candidate != victim && candidate.queue != null
+                    && sketch.frequency(candidate.id) <= sketch.frequency(victim.id)) {
+                loser = candidate;
+            }
+            if (loser == candidate) {
+                candidate = null;
+            }
+            unlink(loser);
+            evictions.increment();
+        }
+    }
+
+    // Sacar un equipo cambia la versión: su próxima carga puede traer otro precio
+    private void unlink(Node node) {
+        node.queue.remove(node);
+        data.remove(node.id, node);
+        size--;
+        version.incrementAndGet();
+    }
+
+    /** Equipo en caché, con su posición en las listas de acceso. */
+    private static final class Node {
+        private final String id;
+        private volatile Equipment value;
+        private volatile long loadedAt;
+        private volatile CompletableFuture<Equipment> pending; // != null mientras se carga
+        private final AtomicBoolean refreshing = new AtomicBoolean();
+        // Con policyLock
+        private AccessOrder queue; // null = fuera de la caché
+        private Node prev;
+        private Node next;
+
+        private Node(String id) {
+            this.id = id;
+            this.pending = new CompletableFuture<>();
+        }
+    }
+
+    /** Lista doblemente enlazada intrusiva en orden de acceso (primero = menos reciente). */
+    private static final class AccessOrder {
+        private Node head;
+        private Node tail;
+        private int size;
+
+        Node first() {
+            return head;
+        }
+
+        void addLast(Node node) {
+            node.queue = this;
+            node.prev = tail;
+            node.next = null;
+            if (tail == null) {
+                head = node;
+            } else {
+                tail.next = node;
+            }
+            tail = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                head = node.next;
+            } else {
+                node.prev.next = node.next;
+            }
+            if (node.next == null) {
+                tail = node.prev;
+            } else {
+                node.next.prev = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            node.queue = null;
+            size--;
+        }
+
+        void moveToEnd(Node node) {
+            if (node != tail) {
+                remove(node);
+                addLast(node);
+            }
+        }
+    }
+
+    /**
+     * Count-min sketch de 4 filas con contadores de 4 bits (16 por long, tope 15).
+     * Los 4 contadores de una clave caen en un mismo bloque de 8 longs (64 bytes, una línea
+     * de caché): registrar un acceso toca una sola línea en vez de cuatro al azar.
+     * Cada sampleSize incrementos todos los contadores se dividen por 2: la popularidad
+     * vieja pierde peso y la caché se adapta a cambios de tendencia.
+     */
+    private static final class FrequencySketch {
+        private static final long RESET_MASK = 0x7777_7777_7777_7777L;
+
+        private final long[] table;
+        private final int blockMask;
+        private final int sampleSize;
+        private int additions;
+
+        FrequencySketch(int maximumSize) {
+            // Un long (16 contadores) por equipo en caché, en bloques de 8
+            int blocks = Integer.highestOneBit(Math.max(2, Math.min(maximumSize, 1 << 26) / 8) * 2 - 1);
+            this.table = new long[blocks * 8];
+            this.blockMask = blocks - 1;
+            this.sampleSize = (int) Math.min(Integer.MAX_VALUE, 10L * maximumSize);
+        }
+
+        int frequency(String key) {
+            int h = rehash(key.hashCode());
+            int block = (h & blockMask) << 3;
+            int min = 15;
+            for (int row = 0; row < 4; row++) {
+                int bits = h >>> (row << 3);
+                min = Math.min(min, (int) ((table[block + index(row, bits)] >>> offset(bits)) & 0xF));
+            }
+            return min;
+        }
+
+        void increment(String key) {
+            int h = rehash(key.hashCode());
+            int block = (h & blockMask) << 3;
+            boolean added = false;
+            for (int row = 0; row < 4; row++) {
+                int bits = h >>> (row << 3);
+                int index = block + index(row, bits);
+                int offset = offset(bits);
+                if (((table[index] >>> offset) & 0xF) < 15) {
+                    table[index] += 1L << offset;
+                    added = true;
+                }
+            }
+            if (added && ++additions >= sampleSize) {
+                for (int i = 0; i < table.length; i++) {
+                    table[i] = (table[i] >>> 1) & RESET_MASK;
+                }
+                additions /= 2;
+            }
+        }
+
+        private static int rehash(int hash) {
+            int h = hash * 0x9E3779B9;
+            h ^= h >>> 16;
+            h *= 0x85EBCA6B;
+            return h ^ (h >>> 13);
+        }
+
+        // Fila row usa los longs 2*row y 2*row+1 del bloque; elige uno con un bit del hash
+        private static int index(int row, int bits) {
+            return (row << 1) + ((bits >>> 4) & 1);
+        }
+
+        // Uno de los 16 contadores del long
+        private static int offset(int bits) {
+            return (bits & 0xF) << 2;
+        }
+    }
+}
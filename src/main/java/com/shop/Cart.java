@@ -1,18 +1,17 @@
 package com.shop;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Collections;
-import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * Cart representa un carrito de compra/alquiler.
- * Mantiene un mapa de equipmentId -> quantity.
+ * Mantiene las líneas equipmentId -> quantity en orden de inserción (CartLines: cantidades
+ * como int primitivo, sin boxing al acumular).
+ * Recorrido sin asignaciones: for (int i = 0; i < cart.size(); i++) cart.getId(i) / cart.getQuantity(i).
  */
 public class Cart {
     // Se preserva el orden de inserción solo para facilitar lectura en recibos
-    private final Map<String, Integer> items = new LinkedHashMap<>();
+    private final CartLines items = new CartLines();
 
     /**
      * Agrega un item al carrito.
@@ -29,17 +28,70 @@ public class Cart {
             throw new IllegalArgumentException("quantity must be > 0");
         }
         // Acumular cantidades por id
-        items.merge(equipment.getId(), qty, Integer::sum);
+        items.add(equipment.getId(), qty);
     }
 
-    /** Devuelve una vista inmutable del mapa id->qty. */
+    /**
+     * Quita una línea del carrito.
+     * Retorna true si el id estaba en el carrito.
+     */
+    public boolean removeItem(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        return items.remove(id);
+    }
+
+    /**
+     * Reemplaza la cantidad de una línea existente.
+     * Reglas:
+     * - El id debe estar en el carrito
+     * - qty > 0 (para quitar la línea usar removeItem)
+     */
+    public void setQuantity(String id, int qty) {
+        if (id == null || !items.contains(id)) {
+            throw new IllegalArgumentException("item not in cart: " + id);
+        }
+        if (qty <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
+        }
+        items.set(id, qty);
+    }
+
+    /**
+     * Devuelve una vista inmutable del mapa id->qty (compatibilidad: boxea al recorrerla;
+     * para carritos grandes usar size/getId/getQuantity).
+     */
     public Map<String, Integer> getItems() {
-        return Collections.unmodifiableMap(items);
+        return items.asMap();
     }
 
     /** Indica si el carrito está vacío. */
     public boolean isEmpty() {
-        return items.isEmpty();
+        return items.size() == 0;
+    }
+
+    /** Cantidad de líneas (ids distintos). */
+    public int size() {
+        return items.size();
+    }
+
+    /** Id de la línea i, en orden de inserción (0 <= i < size()). */
+    public String getId(int index) {
+        return items.idAt(index);
+    }
+
+    /** Cantidad de la línea i, en orden de inserción (0 <= i < size()). */
+    public int getQuantity(int index) {
+        return items.quantityAt(index);
+    }
+
+    /** Cantidad del id en el carrito, o 0 si no está. */
+    public int getQuantity(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        return items.get(id);
     }
 
     /**
@@ -47,22 +99,100 @@ public class Cart {
      * - Lanza IllegalArgumentException si falta algún id en el catálogo.
      */
     public BigDecimal estimateSubtotal(Map<String, Equipment> catalog) {
+        return estimateSubtotal(EquipmentCatalog.of(catalog));
+    }
+
+    /** Igual que estimateSubtotal(Map) sobre cualquier EquipmentCatalog. */
+    public BigDecimal estimateSubtotal(EquipmentCatalog catalog) {
+        return estimateSubtotal(catalog, PricingEngine.LIST_PRICES);
+    }
+
+    /**
+     * Estima el subtotal con las reglas del motor de precios (el mismo que usa
+     * OrderService: ver OrderService.getPricingEngine).
+     * - Lanza IllegalArgumentException si falta algún id en el catálogo.
+     */
+    public BigDecimal estimateSubtotal(EquipmentCatalog catalog, PricingEngine pricing) {
+        Equipment[] lines = resolve(catalog, pricing);
+        return pricing.subtotal(lines, quantities());
+    }
+
+    /**
+     * Igual que estimateSubtotal pero en centavos (long), sin BigDecimal por línea.
+     * - Lanza IllegalArgumentException si falta algún id en el catálogo.
+     * - Lanza ArithmeticException si el subtotal desborda long.
+     */
+    public long estimateSubtotalCents(Map<String, Equipment> catalog) {
+        return estimateSubtotalCents(EquipmentCatalog.of(catalog));
+    }
+
+    /** Igual que estimateSubtotalCents(Map) sobre cualquier EquipmentCatalog. */
+    public long estimateSubtotalCents(EquipmentCatalog catalog) {
+        return estimateSubtotalCents(catalog, PricingEngine.LIST_PRICES);
+    }
+
+    /** Igual que estimateSubtotal(EquipmentCatalog, PricingEngine), en centavos. */
+    public long estimateSubtotalCents(EquipmentCatalog catalog, PricingEngine pricing) {
+        Equipment[] lines = resolve(catalog, pricing);
+        return pricing.subtotalCents(lines, quantities());
+    }
+
+    // Equipos de las líneas, en orden, leídos de una sola foto del catálogo
+    private Equipment[] resolve(EquipmentCatalog catalog, PricingEngine pricing) {
         if (catalog == null) {
             throw new IllegalArgumentException("catalog must not be null");
         }
-        BigDecimal subtotal = BigDecimal.ZERO;
-        for (Map.Entry<String, Integer> e : items.entrySet()) {
-            String id = e.getKey();
-            int qty = e.getValue();
-            Equipment eq = catalog.get(id);
+        if (pricing == null) {
+            throw new IllegalArgumentException("pricing must not be null");
+        }
+        EquipmentCatalog view = catalog.snapshot();
+        Equipment[] lines = new Equipment[items.size()];
+        String missing;
+        if (pricing.isParallel(lines.length)) {
+            items.compact();
+            missing = ParallelLines.reduce(pricing.pool(), lines.length,
+                    (from, to) -> resolveLines(view, lines, from, to), (left, right) -> left != null ? left : right);
+        } else {
+            missing = resolveLines(view, lines, 0, lines.length);
+        }
+        if (missing != null) {
+            throw new IllegalArgumentException("equipment not found in catalog: " + missing);
+        }
+        return lines;
+    }
+
+    // Resuelve las líneas [from, to); retorna el primer id que falta en el catálogo, o null
+    private String resolveLines(EquipmentCatalog view, Equipment[] lines, int from, int to) {
+        for (int i = from; i < to; i++) {
+            Equipment eq = view.get(items.idAt(i));
             if (eq == null) {
-                throw new IllegalArgumentException("equipment not found in catalog: " + id);
+                return items.idAt(i);
             }
-            // price * qty acumulado
-            BigDecimal line = eq.getPrice().multiply(BigDecimal.valueOf(qty));
-            subtotal = subtotal.add(line);
+            lines[i] = eq;
+        }
+        return null;
+    }
+
+    private int[] quantities() {
+        int[] quantities = new int[items.size()];
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] = items.quantityAt(i);
         }
-        // Redondear a 2 decimales por consistencia monetaria
-        return subtotal.setScale(2, RoundingMode.HALF_UP);
+        return quantities;
+    }
+
+    // Hold de stock asociado a la línea (ver ReservedCart); el carrito simple no aparta stock
+    StockReservations.Hold holdOf(String id) {
+        return null;
+    }
+
+    // Si alguna línea puede tener hold (evita consultar holdOf línea por línea)
+    boolean hasHolds() {
+        return false;
+    }
+
+    // Compacta las líneas para que getId/getQuantity puedan leerse desde varios hilos
+    void compactLines() {
+        items.compact();
     }
 }
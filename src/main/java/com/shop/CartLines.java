@@ -0,0 +1,255 @@
+package com.shop;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * CartLines es el almacenamiento de líneas de Cart: id -> cantidad como int primitivo.
+ * - Arreglos densos ids/quantities/hashes en orden de inserción (acceso por índice sin asignar)
+ * - Tabla hash de direccionamiento abierto (sondeo lineal) con el índice denso + 1 de
+ *   cada id; 0 = casillero vacío. Carga máxima 1/2. El sondeo compara primero el hash
+ *   guardado, así los casilleros ajenos no obligan a leer el String
+ * - remove deja un hueco en los arreglos densos; los huecos se compactan de una vez en el
+ *   siguiente acceso por índice (varias bajas seguidas cuestan una sola compactación)
+ * No es thread-safe (igual que Cart).
+ */
+final class CartLines {
+    private static final int INITIAL_CAPACITY = 8;
+
+    private String[] ids = new String[INITIAL_CAPACITY];
+    private int[] quantities = new int[INITIAL_CAPACITY];
+    private int[] hashes = new int[INITIAL_CAPACITY];
+    private int[] table = new int[INITIAL_CAPACITY * 2];
+    private int shift = Integer.numberOfLeadingZeros(INITIAL_CAPACITY * 2) + 1; // 32 - log2(tabla)
+    private int end;   // próximo índice denso libre
+    private int holes; // índices densos removidos aún no compactados
+
+    /** Cantidad de líneas. */
+    int size() {
+        return end - holes;
+    }
+
+    /** Cantidad del id, o 0 si no está. */
+    int get(String id) {
+        int slot = find(id);
+        return slot < 0 ? 0 : quantities[table[slot] - 1];
+    }
+
+    boolean contains(String id) {
+        return find(id) >= 0;
+    }
+
+    /** Suma qty a la línea del id (la crea al final si no existe); retorna la cantidad nueva. */
+    int add(String id, int qty) {
+        int slot = find(id);
+        if (slot >= 0) {
+            return quantities[table[slot] - 1] += qty;
+        }
+        insert(id, qty);
+        return qty;
+    }
+
+    /** Reemplaza la cantidad de una línea existente; retorna false si el id no está. */
+    boolean set(String id, int qty) {
+        int slot = find(id);
+        if (slot < 0) {
+            return false;
+        }
+        quantities[table[slot] - 1] = qty;
+        return true;
+    }
+
+    /** Quita la línea; retorna false si el id no estaba. */
+    boolean remove(String id) {
+        int slot = find(id);
+        if (slot < 0) {
+            return false;
+        }
+        int index = table[slot] - 1;
+        ids[index] = null;
+        holes++;
+        deleteSlot(slot);
+        return true;
+    }
+
+    /** Id de la línea i en orden de inserción (0 <= i < size()). */
+    String idAt(int i) {
+        compact();
+        return ids[checkIndex(i)];
+    }
+
+    /** Cantidad de la línea i en orden de inserción (0 <= i < size()). */
+    int quantityAt(int i) {
+        compact();
+        return quantities[checkIndex(i)];
+    }
+
+    /** Vista de solo lectura, en vivo y en orden de inserción (boxea al iterar). */
+    Map<String, Integer> asMap() {
+        return new MapView();
+    }
+
+    private int checkIndex(int i) {
+        if (i < 0 || i >= end) {
+            throw new IndexOutOfBoundsException("line index " + i + " out of range [0, " + end + ")");
+        }
+        return i;
+    }
+
+    // Casillero de la tabla con el id, o -1
+    private int find(String id) {
+        int hash = id.hashCode();
+        int mask = table.length - 1;
+        for (int slot = home(hash); ; slot = (slot + 1) & mask) {
+            int entry = table[slot];
+            if (entry == 0) {
+                return -1;
+            }
+            if (hashes[entry - 1] == hash && id.equals(ids[entry - 1])) {
+                return slot;
+            }
+        }
+    }
+
+    private void insert(String id, int qty) {
+        if (end == ids.length) {
+            if (holes > 0) {
+                compact();
+            }
+            if (end == ids.length) {
+                grow();
+            }
+        }
+        ids[end] = id;
+        quantities[end] = qty;
+        hashes[end] = id.hashCode();
+        place(end);
+        end++;
+    }
+
+    private void place(int index) {
+        int mask = table.length - 1;
+        int slot = home(hashes[index]);
+        while (table[slot] != 0) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = index + 1;
+    }
+
+    // Borrado con desplazamiento hacia atrás: sin lápidas en la tabla
+    private void deleteSlot(int slot) {
+        int mask = table.length - 1;
+        int hole = slot;
+        for (int next = (hole + 1) & mask; table[next] != 0; next = (next + 1) & mask) {
+            int ideal = home(hashes[table[next] - 1]);
+            // Se mueve si su posición ideal no está entre el hueco y next (cíclicamente)
+            if (((next - ideal) & mask) >= ((next - hole) & mask)) {
+                table[hole] = table[next];
+                hole = next;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void grow() {
+        int capacity = ids.length * 2;
+        ids = Arrays.copyOf(ids, capacity);
+        quantities = Arrays.copyOf(quantities, capacity);
+        hashes = Arrays.copyOf(hashes, capacity);
+        rebuildTable(capacity * 2);
+    }
+
+    // Cierra los huecos de los arreglos densos conservando el orden y reindexa la tabla.
+    // Después de compact() idAt/quantityAt no escriben, así que se pueden leer desde varios hilos
+    void compact() {
+        if (holes == 0) {
+            return;
+        }
+        int n = 0;
+        for (int i = 0; i < end; i++) {
+            if (ids[i] != null) {
+                ids[n] = ids[i];
+                quantities[n] = quantities[i];
+                hashes[n] = hashes[i];
+                n++;
+            }
+        }
+        Arrays.fill(ids, n, end, null);
+        end = n;
+        holes = 0;
+        rebuildTable(table.length);
+    }
+
+    private void rebuildTable(int tableSize) {
+        table = new int[tableSize];
+        shift = Integer.numberOfLeadingZeros(tableSize) + 1;
+        for (int i = 0; i < end; i++) {
+            place(i);
+        }
+    }
+
+    // Hashing de Fibonacci: toma los bits altos del producto, así ids con hash consecutivo
+    // no forman corridas contiguas en la tabla (sondeo lineal)
+    private int home(int hash) {
+        return (hash * 0x9E3779B9) >>> shift;
+    }
+
+    /** Vista Map de compatibilidad para Cart.getItems(). */
+    private final class MapView extends AbstractMap<String, Integer> {
+        @Override
+        public int size() {
+            return CartLines.this.size();
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof String id && contains(id);
+        }
+
+        @Override
+        public Integer get(Object key) {
+            if (!(key instanceof String id)) {
+                return null;
+            }
+            int slot = find(id);
+            return slot < 0 ? null : quantities[table[slot] - 1];
+        }
+
+        @Override
+        public Set<Entry<String, Integer>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public int size() {
+                    return CartLines.this.size();
+                }
+
+                @Override
+                public Iterator<Entry<String, Integer>> iterator() {
+                    compact();
+                    return new Iterator<>() {
+                        private int next;
+
+                        @Override
+                        public boolean hasNext() {
+                            return next < size();
+                        }
+
+                        @Override
+                        public Entry<String, Integer> next() {
+                            if (!hasNext()) {
+                                throw new NoSuchElementException();
+                            }
+                            int i = next++;
+                            return new SimpleImmutableEntry<>(idAt(i), quantityAt(i));
+                        }
+                    };
+                }
+            };
+        }
+    }
+}
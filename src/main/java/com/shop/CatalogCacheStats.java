@@ -0,0 +1,61 @@
+package com.shop;
+
+/**
+ * CatalogCacheStats es una foto de las estadísticas de un CachingCatalog.
+ * - hits / misses: lecturas con y sin el equipo en caché (una espera por la carga de
+ *   otro hilo cuenta como miss, pero no como carga)
+ * - loads / loadFailures: llamadas al EquipmentRepository (incluye recargas) y las que fallaron
+ * - refreshes: recargas anticipadas completadas; evictions: equipos desalojados por tamaño
+ * - Latencia de carga en nanosegundos: media y percentiles (histograma log-lineal)
+ */
+public final class CatalogCacheStats {
+    private final long hits; // inmutable
+    private final long misses; // inmutable
+    private final long loads; // inmutable
+    private final long loadFailures; // inmutable
+    private final long refreshes; // inmutable
+    private final long evictions; // inmutable
+    private final double meanLoadNanos; // inmutable
+    private final long p50LoadNanos; // inmutable
+    private final long p99LoadNanos; // inmutable
+    private final long maxLoadNanos; // inmutable
+
+    CatalogCacheStats(long hits, long misses, long loads, long loadFailures, long refreshes, long evictions,
+                      LatencyHistogram loadLatency) {
+        this.hits = hits;
+        this.misses = misses;
+        this.loads = loads;
+        this.loadFailures = loadFailures;
+        this.refreshes = refreshes;
+        this.evictions = evictions;
+        this.meanLoadNanos = loadLatency.getMean();
+        this.p50LoadNanos = loadLatency.getValueAtPercentile(50);
+        this.p99LoadNanos = loadLatency.getValueAtPercentile(99);
+        this.maxLoadNanos = loadLatency.getMax();
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getLoads() { return loads; }
+    public long getLoadFailures() { return loadFailures; }
+    public long getRefreshes() { return refreshes; }
+    public long getEvictions() { return evictions; }
+    public double getMeanLoadNanos() { return meanLoadNanos; }
+    public long getP50LoadNanos() { return p50LoadNanos; }
+    public long getP99LoadNanos() { return p99LoadNanos; }
+    public long getMaxLoadNanos() { return maxLoadNanos; }
+
+    /** Fracción de lecturas servidas desde la caché (1.0 si no hubo lecturas). */
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 1.0 : (double) hits / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CatalogCacheStats{" + "hits=" + hits + ", misses=" + misses
+                + ", hitRate=" + String.format("%.3f", getHitRate()) + ", loads=" + loads
+                + ", loadFailures=" + loadFailures + ", refreshes=" + refreshes + ", evictions=" + evictions
+                + ", loadP50=" + p50LoadNanos / 1_000 + "us, loadP99=" + p99LoadNanos / 1_000 + "us}";
+    }
+}
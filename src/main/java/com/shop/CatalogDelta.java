@@ -0,0 +1,70 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * CatalogDelta agrupa cambios a aplicar juntos sobre un VersionedCatalog.
+ * - setPrice: nuevo precio de un equipo existente (el último valor gana)
+ * - adjustStock: suma (o resta) unidades al stock de un equipo (se acumulan)
+ * - add / remove: altas y bajas de equipos
+ */
+public class CatalogDelta {
+    private final Map<String, BigDecimal> prices = new LinkedHashMap<>();
+    private final Map<String, Integer> stockDeltas = new LinkedHashMap<>();
+    private final List<Equipment> additions = new ArrayList<>();
+    private final Set<String> removals = new LinkedHashSet<>();
+
+    public CatalogDelta setPrice(String id, BigDecimal price) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("id must not be blank");
+        }
+        if (price == null) {
+            throw new IllegalArgumentException("price must not be null");
+        }
+        if (price.compareTo(BigDecimal.ZERO) < 0) {
+            throw new IllegalArgumentException("price must be >= 0");
+        }
+        prices.put(id, price);
+        return this;
+    }
+
+    public CatalogDelta adjustStock(String id, int delta) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("id must not be blank");
+        }
+        stockDeltas.merge(id, delta, Math::addExact);
+        return this;
+    }
+
+    public CatalogDelta add(Equipment equipment) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        additions.add(equipment);
+        return this;
+    }
+
+    public CatalogDelta remove(String id) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("id must not be blank");
+        }
+        removals.add(id);
+        return this;
+    }
+
+    public boolean isEmpty() {
+        return prices.isEmpty() && stockDeltas.isEmpty() && additions.isEmpty() && removals.isEmpty();
+    }
+
+    Map<String, BigDecimal> getPrices() { return Collections.unmodifiableMap(prices); }
+    Map<String, Integer> getStockDeltas() { return Collections.unmodifiableMap(stockDeltas); }
+    List<Equipment> getAdditions() { return Collections.unmodifiableList(additions); }
+    Set<String> getRemovals() { return Collections.unmodifiableSet(removals); }
+}
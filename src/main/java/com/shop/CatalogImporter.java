@@ -0,0 +1,544 @@
+package com.shop;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * CatalogImporter carga listas de precios grandes (CSV o binario) en streaming.
+ * Reglas:
+ * - Lee el archivo con FileChannel en bloques de tamaño fijo: la memoria no depende del archivo
+ *   (con paralelismo, a lo sumo 2 bloques en vuelo por hilo)
+ * - Cada fila se valida con las mismas reglas que el constructor de Equipment; el precio se
+ *   convierte a centavos con HALF_UP (la misma normalización a escala 2 del constructor)
+ * - Una fila inválida (o rechazada por el destino, p.ej. id duplicado) se reporta en el
+ *   ImportReport y la carga sigue
+ * - Con parallelism > 1 los bloques se procesan en varios hilos: el destino debe ser
+ *   thread-safe y recibe los equipos sin orden garantizado
+ * CSV: una fila por línea, columnas id,name,price,stock,type,rentalEligible; encabezado
+ * opcional; campos entre comillas dobles admiten comas ("" escapa una comilla).
+ * Binario (ver writeBinary): [int magic][int version] y por fila [int largo][short largo id][id UTF-8]
+ * [short largo name][name UTF-8][long priceCents][int stock][byte type][byte rentalEligible].
+ */
+public class CatalogImporter {
+    public static final String CSV_HEADER = "id,name,price,stock,type,rentalEligible";
+    public static final int DEFAULT_MAX_REPORTED_ERRORS = 1_000;
+    static final int DEFAULT_BUFFER_SIZE = 1 << 20;
+    static final int BINARY_MAGIC = 0x53484F4C; // "SHOL"
+    static final int BINARY_VERSION = 1;
+    private static final int CSV_COLUMNS = 6;
+    private static final int MIN_RECORD = 2 + 2 + 8 + 4 + 1 + 1;
+    private static final EquipmentType[] TYPES = EquipmentType.values();
+
+    private final int parallelism;
+    private final int maxReportedErrors;
+    private final int bufferSize;
+
+    public CatalogImporter() {
+        this(1, DEFAULT_MAX_REPORTED_ERRORS);
+    }
+
+    /**
+     * @param parallelism       hilos que parsean bloques (1 = en el hilo que llama)
+     * @param maxReportedErrors máximo de errores conservados en el reporte (los de filas más bajas)
+     */
+    public CatalogImporter(int parallelism, int maxReportedErrors) {
+        this(parallelism, maxReportedErrors, DEFAULT_BUFFER_SIZE);
+    }
+
+    CatalogImporter(int parallelism, int maxReportedErrors, int bufferSize) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be > 0");
+        }
+        if (maxReportedErrors < 0) {
+            throw new IllegalArgumentException("maxReportedErrors must be >= 0");
+        }
+        if (bufferSize < 64) {
+            throw new IllegalArgumentException("bufferSize must be >= 64");
+        }
+        this.parallelism = parallelism;
+        this.maxReportedErrors = maxReportedErrors;
+        this.bufferSize = bufferSize;
+    }
+
+    /** Carga un CSV entregando cada equipo válido a sink (p.ej. ShardedCatalog::add). */
+    public ImportReport importCsv(Path file, Consumer<Equipment> sink) throws IOException {
+        return load(file, sink, false);
+    }
+
+    /** Carga un archivo escrito con writeBinary entregando cada equipo válido a sink. */
+    public ImportReport importBinary(Path file, Consumer<Equipment> sink) throws IOException {
+        return load(file, sink, true);
+    }
+
+    /** Escribe los equipos (con su stock actual) en el formato binario del importador. */
+    public static void writeBinary(Path file, Iterable<Equipment> equipment) throws IOException {
+        if (file == null || equipment == null) {
+            throw new IllegalArgumentException("file and equipment must not be null");
+        }
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            OutputStream out = new BufferedOutputStream(Channels.newOutputStream(ch), 64 * 1024);
+            ByteBuffer record = ByteBuffer.allocate(8);
+            record.putInt(BINARY_MAGIC).putInt(BINARY_VERSION);
+            out.write(record.array(), 0, record.position());
+            for (Equipment eq : equipment) {
+                byte[] id = eq.getId().getBytes(StandardCharsets.UTF_8);
+                byte[] name = eq.getName().getBytes(StandardCharsets.UTF_8);
+                if (id.length > 0xFFFF || name.length > 0xFFFF) {
+                    throw new IllegalArgumentException("id or name too long: " + eq.getId());
+                }
+                int length = MIN_RECORD + id.length + name.length;
+                if (record.capacity() < 4 + length) {
+                    record = ByteBuffer.allocate(Math.max(4 + length, record.capacity() * 2));
+                }
+                record.clear();
+                record.putInt(length)
+                        .putShort((short) id.length).put(id)
+                        .putShort((short) name.length).put(name)
+                        .putLong(eq.getPriceCents())
+                        .putInt(eq.getStock())
+                        .put((byte) eq.getType().ordinal())
+                        .put((byte) (eq.isRentalEligible() ? 1 : 0));
+                out.write(record.array(), 0, record.position());
+            }
+            out.flush();
+            ch.force(true);
+        }
+    }
+
+    // Lee el archivo por bloques de filas completas y los despacha (en línea o al pool)
+    private ImportReport load(Path file, Consumer<Equipment> sink, boolean binary) throws IOException {
+        if (file == null || sink == null) {
+            throw new IllegalArgumentException("file and sink must not be null");
+        }
+        long start = System.nanoTime();
+        Load load = new Load(sink, maxReportedErrors);
+        ExecutorService pool = parallelism > 1 ? Executors.newFixedThreadPool(parallelism, r -> {
+            Thread t = new Thread(r, "catalog-importer");
+            t.setDaemon(true);
+            return t;
+        }) : null;
+        Semaphore inFlight = new Semaphore(2 * parallelism);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (binary) {
+                readBinaryHeader(ch, file);
+            }
+            ByteBuffer buf = ByteBuffer.allocate(bufferSize);
+            byte[] data = buf.array();
+            long row = 1;
+            boolean skipping = false; // CSV: descartando el resto de una fila demasiado larga
+            boolean eof = false;
+            while (!eof) {
+                eof = ch.read(buf) < 0;
+                int limit = buf.position();
+                int begin = 0;
+                if (skipping) {
+                    int nl = indexOf(data, 0, limit, (byte) '\n');
+                    if (nl < 0) {
+                        buf.clear();
+                        continue;
+                    }
+                    begin = nl + 1;
+                    skipping = false;
+                    row++;
+                }
+                int cut;
+                int rows;
+                if (binary) {
+                    cut = begin;
+                    rows = 0;
+                    while (limit - cut >= 4) {
+                        int length = ByteBuffer.wrap(data, cut, 4).getInt();
+                        if (length < MIN_RECORD || length > bufferSize - 4) {
+                            throw new IOException("corrupt record length " + length + " at row " + (row + rows));
+                        }
+                        if (limit - cut - 4 < length) {
+                            break;
+                        }
+                        cut += 4 + length;
+                        rows++;
+                    }
+                    if (eof && cut < limit) {
+                        load.reject(row + rows, "truncated record");
+                        load.rowsRead.increment();
+                    }
+                } else {
+                    cut = eof ? limit : lastIndexOf(data, begin, limit, (byte) '\n') + 1;
+                    if (cut <= begin && begin == 0 && limit == bufferSize) {
+                        load.reject(row, "row exceeds " + bufferSize + " bytes");
+                        load.rowsRead.increment();
+                        skipping = true;
+                        buf.clear();
+                        continue;
+                    }
+                    cut = Math.max(cut, begin);
+                    rows = count(data, begin, cut, (byte) '\n');
+                }
+                if (cut > begin) {
+                    dispatch(Arrays.copyOfRange(data, begin, cut), row, binary, load, pool, inFlight);
+                }
+                row += rows;
+                System.arraycopy(data, cut, data, 0, limit - cut);
+                buf.position(limit - cut);
+            }
+        } finally {
+            if (pool != null) {
+                pool.shutdown();
+                try {
+                    pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+                } catch (InterruptedException e) {
+                    pool.shutdownNow();
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+        RuntimeException failure = load.failure.get();
+        if (failure != null) {
+            throw failure;
+        }
+        return load.report(System.nanoTime() - start);
+    }
+
+    private void dispatch(byte[] block, long firstRow, boolean binary, Load load, ExecutorService pool,
+                          Semaphore inFlight) throws IOException {
+        if (pool == null) {
+            parseBlock(block, firstRow, binary, load);
+            return;
+        }
+        try {
+            inFlight.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("import interrupted");
+        }
+        pool.execute(() -> {
+            try {
+                parseBlock(block, firstRow, binary, load);
+            } catch (RuntimeException e) {
+                load.failure.compareAndSet(null, e);
+            } finally {
+                inFlight.release();
+            }
+        });
+    }
+
+    private static void parseBlock(byte[] block, long firstRow, boolean binary, Load load) {
+        if (binary) {
+            parseBinaryBlock(block, firstRow, load);
+        } else {
+            parseCsvBlock(block, firstRow, load);
+        }
+    }
+
+    private static void parseCsvBlock(byte[] block, long firstRow, Load load) {
+        String[] fields = new String[CSV_COLUMNS];
+        long row = firstRow;
+        int lineStart = 0;
+        while (lineStart < block.length) {
+            int nl = indexOf(block, lineStart, block.length, (byte) '\n');
+            int lineEnd = nl < 0 ? block.length : nl;
+            int end = lineEnd > lineStart && block[lineEnd - 1] == '\r' ? lineEnd - 1 : lineEnd;
+            String line = new String(block, lineStart, end - lineStart, StandardCharsets.UTF_8);
+            boolean header = row == 1 && line.trim().toLowerCase(Locale.ROOT).startsWith("id,");
+            if (!header && !line.isBlank()) {
+                load.rowsRead.increment();
+                int columns = splitCsv(line, fields);
+                if (columns < 0) {
+                    load.reject(row, "unbalanced quotes");
+                } else if (columns != CSV_COLUMNS) {
+                    load.reject(row, "expected " + CSV_COLUMNS + " columns but found " + columns);
+                } else {
+                    importRow(row, fields, load);
+                }
+            }
+            row++;
+            lineStart = lineEnd + 1;
+        }
+    }
+
+    // Valida una fila CSV ya separada y la entrega al destino
+    private static void importRow(long row, String[] f, Load load) {
+        long cents;
+        try {
+            cents = Cents.parse(f[2]);
+        } catch (IllegalArgumentException e) {
+            load.reject(row, "invalid price: " + f[2]);
+            return;
+        }
+        if (isNegative(f[2])) {
+            // Según el texto, no los centavos: "-0.004" redondea a 0 pero new Equipment lo rechaza
+            load.reject(row, "price must be >= 0");
+            return;
+        }
+        int stock;
+        try {
+            stock = Integer.parseInt(f[3]);
+        } catch (NumberFormatException e) {
+            load.reject(row, "invalid stock: " + f[3]);
+            return;
+        }
+        EquipmentType type = typeOf(f[4]);
+        if (type == null) {
+            load.reject(row, "unknown type: " + f[4]);
+            return;
+        }
+        boolean rental;
+        if ("true".equalsIgnoreCase(f[5])) {
+            rental = true;
+        } else if ("false".equalsIgnoreCase(f[5])) {
+            rental = false;
+        } else {
+            load.reject(row, "invalid rentalEligible: " + f[5]);
+            return;
+        }
+        accept(row, f[0], f[1], cents, stock, type, rental, load);
+    }
+
+    private static void parseBinaryBlock(byte[] block, long firstRow, Load load) {
+        ByteBuffer in = ByteBuffer.wrap(block);
+        long row = firstRow;
+        while (in.remaining() >= 4) {
+            int length = in.getInt();
+            int next = in.position() + length;
+            load.rowsRead.increment();
+            try {
+                int idLength = Short.toUnsignedInt(in.getShort());
+                if (idLength > next - in.position()) {
+                    throw new IllegalArgumentException("malformed record");
+                }
+                String id = new String(block, in.position(), idLength, StandardCharsets.UTF_8);
+                in.position(in.position() + idLength);
+                int nameLength = Short.toUnsignedInt(in.getShort());
+                if (nameLength != next - in.position() - 14) {
+                    throw new IllegalArgumentException("malformed record");
+                }
+                String name = new String(block, in.position(), nameLength, StandardCharsets.UTF_8);
+                in.position(in.position() + nameLength);
+                long cents = in.getLong();
+                int stock = in.getInt();
+                int ordinal = Byte.toUnsignedInt(in.get());
+                int flag = in.get();
+                if (ordinal >= TYPES.length) {
+                    load.reject(row, "unknown type ordinal: " + ordinal);
+                } else if (flag != 0 && flag != 1) {
+                    load.reject(row, "invalid rentalEligible: " + flag);
+                } else {
+                    accept(row, id, name, cents, stock, TYPES[ordinal], flag == 1, load);
+                }
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                load.reject(row, "malformed record");
+            }
+            in.position(next);
+            row++;
+        }
+    }
+
+    // Signo menos delante de algún dígito distinto de 0 (BigDecimal con signum < 0)
+    private static boolean isNegative(String price) {
+        if (price.isEmpty() || price.charAt(0) != '-') {
+            return false;
+        }
+        for (int i = 1; i < price.length(); i++) {
+            char c = price.charAt(i);
+            if (c >= '1' && c <= '9') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Mismas reglas que el constructor de Equipment (que es quien las aplica)
+    private static void accept(long row, String id, String name, long cents, int stock, EquipmentType type,
+                               boolean rental, Load load) {
+        if (cents < 0) {
+            load.reject(row, "price must be >= 0");
+            return;
+        }
+        Equipment eq;
+        try {
+            eq = new Equipment(id, name, Cents.toBigDecimal(cents), stock, type, rental);
+        } catch (IllegalArgumentException e) {
+            load.reject(row, e.getMessage());
+            return;
+        }
+        try {
+            load.sink.accept(eq);
+        } catch (IllegalArgumentException e) {
+            load.reject(row, e.getMessage());
+            return;
+        }
+        load.imported.increment();
+    }
+
+    /**
+     * Separa una línea CSV en out (campos recortados; comillas dobles opcionales).
+     * Retorna la cantidad de campos, o -1 si las comillas no cierran.
+     * Si hay más campos que out.length solo los cuenta.
+     */
+    static int splitCsv(String line, String[] out) {
+        int count = 0;
+        int i = 0;
+        int len = line.length();
+        StringBuilder quoted = null;
+        while (true) {
+            while (i < len && line.charAt(i) == ' ') {
+                i++;
+            }
+            String value;
+            if (i < len && line.charAt(i) == '"') {
+                if (quoted == null) {
+                    quoted = new StringBuilder();
+                }
+                quoted.setLength(0);
+                i++;
+                boolean closed = false;
+                while (i < len) {
+                    char c = line.charAt(i++);
+                    if (c == '"') {
+                        if (i < len && line.charAt(i) == '"') {
+                            quoted.append('"');
+                            i++;
+                        } else {
+                            closed = true;
+                            break;
+                        }
+                    } else {
+                        quoted.append(c);
+                    }
+                }
+                if (!closed) {
+                    return -1;
+                }
+                value = quoted.toString();
+                int comma = line.indexOf(',', i);
+                i = comma < 0 ? len : comma;
+            } else {
+                int comma = line.indexOf(',', i);
+                int end = comma < 0 ? len : comma;
+                value = line.substring(i, end).trim();
+                i = end;
+            }
+            if (count < out.length) {
+                out[count] = value;
+            }
+            count++;
+            if (i >= len) {
+                return count;
+            }
+            i++; // saltar la coma
+        }
+    }
+
+    private static EquipmentType typeOf(String name) {
+        for (EquipmentType type : TYPES) {
+            if (type.name().equalsIgnoreCase(name)) {
+                return type;
+            }
+        }
+        return null;
+    }
+
+    private static void readBinaryHeader(FileChannel ch, Path file) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(8);
+        while (header.hasRemaining() && ch.read(header) >= 0) {
+            // leer hasta completar el encabezado o llegar al final
+        }
+        header.flip();
+        if (header.remaining() < 8 || header.getInt() != BINARY_MAGIC || header.getInt() != BINARY_VERSION) {
+            throw new IOException("not a binary price list: " + file);
+        }
+    }
+
+    private static int indexOf(byte[] data, int from, int to, byte b) {
+        for (int i = from; i < to; i++) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(byte[] data, int from, int to, byte b) {
+        for (int i = to - 1; i >= from; i--) {
+            if (data[i] == b) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int count(byte[] data, int from, int to, byte b) {
+        int n = 0;
+        for (int i = from; i < to; i++) {
+            if (data[i] == b) {
+                n++;
+            }
+        }
+        // Al final del archivo la última fila puede no terminar en salto de línea
+        return to > from && data[to - 1] != b ? n + 1 : n;
+    }
+
+    /** Estado compartido de una carga: contadores, errores y el destino. */
+    private static final class Load {
+        private final Consumer<Equipment> sink;
+        private final int maxErrors;
+        private final LongAdder rowsRead = new LongAdder();
+        private final LongAdder imported = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+        // Errores de filas más bajas (max-heap por fila, acotado a maxErrors)
+        private final PriorityQueue<ImportReport.RowError> errors =
+                new PriorityQueue<>(Comparator.comparingLong(ImportReport.RowError::getRow).reversed());
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+        private Load(Consumer<Equipment> sink, int maxErrors) {
+            this.sink = sink;
+            this.maxErrors = maxErrors;
+        }
+
+        private void reject(long row, String message) {
+            rejected.increment();
+            if (maxErrors == 0) {
+                return;
+            }
+            synchronized (errors) {
+                if (errors.size() < maxErrors) {
+                    errors.add(new ImportReport.RowError(row, message));
+                } else if (row < errors.peek().getRow()) {
+                    errors.poll();
+                    errors.add(new ImportReport.RowError(row, message));
+                }
+            }
+        }
+
+        private ImportReport report(long elapsedNanos) {
+            List<ImportReport.RowError> sorted;
+            synchronized (errors) {
+                sorted = new ArrayList<>(errors);
+            }
+            sorted.sort(Comparator.comparingLong(ImportReport.RowError::getRow));
+            return new ImportReport(rowsRead.sum(), imported.sum(), rejected.sum(), sorted, elapsedNanos);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.shop;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * CatalogSnapshot es una foto binaria compacta del catálogo (incluido el stock).
+ * Formato: [int magic][int version][long generation][int count] y por equipo
+ * [UTF id][UTF name][long priceCents][int stock][byte type][byte rentalEligible].
+ * generation indica desde qué segmento del write-ahead log hay que reproducir.
+ */
+public class CatalogSnapshot {
+    private static final int MAGIC = 0x53484F50; // "SHOP"
+    private static final int VERSION = 1;
+
+    private final long generation; // inmutable
+    private final Map<String, Equipment> catalog; // equipos reconstruidos
+
+    private CatalogSnapshot(long generation, Map<String, Equipment> catalog) {
+        this.generation = generation;
+        this.catalog = catalog;
+    }
+
+    public long getGeneration() { return generation; }
+
+    /** Equipos reconstruidos desde el archivo (mapa mutable, en orden de escritura). */
+    public Map<String, Equipment> getCatalog() { return catalog; }
+
+    /**
+     * Escribe la foto de forma atómica: archivo temporal + fsync + rename.
+     */
+    public static void write(Path file, Collection<Equipment> equipment, long generation) throws IOException {
+        if (file == null || equipment == null) {
+            throw new IllegalArgumentException("file and equipment must not be null");
+        }
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(ch), 64 * 1024));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(generation);
+            out.writeInt(equipment.size());
+            for (Equipment eq : equipment) {
+                out.writeUTF(eq.getId());
+                out.writeUTF(eq.getName());
+                out.writeLong(eq.getPriceCents());
+                out.writeInt(eq.getStock());
+                out.writeByte(eq.getType().ordinal());
+                out.writeBoolean(eq.isRentalEligible());
+            }
+            out.flush();
+            ch.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /** Lee una foto escrita con write. Lanza IOException si el formato no es válido. */
+    public static CatalogSnapshot read(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(ch), 64 * 1024));
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                throw new IOException("not a catalog snapshot: " + file);
+            }
+            long generation = in.readLong();
+            int count = in.readInt();
+            EquipmentType[] types = EquipmentType.values();
+            Map<String, Equipment> catalog = new LinkedHashMap<>(Math.max(16, (int) (count / 0.75f) + 1));
+            for (int i = 0; i < count; i++) {
+                String id = in.readUTF();
+                String name = in.readUTF();
+                long priceCents = in.readLong();
+                int stock = in.readInt();
+                EquipmentType type = types[in.readUnsignedByte()];
+                boolean rentalEligible = in.readBoolean();
+                catalog.put(id, new Equipment(id, name, Cents.toBigDecimal(priceCents), stock, type, rentalEligible));
+            }
+            return new CatalogSnapshot(generation, catalog);
+        }
+    }
+}
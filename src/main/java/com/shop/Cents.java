@@ -0,0 +1,161 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Cents opera importes monetarios como long en unidades menores (centavos).
+ * Alternativa sin asignaciones a BigDecimal para el camino caliente de precios:
+ * - Aritmética con control de overflow (ArithmeticException vía Math.*Exact)
+ * - Redondeo HALF_UP idéntico a setScale(2, RoundingMode.HALF_UP)
+ * - Tasas expresadas en puntos básicos (1 bp = 0.01%)
+ */
+public final class Cents {
+    // Puntos básicos que representan el 100%
+    public static final int BASIS_POINTS_PER_UNIT = 10_000;
+
+    private Cents() {
+    }
+
+    /**
+     * Convierte un importe a centavos, redondeando HALF_UP a 2 decimales.
+     * Lanza IllegalArgumentException si es nulo o no cabe en un long.
+     */
+    public static long of(BigDecimal amount) {
+        if (amount == null) {
+            throw new IllegalArgumentException("amount must not be null");
+        }
+        try {
+            return amount.setScale(2, RoundingMode.HALF_UP).movePointRight(2).longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("amount out of range: " + amount);
+        }
+    }
+
+    /**
+     * true si of(amount) no lanzaría: no es nulo y, redondeado a 2 decimales, cabe en un long.
+     * Sin excepciones, para elegir el camino (centavos o BigDecimal) antes de convertir.
+     */
+    public static boolean fits(BigDecimal amount) {
+        if (amount == null) {
+            return false;
+        }
+        // Más de 18 dígitos enteros son >= 10^20 centavos: ni siquiera se escala
+        if (amount.precision() - amount.scale() > 18) {
+            return false;
+        }
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().bitLength() < Long.SIZE;
+    }
+
+    /**
+     * Convierte texto decimal ("12", "12.5", "-0.125") a centavos con redondeo HALF_UP,
+     * sin crear BigDecimal. Mismo resultado que of(new BigDecimal(text)).
+     * Lanza IllegalArgumentException si el formato no es válido o no cabe en un long.
+     */
+    public static long parse(CharSequence text) {
+        if (text == null) {
+            throw new IllegalArgumentException("amount must not be null");
+        }
+        int len = text.length();
+        int i = 0;
+        boolean negative = len > 0 && text.charAt(0) == '-';
+        if (negative) {
+            i++;
+        }
+        long units = 0L;
+        int digits = 0;
+        int decimals = -1; // -1: aún no apareció el punto
+        boolean roundUp = false;
+        try {
+            for (; i < len; i++) {
+                char c = text.charAt(i);
+                if (c == '.' && decimals < 0) {
+                    decimals = 0;
+                    continue;
+                }
+                if (c < '0' || c > '9') {
+                    throw new IllegalArgumentException("invalid amount: " + text);
+                }
+                digits++;
+                if (decimals >= 2) {
+                    // Solo el primer dígito descartado decide el redondeo HALF_UP
+                    if (decimals == 2) {
+                        roundUp = c >= '5';
+                    }
+                    decimals++;
+                    continue;
+                }
+                units = Math.addExact(Math.multiplyExact(units, 10L), c - '0');
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            }
+            if (digits == 0) {
+                throw new IllegalArgumentException("invalid amount: " + text);
+            }
+            for (int d = Math.max(decimals, 0); d < 2; d++) {
+                units = Math.multiplyExact(units, 10L);
+            }
+            if (roundUp) {
+                units = Math.addExact(units, 1L);
+            }
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("amount out of range: " + text);
+        }
+        return negative ? -units : units;
+    }
+
+    /** Convierte centavos a BigDecimal con escala 2. */
+    public static BigDecimal toBigDecimal(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    /** Suma con control de overflow. */
+    public static long add(long a, long b) {
+        return Math.addExact(a, b);
+    }
+
+    /** Resta con control de overflow. */
+    public static long subtract(long a, long b) {
+        return Math.subtractExact(a, b);
+    }
+
+    /** Precio unitario × cantidad con control de overflow. */
+    public static long times(long unitCents, int qty) {
+        return Math.multiplyExact(unitCents, (long) qty);
+    }
+
+    /**
+     * Convierte una tasa decimal (p.ej. 0.10) a puntos básicos (1000).
+     * Lanza IllegalArgumentException si la tasa tiene más de 4 decimales.
+     */
+    public static int basisPoints(BigDecimal rate) {
+        if (rate == null) {
+            throw new IllegalArgumentException("rate must not be null");
+        }
+        try {
+            return rate.movePointRight(4).intValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("rate must have at most 4 decimals: " + rate);
+        }
+    }
+
+    /**
+     * Aplica una tasa en puntos básicos y redondea HALF_UP al centavo.
+     * Equivale a toBigDecimal(cents).multiply(rate).setScale(2, HALF_UP).
+     */
+    public static long applyRate(long cents, int basisPoints) {
+        return divideHalfUp(Math.multiplyExact(cents, (long) basisPoints), BASIS_POINTS_PER_UNIT);
+    }
+
+    /** División entera con redondeo HALF_UP (alejándose de cero en el empate). */
+    static long divideHalfUp(long dividend, long divisor) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        // |remainder| * 2 >= divisor  <=>  |remainder| >= divisor - |remainder|
+        if (Math.abs(remainder) >= divisor - Math.abs(remainder)) {
+            quotient += Long.signum(dividend) * Long.signum(divisor);
+        }
+        return quotient;
+    }
+}
@@ -1,35 +1,57 @@
 package com.shop;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
  * Equipment representa un producto del catálogo de la tienda de windsurf.
  * - Campos inmutables: id, name, price, type, rentalEligible
- * - Campo mutable: stock
+ * - Campo mutable: stock (actualizado con compare-and-set, seguro entre hilos)
  * - Valida entradas al construir.
  */
 public class Equipment {
+    // Acceso atómico al campo stock (CAS sin locks)
+    private static final VarHandle STOCK;
+
+    static {
+        try {
+            STOCK = MethodHandles.lookup().findVarHandle(Equipment.class, "stock", int.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
     // Identificador único del equipo
     private final String id; // inmutable
     // Nombre legible del equipo
     private final String name; // inmutable
     // Precio unitario
     private final BigDecimal price; // inmutable
+    // Precio unitario en centavos (mismo valor que price, para cálculos sin asignaciones)
+    private final long priceCents; // inmutable (0 si !priceInCents)
+    // false si price no cabe en un long de centavos (solo se puede tasar en BIG_DECIMAL)
+    private final boolean priceInCents; // inmutable
     // Tipo de equipo
     private final EquipmentType type; // inmutable
     // Indica si es elegible para alquiler
     private final boolean rentalEligible; // inmutable
 
-    // Stock disponible (mutable)
-    private int stock;
+    // Stock disponible (mutable, volatile para lecturas consistentes entre hilos)
+    private volatile int stock;
+    // Observadores de stock (copy-on-write; vacío en el caso común)
+    private volatile StockListener[] listeners = NO_LISTENERS;
+    private static final StockListener[] NO_LISTENERS = new StockListener[0];
 
     /**
      * Crea un Equipment válido.
      * Reglas:
      * - id y name no nulos ni vacíos
-     * - price no nulo y >= 0
+     * - price no nulo y >= 0 (sin tope: si no cabe en un long de centavos, getPriceCents lanza
+     *   ArithmeticException y el equipo solo se puede tasar en MoneyMode.BIG_DECIMAL)
      * - stock >= 0
      * - type no nulo
      */
@@ -51,6 +73,8 @@ public class Equipment {
         }
         // Normalizar precio a escala 2 (moneda)
         this.price = price.setScale(2, RoundingMode.HALF_UP);
+        this.priceInCents = Cents.fits(this.price);
+        this.priceCents = priceInCents ? Cents.of(this.price) : 0L;
 
         // Validar stock
         if (stock < 0) {
@@ -71,10 +95,57 @@ public class Equipment {
     public String getId() { return id; }
     public String getName() { return name; }
     public BigDecimal getPrice() { return price; }
+
+    /**
+     * Precio en centavos. Lanza ArithmeticException si no cabe en un long (ver hasPriceCents),
+     * igual que un desborde al tasar en MoneyMode.CENTS.
+     */
+    public long getPriceCents() {
+        if (!priceInCents) {
+            throw new ArithmeticException("price not representable in cents: " + price);
+        }
+        return priceCents;
+    }
+
+    /** true si el precio cabe en un long de centavos. */
+    public boolean hasPriceCents() { return priceInCents; }
+
     public EquipmentType getType() { return type; }
     public boolean isRentalEligible() { return rentalEligible; }
     public int getStock() { return stock; }
 
+    /**
+     * Reemplaza el stock si su valor actual es expected (compare-and-set).
+     * Todas las modificaciones de stock pasan por aquí; una subclase puede guardar
+     * el stock en otro lugar (p.ej. fuera del heap) sobrescribiendo este método y getStock().
+     */
+    protected boolean compareAndSetStock(int expected, int newValue) {
+        return STOCK.compareAndSet(this, expected, newValue);
+    }
+
+    /**
+     * Equipo dueño del contador de stock. Normalmente this; una versión repreciada
+     * (ver VersionedCatalog) comparte el stock de la original y retorna esa.
+     */
+    Equipment stockRoot() {
+        return this;
+    }
+
+    /**
+     * true si ambos equipos descuentan del mismo contador de stock: misma raíz o, para vistas
+     * de un archivo (ver MappedCatalog), el mismo registro aunque sean instancias distintas.
+     */
+    final boolean sharesStockWith(Equipment other) {
+        Equipment root = stockRoot();
+        Equipment otherRoot = other.stockRoot();
+        return root == otherRoot || root.sameStockCell(otherRoot);
+    }
+
+    // Las raíces que guardan el stock fuera del objeto comparan dónde lo guardan
+    boolean sameStockCell(Equipment otherRoot) {
+        return false;
+    }
+
     /**
      * Disminuye el stock con validaciones claras.
      * Reglas:
@@ -83,14 +154,94 @@ public class Equipment {
      * Lanza IllegalArgumentException con mensajes específicos si viola reglas.
      */
     public void decreaseStock(int qty) {
+        if (!tryDecreaseStock(qty)) {
+            throw new IllegalArgumentException("insufficient stock");
+        }
+    }
+
+    /**
+     * Intenta reservar qty unidades de forma atómica (compare-and-set).
+     * Reglas:
+     * - qty > 0 (lanza IllegalArgumentException si no)
+     * - Retorna false, sin modificar el stock, si qty > stock actual
+     */
+    public boolean tryDecreaseStock(int qty) {
         if (qty <= 0) {
             throw new IllegalArgumentException("quantity must be > 0");
         }
-        if (qty > stock) {
-            throw new IllegalArgumentException("insufficient stock");
+        while (true) {
+            int current = getStock();
+            if (qty > current) {
+                return false;
+            }
+            // Reintentar si otro hilo modificó el stock entre la lectura y el CAS
+            if (compareAndSetStock(current, current - qty)) {
+                notifyListeners(current, current - qty);
+                return true;
+            }
+        }
+    }
+
+    /**
+     * Reserva de forma atómica hasta max unidades, las que haya disponibles.
+     * Reglas:
+     * - max > 0
+     * Retorna la cantidad efectivamente descontada (0..max).
+     */
+    public int decreaseStockUpTo(int max) {
+        if (max <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
+        }
+        while (true) {
+            int current = getStock();
+            int taken = Math.min(current, max);
+            if (taken == 0) {
+                return 0;
+            }
+            if (compareAndSetStock(current, current - taken)) {
+                notifyListeners(current, current - taken);
+                return taken;
+            }
+        }
+    }
+
+    /**
+     * Aumenta el stock de forma atómica (p.ej. para deshacer una reserva parcial).
+     * Reglas:
+     * - qty > 0
+     * - El stock resultante no puede desbordar int
+     */
+    public void increaseStock(int qty) {
+        if (qty <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
+        }
+        while (true) {
+            int current = getStock();
+            if (current > Integer.MAX_VALUE - qty) {
+                throw new IllegalArgumentException("stock overflow");
+            }
+            if (compareAndSetStock(current, current + qty)) {
+                notifyListeners(current, current + qty);
+                return;
+            }
+        }
+    }
+
+    /** Registra un observador que se invoca tras cada cambio de stock. */
+    public synchronized void addStockListener(StockListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        StockListener[] copy = Arrays.copyOf(listeners, listeners.length + 1);
+        copy[copy.length - 1] = listener;
+        listeners = copy;
+    }
+
+    private void notifyListeners(int previous, int current) {
+        StockListener[] snapshot = listeners;
+        for (StockListener listener : snapshot) {
+            listener.stockChanged(this, previous, current);
         }
-        // Aplicar decremento
-        this.stock -= qty;
     }
 
     @Override
@@ -112,7 +263,7 @@ public class Equipment {
                 "id='" + id + '\'' +
                 ", name='" + name + '\'' +
                 ", price=" + price +
-                ", stock=" + stock +
+                ", stock=" + getStock() +
                 ", type=" + type +
                 ", rentalEligible=" + rentalEligible +
                 '}';
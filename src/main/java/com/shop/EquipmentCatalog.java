@@ -0,0 +1,55 @@
+package com.shop;
+
+import java.util.Map;
+
+/**
+ * EquipmentCatalog es la fuente de equipos que consulta OrderService.
+ * Permite usar distintas implementaciones (mapa simple, catálogo indexado, etc.).
+ */
+@FunctionalInterface
+public interface EquipmentCatalog {
+
+    /** Retorna el equipo con ese id, o null si no existe. */
+    Equipment get(String id);
+
+    /**
+     * Versión del catálogo: cambia cada vez que algún precio puede haber cambiado.
+     * Los catálogos que no versionan retornan siempre 0.
+     */
+    default long version() {
+        return 0L;
+    }
+
+    /**
+     * Vista estable del catálogo para leer varias líneas con la misma versión de precios.
+     * Los catálogos que no versionan se retornan a sí mismos.
+     */
+    default EquipmentCatalog snapshot() {
+        return this;
+    }
+
+    /**
+     * Bloquea lo necesario para confirmar un pedido con esas líneas y retorna cómo liberarlo.
+     * OrderService lo llama alrededor de la reserva de stock. Por defecto no bloquea nada:
+     * la reserva se apoya solo en el compare-and-set de cada Equipment.
+     */
+    default CheckoutLock lockForCheckout(Equipment[] lines) {
+        return CheckoutLock.NONE;
+    }
+
+    /** Adapta un Map id -> Equipment (sin copiarlo). */
+    static EquipmentCatalog of(Map<String, Equipment> map) {
+        if (map == null) {
+            throw new IllegalArgumentException("catalog must not be null");
+        }
+        return map::get;
+    }
+
+    /** Liberación de lo tomado por lockForCheckout. */
+    @FunctionalInterface
+    interface CheckoutLock {
+        CheckoutLock NONE = () -> { };
+
+        void unlock();
+    }
+}
@@ -0,0 +1,18 @@
+package com.shop;
+
+/**
+ * EquipmentRepository es el almacén maestro del catálogo (base de datos, servicio remoto),
+ * más lento que un mapa en memoria; CachingCatalog lo pone detrás de una caché.
+ * Reglas:
+ * - load(id) retorna el equipo o null si no existe; un error del almacén se informa con
+ *   una excepción unchecked (p.ej. UncheckedIOException)
+ * - El stock vive en el Equipment que se entrega: volver a cargar un id debe retornar la
+ *   misma instancia o una copia que comparta su stock (ver RepricedEquipment); si no, las
+ *   unidades vendidas sobre la instancia anterior se perderían al recargar
+ * - Debe ser seguro entre hilos
+ */
+@FunctionalInterface
+public interface EquipmentRepository {
+
+    Equipment load(String id);
+}
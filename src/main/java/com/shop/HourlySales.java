@@ -0,0 +1,72 @@
+package com.shop;
+
+import java.time.Instant;
+
+/**
+ * HourlySales es el resultado de InventoryAnalytics.salesByTypeAndHour: unidades e importes
+ * (en centavos) por hora y EquipmentType. La hora 0 empieza en getStart().
+ * - listAmount: precio de lista * unidades
+ * - netAmount: parte del subtotal de cada pedido (descuentos incluidos, sin depósitos)
+ * Inmutable.
+ */
+public final class HourlySales {
+    private static final int TYPES = EquipmentType.values().length;
+
+    private final Instant start; // inmutable
+    private final int hours; // inmutable
+    // Celdas [hora * TYPES + ordinal del tipo]; no se modifican después de la consulta
+    private final long[] units;
+    private final long[] listAmountCents;
+    private final long[] netAmountCents;
+
+    HourlySales(Instant start, int hours, long[] units, long[] listAmountCents, long[] netAmountCents) {
+        this.start = start;
+        this.hours = hours;
+        this.units = units;
+        this.listAmountCents = listAmountCents;
+        this.netAmountCents = netAmountCents;
+    }
+
+    public Instant getStart() { return start; }
+    public int getHours() { return hours; }
+
+    /** Comienzo de la hora dada (0 .. getHours() - 1). */
+    public Instant getHourStart(int hour) {
+        if (hour < 0 || hour >= hours) {
+            throw new IllegalArgumentException("hour must be in 0.." + (hours - 1));
+        }
+        return start.plusSeconds(3_600L * hour);
+    }
+
+    public long getUnits(int hour, EquipmentType type) { return units[cell(hour, type)]; }
+    public long getListAmountCents(int hour, EquipmentType type) { return listAmountCents[cell(hour, type)]; }
+    public long getNetAmountCents(int hour, EquipmentType type) { return netAmountCents[cell(hour, type)]; }
+
+    /** Unidades del tipo en todo el rango. */
+    public long getTotalUnits(EquipmentType type) {
+        return sum(units, type);
+    }
+
+    /** Importe neto del tipo en todo el rango. */
+    public long getTotalNetAmountCents(EquipmentType type) {
+        return sum(netAmountCents, type);
+    }
+
+    private long sum(long[] column, EquipmentType type) {
+        long total = 0;
+        for (int c = cell(0, type); c < column.length; c += TYPES) {
+            total = Cents.add(total, column[c]);
+        }
+        return total;
+    }
+
+    private int cell(int hour, EquipmentType type) {
+        if (hour < 0 || hour >= hours) {
+            throw new IllegalArgumentException("hour must be in 0.." + (hours - 1));
+        }
+        if (type == null) {
+            throw new IllegalArgumentException("type must not be null");
+        }
+        return hour * TYPES + type.ordinal();
+    }
+}
@@ -0,0 +1,211 @@
+package com.shop;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * IdempotentOrderService evita que los reintentos de un cliente descuenten stock dos veces.
+ * Cada pedido llega con una clave de idempotencia elegida por el cliente.
+ * Reglas:
+ * - La primera llamada con una clave procesa el pedido en OrderService y guarda el resultado
+ *   (aceptado o rechazado); las siguientes con la misma clave retornan el resultado guardado
+ * - Un duplicado que llega mientras el primero está en curso espera ese resultado
+ *   en vez de procesar el pedido otra vez
+ * - Si el pedido termina con una excepción (p.ej. ArithmeticException) no se guarda:
+ *   los que esperaban reciben la excepción y un reintento posterior vuelve a procesarlo
+ * - La clave identifica el pedido: un reintento con otro carrito recibe el resultado original
+ * Memoria acotada: las claves se descartan al cumplir su ttl o, si se superan maxKeys,
+ * empezando por las más antiguas. Como el ttl es fijo, el orden de llegada es también el
+ * orden de vencimiento: una cola FIFO basta y el descarte cuesta O(1) por clave, amortizado
+ * en las propias llamadas (sin hilo de fondo).
+ * Una clave en curso nunca se descarta ni vence (un reintento la procesaría dos veces):
+ * pasa al final de la cola y se revisa en la vuelta siguiente. Por eso maxKeys puede
+ * excederse a lo sumo en la cantidad de pedidos en curso.
+ */
+public class IdempotentOrderService {
+    public static final Duration DEFAULT_TTL = Duration.ofHours(1);
+    public static final int DEFAULT_MAX_KEYS = 1 << 20;
+
+    private final OrderService service;
+    private final long ttlNanos;
+    private final int maxKeys;
+    private final LongSupplier nanoClock;
+    private final ConcurrentHashMap<String, Entry> byKey = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Entry> arrivals = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger size = new AtomicInteger(); // entradas en la cola aún contadas
+    private final LongAdder duplicates = new LongAdder();
+
+    /** Valores por defecto: ttl de una hora y hasta 2^20 claves recordadas. */
+    public IdempotentOrderService(OrderService service) {
+        this(service, DEFAULT_TTL, DEFAULT_MAX_KEYS, System::nanoTime);
+    }
+
+    public IdempotentOrderService(OrderService service, Duration ttl, int maxKeys) {
+        this(service, ttl, maxKeys, System::nanoTime);
+    }
+
+    /**
+     * @param ttl       tiempo que se recuerda cada clave desde su primera llamada
+     * @param maxKeys   tope de claves recordadas (> 0)
+     * @param nanoClock reloj monotónico en nanosegundos (inyectable para pruebas)
+     */
+    public IdempotentOrderService(OrderService service, Duration ttl, int maxKeys, LongSupplier nanoClock) {
+        if (service == null) {
+            throw new IllegalArgumentException("service must not be null");
+        }
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be > 0");
+        }
+        if (maxKeys <= 0) {
+            throw new IllegalArgumentException("maxKeys must be > 0");
+        }
+        if (nanoClock == null) {
+            throw new IllegalArgumentException("nanoClock must not be null");
+        }
+        this.service = service;
+        this.ttlNanos = ttl.toNanos();
+        this.maxKeys = maxKeys;
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Procesa el pedido una sola vez por clave.
+     * Lanza IllegalArgumentException con el motivo si el pedido (original) fue rechazado.
+     */
+    public OrderReceipt processOrder(String idempotencyKey, Cart cart, boolean rental) {
+        OrderResult result = tryProcessOrder(idempotencyKey, cart, rental);
+        if (result instanceof OrderResult.Rejected rejected) {
+            throw new IllegalArgumentException(rejected.describe());
+        }
+        return ((OrderResult.Accepted) result).getReceipt();
+    }
+
+    /** Igual que processOrder, pero retorna los rechazos como OrderResult. */
+    public OrderResult tryProcessOrder(String idempotencyKey, Cart cart, boolean rental) {
+        if (idempotencyKey == null) {
+            throw new IllegalArgumentException("idempotencyKey must not be null");
+        }
+        long now = nanoClock.getAsLong();
+        evict(now);
+        Entry entry = new Entry(idempotencyKey, now);
+        while (true) {
+            Entry existing = byKey.putIfAbsent(idempotencyKey, entry);
+            if (existing == null) {
+                break;
+            }
+            if (!existing.isDone() || now - existing.createdAt < ttlNanos) {
+                duplicates.increment();
+                return existing.await();
+            }
+            // Vencida pero aún no descartada: se reemplaza y deja de contar (la cola la descarta)
+            if (byKey.replace(idempotencyKey, existing, entry)) {
+                if (existing.uncount()) {
+                    size.decrementAndGet();
+                }
+                break;
+            }
+        }
+        arrivals.add(entry);
+        size.incrementAndGet();
+        return entry.run(service, cart, rental, this);
+    }
+
+    /** Claves recordadas en este momento (incluye las que están en curso). */
+    public int getKeyCount() {
+        return byKey.size();
+    }
+
+    /** Llamadas respondidas con un resultado ya guardado o en curso. */
+    public long getDuplicateCount() {
+        return duplicates.sum();
+    }
+
+    // Descarta desde la cabeza de la cola las entradas vencidas o que exceden maxKeys;
+    // las que siguen en curso pasan al final (a lo sumo una vuelta por llamada)
+    private void evict(long now) {
+        Entry head;
+        int skipped = 0;
+        while ((head = arrivals.peek()) != null
+                && (!head.isCounted() || size.get() > maxKeys || now - head.createdAt >= ttlNanos)) {
+            if (!arrivals.remove(head)) {
+                continue; // otro hilo la sacó
+            }
+            if (head.isCounted() && !head.isDone()) {
+                arrivals.add(head);
+                if (++skipped >= size.get()) {
+                    return; // todas las que quedan están en curso
+                }
+                continue;
+            }
+            if (head.uncount()) {
+                size.decrementAndGet();
+                byKey.remove(head.key, head);
+            }
+        }
+    }
+
+    // Una excepción no se recuerda: otro intento con la clave debe poder procesarla
+    private void forget(Entry entry) {
+        byKey.remove(entry.key, entry);
+    }
+
+    /** Resultado de una clave: en curso hasta que el primer llamador lo completa. */
+    private static final class Entry {
+        private final String key;
+        private final long createdAt;
+        private final CompletableFuture<OrderResult> result = new CompletableFuture<>();
+        private final AtomicBoolean counted = new AtomicBoolean(true); // cuenta en size
+
+        private boolean isDone() {
+            return result.isDone();
+        }
+
+        private boolean isCounted() {
+            return counted.get();
+        }
+
+        // Deja de contar en size; true solo para el primero que la descuenta
+        private boolean uncount() {
+            return counted.compareAndSet(true, false);
+        }
+
+        private Entry(String key, long createdAt) {
+            this.key = key;
+            this.createdAt = createdAt;
+        }
+
+        private OrderResult run(OrderService service, Cart cart, boolean rental, IdempotentOrderService owner) {
+            try {
+                OrderResult r = service.tryProcessOrder(cart, rental);
+                result.complete(r);
+                return r;
+            } catch (RuntimeException | Error e) {
+                owner.forget(this);
+                result.completeExceptionally(e);
+                throw e;
+            }
+        }
+
+        private OrderResult await() {
+            try {
+                return result.join();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException re) {
+                    throw re;
+                }
+                if (cause instanceof Error err) {
+                    throw err;
+                }
+                throw e;
+            }
+        }
+    }
+}
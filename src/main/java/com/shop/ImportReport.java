@@ -0,0 +1,62 @@
+package com.shop;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * ImportReport resume una carga de CatalogImporter.
+ * Incluye filas leídas, importadas y rechazadas, los primeros errores por fila
+ * (hasta el tope configurado, ordenados por fila) y el throughput en filas por segundo.
+ */
+public final class ImportReport {
+    private final long rowsRead; // inmutable
+    private final long imported; // inmutable
+    private final long rejected; // inmutable
+    private final List<RowError> errors; // inmutable
+    private final long elapsedNanos; // inmutable
+
+    ImportReport(long rowsRead, long imported, long rejected, List<RowError> errors, long elapsedNanos) {
+        this.rowsRead = rowsRead;
+        this.imported = imported;
+        this.rejected = rejected;
+        this.errors = Collections.unmodifiableList(errors);
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    public long getRowsRead() { return rowsRead; }
+    public long getImported() { return imported; }
+    public long getRejected() { return rejected; }
+    /** Errores reportados; puede tener menos elementos que getRejected() si se alcanzó el tope. */
+    public List<RowError> getErrors() { return errors; }
+    public long getElapsedNanos() { return elapsedNanos; }
+
+    /** Filas procesadas por segundo (leídas, incluidas las rechazadas). */
+    public double getRowsPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : rowsRead * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "ImportReport{" + "rowsRead=" + rowsRead + ", imported=" + imported + ", rejected=" + rejected
+                + ", rowsPerSecond=" + Math.round(getRowsPerSecond()) + '}';
+    }
+
+    /** Error de una fila: número de fila (desde 1; en CSV cuenta el encabezado) y motivo. */
+    public static final class RowError {
+        private final long row; // inmutable
+        private final String message; // inmutable
+
+        RowError(long row, String message) {
+            this.row = row;
+            this.message = message;
+        }
+
+        public long getRow() { return row; }
+        public String getMessage() { return message; }
+
+        @Override
+        public String toString() {
+            return "row " + row + ": " + message;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * InMemoryEquipmentRepository es un EquipmentRepository local, para pruebas y desarrollo.
+ * - Guarda los equipos en un ConcurrentHashMap y simula la latencia del almacén real con
+ *   una espera fija por load (Duration.ZERO = sin espera)
+ * - setPrice publica una copia repreciada que comparte el stock (como VersionedCatalog)
+ * - Cuenta las cargas, para verificar cuántas veces llega una caché hasta el almacén
+ */
+public class InMemoryEquipmentRepository implements EquipmentRepository {
+    private final ConcurrentHashMap<String, Equipment> byId = new ConcurrentHashMap<>();
+    private final long latencyNanos;
+    private final LongAdder loads = new LongAdder();
+
+    public InMemoryEquipmentRepository(Collection<Equipment> equipment) {
+        this(equipment, Duration.ZERO);
+    }
+
+    public InMemoryEquipmentRepository(Collection<Equipment> equipment, Duration latency) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        if (latency == null || latency.isNegative()) {
+            throw new IllegalArgumentException("latency must be >= 0");
+        }
+        for (Equipment eq : equipment) {
+            add(eq);
+        }
+        this.latencyNanos = latency.toNanos();
+    }
+
+    @Override
+    public Equipment load(String id) {
+        loads.increment();
+        if (latencyNanos > 0) {
+            // parkNanos puede volver antes: se completa la espera simulada
+            long deadline = System.nanoTime() + latencyNanos;
+            for (long left = latencyNanos; left > 0; left = deadline - System.nanoTime()) {
+                LockSupport.parkNanos(left);
+            }
+        }
+        return byId.get(id);
+    }
+
+    /** Agrega un equipo; lanza IllegalArgumentException si el id ya existe. */
+    public void add(Equipment equipment) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        if (byId.putIfAbsent(equipment.getId(), equipment) != null) {
+            throw new IllegalArgumentException("duplicate equipment id: " + equipment.getId());
+        }
+    }
+
+    /** Cambia el precio de un equipo existente; la versión nueva comparte el stock de la anterior. */
+    public void setPrice(String id, BigDecimal price) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        if (byId.computeIfPresent(id, (key, eq) -> new RepricedEquipment(eq.stockRoot(), price)) == null) {
+            throw new IllegalArgumentException("equipment does not exist: " + id);
+        }
+    }
+
+    /** Quita un equipo; retorna false si no existía. */
+    public boolean remove(String id) {
+        return id != null &&  byId.remove(id) != null;
+    }
+
+    /** Llamadas a load hasta ahora. */
+    public long getLoadCount() {
+        return loads.sum();
+    }
+}
@@ -0,0 +1,159 @@
+package com.shop;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * IndexedCatalog envuelve el mapa id -> Equipment y mantiene índices secundarios:
+ * - Por EquipmentType (EnumMap de bitsets)
+ * - Por elegibilidad de alquiler (bitset)
+ * - Por disponibilidad (stock > 0), actualizado automáticamente al cambiar el stock
+ * Cada equipo ocupa una posición fija; las consultas combinan bitsets (AND de palabras
+ * de 64 bits) en lugar de recorrer todas las entradas.
+ * El bitset de disponibilidad se actualiza sin el lock del catálogo (CAS por palabra):
+ * un cambio de stock nunca espera a una consulta en curso.
+ */
+public class IndexedCatalog implements EquipmentCatalog {
+    // 2^16 slots por bloque del bitset de disponibilidad
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_WORDS = 1 << (CHUNK_BITS - 6);
+
+    // Búsqueda por id sin bloqueo
+    private final Map<String, Equipment> byId = new ConcurrentHashMap<>();
+    // Equipos por posición (la posición es el índice en los bitsets)
+    private final List<Equipment> bySlot = new ArrayList<>();
+    // Índices secundarios (protegidos por el lock del catálogo)
+    private final EnumMap<EquipmentType, BitSet> byType = new EnumMap<>(EquipmentType.class);
+    private final BitSet rentalEligible = new BitSet();
+    // Disponibilidad en bloques de palabras atómicas; add agrega bloques sin copiar los existentes
+    private volatile AtomicLongArray[] inStock = new AtomicLongArray[0];
+
+    public IndexedCatalog() {
+        for (EquipmentType type : EquipmentType.values()) {
+            byType.put(type, new BitSet());
+        }
+    }
+
+    /** Crea un catálogo indexado con los equipos dados. */
+    public IndexedCatalog(Collection<Equipment> equipment) {
+        this();
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        for (Equipment eq : equipment) {
+            add(eq);
+        }
+    }
+
+    /**
+     * Agrega un equipo al catálogo e indexa sus atributos.
+     * Lanza IllegalArgumentException si es nulo o su id ya existe.
+     */
+    public synchronized void add(Equipment equipment) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        if (byId.putIfAbsent(equipment.getId(), equipment) != null) {
+            throw new IllegalArgumentException("duplicate equipment id: " + equipment.getId());
+        }
+        int slot = bySlot.size();
+        bySlot.add(equipment);
+        byType.get(equipment.getType()).set(slot);
+        rentalEligible.set(slot, equipment.isRentalEligible());
+        if (slot >>> CHUNK_BITS == inStock.length) {
+            AtomicLongArray[] grown = Arrays.copyOf(inStock, inStock.length + 1);
+            grown[inStock.length] = new AtomicLongArray(CHUNK_WORDS);
+            inStock = grown;
+        }
+        // Mantener el índice de disponibilidad sólo en transiciones desde/hacia 0
+        equipment.addStockListener((eq, previous, current) -> {
+            if (previous == 0 || current == 0) {
+                refreshInStock(slot, eq);
+            }
+        });
+        refreshInStock(slot, equipment); // después del listener: no se pierde un cambio intermedio
+    }
+
+    @Override
+    public Equipment get(String id) {
+        return id == null ? null : byId.get(id);
+    }
+
+    /** Cantidad de equipos en el catálogo. */
+    public int size() {
+        return byId.size();
+    }
+
+    /**
+     * Busca equipos por tipo (null = cualquiera), opcionalmente sólo elegibles
+     * para alquiler y/o con stock > 0. Respeta el orden de alta.
+     */
+    public synchronized List<Equipment> find(EquipmentType type, boolean rentalOnly, boolean inStockOnly) {
+        BitSet matches = select(type, rentalOnly, inStockOnly);
+        List<Equipment> result = new ArrayList<>(matches.cardinality());
+        for (int slot = matches.nextSetBit(0); slot >= 0; slot = matches.nextSetBit(slot + 1)) {
+            result.add(bySlot.get(slot));
+        }
+        return result;
+    }
+
+    /** Igual que find pero sólo cuenta (sin materializar la lista). */
+    public synchronized int count(EquipmentType type, boolean rentalOnly, boolean inStockOnly) {
+        return select(type, rentalOnly, inStockOnly).cardinality();
+    }
+
+    // Combina los bitsets pedidos; debe llamarse con el lock tomado
+    private BitSet select(EquipmentType type, boolean rentalOnly, boolean inStockOnly) {
+        BitSet matches;
+        if (type != null) {
+            matches = (BitSet) byType.get(type).clone();
+        } else {
+            matches = new BitSet(bySlot.size());
+            matches.set(0, bySlot.size());
+        }
+        if (rentalOnly) {
+            matches.and(rentalEligible);
+        }
+        if (inStockOnly) {
+            matches.and(inStockWords());
+        }
+        return matches;
+    }
+
+    // Copia las palabras de disponibilidad de los slots ocupados
+    private BitSet inStockWords() {
+        AtomicLongArray[] chunks = inStock;
+        long[] words = new long[(bySlot.size() + 63) >>> 6];
+        for (int w = 0; w < words.length; w++) {
+            words[w] = chunks[w >>> (CHUNK_BITS - 6)].get(w & (CHUNK_WORDS - 1));
+        }
+        return BitSet.valueOf(words);
+    }
+
+    // Sin lock: tras escribir el bit relee el stock y repite si cambió mientras tanto,
+    // así la última notificación siempre deja el valor vigente
+    private void refreshInStock(int slot, Equipment equipment) {
+        AtomicLongArray words = inStock[slot >>> CHUNK_BITS];
+        int index = (slot >>> 6) & (CHUNK_WORDS - 1);
+        long bit = 1L << slot;
+        boolean available = equipment.getStock() > 0;
+        while (true) {
+            long word = words.get(index);
+            long updated = available ? word | bit : word & ~bit;
+            if (word == updated || words.compareAndSet(index, word, updated)) {
+                boolean now = equipment.getStock() > 0;
+                if (now == available) {
+                    return;
+                }
+                available = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,557 @@
+package com.shop;
+
+import java.math.BigInteger;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * InventoryAnalytics guarda ventas y fotos de stock en columnas (arreglos primitivos) para
+ * reportes que de otro modo recorrerían Equipment y OrderReceipt uno por uno.
+ * Reglas:
+ * - Se registra como OrderListener de OrderService (junto a otros con OrderListener.of):
+ *   orderAccepted solo copia las líneas a una cola sin bloqueo; el pasaje a columnas lo hace
+ *   drain(), nunca el checkout
+ * - drain() corre en el executor cuando se acumulan drainThreshold pedidos, y al empezar cada
+ *   consulta. La cola tiene tope (MAX_PENDING_FACTOR * drainThreshold pedidos): si el drenado
+ *   no da abasto, los pedidos que exceden se descartan y se cuentan en getDroppedOrders()
+ * - Los pedidos con importes que no caben en un long de centavos (MoneyMode.BIG_DECIMAL) no
+ *   generan filas; se cuentan en getSkippedOrders()
+ * - Una fila por línea vendida: minuto (del reloj al notificar), SKU, EquipmentType, unidades,
+ *   importe a precio de lista y neto (el subtotal del pedido repartido en proporción al precio
+ *   de lista: las filas de un pedido suman exactamente su subtotal). Los depósitos no cuentan
+ * - Los ids se guardan codificados en un diccionario (String -> int): las columnas no tienen objetos
+ * - Las columnas crecen en bloques de CHUNK filas que recuerdan su minuto mínimo y máximo;
+ *   un filtro por tiempo saltea bloques enteros y los recorridos son loops sobre arreglos
+ * - Retención: dropBefore(instante) descarta los bloques cuyo minuto máximo es anterior, y
+ *   setRetention(ventana) lo hace en cada drain con ahora - ventana. Se descartan bloques
+ *   enteros (el que se está llenando también, si ya es viejo): las consultas sobre el rango
+ *   descartado dan vacío. El diccionario de SKUs no se poda (crece con el catálogo, no con
+ *   las ventas)
+ * - captureStock guarda una foto del stock (reemplaza la anterior); belowReorder le descuenta
+ *   las ventas ingresadas después. Una venta confirmada antes de la foto pero notificada
+ *   después se descuenta dos veces: la estimación puede quedar corta, nunca larga. Las ventas
+ *   posteriores a la foto que caen en bloques descartados se siguen descontando
+ * Consultas, drain y captureStock se serializan entre sí (monitor de this), no con los checkouts.
+ */
+public class InventoryAnalytics implements OrderListener {
+    /** Filas por bloque de columnas. */
+    static final int CHUNK = 1 << 14;
+    /** Pedidos encolados que disparan un drain en segundo plano. */
+    public static final int DEFAULT_DRAIN_THRESHOLD = 4_096;
+    /** Tope de la cola: MAX_PENDING_FACTOR * drainThreshold pedidos. */
+    static final int MAX_PENDING_FACTOR = 64;
+
+    private static final int TYPES = EquipmentType.values().length;
+    private static final long MILLIS_PER_MINUTE = 60_000L;
+    private static final int MINUTES_PER_HOUR = 60;
+    // Tope de celdas (horas * tipos) de una consulta por hora
+    private static final int MAX_CELLS = 1 << 22;
+
+    private final LongSupplier millisClock;
+    private final int drainThreshold;
+    private final int maxPending;
+    private final Executor drainExecutor;
+    private final ConcurrentLinkedQueue<PendingOrder> pending = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pendingOrders = new AtomicInteger();
+    private final AtomicBoolean drainScheduled = new AtomicBoolean();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    // Estado protegido por this
+    private final Map<String, Integer> codes = new HashMap<>();
+    private String[] skus = new String[256];
+    private byte[] skuTypes = new byte[256];
+    private final List<Chunk> chunks = new ArrayList<>();
+    private long rows; // filas ingresadas desde el inicio (incluye las descartadas)
+    private long droppedRows;
+    private long retentionMillis; // 0 = sin retención
+    private StockSnapshot stock; // null hasta el primer captureStock
+
+    /** Analítica con el reloj del sistema. */
+    public InventoryAnalytics() {
+        this(System::currentTimeMillis);
+    }
+
+    /** Drenado en segundo plano en el pool común cada DEFAULT_DRAIN_THRESHOLD pedidos. */
+    public InventoryAnalytics(LongSupplier millisClock) {
+        this(millisClock, DEFAULT_DRAIN_THRESHOLD, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param millisClock    milisegundos epoch con los que se fecha cada venta y foto
+     * @param drainThreshold pedidos encolados a partir de los cuales se drena en drainExecutor (> 0)
+     * @param drainExecutor  dónde corre el drenado en segundo plano
+     */
+    public InventoryAnalytics(LongSupplier millisClock, int drainThreshold, Executor drainExecutor) {
+        if (millisClock == null) {
+            throw new IllegalArgumentException("millisClock must not be null");
+        }
+        if (drainThreshold <= 0 || drainThreshold > Integer.MAX_VALUE / MAX_PENDING_FACTOR) {
+            throw new IllegalArgumentException("drainThreshold must be in 1.." + Integer.MAX_VALUE / MAX_PENDING_FACTOR);
+        }
+        if (drainExecutor == null) {
+            throw new IllegalArgumentException("drainExecutor must not be null");
+        }
+        this.millisClock = millisClock;
+        this.drainThreshold = drainThreshold;
+        this.maxPending = drainThreshold * MAX_PENDING_FACTOR;
+        this.drainExecutor = drainExecutor;
+    }
+
+    /** Encola las líneas del pedido; no toma locks ni codifica nada en el hilo del checkout. */
+    @Override
+    public void orderAccepted(OrderReceipt receipt, Equipment[] lines) {
+        if (!receipt.hasCents()) {
+            skipped.increment();
+            return;
+        }
+        int n = lines.length;
+        String[] ids = new String[n];
+        byte[] types = new byte[n];
+        int[] quantities = new int[n];
+        long[] priceCents = new long[n];
+        List<OrderReceipt.OrderItem> items = receipt.getItems();
+        for (int i = 0; i < n; i++) {
+            Equipment eq = lines[i];
+            ids[i] = eq.getId();
+            types[i] = (byte) eq.getType().ordinal();
+            quantities[i] = items.get(i).getQuantity();
+            if (!eq.hasPriceCents()) {
+                skipped.increment();
+                return;
+            }
+            priceCents[i] = eq.getPriceCents();
+        }
+        int queued = pendingOrders.incrementAndGet();
+        if (queued > maxPending) {
+            pendingOrders.decrementAndGet();
+            dropped.increment();
+            scheduleDrain();
+            return;
+        }
+        pending.offer(new PendingOrder(minuteOf(millisClock.getAsLong()), receipt.getSubtotalCents(),
+                ids, types, quantities, priceCents));
+        if (queued >= drainThreshold) {
+            scheduleDrain();
+        }
+    }
+
+    /**
+     * Pasa los pedidos encolados a las columnas; retorna cuántas filas agregó.
+     * Con retención, después descarta los bloques que quedaron fuera de la ventana.
+     */
+    public synchronized int drain() {
+        int added = 0;
+        PendingOrder order;
+        while ((order = pending.poll()) != null) {
+            pendingOrders.decrementAndGet();
+            added += append(order);
+        }
+        if (retentionMillis > 0) {
+            dropChunksBefore(minuteOf(millisClock.getAsLong() - retentionMillis));
+        }
+        return added;
+    }
+
+    /**
+     * Ventana de retención: en cada drain se descartan los bloques cuyas ventas son todas
+     * anteriores a ahora - retention. Duration.ZERO (el valor inicial) guarda todo.
+     */
+    public synchronized InventoryAnalytics setRetention(Duration retention) {
+        if (retention == null || retention.isNegative()) {
+            throw new IllegalArgumentException("retention must be >= 0");
+        }
+        this.retentionMillis = retention.toMillis();
+        return this;
+    }
+
+    /**
+     * Descarta los bloques cuyas ventas son todas anteriores a cutoff (a resolución de minuto);
+     * retorna cuántas filas se descartaron. Un bloque con alguna venta posterior se conserva entero.
+     */
+    public synchronized long dropBefore(Instant cutoff) {
+        if (cutoff == null) {
+            throw new IllegalArgumentException("cutoff must not be null");
+        }
+        drain();
+        return dropChunksBefore(minuteOf(cutoff.toEpochMilli()));
+    }
+
+    // Un solo drain en segundo plano a la vez; si el executor lo rechaza, lo intenta el próximo pedido
+    private void scheduleDrain() {
+        if (!drainScheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            drainExecutor.execute(() -> {
+                try {
+                    drain();
+                } finally {
+                    drainScheduled.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            drainScheduled.set(false);
+        }
+    }
+
+    /**
+     * Foto del stock actual de esos equipos (típicamente los valores del catálogo).
+     * Reemplaza la foto anterior; los equipos que no estén dejan de figurar en belowReorder.
+     */
+    public synchronized void captureStock(Collection<Equipment> equipment) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        drain();
+        int[] captured = new int[equipment.size()];
+        int[] levels = new int[equipment.size()];
+        int n = 0;
+        for (Equipment eq : equipment) {
+            if (eq == null) {
+                throw new IllegalArgumentException("equipment must not contain null");
+            }
+            captured[n] = code(eq.getId(), (byte) eq.getType().ordinal());
+            levels[n++] = eq.getStock();
+        }
+        int[] stockByCode = new int[codes.size()];
+        Arrays.fill(stockByCode, -1); // -1 = fuera de la foto
+        for (int i = 0; i < n; i++) {
+            stockByCode[captured[i]] = levels[i];
+        }
+        stock = new StockSnapshot(rows, stockByCode, new long[stockByCode.length]);
+    }
+
+    /**
+     * Unidades e importes por hora y EquipmentType de las ventas en [from, to), con las horas
+     * alineadas a la hora UTC (from se redondea hacia abajo y to hacia arriba).
+     */
+    public synchronized HourlySales salesByTypeAndHour(Instant from, Instant to) {
+        checkRange(from, to);
+        long firstHour = Math.floorDiv(from.toEpochMilli(), MILLIS_PER_MINUTE * MINUTES_PER_HOUR);
+        long endHour = -Math.floorDiv(-to.toEpochMilli(), MILLIS_PER_MINUTE * MINUTES_PER_HOUR);
+        if ((endHour - firstHour) * TYPES > MAX_CELLS) {
+            throw new IllegalArgumentException("range must span at most " + MAX_CELLS / TYPES + " hours");
+        }
+        int hours = (int) (endHour - firstHour);
+        int lo = minuteOf(firstHour * MINUTES_PER_HOUR * MILLIS_PER_MINUTE);
+        int hi = minuteOf(endHour * MINUTES_PER_HOUR * MILLIS_PER_MINUTE);
+        drain();
+        long[] units = new long[hours * TYPES];
+        long[] listAmount = new long[hours * TYPES];
+        long[] netAmount = new long[hours * TYPES];
+        for (Chunk c : chunks) {
+            if (c.maxMinute < lo || c.minMinute >= hi) {
+                continue;
+            }
+            boolean inside = c.minMinute >= lo && c.maxMinute < hi;
+            int[] minute = c.minute;
+            byte[] type = c.type;
+            int[] quantity = c.quantity;
+            long[] list = c.listCents;
+            long[] net = c.netCents;
+            for (int i = 0, size = c.size; i < size; i++) {
+                int m = minute[i];
+                if (inside || (m >= lo && m < hi)) {
+                    int cell = (m - lo) / MINUTES_PER_HOUR * TYPES + type[i];
+                    units[cell] += quantity[i];
+                    listAmount[cell] += list[i];
+                    netAmount[cell] += net[i];
+                }
+            }
+        }
+        return new HourlySales(Instant.ofEpochMilli(firstHour * MINUTES_PER_HOUR * MILLIS_PER_MINUTE),
+                hours, units, listAmount, netAmount);
+    }
+
+    /**
+     * Los n SKUs con más unidades vendidas en [from, to) (a resolución de minuto), de mayor a
+     * menor (empate: por id).
+     */
+    public synchronized Map<String, Long> topSellers(int n, Instant from, Instant to) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n must be > 0");
+        }
+        checkRange(from, to);
+        int lo = minuteOf(from.toEpochMilli());
+        int hi = minuteOf(to.toEpochMilli() + MILLIS_PER_MINUTE - 1);
+        drain();
+        long[] units = new long[codes.size()];
+        for (Chunk c : chunks) {
+            if (c.maxMinute < lo || c.minMinute >= hi) {
+                continue;
+            }
+            int[] minute = c.minute;
+            int[] sku = c.sku;
+            int[] quantity = c.quantity;
+            for (int i = 0, size = c.size; i < size; i++) {
+                int m = minute[i];
+                if (m >= lo && m < hi) {
+                    units[sku[i]] += quantity[i];
+                }
+            }
+        }
+        List<Integer> sold = new ArrayList<>();
+        for (int code = 0; code < units.length; code++) {
+            if (units[code] > 0) {
+                sold.add(code);
+            }
+        }
+        sold.sort(Comparator.<Integer>comparingLong(code -> -units[code]).thenComparing(code -> skus[code]));
+        Map<String, Long> top = new LinkedHashMap<>();
+        for (int i = 0; i < Math.min(n, sold.size()); i++) {
+            int code = sold.get(i);
+            top.put(skus[code], units[code]);
+        }
+        return Collections.unmodifiableMap(top);
+    }
+
+    /** belowReorder de todos los tipos. */
+    public Map<String, Long> belowReorder(int threshold) {
+        return belowReorder(null, threshold);
+    }
+
+    /**
+     * SKUs de la última foto de stock (del tipo dado, o de todos si type es null) cuyo stock
+     * estimado (foto - ventas ingresadas después) es menor que threshold, de menor a mayor stock
+     * (empate: por id). Vacío si todavía no hay foto.
+     */
+    public synchronized Map<String, Long> belowReorder(EquipmentType type, int threshold) {
+        drain();
+        if (stock == null) {
+            return Collections.emptyMap();
+        }
+        int[] levels = stock.stockByCode;
+        long[] sold = stock.droppedSales.clone();
+        for (Chunk c : chunks) {
+            addSalesAfterSnapshot(c, sold);
+        }
+        List<Integer> low = new ArrayList<>();
+        for (int code = 0; code < levels.length; code++) {
+            if (levels[code] >= 0 && (type == null || skuTypes[code] == type.ordinal())
+                    && levels[code] - sold[code] < threshold) {
+                low.add(code);
+            }
+        }
+        low.sort(Comparator.<Integer>comparingLong(code -> levels[code] - sold[code]).thenComparing(code -> skus[code]));
+        Map<String, Long> result = new LinkedHashMap<>();
+        for (int code : low) {
+            result.put(skus[code], levels[code] - sold[code]);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /** Filas (líneas vendidas) ya pasadas a columnas y no descartadas por retención. */
+    public synchronized long getRowCount() {
+        return rows - droppedRows;
+    }
+
+    /** Pedidos descartados porque la cola estaba llena (el drenado no daba abasto). */
+    public long getDroppedOrders() {
+        return dropped.sum();
+    }
+
+    /** Pedidos sin filas porque sus importes no caben en un long de centavos. */
+    public long getSkippedOrders() {
+        return skipped.sum();
+    }
+
+    /** SKUs distintos en el diccionario. */
+    public synchronized int getSkuCount() {
+        return codes.size();
+    }
+
+    private static void checkRange(Instant from, Instant to) {
+        if (from == null || to == null) {
+            throw new IllegalArgumentException("from and to must not be null");
+        }
+        if (!from.isBefore(to)) {
+            throw new IllegalArgumentException("from must be before to");
+        }
+    }
+
+    // Minuto epoch acotado a int (alcanza hasta el año 6000)
+    private static int minuteOf(long epochMillis) {
+        long minute = Math.floorDiv(epochMillis, MILLIS_PER_MINUTE);
+        return (int) Math.max(Integer.MIN_VALUE, Math.min(Integer.MAX_VALUE, minute));
+    }
+
+    // Filas del pedido; retorna cuántas agregó
+    private int append(PendingOrder order) {
+        int n = order.ids.length;
+        long[] list = new long[n];
+        long listTotal = 0;
+        try {
+            for (int i = 0; i < n; i++) {
+                list[i] = Cents.times(order.priceCents[i], order.quantities[i]);
+                listTotal = Cents.add(listTotal, list[i]);
+            }
+        } catch (ArithmeticException e) {
+            skipped.increment(); // importes de lista que no caben en centavos: sin filas
+            return 0;
+        }
+        long remaining = order.subtotalCents;
+        for (int i = 0; i < n; i++) {
+            long net = i == n - 1 ? remaining : share(list[i], order.subtotalCents, listTotal);
+            remaining = Cents.subtract(remaining, net);
+            appendRow(order.minute, code(order.ids[i], order.types[i]), order.types[i],
+                    order.quantities[i], list[i], net);
+        }
+        return n;
+    }
+
+    // subtotal * list / listTotal con redondeo HALF_UP (la última línea se lleva el resto)
+    private static long share(long list, long subtotal, long listTotal) {
+        if (listTotal == 0) {
+            return 0;
+        }
+        try {
+            return Cents.divideHalfUp(Math.multiplyExact(list, subtotal), listTotal);
+        } catch (ArithmeticException e) {
+            BigInteger[] qr = BigInteger.valueOf(list).multiply(BigInteger.valueOf(subtotal))
+                    .divideAndRemainder(BigInteger.valueOf(listTotal));
+            return qr[0].longValueExact() + (qr[1].shiftLeft(1).compareTo(BigInteger.valueOf(listTotal)) >= 0 ? 1 : 0);
+        }
+    }
+
+    private void appendRow(int minute, int sku, byte type, int quantity, long listCents, long netCents) {
+        Chunk c = chunks.isEmpty() ? null : chunks.get(chunks.size() - 1);
+        if (c == null || c.size == CHUNK) {
+            c = new Chunk(rows);
+            chunks.add(c);
+        }
+        int i = c.size++;
+        c.minute[i] = minute;
+        c.sku[i] = sku;
+        c.type[i] = type;
+        c.quantity[i] = quantity;
+        c.listCents[i] = listCents;
+        c.netCents[i] = netCents;
+        c.minMinute = Math.min(c.minMinute, minute);
+        c.maxMinute = Math.max(c.maxMinute, minute);
+        rows++;
+    }
+
+    // Saca los bloques con maxMinute < minute; sus ventas posteriores a la foto pasan a la foto
+    private long dropChunksBefore(int minute) {
+        long dropped = 0;
+        int kept = 0;
+        for (int i = 0; i < chunks.size(); i++) {
+            Chunk c = chunks.get(i);
+            if (c.maxMinute < minute) {
+                if (stock != null) {
+                    addSalesAfterSnapshot(c, stock.droppedSales);
+                }
+                dropped += c.size;
+            } else {
+                chunks.set(kept++, c);
+            }
+        }
+        chunks.subList(kept, chunks.size()).clear();
+        droppedRows += dropped;
+        return dropped;
+    }
+
+    // Suma a sold las unidades del bloque ingresadas después de la foto de stock
+    private void addSalesAfterSnapshot(Chunk c, long[] sold) {
+        if (c.firstRow + c.size <= stock.rowMark) {
+            return;
+        }
+        int[] sku = c.sku;
+        int[] quantity = c.quantity;
+        for (int i = (int) Math.max(0, stock.rowMark - c.firstRow), size = c.size; i < size; i++) {
+            int code = sku[i];
+            if (code < sold.length) { // los SKUs nuevos no están en la foto
+                sold[code] += quantity[i];
+            }
+        }
+    }
+
+    // Código del id en el diccionario (lo agrega si es nuevo)
+    private int code(String id, byte type) {
+        Integer existing = codes.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int code = codes.size();
+        if (code == skus.length) {
+            skus = Arrays.copyOf(skus, code * 2);
+            skuTypes = Arrays.copyOf(skuTypes, code * 2);
+        }
+        skus[code] = id;
+        skuTypes[code] = type;
+        codes.put(id, code);
+        return code;
+    }
+
+    /** Líneas de un pedido confirmado, todavía sin codificar. */
+    private static final class PendingOrder {
+        private final int minute;
+        private final long subtotalCents;
+        private final String[] ids;
+        private final byte[] types;
+        private final int[] quantities;
+        private final long[] priceCents;
+
+        private PendingOrder(int minute, long subtotalCents, String[] ids, byte[] types,
+                             int[] quantities, long[] priceCents) {
+            this.minute = minute;
+            this.subtotalCents = subtotalCents;
+            this.ids = ids;
+            this.types = types;
+            this.quantities = quantities;
+            this.priceCents = priceCents;
+        }
+    }
+
+    /** Bloque de CHUNK filas: una columna por campo, más el rango de minutos que contiene. */
+    private static final class Chunk {
+        private final long firstRow; // número de fila (desde el inicio) de la posición 0
+        private final int[] minute = new int[CHUNK];
+        private final int[] sku = new int[CHUNK];
+        private final byte[] type = new byte[CHUNK];
+        private final int[] quantity = new int[CHUNK];
+        private final long[] listCents = new long[CHUNK];
+        private final long[] netCents = new long[CHUNK];
+        private int size;
+        private int minMinute = Integer.MAX_VALUE;
+        private int maxMinute = Integer.MIN_VALUE;
+
+        private Chunk(long firstRow) {
+            this.firstRow = firstRow;
+        }
+    }
+
+    /**
+     * Stock por código de SKU (-1 = no estaba), la fila desde la que hay ventas posteriores y
+     * las unidades posteriores que estaban en bloques ya descartados.
+     */
+    private static final class StockSnapshot {
+        private final long rowMark;
+        private final int[] stockByCode;
+        private final long[] droppedSales;
+
+        private StockSnapshot(long rowMark, int[] stockByCode, long[] droppedSales) {
+            this.rowMark = rowMark;
+            this.stockByCode = stockByCode;
+            this.droppedSales = droppedSales;
+        }
+    }
+}
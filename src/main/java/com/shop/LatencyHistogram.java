@@ -0,0 +1,99 @@
+package com.shop;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * LatencyHistogram es un histograma log-lineal (estilo HDR) seguro entre hilos.
+ * Cada potencia de 2 se divide en 32 sub-buckets: el error relativo es menor a ~3%
+ * en todo el rango de long, con un arreglo fijo de contadores y sin asignaciones al registrar.
+ */
+public class LatencyHistogram {
+    // m = 5 -> 32 sub-buckets por octava
+    private static final int SUB_BITS = 5;
+    private static final int SUB_COUNT = 1 << SUB_BITS;
+    private static final int LINEAR_LIMIT = SUB_COUNT * 2; // valores < 64 se guardan exactos
+    private static final int BUCKETS = LINEAR_LIMIT + (62 - SUB_BITS) * SUB_COUNT;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder total = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    private final LongAccumulator max = new LongAccumulator(Math::max, 0L);
+
+    /** Registra un valor (p.ej. nanosegundos); los negativos se registran como 0. */
+    public void record(long value) {
+        long v = Math.max(0L, value);
+        counts.incrementAndGet(indexOf(v));
+        total.increment();
+        sum.add(v);
+        max.accumulate(v);
+    }
+
+    public long getCount() {
+        return total.sum();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = total.sum();
+        return n == 0 ? 0.0 : (double) sum.sum() / n;
+    }
+
+    /**
+     * Valor en el percentil dado (0..100): límite superior del bucket que lo contiene.
+     * Retorna 0 si no hay registros.
+     */
+    public long getValueAtPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be in 0..100");
+        }
+        long n = total.sum();
+        if (n == 0) {
+            return 0L;
+        }
+        long rank = Math.max(1L, (long) Math.ceil(percentile / 100.0 * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(highestValueOf(i), getMax());
+            }
+        }
+        return getMax();
+    }
+
+    /** Borra todos los registros. */
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0L);
+        }
+        total.reset();
+        sum.reset();
+        max.reset();
+    }
+
+    static int indexOf(long v) {
+        if (v < LINEAR_LIMIT) {
+            return (int) v;
+        }
+        int exp = 63 - Long.numberOfLeadingZeros(v);
+        int shift = exp - SUB_BITS;
+        int mantissa = (int) (v >>> shift); // en [32, 64)
+        return LINEAR_LIMIT + (exp - SUB_BITS - 1) * SUB_COUNT + (mantissa - SUB_COUNT);
+    }
+
+    static long highestValueOf(int index) {
+        if (index < LINEAR_LIMIT) {
+            return index;
+        }
+        int rel = index - LINEAR_LIMIT;
+        int shift = rel / SUB_COUNT + 1;
+        long mantissa = SUB_COUNT + rel % SUB_COUNT;
+        long upper = ((mantissa + 1) << shift) - 1;
+        return upper < 0 ? Long.MAX_VALUE : upper;
+    }
+}
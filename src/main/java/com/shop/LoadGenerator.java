@@ -0,0 +1,218 @@
+package com.shop;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * LoadGenerator somete un OrderService a carga sintética según un LoadProfile (soak test).
+ * - Arma un catálogo nuevo (SKU-0..SKU-n-1) con la implementación pedida y stock uniforme
+ * - Cada hilo arma carritos con Cart.addItem (SKUs Zipf, líneas geométricas) y llama a
+ *   tryProcessOrder hasta que vence warmup + duration
+ * - Con targetRate cada hilo sigue una agenda fija (threads / rate segundos entre pedidos);
+ *   si se atrasa no duerme y la latencia se mide desde el inicio previsto, así una pausa
+ *   del servicio no esconde las esperas que habría sufrido la carga real
+ * - Al terminar compara las unidades de los recibos con el stock descontado (por SKU) y
+ *   toma la actividad de GC de los MXBeans
+ * Cada run() usa un catálogo y contadores propios.
+ */
+public class LoadGenerator {
+    private final LoadProfile profile;
+
+    public LoadGenerator(LoadProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("profile must not be null");
+        }
+        this.profile = profile;
+    }
+
+    /**
+     * Ejecuta la corrida y bloquea hasta que termina.
+     * Lanza IllegalStateException si un hilo de carga falla con una excepción inesperada.
+     */
+    public LoadReport run() throws InterruptedException {
+        Run run = new Run(profile);
+        List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+        long[] gcCounts = new long[collectors.size()];
+        long[] gcMillis = new long[collectors.size()];
+        for (int i = 0; i < collectors.size(); i++) {
+            gcCounts[i] = collectors.get(i).getCollectionCount();
+            gcMillis[i] = collectors.get(i).getCollectionTime();
+        }
+
+        long start = System.nanoTime();
+        run.measureStart = start + profile.getWarmup().toNanos();
+        run.end = run.measureStart + profile.getDuration().toNanos();
+        ExecutorService executor = VirtualThreads.newExecutor(profile.isVirtualThreads(), profile.getThreads(), "load");
+        try {
+            List<Future<?>> workers = new ArrayList<>();
+            for (int w = 0; w < profile.getThreads(); w++) {
+                SplittableRandom rnd = new SplittableRandom(profile.getSeed() + w);
+                workers.add(executor.submit(() -> run.work(rnd, start)));
+            }
+            for (Future<?> worker : workers) {
+                try {
+                    worker.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("load worker failed", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long elapsed = Math.max(0L, Math.min(System.nanoTime(), run.end) - run.measureStart);
+
+        List<LoadReport.GcStat> gc = new ArrayList<>();
+        for (int i = 0; i < collectors.size(); i++) {
+            GarbageCollectorMXBean c = collectors.get(i);
+            gc.add(new LoadReport.GcStat(c.getName(), Math.max(0L, c.getCollectionCount() - gcCounts[i]),
+                    Math.max(0L, c.getCollectionTime() - gcMillis[i])));
+        }
+        return run.report(elapsed, gc);
+    }
+
+    // Estado de una corrida: catálogo, muestreo y contadores compartidos por los hilos
+    private static final class Run {
+        private final LoadProfile profile;
+        private final EquipmentCatalog catalog;
+        private final OrderService service;
+        private final Equipment[] skus;
+        private final Map<String, Integer> index;
+        private final double[] popularity; // CDF acumulada (sin normalizar) de la Zipf
+        private final AtomicLongArray soldUnits; // por SKU, según los recibos (incluye warmup)
+        private final LongAdder accepted = new LongAdder();
+        private final EnumMap<RejectionReason, LongAdder> rejected = new EnumMap<>(RejectionReason.class);
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private long measureStart;
+        private long end;
+
+        Run(LoadProfile profile) {
+            this.profile = profile;
+            int n = profile.getCatalogSize();
+            EquipmentType[] types = EquipmentType.values();
+            skus = new Equipment[n];
+            index = new HashMap<>(n * 2);
+            Map<String, Equipment> map = new HashMap<>(n * 2);
+            for (int i = 0; i < n; i++) {
+                BigDecimal price = BigDecimal.valueOf(1_000 + (i % 97) * 137L, 2);
+                skus[i] = new Equipment("SKU-" + i, "Item " + i, price, profile.getStockPerSku(),
+                        types[i % types.length], true);
+                index.put(skus[i].getId(), i);
+                map.put(skus[i].getId(), skus[i]);
+            }
+            switch (profile.getCatalogKind()) {
+                case SHARDED -> catalog = new ShardedCatalog(Arrays.asList(skus), 64);
+                case VERSIONED -> catalog = new VersionedCatalog(Arrays.asList(skus));
+                default -> catalog = EquipmentCatalog.of(map);
+            }
+            service = new OrderService(catalog, profile.getMoneyMode());
+            popularity = new double[n];
+            double sum = 0;
+            for (int i = 0; i < n; i++) {
+                sum += 1.0 / Math.pow(i + 1, profile.getSkew());
+                popularity[i] = sum;
+            }
+            soldUnits = new AtomicLongArray(n);
+            for (RejectionReason reason : RejectionReason.values()) {
+                rejected.put(reason, new LongAdder());
+            }
+        }
+
+        void work(SplittableRandom rnd, long start) {
+            long interval = profile.getTargetRate() > 0
+                    ? Math.max(1L, Math.round(profile.getThreads() * 1e9 / profile.getTargetRate())) : 0L;
+            // Agendas escalonadas para que los hilos no arranquen todos a la vez
+            long intended = start + (interval > 0 ? rnd.nextLong(interval) : 0L);
+            while (true) {
+                long now = System.nanoTime();
+                if (now - end >= 0) {
+                    return;
+                }
+                if (interval > 0 && intended - now > 0) {
+                    LockSupport.parkNanos(intended - now);
+                    continue;
+                }
+                long begin = interval > 0 ? intended : now;
+                intended += interval;
+                Cart cart = newCart(rnd);
+                OrderResult result = service.tryProcessOrder(cart, rnd.nextDouble() < profile.getRentalRatio());
+                long done = System.nanoTime();
+                if (result instanceof OrderResult.Accepted ok) {
+                    for (OrderReceipt.OrderItem item : ok.getReceipt().getItems()) {
+                        soldUnits.addAndGet(index.get(item.getId()), item.getQuantity());
+                    }
+                }
+                if (begin - measureStart >= 0 && done - end < 0) {
+                    latency.record(done - begin);
+                    if (result instanceof OrderResult.Rejected r) {
+                        rejected.get(r.getReason()).increment();
+                    } else {
+                        accepted.increment();
+                    }
+                }
+            }
+        }
+
+        private Cart newCart(SplittableRandom rnd) {
+            Cart cart = new Cart();
+            int lines = Math.min(profile.getCartMaxLines(), geometric(rnd, profile.getCartMeanLines()));
+            for (int i = 0; i < lines; i++) {
+                cart.addItem(skus[pickSku(rnd)], 1 + rnd.nextInt(profile.getMaxQuantity()));
+            }
+            return cart;
+        }
+
+        private int pickSku(SplittableRandom rnd) {
+            double u = rnd.nextDouble() * popularity[popularity.length - 1];
+            int k = Arrays.binarySearch(popularity, u);
+            return Math.min(popularity.length - 1, k >= 0 ? k : -k - 1);
+        }
+
+        // 1, 2, 3... con media mean (mean = 1 -> siempre 1)
+        private static int geometric(SplittableRandom rnd, double mean) {
+            double p = 1.0 / mean;
+            if (p >= 1.0) {
+                return 1;
+            }
+            double draws = Math.floor(Math.log(1.0 - rnd.nextDouble()) / Math.log(1.0 - p));
+            return (int) Math.min(Integer.MAX_VALUE - 1, draws) + 1;
+        }
+
+        LoadReport report(long elapsed, List<LoadReport.GcStat> gc) {
+            long receiptUnits = 0;
+            long decrements = 0;
+            int mismatched = 0;
+            int negative = 0;
+            for (int i = 0; i < skus.length; i++) {
+                int stock = catalog.get(skus[i].getId()).getStock();
+                long decremented = (long) profile.getStockPerSku() - stock;
+                long sold = soldUnits.get(i);
+                receiptUnits += sold;
+                decrements += decremented;
+                if (decremented != sold) {
+                    mismatched++;
+                }
+                if (stock < 0) {
+                    negative++;
+                }
+            }
+            EnumMap<RejectionReason, Long> rejections = new EnumMap<>(RejectionReason.class);
+            rejected.forEach((reason, n) -> rejections.put(reason, n.sum()));
+            return new LoadReport(elapsed, accepted.sum(), rejections, latency, receiptUnits, decrements,
+                    mismatched, negative, gc);
+        }
+    }
+}
@@ -0,0 +1,288 @@
+package com.shop;
+
+import java.time.Duration;
+import java.util.Set;
+
+/**
+ * LoadProfile configura una corrida de LoadGenerator (ver org.example.Main).
+ * - Catálogo: cantidad de SKUs, stock inicial por SKU e implementación (MAP, SHARDED, VERSIONED)
+ * - Popularidad: los SKUs se eligen con distribución Zipf de parámetro skew (0 = uniforme)
+ * - Carritos: líneas con distribución geométrica de media cartMeanLines (tope cartMaxLines)
+ *   y cantidad uniforme 1..maxQuantity por línea
+ * - rentalRatio: fracción de pedidos con rental=true
+ * - Hilos: threads trabajadores (de plataforma o virtuales) durante warmup + duration;
+ *   targetRate > 0 fija pedidos por segundo en total, 0 = tan rápido como se pueda
+ * Los setters validan y retornan this (se encadenan como CatalogDelta).
+ */
+public class LoadProfile {
+    /** Implementación de catálogo a ejercitar. */
+    public enum CatalogKind { MAP, SHARDED, VERSIONED }
+
+    private static final Set<String> OPTIONS = Set.of("catalog-size", "stock", "catalog", "skew", "cart-mean",
+            "cart-max", "max-qty", "rental-ratio", "threads", "virtual", "warmup", "duration", "rate", "money", "seed");
+
+    private int catalogSize = 1_000;
+    private int stockPerSku = 1_000_000;
+    private CatalogKind catalogKind = CatalogKind.MAP;
+    private double skew = 0.99;
+    private double cartMeanLines = 3.0;
+    private int cartMaxLines = 20;
+    private int maxQuantity = 2;
+    private double rentalRatio = 0.2;
+    private int threads = Runtime.getRuntime().availableProcessors();
+    private boolean virtualThreads;
+    private Duration warmup = Duration.ofSeconds(2);
+    private Duration duration = Duration.ofSeconds(30);
+    private double targetRate;
+    private MoneyMode moneyMode = MoneyMode.CENTS;
+    private long seed = 42L;
+
+    /**
+     * Arma un perfil desde argumentos de línea de comandos: --opcion=valor o --opcion valor.
+     * Duraciones como 500ms, 30s, 2m o segundos sin unidad. Ver usage().
+     * Lanza IllegalArgumentException si una opción no existe o su valor es inválido.
+     */
+    public static LoadProfile fromArgs(String... args) {
+        LoadProfile profile = new LoadProfile();
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("unexpected argument: " + arg);
+            }
+            String name = arg.substring(2);
+            String value = null;
+            int eq = name.indexOf('=');
+            if (eq >= 0) {
+                value = name.substring(eq + 1);
+                name = name.substring(0, eq);
+            }
+            if (!OPTIONS.contains(name)) {
+                throw new IllegalArgumentException("unknown option: --" + name);
+            }
+            if (name.equals("virtual")) {
+                profile.setVirtualThreads(value == null || Boolean.parseBoolean(value));
+                continue;
+            }
+            if (value == null) {
+                if (i + 1 >= args.length) {
+                    throw new IllegalArgumentException("missing value for --" + name);
+                }
+                value = args[++i];
+            }
+            try {
+                profile.set(name, value);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("invalid value for --" + name + ": " + value);
+            }
+        }
+        return profile;
+    }
+
+    /** Texto de ayuda con las opciones de fromArgs y sus valores por defecto. */
+    public static String usage() {
+        LoadProfile d = new LoadProfile();
+        return String.join(System.lineSeparator(),
+                "Options (--name=value or --name value):",
+                "  --catalog-size N     SKUs in the catalog (" + d.catalogSize + ")",
+                "  --stock N            initial stock per SKU (" + d.stockPerSku + ")",
+                "  --catalog KIND       map | sharded | versioned (" + d.catalogKind.name().toLowerCase() + ")",
+                "  --skew S             Zipf skew of SKU popularity, 0 = uniform (" + d.skew + ")",
+                "  --cart-mean N        mean lines per cart, geometric (" + d.cartMeanLines + ")",
+                "  --cart-max N         max lines per cart (" + d.cartMaxLines + ")",
+                "  --max-qty N          max quantity per line (" + d.maxQuantity + ")",
+                "  --rental-ratio R     fraction of rental orders (" + d.rentalRatio + ")",
+                "  --threads N          worker threads (" + d.threads + ")",
+                "  --virtual            use virtual threads when the JVM has them",
+                "  --warmup D           warm-up not counted in the report (" + d.warmup.toMillis() + "ms)",
+                "  --duration D         measured run time (" + d.duration.toSeconds() + "s)",
+                "  --rate N             target orders per second, 0 = unbounded (" + (long) d.targetRate + ")",
+                "  --money MODE         cents | big_decimal (" + d.moneyMode.name().toLowerCase() + ")",
+                "  --seed N             random seed (" + d.seed + ")");
+    }
+
+    private void set(String name, String value) {
+        switch (name) {
+            case "catalog-size" -> setCatalogSize(Integer.parseInt(value));
+            case "stock" -> setStockPerSku(Integer.parseInt(value));
+            case "catalog" -> setCatalogKind(CatalogKind.valueOf(upper(name, value, CatalogKind.values())));
+            case "skew" -> setSkew(Double.parseDouble(value));
+            case "cart-mean" -> setCartMeanLines(Double.parseDouble(value));
+            case "cart-max" -> setCartMaxLines(Integer.parseInt(value));
+            case "max-qty" -> setMaxQuantity(Integer.parseInt(value));
+            case "rental-ratio" -> setRentalRatio(Double.parseDouble(value));
+            case "threads" -> setThreads(Integer.parseInt(value));
+            case "warmup" -> setWarmup(parseDuration(value));
+            case "duration" -> setDuration(parseDuration(value));
+            case "rate" -> setTargetRate(Double.parseDouble(value));
+            case "money" -> setMoneyMode(MoneyMode.valueOf(upper(name, value, MoneyMode.values())));
+            case "seed" -> setSeed(Long.parseLong(value));
+            default -> throw new IllegalArgumentException("unknown option: --" + name);
+        }
+    }
+
+    private static String upper(String name, String value, Enum<?>[] allowed) {
+        String constant = value.toUpperCase().replace('-', '_');
+        for (Enum<?> e : allowed) {
+            if (e.name().equals(constant)) {
+                return constant;
+            }
+        }
+        throw new IllegalArgumentException("invalid value for --" + name + ": " + value);
+    }
+
+    // 500ms, 30s, 2m o segundos sin unidad
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    public LoadProfile setCatalogSize(int catalogSize) {
+        if (catalogSize <= 0) {
+            throw new IllegalArgumentException("catalogSize must be > 0");
+        }
+        this.catalogSize = catalogSize;
+        return this;
+    }
+
+    public LoadProfile setStockPerSku(int stockPerSku) {
+        if (stockPerSku < 0) {
+            throw new IllegalArgumentException("stockPerSku must be >= 0");
+        }
+        this.stockPerSku = stockPerSku;
+        return this;
+    }
+
+    public LoadProfile setCatalogKind(CatalogKind catalogKind) {
+        if (catalogKind == null) {
+            throw new IllegalArgumentException("catalogKind must not be null");
+        }
+        this.catalogKind = catalogKind;
+        return this;
+    }
+
+    public LoadProfile setSkew(double skew) {
+        if (!(skew >= 0) || Double.isInfinite(skew)) {
+            throw new IllegalArgumentException("skew must be >= 0");
+        }
+        this.skew = skew;
+        return this;
+    }
+
+    public LoadProfile setCartMeanLines(double cartMeanLines) {
+        if (!(cartMeanLines >= 1) || Double.isInfinite(cartMeanLines)) {
+            throw new IllegalArgumentException("cartMeanLines must be >= 1");
+        }
+        this.cartMeanLines = cartMeanLines;
+        return this;
+    }
+
+    public LoadProfile setCartMaxLines(int cartMaxLines) {
+        if (cartMaxLines <= 0) {
+            throw new IllegalArgumentException("cartMaxLines must be > 0");
+        }
+        this.cartMaxLines = cartMaxLines;
+        return this;
+    }
+
+    public LoadProfile setMaxQuantity(int maxQuantity) {
+        if (maxQuantity <= 0) {
+            throw new IllegalArgumentException("maxQuantity must be > 0");
+        }
+        this.maxQuantity = maxQuantity;
+        return this;
+    }
+
+    public LoadProfile setRentalRatio(double rentalRatio) {
+        if (!(rentalRatio >= 0 && rentalRatio <= 1)) {
+            throw new IllegalArgumentException("rentalRatio must be in 0..1");
+        }
+        this.rentalRatio = rentalRatio;
+        return this;
+    }
+
+    public LoadProfile setThreads(int threads) {
+        if (threads <= 0) {
+            throw new IllegalArgumentException("threads must be > 0");
+        }
+        this.threads = threads;
+        return this;
+    }
+
+    public LoadProfile setVirtualThreads(boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+        return this;
+    }
+
+    public LoadProfile setWarmup(Duration warmup) {
+        if (warmup == null || warmup.isNegative()) {
+            throw new IllegalArgumentException("warmup must be >= 0");
+        }
+        this.warmup = warmup;
+        return this;
+    }
+
+    public LoadProfile setDuration(Duration duration) {
+        if (duration == null || duration.isNegative() || duration.isZero()) {
+            throw new IllegalArgumentException("duration must be > 0");
+        }
+        this.duration = duration;
+        return this;
+    }
+
+    public LoadProfile setTargetRate(double targetRate) {
+        if (!(targetRate >= 0) || Double.isInfinite(targetRate)) {
+            throw new IllegalArgumentException("targetRate must be >= 0");
+        }
+        this.targetRate = targetRate;
+        return this;
+    }
+
+    public LoadProfile setMoneyMode(MoneyMode moneyMode) {
+        if (moneyMode == null) {
+            throw new IllegalArgumentException("moneyMode must not be null");
+        }
+        this.moneyMode = moneyMode;
+        return this;
+    }
+
+    public LoadProfile setSeed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public int getCatalogSize() { return catalogSize; }
+    public int getStockPerSku() { return stockPerSku; }
+    public CatalogKind getCatalogKind() { return catalogKind; }
+    public double getSkew() { return skew; }
+    public double getCartMeanLines() { return cartMeanLines; }
+    public int getCartMaxLines() { return cartMaxLines; }
+    public int getMaxQuantity() { return maxQuantity; }
+    public double getRentalRatio() { return rentalRatio; }
+    public int getThreads() { return threads; }
+    public boolean isVirtualThreads() { return virtualThreads; }
+    public Duration getWarmup() { return warmup; }
+    public Duration getDuration() { return duration; }
+    public double getTargetRate() { return targetRate; }
+    public MoneyMode getMoneyMode() { return moneyMode; }
+    public long getSeed() { return seed; }
+
+    @Override
+    public String toString() {
+        return "LoadProfile{" + "catalogSize=" + catalogSize + ", stockPerSku=" + stockPerSku
+                + ", catalog=" + catalogKind + ", skew=" + skew + ", cartMeanLines=" + cartMeanLines
+                + ", cartMaxLines=" + cartMaxLines + ", maxQuantity=" + maxQuantity
+                + ", rentalRatio=" + rentalRatio + ", threads=" + threads + (virtualThreads ? " (virtual)" : "")
+                + ", warmup=" + warmup.toMillis() + "ms, duration=" + duration.toMillis() + "ms"
+                + ", targetRate=" + (targetRate == 0 ? "unbounded" : targetRate + "/s")
+                + ", money=" + moneyMode + ", seed=" + seed + '}';
+    }
+}
@@ -0,0 +1,126 @@
+package com.shop;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * LoadReport resume una corrida de LoadGenerator.
+ * - Ventana medida (sin warmup): pedidos aceptados y rechazados por motivo, throughput
+ *   y latencias (ns; con targetRate se miden desde el inicio previsto de cada pedido)
+ * - Control de sobreventa (toda la corrida, warmup incluido): unidades de los recibos
+ *   contra stock descontado del catálogo, en total y por SKU, y SKUs con stock negativo
+ * - GC: colecciones y tiempo por colector durante la corrida
+ */
+public final class LoadReport {
+    private final long elapsedNanos; // inmutable
+    private final long accepted; // inmutable
+    private final Map<RejectionReason, Long> rejections; // inmutable
+    private final LatencyHistogram latency; // no se modifica después de la corrida
+    private final long receiptUnits; // inmutable
+    private final long stockDecrements; // inmutable
+    private final int mismatchedSkus; // inmutable
+    private final int negativeSkus; // inmutable
+    private final List<GcStat> gc; // inmutable
+
+    LoadReport(long elapsedNanos, long accepted, EnumMap<RejectionReason, Long> rejections,
+               LatencyHistogram latency, long receiptUnits, long stockDecrements,
+               int mismatchedSkus, int negativeSkus, List<GcStat> gc) {
+        this.elapsedNanos = elapsedNanos;
+        this.accepted = accepted;
+        this.rejections = Collections.unmodifiableMap(rejections);
+        this.latency = latency;
+        this.receiptUnits = receiptUnits;
+        this.stockDecrements = stockDecrements;
+        this.mismatchedSkus = mismatchedSkus;
+        this.negativeSkus = negativeSkus;
+        this.gc = Collections.unmodifiableList(gc);
+    }
+
+    public long getElapsedNanos() { return elapsedNanos; }
+    public long getAccepted() { return accepted; }
+    public Map<RejectionReason, Long> getRejections() { return rejections; }
+    public LatencyHistogram getLatency() { return latency; }
+    public long getReceiptUnits() { return receiptUnits; }
+    public long getStockDecrements() { return stockDecrements; }
+    public int getMismatchedSkus() { return mismatchedSkus; }
+    public int getNegativeSkus() { return negativeSkus; }
+    public List<GcStat> getGc() { return gc; }
+
+    public long getRejected() {
+        long n = 0;
+        for (long r : rejections.values()) {
+            n += r;
+        }
+        return n;
+    }
+
+    /** Pedidos (aceptados + rechazados) por segundo en la ventana medida. */
+    public double getOrdersPerSecond() {
+        return elapsedNanos == 0 ? 0.0 : (accepted + getRejected()) * 1_000_000_000.0 / elapsedNanos;
+    }
+
+    /** Sin sobreventa: stock descontado = unidades de los recibos (total y por SKU), sin negativos. */
+    public boolean isConsistent() {
+        return receiptUnits == stockDecrements && mismatchedSkus == 0 && negativeSkus == 0;
+    }
+
+    /** Reporte legible de varias líneas (lo imprime org.example.Main). */
+    public String format() {
+        StringBuilder sb = new StringBuilder();
+        String nl = System.lineSeparator();
+        sb.append(String.format("orders      %d accepted, %d rejected in %.1fs (%.0f orders/s)",
+                accepted, getRejected(), elapsedNanos / 1e9, getOrdersPerSecond())).append(nl);
+        rejections.forEach((reason, n) -> {
+            if (n > 0) {
+                sb.append(String.format("  rejected  %-24s %d", reason, n)).append(nl);
+            }
+        });
+        sb.append(String.format("latency us p50=%.1f p90=%.1f p99=%.1f p99.9=%.1f max=%.1f mean=%.1f",
+                micros(latency.getValueAtPercentile(50)), micros(latency.getValueAtPercentile(90)),
+                micros(latency.getValueAtPercentile(99)), micros(latency.getValueAtPercentile(99.9)),
+                micros(latency.getMax()), latency.getMean() / 1_000.0)).append(nl);
+        sb.append(String.format("oversell    receipt units=%d stock decrements=%d mismatched skus=%d"
+                        + " negative skus=%d -> %s",
+                receiptUnits, stockDecrements, mismatchedSkus, negativeSkus, isConsistent() ? "OK" : "FAILED"))
+                .append(nl);
+        for (GcStat stat : gc) {
+            sb.append(String.format("gc          %-24s %d collections, %d ms", stat.getName(),
+                    stat.getCollections(), stat.getMillis())).append(nl);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return "LoadReport{" + "accepted=" + accepted + ", rejected=" + getRejected()
+                + ", ordersPerSecond=" + Math.round(getOrdersPerSecond()) + ", consistent=" + isConsistent() + '}';
+    }
+
+    private static double micros(long nanos) {
+        return nanos / 1_000.0;
+    }
+
+    /** Actividad de un colector de basura durante la corrida. */
+    public static final class GcStat {
+        private final String name; // inmutable
+        private final long collections; // inmutable
+        private final long millis; // inmutable
+
+        GcStat(String name, long collections, long millis) {
+            this.name = name;
+            this.collections = collections;
+            this.millis = millis;
+        }
+
+        public String getName() { return name; }
+        public long getCollections() { return collections; }
+        public long getMillis() { return millis; }
+
+        @Override
+        public String toString() {
+            return name + ": " + collections + " collections, " + millis + " ms";
+        }
+    }
+}
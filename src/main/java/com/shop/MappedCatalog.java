@@ -0,0 +1,324 @@
+package com.shop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * MappedCatalog guarda el catálogo en un archivo mapeado en memoria (fuera del heap).
+ * - Registros de ancho fijo: stock, tipo, flags, precio en centavos, id y nombre
+ * - Índice hash id -> registro (direccionamiento abierto) dentro del mismo archivo
+ * - Abrir es inmediato: el archivo se mapea, no se parsea
+ * - get() crea la vista Equipment sólo cuando se pide; el stock de la vista vive en el
+ *   archivo y se actualiza con compare-and-set directamente sobre él
+ * - Las vistas se reutilizan desde una caché de tamaño fijo (un casillero por número de
+ *   registro módulo VIEW_CACHE_SIZE): la memoria en el heap no crece con el catálogo.
+ *   Dos get del mismo id pueden retornar instancias distintas (comparten el stock del
+ *   archivo, no los StockListener registrados en cada una); los holds de un ReservedCart
+ *   las reconocen como el mismo equipo
+ * Un solo hilo puede agregar equipos; las lecturas y cambios de stock son concurrentes.
+ */
+public class MappedCatalog implements EquipmentCatalog, Closeable {
+    private static final int MAGIC = 0x53484F4D; // "SHOM"
+    private static final int VERSION = 1;
+    // Capacidad máxima: el índice (2 slots de 4 bytes por equipo) debe caber en un buffer
+    public static final int MAX_CAPACITY = 1 << 27;
+    public static final int MAX_ID_BYTES = 32;
+    public static final int MAX_NAME_BYTES = 48;
+    // Vistas Equipment que se conservan en el heap como máximo
+    static final int VIEW_CACHE_SIZE = 4_096;
+
+    // Cabecera: [magic][version][capacity][count][indexSlots]
+    private static final int HEADER_SIZE = 64;
+    private static final int H_CAPACITY = 8;
+    private static final int H_COUNT = 12;
+    private static final int H_SLOTS = 16;
+
+    // Registro de ancho fijo (stock primero, alineado a 4 bytes para CAS)
+    static final int RECORD_SIZE = 96;
+    private static final int R_STOCK = 0;
+    private static final int R_TYPE = 4;
+    private static final int R_FLAGS = 5;
+    private static final int R_ID_LEN = 6;
+    private static final int R_NAME_LEN = 7;
+    private static final int R_PRICE = 8;
+    private static final int R_ID = 16;
+    private static final int R_NAME = R_ID + MAX_ID_BYTES;
+    private static final int FLAG_RENTAL = 1;
+
+    // Los registros se mapean en bloques para no superar el límite de 2 GB por buffer
+    private static final int RECORDS_PER_CHUNK = 1 << 20;
+
+    // Acceso atómico a enteros dentro de buffers directos
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.BIG_ENDIAN);
+
+    private final FileChannel channel;
+    private final MappedByteBuffer header;
+    private final MappedByteBuffer index;
+    private final MappedByteBuffer[] chunks;
+    private final int capacity;
+    private final int slotMask;
+    // Vistas recientes: casillero record & viewMask (se pisa al pedir otro registro del mismo casillero)
+    private final AtomicReferenceArray<MappedEquipment> views;
+    private final int viewMask;
+
+    private MappedCatalog(FileChannel channel, int capacity, int slots) throws IOException {
+        this.channel = channel;
+        this.capacity = capacity;
+        this.slotMask = slots - 1;
+        int viewSlots = Math.min(VIEW_CACHE_SIZE, Integer.highestOneBit(Math.max(1, capacity - 1)) << 1);
+        this.views = new AtomicReferenceArray<>(viewSlots);
+        this.viewMask = viewSlots - 1;
+        this.header = channel.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_SIZE);
+        long indexBytes = (long) slots * 4;
+        this.index = channel.map(FileChannel.MapMode.READ_WRITE, HEADER_SIZE, indexBytes);
+        long recordsBase = HEADER_SIZE + indexBytes;
+        int chunkCount = (capacity + RECORDS_PER_CHUNK - 1) / RECORDS_PER_CHUNK;
+        this.chunks = new MappedByteBuffer[chunkCount];
+        for (int c = 0; c < chunkCount; c++) {
+            int records = Math.min(RECORDS_PER_CHUNK, capacity - c * RECORDS_PER_CHUNK);
+            chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE,
+                    recordsBase + (long) c * RECORDS_PER_CHUNK * RECORD_SIZE, (long) records * RECORD_SIZE);
+        }
+    }
+
+    /**
+     * Crea un archivo nuevo con espacio para capacity equipos.
+     * Lanza IllegalArgumentException si la capacidad no es válida e IOException si el archivo existe.
+     */
+    public static MappedCatalog create(Path file, int capacity) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        if (capacity <= 0 || capacity > MAX_CAPACITY) {
+            throw new IllegalArgumentException("capacity must be in 1.." + MAX_CAPACITY);
+        }
+        int slots = Integer.highestOneBit(capacity * 2 - 1) << 1;
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        MappedCatalog catalog = new MappedCatalog(ch, capacity, slots);
+        catalog.header.putInt(0, MAGIC).putInt(4, VERSION).putInt(H_CAPACITY, capacity)
+                .putInt(H_COUNT, 0).putInt(H_SLOTS, slots);
+        return catalog;
+    }
+
+    /** Crea un archivo nuevo con los equipos dados (capacidad = cantidad de equipos). */
+    public static MappedCatalog create(Path file, Collection<Equipment> equipment) throws IOException {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        MappedCatalog catalog = create(file, Math.max(1, equipment.size()));
+        for (Equipment eq : equipment) {
+            catalog.add(eq);
+        }
+        return catalog;
+    }
+
+    /** Abre un archivo existente sin leer su contenido (sólo la cabecera). */
+    public static MappedCatalog open(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        ByteBuffer head = ByteBuffer.allocate(HEADER_SIZE);
+        while (head.hasRemaining() && ch.read(head, head.position()) > 0) {
+            // leer cabecera completa
+        }
+        if (head.position() < HEADER_SIZE || head.getInt(0) != MAGIC || head.getInt(4) != VERSION) {
+            ch.close();
+            throw new IOException("not a mapped catalog: " + file);
+        }
+        return new MappedCatalog(ch, head.getInt(H_CAPACITY), head.getInt(H_SLOTS));
+    }
+
+    /**
+     * Copia un equipo (incluido su stock actual) a un registro nuevo.
+     * Reglas: id único, id de hasta 32 bytes y nombre de hasta 48 bytes (UTF-8), capacidad libre.
+     */
+    public synchronized void add(Equipment equipment) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        byte[] id = equipment.getId().getBytes(StandardCharsets.UTF_8);
+        byte[] name = equipment.getName().getBytes(StandardCharsets.UTF_8);
+        if (id.length > MAX_ID_BYTES) {
+            throw new IllegalArgumentException("id too long for mapped record: " + equipment.getId());
+        }
+        if (name.length > MAX_NAME_BYTES) {
+            throw new IllegalArgumentException("name too long for mapped record: " + equipment.getName());
+        }
+        int count = size();
+        if (count >= capacity) {
+            throw new IllegalArgumentException("mapped catalog is full: " + capacity);
+        }
+        int slot = hash(id) & slotMask;
+        while (true) {
+            int entry = (int) INT.getAcquire(index, slot * 4);
+            if (entry == 0) {
+                break;
+            }
+            if (idEquals(entry - 1, id)) {
+                throw new IllegalArgumentException("duplicate equipment id: " + equipment.getId());
+            }
+            slot = (slot + 1) & slotMask;
+        }
+        // Escribir el registro completo antes de publicarlo en el índice
+        ByteBuffer chunk = chunkOf(count);
+        int off = offsetOf(count);
+        chunk.put(off + R_TYPE, (byte) equipment.getType().ordinal());
+        chunk.put(off + R_FLAGS, (byte) (equipment.isRentalEligible() ? FLAG_RENTAL : 0));
+        chunk.put(off + R_ID_LEN, (byte) id.length);
+        chunk.put(off + R_NAME_LEN, (byte) name.length);
+        chunk.putLong(off + R_PRICE, equipment.getPriceCents());
+        chunk.put(off + R_ID, id);
+        chunk.put(off + R_NAME, name);
+        INT.setVolatile(chunk, off + R_STOCK, equipment.getStock());
+        INT.setRelease(index, slot * 4, count + 1);
+        INT.setRelease(header, H_COUNT, count + 1);
+    }
+
+    @Override
+    public Equipment get(String id) {
+        if (id == null) {
+            return null;
+        }
+        byte[] key = id.getBytes(StandardCharsets.UTF_8);
+        int slot = hash(key) & slotMask;
+        while (true) {
+            int entry = (int) INT.getAcquire(index, slot * 4);
+            if (entry == 0) {
+                return null;
+            }
+            if (idEquals(entry - 1, key)) {
+                return viewOf(entry - 1);
+            }
+            slot = (slot + 1) & slotMask;
+        }
+    }
+
+    /** Cantidad de equipos almacenados. */
+    public int size() {
+        return (int) INT.getAcquire(header, H_COUNT);
+    }
+
+    /** Capacidad máxima fijada al crear el archivo. */
+    public int capacity() {
+        return capacity;
+    }
+
+    /** Fuerza la escritura a disco de los cambios (stock incluido). */
+    public void force() {
+        header.force();
+        index.force();
+        for (MappedByteBuffer chunk : chunks) {
+            chunk.force();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        force();
+        channel.close();
+    }
+
+    // Retorna la vista cacheada del registro o crea una y la deja en su casillero
+    private Equipment viewOf(int record) {
+        int slot = record & viewMask;
+        MappedEquipment view = views.get(slot);
+        if (view == null || view.record != record) {
+            view = createView(record);
+            views.set(slot, view);
+        }
+        return view;
+    }
+
+    // Crea la vista Equipment leyendo los campos inmutables del registro
+    private MappedEquipment createView(int record) {
+        ByteBuffer chunk = chunkOf(record);
+        int off = offsetOf(record);
+        String id = readString(chunk, off + R_ID, chunk.get(off + R_ID_LEN));
+        String name = readString(chunk, off + R_NAME, chunk.get(off + R_NAME_LEN));
+        EquipmentType type = EquipmentType.values()[chunk.get(off + R_TYPE)];
+        boolean rental = (chunk.get(off + R_FLAGS) & FLAG_RENTAL) != 0;
+        return new MappedEquipment(record, id, name, chunk.getLong(off + R_PRICE), type, rental, chunk, off + R_STOCK);
+    }
+
+    private boolean idEquals(int record, byte[] id) {
+        ByteBuffer chunk = chunkOf(record);
+        int off = offsetOf(record);
+        if (chunk.get(off + R_ID_LEN) != id.length) {
+            return false;
+        }
+        for (int i = 0; i < id.length; i++) {
+            if (chunk.get(off + R_ID + i) != id[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private ByteBuffer chunkOf(int record) {
+        return chunks[record / RECORDS_PER_CHUNK];
+    }
+
+    private static int offsetOf(int record) {
+        return (record % RECORDS_PER_CHUNK) * RECORD_SIZE;
+    }
+
+    private static String readString(ByteBuffer chunk, int off, int len) {
+        byte[] bytes = new byte[len];
+        chunk.get(off, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // FNV-1a con mezcla final para repartir bien en tablas potencia de 2
+    private static int hash(byte[] bytes) {
+        int h = 0x811C9DC5;
+        for (byte b : bytes) {
+            h = (h ^ (b & 0xFF)) * 0x01000193;
+        }
+        return h ^ (h >>> 16);
+    }
+
+    /** Vista Equipment cuyo stock vive en el archivo mapeado. */
+    private static final class MappedEquipment extends Equipment {
+        private final int record;
+        private final ByteBuffer chunk;
+        private final int stockOffset;
+
+        private MappedEquipment(int record, String id, String name, long priceCents, EquipmentType type,
+                                boolean rental, ByteBuffer chunk, int stockOffset) {
+            super(id, name, Cents.toBigDecimal(priceCents), 0, type, rental);
+            this.record = record;
+            this.chunk = chunk;
+            this.stockOffset = stockOffset;
+        }
+
+        @Override
+        public int getStock() {
+            return (int) INT.getVolatile(chunk, stockOffset);
+        }
+
+        @Override
+        protected boolean compareAndSetStock(int expected, int newValue) {
+            return INT.compareAndSet(chunk, stockOffset, expected, newValue);
+        }
+
+        // Dos vistas del mismo registro (p.ej. tras reciclar su casillero) comparten el stock
+        @Override
+        boolean sameStockCell(Equipment otherRoot) {
+            return otherRoot instanceof MappedEquipment other
+                    && other.chunk == chunk && other.stockOffset == stockOffset;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.shop;
+
+/**
+ * Representación monetaria usada por OrderService al calcular importes.
+ * Ambos modos producen los mismos resultados (HALF_UP, 2 decimales) mientras los importes
+ * quepan en un long de centavos; más allá, BIG_DECIMAL sigue sin tope y CENTS lanza
+ * ArithmeticException.
+ */
+public enum MoneyMode {
+    BIG_DECIMAL, // BigDecimal en cada línea (comportamiento original)
+    CENTS        // long en centavos con overflow controlado, sin asignaciones por línea
+}
@@ -0,0 +1,69 @@
+package com.shop;
+
+/**
+ * Evento del diario de pedidos (OrderJournal). Inmutable.
+ * Campos según el tipo:
+ * - ORDER_ACCEPTED: quantity = cantidad de líneas, amountCents = subtotal del pedido
+ * - STOCK_DECREMENTED: equipmentId, equipmentType, quantity = unidades vendidas,
+ *   amountCents = precio de lista * unidades
+ * - DEPOSIT_APPLIED: amountCents = depósito de alquiler
+ * sequence crece de a uno en todo el diario; orderId agrupa los eventos de un pedido.
+ * Un importe que no cabe en un long de centavos se registra como AMOUNT_NOT_REPRESENTABLE
+ * (hasAmount() = false): las proyecciones lo cuentan aparte en lugar de sumarlo.
+ */
+public final class OrderEvent {
+
+    /** Tipos de evento. El ordinal se guarda en el diario: solo agregar al final. */
+    public enum Type {
+        ORDER_ACCEPTED,
+        STOCK_DECREMENTED,
+        DEPOSIT_APPLIED
+    }
+
+    /** Marca de importe que no cabe en un long de centavos (p.ej. MoneyMode.BIG_DECIMAL). */
+    public static final long AMOUNT_NOT_REPRESENTABLE = Long.MAX_VALUE;
+
+    private final long sequence;
+    private final long orderId;
+    private final Type type;
+    private final String equipmentId;          // null salvo STOCK_DECREMENTED
+    private final EquipmentType equipmentType; // null salvo STOCK_DECREMENTED
+    private final int quantity;
+    private final long amountCents;
+
+    OrderEvent(long sequence, long orderId, Type type, String equipmentId, EquipmentType equipmentType,
+               int quantity, long amountCents) {
+        this.sequence = sequence;
+        this.orderId = orderId;
+        this.type = type;
+        this.equipmentId = equipmentId;
+        this.equipmentType = equipmentType;
+        this.quantity = quantity;
+        this.amountCents = amountCents;
+    }
+
+    public long getSequence() { return sequence; }
+    public long getOrderId() { return orderId; }
+    public Type getType() { return type; }
+    public String getEquipmentId() { return equipmentId; }
+    public EquipmentType getEquipmentType() { return equipmentType; }
+    public int getQuantity() { return quantity; }
+    public long getAmountCents() { return amountCents; }
+
+    /** false si amountCents es AMOUNT_NOT_REPRESENTABLE. */
+    public boolean hasAmount() {
+        return amountCents != AMOUNT_NOT_REPRESENTABLE;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderEvent{" +
+                "sequence=" + sequence +
+                ", orderId=" + orderId +
+                ", type=" + type +
+                (equipmentId == null ? "" : ", equipmentId='" + equipmentId + '\'' + ", equipmentType=" + equipmentType) +
+                ", quantity=" + quantity +
+                ", amountCents=" + amountCents +
+                '}';
+    }
+}
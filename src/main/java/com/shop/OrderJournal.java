@@ -0,0 +1,478 @@
+package com.shop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * OrderJournal registra los pedidos confirmados como eventos en un log append-only
+ * dividido en segmentos (archivos orders-&lt;primera secuencia&gt;.log en un directorio).
+ * - Se registra como OrderListener de OrderService: por pedido escribe ORDER_ACCEPTED,
+ *   un STOCK_DECREMENTED por línea y, si es alquiler, DEPOSIT_APPLIED
+ * - Los eventos de un pedido quedan en un mismo segmento; al superar segmentBytes el
+ *   siguiente pedido abre un segmento nuevo
+ * - flush() entrega lo acumulado al sistema operativo; sync() además hace fsync
+ * - replay reconstruye una OrderProjection: salta los segmentos anteriores a su checkpoint
+ *   (getLastSequence) y reproduce el resto en paralelo, combinando las parciales en orden
+ * Formato de registro: [int largo][long secuencia][long pedido][byte tipo][byte EquipmentType]
+ * [int cantidad][long importe][short largo del id][id UTF-8][int crc32c]. Al abrir o reproducir,
+ * un registro truncado o con CRC inválido en el último segmento marca su final (escritura
+ * interrumpida); en un segmento anterior es un error.
+ * Los importes que no caben en un long de centavos (MoneyMode.BIG_DECIMAL no tiene tope) se
+ * registran como OrderEvent.AMOUNT_NOT_REPRESENTABLE, igual que un precio de lista * unidades
+ * que desborda; SalesProjection los cuenta sin sumarlos.
+ * Un error de E/S al registrar un pedido (el checkout ya se confirmó) no se lanza al checkout:
+ * se guarda, se relanza en flush/sync/close y el diario deja de registrar.
+ */
+public class OrderJournal implements OrderListener, Closeable {
+    public static final long DEFAULT_SEGMENT_BYTES = 64L << 20;
+
+    private static final String PREFIX = "orders-";
+    private static final String SUFFIX = ".log";
+    private static final int BUFFER_BYTES = 64 * 1024;
+    // largo + secuencia + pedido + tipo + EquipmentType + cantidad + importe + largo del id
+    private static final int FIXED_BODY = 8 + 8 + 1 + 1 + 4 + 8 + 2;
+    private static final OrderEvent.Type[] TYPES = OrderEvent.Type.values();
+    private static final EquipmentType[] EQUIPMENT_TYPES = EquipmentType.values();
+
+    private final Path dir;
+    private final long segmentBytes;
+    private final CRC32C crc = new CRC32C();
+
+    // Estado protegido por this
+    private FileChannel channel; // segmento abierto; null hasta el próximo pedido
+    private long segmentSize;    // bytes del segmento, incluidos los aún en buffer
+    private ByteBuffer buffer = ByteBuffer.allocate(BUFFER_BYTES);
+    private long nextSequence;
+    private long nextOrderId;
+    private IOException failure;
+    private boolean closed;
+
+    /** Abre (o crea) el diario con segmentos de DEFAULT_SEGMENT_BYTES. */
+    public OrderJournal(Path dir) throws IOException {
+        this(dir, DEFAULT_SEGMENT_BYTES);
+    }
+
+    /**
+     * Abre (o crea) el diario en dir y continúa después del último evento válido.
+     * segmentBytes es el tamaño a partir del cual se empieza un segmento nuevo (> 0).
+     */
+    public OrderJournal(Path dir, long segmentBytes) throws IOException {
+        if (dir == null) {
+            throw new IllegalArgumentException("dir must not be null");
+        }
+        if (segmentBytes <= 0) {
+            throw new IllegalArgumentException("segmentBytes must be > 0");
+        }
+        this.dir = dir;
+        this.segmentBytes = segmentBytes;
+        Files.createDirectories(dir);
+        nextSequence = 1L;
+        nextOrderId = 1L;
+        List<Segment> segments = listSegments(dir);
+        // El último segmento puede tener una cola interrumpida (o estar vacío): se recorta
+        for (int i = segments.size() - 1; i >= 0; i--) {
+            Segment last = segments.get(i);
+            OrderEvent[] lastEvent = new OrderEvent[1];
+            long validEnd = readSegment(last.path, 0L, e -> lastEvent[0] = e, true);
+            if (lastEvent[0] == null) {
+                Files.delete(last.path);
+                continue;
+            }
+            nextSequence = lastEvent[0].getSequence() + 1;
+            nextOrderId = lastEvent[0].getOrderId() + 1;
+            if (validEnd < segmentBytes) {
+                channel = FileChannel.open(last.path, StandardOpenOption.WRITE);
+                channel.truncate(validEnd);
+                channel.position(validEnd);
+                segmentSize = validEnd;
+            } else {
+                try (FileChannel ch = FileChannel.open(last.path, StandardOpenOption.WRITE)) {
+                    ch.truncate(validEnd);
+                }
+            }
+            break;
+        }
+    }
+
+    @Override
+    public void orderAccepted(OrderReceipt receipt, Equipment[] lines) {
+        try {
+            append(receipt, lines);
+        } catch (IOException e) {
+            // Registrado en failure; se informa en flush/sync/close
+        }
+    }
+
+    /**
+     * Registra los eventos de un pedido confirmado y retorna su número de pedido.
+     * Lanza IOException si el diario falló antes o falla ahora.
+     */
+    public synchronized long append(OrderReceipt receipt, Equipment[] lines) throws IOException {
+        if (receipt == null || lines == null || lines.length != receipt.getItems().size()) {
+            throw new IllegalArgumentException("receipt and lines must match");
+        }
+        checkUsable();
+        try {
+            if (channel == null) {
+                Path file = dir.resolve(segmentName(nextSequence));
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+                segmentSize = 0L;
+            }
+            long orderId = nextOrderId++;
+            boolean cents = receipt.hasCents();
+            write(orderId, OrderEvent.Type.ORDER_ACCEPTED, null, null, lines.length,
+                    cents ? receipt.getSubtotalCents() : OrderEvent.AMOUNT_NOT_REPRESENTABLE);
+            List<OrderReceipt.OrderItem> items = receipt.getItems();
+            for (int i = 0; i < lines.length; i++) {
+                int qty = items.get(i).getQuantity();
+                long listAmount = lines[i].hasPriceCents()
+                        ? listAmount(lines[i].getPriceCents(), qty) : OrderEvent.AMOUNT_NOT_REPRESENTABLE;
+                write(orderId, OrderEvent.Type.STOCK_DECREMENTED, items.get(i).getId(), lines[i].getType(),
+                        qty, listAmount);
+            }
+            if (receipt.isRental() && receipt.getDeposit().signum() != 0) {
+                write(orderId, OrderEvent.Type.DEPOSIT_APPLIED, null, null, 0,
+                        cents ? receipt.getDepositCents() : OrderEvent.AMOUNT_NOT_REPRESENTABLE);
+            }
+            if (segmentSize >= segmentBytes) {
+                // Segmento completo: el próximo pedido abre uno nuevo
+                writeBuffer();
+                channel.force(false);
+                channel.close();
+                channel = null;
+            }
+            return orderId;
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /** Entrega los eventos acumulados al sistema operativo. */
+    public synchronized void flush() throws IOException {
+        checkUsable();
+        try {
+            writeBuffer();
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+    }
+
+    /** Igual que flush, y además espera a que el segmento abierto esté en disco. */
+    public synchronized void sync() throws IOException {
+        flush();
+        if (channel != null) {
+            try {
+                channel.force(false);
+            } catch (IOException e) {
+                failure = e;
+                throw e;
+            }
+        }
+    }
+
+    /** Secuencia del último evento registrado (0 si el diario está vacío). */
+    public synchronized long getLastSequence() {
+        return nextSequence - 1;
+    }
+
+    /** Segmentos del diario, en orden. */
+    public List<Path> getSegments() throws IOException {
+        List<Path> paths = new ArrayList<>();
+        for (Segment segment : listSegments(dir)) {
+            paths.add(segment.path);
+        }
+        return paths;
+    }
+
+    /**
+     * Hace flush y reproduce el diario sobre la proyección, desde su checkpoint.
+     * Retorna la misma proyección.
+     */
+    public <P extends OrderProjection<P>> P replay(P projection, int parallelism) throws IOException {
+        flush();
+        return replay(dir, projection, parallelism);
+    }
+
+    /**
+     * Reproduce el diario de dir sobre la proyección, a partir de getLastSequence():
+     * los segmentos completamente anteriores se saltan sin leerlos y el resto se
+     * reproduce con hasta parallelism hilos. Retorna la misma proyección.
+     */
+    public static <P extends OrderProjection<P>> P replay(Path dir, P projection, int parallelism) throws IOException {
+        if (projection == null) {
+            throw new IllegalArgumentException("projection must not be null");
+        }
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be > 0");
+        }
+        long from = projection.getLastSequence();
+        List<Segment> segments = listSegments(dir);
+        int start = 0;
+        while (start + 1 < segments.size() && segments.get(start + 1).firstSequence <= from + 1) {
+            start++;
+        }
+        List<Segment> pending = segments.subList(start, segments.size());
+        if (parallelism == 1 || pending.size() <= 1) {
+            for (int i = 0; i < pending.size(); i++) {
+                readSegment(pending.get(i).path, from, projection::apply, i == pending.size() - 1);
+            }
+            return projection;
+        }
+        ExecutorService executor = VirtualThreads.newExecutor(false, Math.min(parallelism, pending.size()),
+                "journal-replay");
+        try {
+            List<Future<P>> partials = new ArrayList<>();
+            for (int i = 0; i < pending.size(); i++) {
+                Path path = pending.get(i).path;
+                boolean last = i == pending.size() - 1;
+                partials.add(executor.submit(() -> {
+                    P partial = projection.newPartial();
+                    readSegment(path, from, partial::apply, last);
+                    return partial;
+                }));
+            }
+            // Las parciales se combinan en orden de segmento
+            for (Future<P> partial : partials) {
+                projection.merge(partial.get());
+            }
+            return projection;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("journal replay interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException io) {
+                throw io;
+            }
+            if (cause instanceof UncheckedIOException io) {
+                throw io.getCause();
+            }
+            if (cause instanceof RuntimeException re) {
+                throw re;
+            }
+            throw new IOException("journal replay failed", cause);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (channel == null) {
+            if (failure != null) {
+                throw failure;
+            }
+            return;
+        }
+        try {
+            if (failure == null) {
+                writeBuffer();
+                channel.force(false);
+            }
+        } finally {
+            channel.close();
+            channel = null;
+        }
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private void checkUsable() throws IOException {
+        if (failure != null) {
+            throw failure;
+        }
+        if (closed) {
+            throw new IllegalStateException("journal is closed");
+        }
+    }
+
+    // Codifica un evento en el buffer (requiere el lock)
+    private void write(long orderId, OrderEvent.Type type, String equipmentId, EquipmentType equipmentType,
+                       int quantity, long amountCents) throws IOException {
+        byte[] id = equipmentId == null ? null : equipmentId.getBytes(StandardCharsets.UTF_8);
+        int idLen = id == null ? 0 : id.length;
+        if (idLen > 0xFFFF) {
+            throw new IllegalArgumentException("equipment id too long: " + equipmentId);
+        }
+        int size = 4 + FIXED_BODY + idLen + 4;
+        if (buffer.remaining() < size) {
+            writeBuffer();
+            if (buffer.capacity() < size) {
+                buffer = ByteBuffer.allocate(size);
+            }
+        }
+        int start = buffer.position();
+        buffer.putInt(FIXED_BODY + idLen)
+                .putLong(nextSequence++)
+                .putLong(orderId)
+                .put((byte) type.ordinal())
+                .put((byte) (equipmentType == null ? -1 : equipmentType.ordinal()))
+                .putInt(quantity)
+                .putLong(amountCents)
+                .putShort((short) idLen);
+        if (id != null) {
+            buffer.put(id);
+        }
+        crc.reset();
+        crc.update(buffer.array(), start + 4, FIXED_BODY + idLen);
+        buffer.putInt((int) crc.getValue());
+        segmentSize += size;
+    }
+
+    private void writeBuffer() throws IOException {
+        if (buffer.position() == 0 || channel == null) {
+            return;
+        }
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    // Precio de lista * unidades; AMOUNT_NOT_REPRESENTABLE si desborda (el checkout ya se confirmó)
+    private static long listAmount(long unitCents, int qty) {
+        long hi = Math.multiplyHigh(unitCents, qty);
+        long lo = unitCents * qty;
+        return (hi == 0 && lo >= 0) || (hi == -1 && lo < 0) ? lo : OrderEvent.AMOUNT_NOT_REPRESENTABLE;
+    }
+
+    /**
+     * Lee un segmento entregando los eventos con secuencia > after.
+     * Retorna la posición del final del último registro válido. Si tolerateTail, un registro
+     * truncado o corrupto termina la lectura; si no, es un IOException.
+     */
+    private static long readSegment(Path path, long after, Consumer<OrderEvent> sink, boolean tolerateTail)
+            throws IOException {
+        try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES);
+            buf.limit(0);
+            CRC32C crc = new CRC32C();
+            long offset = 0L;
+            while (true) {
+                if (!ensure(in, buf, 4)) {
+                    return endOf(path, offset, buf.remaining() == 0, tolerateTail);
+                }
+                int bodyLen = buf.getInt(buf.position());
+                if (bodyLen < FIXED_BODY || bodyLen > FIXED_BODY + 0xFFFF) {
+                    return endOf(path, offset, false, tolerateTail);
+                }
+                int size = 4 + bodyLen + 4;
+                if (size > buf.capacity()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(size);
+                    bigger.put(buf).flip();
+                    buf = bigger;
+                }
+                if (!ensure(in, buf, size)) {
+                    return endOf(path, offset, false, tolerateTail);
+                }
+                int start = buf.position();
+                crc.reset();
+                crc.update(buf.array(), start + 4, bodyLen);
+                if ((int) crc.getValue() != buf.getInt(start + 4 + bodyLen)) {
+                    return endOf(path, offset, false, tolerateTail);
+                }
+                buf.position(start + 4);
+                long sequence = buf.getLong();
+                long orderId = buf.getLong();
+                int type = buf.get();
+                int equipmentType = buf.get();
+                int quantity = buf.getInt();
+                long amount = buf.getLong();
+                int idLen = buf.getShort() & 0xFFFF;
+                String id = idLen == 0 ? null : new String(buf.array(), buf.position(), idLen, StandardCharsets.UTF_8);
+                buf.position(start + size);
+                if (type < 0 || type >= TYPES.length || equipmentType >= EQUIPMENT_TYPES.length) {
+                    throw new IOException("unknown event type in " + path + " at offset " + offset);
+                }
+                if (sequence > after) {
+                    sink.accept(new OrderEvent(sequence, orderId, TYPES[type], id,
+                            equipmentType < 0 ? null : EQUIPMENT_TYPES[equipmentType], quantity, amount));
+                }
+                offset += size;
+            }
+        }
+    }
+
+    // Final de la lectura: limpio, o cola inválida (tolerada solo en el último segmento)
+    private static long endOf(Path path, long offset, boolean clean, boolean tolerateTail) throws IOException {
+        if (!clean && !tolerateTail) {
+            throw new IOException("corrupt journal segment " + path + " at offset " + offset);
+        }
+        return offset;
+    }
+
+    // Rellena el buffer hasta tener al menos n bytes legibles; false si el archivo termina antes
+    private static boolean ensure(FileChannel in, ByteBuffer buf, int n) throws IOException {
+        if (buf.remaining() >= n) {
+            return true;
+        }
+        buf.compact();
+        while (buf.position() < n) {
+            if (in.read(buf) < 0) {
+                buf.flip();
+                return false;
+            }
+        }
+        buf.flip();
+        return true;
+    }
+
+    private static String segmentName(long firstSequence) {
+        return String.format("%s%019d%s", PREFIX, firstSequence, SUFFIX);
+    }
+
+    // Segmentos del directorio ordenados por primera secuencia
+    private static List<Segment> listSegments(Path dir) throws IOException {
+        List<Segment> segments = new ArrayList<>();
+        if (!Files.isDirectory(dir)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, PREFIX + "*" + SUFFIX)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                try {
+                    long first = Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+                    segments.add(new Segment(path, first));
+                } catch (NumberFormatException e) {
+                    // No es un segmento del diario
+                }
+            }
+        }
+        segments.sort((a, b) -> Long.compare(a.firstSequence, b.firstSequence));
+        return segments;
+    }
+
+    /** Archivo de segmento y secuencia de su primer evento. */
+    private static final class Segment {
+        private final Path path;
+        private final long firstSequence;
+
+        private Segment(Path path, long firstSequence) {
+            this.path = path;
+            this.firstSequence = firstSequence;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.shop;
+
+/**
+ * Observador de pedidos confirmados por OrderService (processOrder, tryProcessOrder y
+ * cada carrito aceptado de processOrders).
+ * Se invoca después de descontar el stock, desde el hilo del checkout; con varios hilos
+ * las notificaciones pueden llegar en distinto orden que los commits.
+ * NOOP es la implementación por defecto.
+ */
+@FunctionalInterface
+public interface OrderListener {
+
+    /** Implementación vacía (por defecto). */
+    OrderListener NOOP = (receipt, lines) -> { };
+
+    /**
+     * Listener que notifica a cada uno de los dados, en ese orden (p.ej. un OrderJournal y un
+     * InventoryAnalytics en el mismo OrderService). Si uno lanza, los siguientes no se notifican.
+     */
+    static OrderListener of(OrderListener... listeners) {
+        if (listeners == null) {
+            throw new IllegalArgumentException("listeners must not be null");
+        }
+        OrderListener[] all = listeners.clone();
+        for (OrderListener listener : all) {
+            if (listener == null) {
+                throw new IllegalArgumentException("listeners must not contain null");
+            }
+        }
+        if (all.length == 1) {
+            return all[0];
+        }
+        return (receipt, lines) -> {
+            for (OrderListener listener : all) {
+                listener.orderAccepted(receipt, lines);
+            }
+        };
+    }
+
+    /**
+     * Notifica un pedido confirmado. lines tiene el equipo de cada ítem del recibo
+     * (mismo orden); es de solo lectura y no debe conservarse.
+     */
+    void orderAccepted(OrderReceipt receipt, Equipment[] lines);
+}
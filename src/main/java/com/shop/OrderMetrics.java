@@ -0,0 +1,41 @@
+package com.shop;
+
+/**
+ * OrderMetrics recibe las mediciones del camino caliente de OrderService.
+ * - Latencia por fase (validación, tasación, descuento de stock) en nanosegundos
+ * - Rechazos por motivo
+ * - Contención por SKU: el stock alcanzaba al validar pero otro hilo lo tomó antes del commit
+ * NOOP es la implementación por defecto: isEnabled() = false y OrderService ni siquiera
+ * toma tiempos, así que deshabilitado no tiene costo.
+ */
+public interface OrderMetrics {
+
+    /** Fases medidas dentro de processOrder. */
+    enum Phase {
+        VALIDATION,   // existencia, cantidad, elegibilidad y stock
+        PRICING,      // subtotal, depósito y total
+        STOCK_COMMIT  // reserva CAS de todas las líneas
+    }
+
+    /** Implementación vacía (por defecto). */
+    OrderMetrics NOOP = new OrderMetrics() {
+        @Override
+        public boolean isEnabled() {
+            return false;
+        }
+    };
+
+    /** Si es false, OrderService no llama a ningún otro método. */
+    default boolean isEnabled() {
+        return true;
+    }
+
+    default void recordPhase(Phase phase, long nanos) {
+    }
+
+    default void recordRejection(RejectionReason reason) {
+    }
+
+    default void recordContention(String equipmentId) {
+    }
+}
@@ -0,0 +1,25 @@
+package com.shop;
+
+/**
+ * Proyección reconstruible desde el diario de pedidos (ver OrderJournal.replay).
+ * Reglas:
+ * - apply recibe los eventos en orden de secuencia, solo los posteriores a getLastSequence()
+ * - getLastSequence() es el checkpoint: replay continúa desde ahí
+ * - Para reproducir segmentos en paralelo, cada segmento se aplica sobre newPartial()
+ *   y las parciales se combinan con merge en orden de segmento
+ * @param <P> el tipo concreto de la proyección
+ */
+public interface OrderProjection<P extends OrderProjection<P>> {
+
+    /** Secuencia del último evento aplicado (0 si ninguno). */
+    long getLastSequence();
+
+    /** Aplica un evento (sequence > getLastSequence()). */
+    void apply(OrderEvent event);
+
+    /** Proyección vacía del mismo tipo, para un segmento reproducido aparte. */
+    P newPartial();
+
+    /** Incorpora una parcial con eventos posteriores a los ya aplicados. */
+    void merge(P later);
+}
@@ -8,6 +8,9 @@ import java.util.Objects;
 /**
  * OrderReceipt es un POJO inmutable con el resultado del procesamiento del pedido.
  * Incluye: status, items (id, qty), subtotal, deposit (si aplica), total y la bandera rental.
+ * Los importes se exponen como BigDecimal (escala 2) y como long en centavos. En MoneyMode.BIG_DECIMAL
+ * los importes no tienen tope: si alguno no cabe en un long, los getters en centavos lanzan
+ * ArithmeticException (ver hasCents).
  */
 public class OrderReceipt {
     // Siempre "OK" si se retornó el recibo (excepciones se lanzan ante errores)
@@ -22,6 +25,12 @@ public class OrderReceipt {
     private final BigDecimal total; // inmutable
     // Indica si el pedido se procesó como alquiler
     private final boolean rental; // inmutable
+    // Mismos importes en centavos (0 si !cents)
+    private final long subtotalCents; // inmutable
+    private final long depositCents; // inmutable
+    private final long totalCents; // inmutable
+    // false si algún importe no cabe en un long de centavos
+    private final boolean cents; // inmutable
 
     /** Item de pedido (id, quantity). */
     public static class OrderItem {
@@ -50,6 +59,25 @@ public class OrderReceipt {
         this.deposit = Objects.requireNonNull(deposit, "deposit must not be null");
         this.total = Objects.requireNonNull(total, "total must not be null");
         this.rental = rental;
+        boolean inCents = Cents.fits(subtotal) && Cents.fits(deposit) && Cents.fits(total);
+        this.subtotalCents = inCents ? Cents.of(subtotal) : 0L;
+        this.depositCents = inCents ? Cents.of(deposit) : 0L;
+        this.totalCents = inCents ? Cents.of(total) : 0L;
+        this.cents = inCents;
+    }
+
+    /** Crea el recibo a partir de importes en centavos (modo MoneyMode.CENTS). */
+    public OrderReceipt(List<OrderItem> items, long subtotalCents, long depositCents, long totalCents, boolean rental) {
+        this.status = "OK";
+        this.items = Collections.unmodifiableList(Objects.requireNonNull(items, "items must not be null"));
+        this.subtotal = Cents.toBigDecimal(subtotalCents);
+        this.deposit = Cents.toBigDecimal(depositCents);
+        this.total = Cents.toBigDecimal(totalCents);
+        this.rental = rental;
+        this.subtotalCents = subtotalCents;
+        this.depositCents = depositCents;
+        this.totalCents = totalCents;
+        this.cents = true;
     }
 
     public String getStatus() { return status; }
@@ -58,4 +86,17 @@ public class OrderReceipt {
     public BigDecimal getDeposit() { return deposit; }
     public BigDecimal getTotal() { return total; }
     public boolean isRental() { return rental; }
+    public long getSubtotalCents() { return inCents(subtotalCents); }
+    public long getDepositCents() { return inCents(depositCents); }
+    public long getTotalCents() { return inCents(totalCents); }
+
+    /** true si subtotal, depósito y total caben en un long de centavos. */
+    public boolean hasCents() { return cents; }
+
+    private long inCents(long amount) {
+        if (!cents) {
+            throw new ArithmeticException("receipt amounts not representable in cents: total=" + total);
+        }
+        return amount;
+    }
 }
@@ -0,0 +1,63 @@
+package com.shop;
+
+/**
+ * OrderResult es el resultado de OrderService.tryProcessOrder: pedido aceptado con su
+ * recibo, o rechazado con el motivo y el id del equipo que lo causó.
+ * Reglas:
+ * - El rechazo no arma mensajes ni excepciones; describe() construye el texto a pedido
+ * - Los rechazos sin equipo (carrito nulo o vacío) son instancias compartidas
+ */
+public sealed interface OrderResult permits OrderResult.Accepted, OrderResult.Rejected {
+
+    /** true si el pedido se procesó y el stock quedó descontado. */
+    boolean isAccepted();
+
+    /** Pedido procesado. */
+    final class Accepted implements OrderResult {
+        private final OrderReceipt receipt; // inmutable
+
+        Accepted(OrderReceipt receipt) {
+            this.receipt = receipt;
+        }
+
+        @Override
+        public boolean isAccepted() { return true; }
+
+        public OrderReceipt getReceipt() { return receipt; }
+
+        @Override
+        public String toString() {
+            return "Accepted{" + receipt + "}";
+        }
+    }
+
+    /** Pedido rechazado por una regla de negocio; el stock no se modificó. */
+    final class Rejected implements OrderResult {
+        static final Rejected NULL_CART = new Rejected(RejectionReason.NULL_CART, null);
+        static final Rejected EMPTY_CART = new Rejected(RejectionReason.EMPTY_CART, null);
+
+        private final RejectionReason reason; // inmutable
+        private final String equipmentId; // null si el motivo no refiere a un equipo
+
+        Rejected(RejectionReason reason, String equipmentId) {
+            this.reason = reason;
+            this.equipmentId = equipmentId;
+        }
+
+        @Override
+        public boolean isAccepted() { return false; }
+
+        public RejectionReason getReason() { return reason; }
+        public String getEquipmentId() { return equipmentId; }
+
+        /** Mensaje legible, el mismo que usa processOrder en su excepción. */
+        public String describe() {
+            return reason.describe(equipmentId);
+        }
+
+        @Override
+        public String toString() {
+            return "Rejected{" + describe() + "}";
+        }
+    }
+}
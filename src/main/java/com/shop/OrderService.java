@@ -1,8 +1,8 @@
 package com.shop;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -12,81 +12,449 @@ import java.util.Objects;
  * Reglas principales:
  * - Carrito no vacío
  * - Valida existencia y stock suficiente por ítem
- * - Si rental=true, valida que el equipo sea rentalEligible
- * - Calcula subtotal; si rental, aplica depósito fijo del 10% (HALF_UP, 2 decimales)
+ * - Si rental=true, valida que el equipo sea rentalEligible (alquiler sin devolución;
+ *   para alquileres con período y devolución ver RentalService)
+ * - Calcula subtotal con el PricingEngine configurado (por defecto, precio de lista);
+ *   si rental, aplica depósito fijo del 10% (HALF_UP, 2 decimales)
  * - Disminuye stock del catálogo (efecto real tras validar todo)
  * - Retorna OrderReceipt con status "OK"
+ * Concurrencia: el stock de cada ítem se reserva con compare-and-set; si algún ítem
+ * no alcanza, se deshacen las reservas ya hechas (todo o nada, sin lock global).
+ * Si el catálogo lo pide (p.ej. ShardedCatalog), la reserva se hace con sus locks tomados.
+ * Cada pedido lee el catálogo a través de snapshot(): con VersionedCatalog todas sus líneas
+ * se tasan con la misma versión de precios aunque se aplique un delta en paralelo.
+ * Métricas: opcionales vía setMetrics (OrderMetrics.NOOP por defecto, sin costo).
+ * Eventos: setOrderListener recibe cada pedido confirmado (p.ej. OrderJournal; varios con
+ * OrderListener.of).
+ * Holds: en un ReservedCart las unidades ya apartadas se venden sin volver a validarlas
+ * contra el stock libre; solo el resto se reserva con CAS.
+ * Rechazos: tryProcessOrder los retorna como OrderResult sin lanzar ni armar mensajes;
+ * processOrder es un envoltorio que los convierte en IllegalArgumentException.
  */
 public class OrderService {
     // Depósito del 10% para alquileres
     public static final BigDecimal RENTAL_DEPOSIT_RATE = new BigDecimal("0.10");
+    // Misma tasa en puntos básicos para el modo CENTS
+    static final int RENTAL_DEPOSIT_BASIS_POINTS = Cents.basisPoints(RENTAL_DEPOSIT_RATE);
 
-    private final Map<String, Equipment> catalog; // referencia al catálogo
+    private final EquipmentCatalog catalog; // referencia al catálogo
+    private final MoneyMode moneyMode; // representación monetaria de los cálculos
+    private final PricingEngine pricing; // reglas de precios compiladas
+    private OrderMetrics metrics = OrderMetrics.NOOP; // instrumentación (configurar antes de compartir)
+    private OrderListener listener = OrderListener.NOOP; // pedidos confirmados (configurar antes de compartir)
 
     public OrderService(Map<String, Equipment> catalog) {
+        this(catalog, MoneyMode.BIG_DECIMAL);
+    }
+
+    public OrderService(Map<String, Equipment> catalog, MoneyMode moneyMode) {
+        this(EquipmentCatalog.of(catalog), moneyMode);
+    }
+
+    public OrderService(EquipmentCatalog catalog) {
+        this(catalog, MoneyMode.BIG_DECIMAL);
+    }
+
+    public OrderService(EquipmentCatalog catalog, MoneyMode moneyMode) {
+        this(catalog, moneyMode, PricingEngine.LIST_PRICES);
+    }
+
+    public OrderService(EquipmentCatalog catalog, MoneyMode moneyMode, PricingEngine pricing) {
         if (catalog == null) {
             throw new IllegalArgumentException("catalog must not be null");
         }
+        if (moneyMode == null) {
+            throw new IllegalArgumentException("moneyMode must not be null");
+        }
+        if (pricing == null) {
+            throw new IllegalArgumentException("pricing must not be null");
+        }
         this.catalog = catalog;
+        this.moneyMode = moneyMode;
+        this.pricing = pricing;
+    }
+
+    /** Configura las métricas; debe hacerse antes de compartir el servicio entre hilos. */
+    public void setMetrics(OrderMetrics metrics) {
+        if (metrics == null) {
+            throw new IllegalArgumentException("metrics must not be null");
+        }
+        this.metrics = metrics;
+    }
+
+    public OrderMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Configura el observador de pedidos (uno solo; para varios, OrderListener.of); debe hacerse
+     * antes de compartir el servicio entre hilos.
+     */
+    public void setOrderListener(OrderListener listener) {
+        if (listener == null) {
+            throw new IllegalArgumentException("listener must not be null");
+        }
+        this.listener = listener;
+    }
+
+    /** Motor de precios del servicio (para estimar con Cart.estimateSubtotal). */
+    public PricingEngine getPricingEngine() {
+        return pricing;
     }
 
     /**
      * Procesa el pedido, validando reglas de negocio y actualizando stock.
+     * Los importes se calculan según el MoneyMode configurado.
+     * Lanza IllegalArgumentException con el motivo si el pedido se rechaza.
      */
     public OrderReceipt processOrder(Cart cart, boolean rental) {
+        OrderResult result = tryProcessOrder(cart, rental);
+        if (result instanceof OrderResult.Rejected rejected) {
+            throw new IllegalArgumentException(rejected.describe());
+        }
+        return ((OrderResult.Accepted) result).getReceipt();
+    }
+
+    /**
+     * Igual que processOrder, pero informa los rechazos de negocio como resultado:
+     * no lanza excepciones ni construye mensajes en ese camino.
+     * Solo lanza ArithmeticException si los importes desbordan (no es un rechazo de negocio).
+     */
+    public OrderResult tryProcessOrder(Cart cart, boolean rental) {
+        PricedOrder order = price(cart, rental);
+        if (order.rejection != null) {
+            return order.rejection;
+        }
+        // Efectivizar decremento de stock (todas las validaciones pasaron)
+        long start = metrics.isEnabled() ? System.nanoTime() : 0L;
+        OrderResult.Rejected rejection;
+        EquipmentCatalog.CheckoutLock lock = catalog.lockForCheckout(order.lines);
+        try {
+            rejection = reserveAll(order.lines, order.receipt.getItems(), order.holds);
+        } finally {
+            lock.unlock();
+        }
+        if (rejection != null) {
+            return rejection;
+        }
+        if (metrics.isEnabled()) {
+            metrics.recordPhase(OrderMetrics.Phase.STOCK_COMMIT, System.nanoTime() - start);
+        }
+        listener.orderAccepted(order.receipt, order.lines);
+        return new OrderResult.Accepted(order.receipt);
+    }
+
+    /**
+     * Procesa un lote de carritos agrupando la demanda por id de equipo.
+     * - Cada carrito se valida y tasa por separado (mismas reglas que processOrder)
+     * - El stock de cada id se valida y reserva una sola vez para todo el lote
+     * - Los carritos se atienden en orden; el que no alcanza stock falla sin afectar al resto
+     * - Un carrito con holds (ReservedCart) se confirma aparte, al validarlo
+     * Retorna un BatchOrderResult por carrito, en el mismo orden de la lista.
+     */
+    public List<BatchOrderResult> processOrders(List<Cart> carts, boolean rental) {
+        if (carts == null) {
+            throw new IllegalArgumentException("carts must not be null");
+        }
+        BatchOrderResult[] results = new BatchOrderResult[carts.size()];
+        PricedOrder[] orders = new PricedOrder[carts.size()];
+        Map<String, StockSlot> slots = new HashMap<>();
+
+        // Fase 1: validar y tasar cada carrito, acumulando la demanda por id
+        for (int i = 0; i < orders.length; i++) {
+            PricedOrder order;
+            try {
+                order = price(carts.get(i), rental);
+            } catch (ArithmeticException e) {
+                results[i] = BatchOrderResult.failure(e.getMessage());
+                continue;
+            }
+            if (order.rejection != null) {
+                results[i] = BatchOrderResult.failure(order.rejection.describe());
+                continue;
+            }
+            if (order.holds != null) {
+                // Su stock ya está apartado: no participa de la demanda agregada
+                OrderResult.Rejected rejection;
+                EquipmentCatalog.CheckoutLock lock = catalog.lockForCheckout(order.lines);
+                try {
+                    rejection = reserveAll(order.lines, order.receipt.getItems(), order.holds);
+                } finally {
+                    lock.unlock();
+                }
+                if (rejection == null) {
+                    listener.orderAccepted(order.receipt, order.lines);
+                    results[i] = BatchOrderResult.success(order.receipt);
+                } else {
+                    results[i] = BatchOrderResult.failure(rejection.describe());
+                }
+                continue;
+            }
+            orders[i] = order;
+            Equipment[] lines = orders[i].lines;
+            List<OrderReceipt.OrderItem> items = orders[i].receipt.getItems();
+            for (int j = 0; j < lines.length; j++) {
+                StockSlot slot = slots.computeIfAbsent(items.get(j).getId(), id -> new StockSlot());
+                slot.equipment = lines[j];
+                slot.demand = (int) Math.min(Integer.MAX_VALUE, (long) slot.demand + items.get(j).getQuantity());
+            }
+        }
+
+        // Fases 2 a 4 con los locks del catálogo: la reserva parcial no se ve desde otros checkouts
+        Equipment[] reserved = new Equipment[slots.size()];
+        int n = 0;
+        for (StockSlot slot : slots.values()) {
+            reserved[n++] = slot.equipment;
+        }
+        boolean[] accepted = new boolean[orders.length];
+        EquipmentCatalog.CheckoutLock lock = n == 0 ? EquipmentCatalog.CheckoutLock.NONE
+                : catalog.lockForCheckout(reserved);
+        try {
+            // Fase 2: una reserva CAS por id, tomando hasta lo disponible
+            for (StockSlot slot : slots.values()) {
+                slot.available = slot.equipment.decreaseStockUpTo(slot.demand);
+            }
+
+            // Fase 3: repartir lo reservado en orden de llegada (todo o nada por carrito)
+            for (int i = 0; i < orders.length; i++) {
+                if (orders[i] == null) {
+                    continue;
+                }
+                List<OrderReceipt.OrderItem> items = orders[i].receipt.getItems();
+                String missing = null;
+                for (OrderReceipt.OrderItem item : items) {
+                    if (item.getQuantity() > slots.get(item.getId()).available) {
+                        missing = item.getId();
+                        break;
+                    }
+                }
+                if (missing != null) {
+                    results[i] = BatchOrderResult.failure(reject(RejectionReason.INSUFFICIENT_STOCK, missing).describe());
+                    continue;
+                }
+                for (OrderReceipt.OrderItem item : items) {
+                    slots.get(item.getId()).available -= item.getQuantity();
+                }
+                accepted[i] = true;
+                results[i] = BatchOrderResult.success(orders[i].receipt);
+            }
+
+            // Fase 4: devolver al catálogo lo reservado que no se asignó
+            for (StockSlot slot : slots.values()) {
+                if (slot.available > 0) {
+                    slot.equipment.increaseStock(slot.available);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Los listeners se notifican sin los locks tomados, en el orden del lote
+        for (int i = 0; i < orders.length; i++) {
+            if (accepted[i]) {
+                listener.orderAccepted(orders[i].receipt, orders[i].lines);
+            }
+        }
+        return Arrays.asList(results);
+    }
+
+    /**
+     * Valida el carrito contra el catálogo y calcula los importes, sin tocar stock.
+     * Si se viola una regla de negocio retorna un PricedOrder con el rechazo.
+     */
+    private PricedOrder price(Cart cart, boolean rental) {
+        boolean timed = metrics.isEnabled();
+        long start = timed ? System.nanoTime() : 0L;
+
         // Validar carrito
         if (cart == null) {
-            throw new IllegalArgumentException("cart must not be null");
+            return new PricedOrder(reject(OrderResult.Rejected.NULL_CART));
         }
         if (cart.isEmpty()) {
-            throw new IllegalArgumentException("cart must not be empty");
+            return new PricedOrder(reject(OrderResult.Rejected.EMPTY_CART));
         }
 
         // Pre-validación: existencia, elegibilidad (si rental) y stock
-        List<OrderReceipt.OrderItem> orderItems = new ArrayList<>();
-        BigDecimal subtotal = BigDecimal.ZERO;
+        int size = cart.size();
+        Equipment[] lines = new Equipment[size];
+        OrderReceipt.OrderItem[] orderItems = new OrderReceipt.OrderItem[size];
+        StockReservations.Hold[] holds = cart.hasHolds() ? new StockReservations.Hold[size] : null;
+        EquipmentCatalog view = catalog.snapshot(); // misma versión de precios para todo el carrito
+
+        OrderResult.Rejected rejection;
+        if (pricing.isParallel(size)) {
+            // Tramos en paralelo; gana el rechazo de la primera línea, igual que en secuencia
+            cart.compactLines();
+            StockReservations.Hold[] lineHolds = holds;
+            rejection = ParallelLines.reduce(pricing.pool(), size,
+                    (from, to) -> validateLines(cart, view, rental, from, to, lines, orderItems, lineHolds),
+                    (left, right) -> left != null ? left : right);
+        } else {
+            rejection = validateLines(cart, view, rental, 0, size, lines, orderItems, holds);
+        }
+        if (rejection != null) {
+            return new PricedOrder(reject(rejection));
+        }
+        if (holds != null && Arrays.stream(holds).allMatch(Objects::isNull)) {
+            holds = null; // ningún hold activo: el pedido se confirma como uno común
+        }
 
-        for (Map.Entry<String, Integer> e : cart.getItems().entrySet()) {
-            String id = e.getKey();
-            int qty = e.getValue();
+        long validated = timed ? System.nanoTime() : 0L;
+        if (timed) {
+            metrics.recordPhase(OrderMetrics.Phase.VALIDATION, validated - start);
+        }
+        OrderReceipt receipt = pricing.price(lines, Arrays.asList(orderItems), rental, moneyMode);
+        if (timed) {
+            metrics.recordPhase(OrderMetrics.Phase.PRICING, System.nanoTime() - validated);
+        }
+        // El stock se descuenta después
+        return new PricedOrder(lines, receipt, holds);
+    }
+
+    /**
+     * Valida las líneas [from, to) en orden y completa lines, items y holds (si no es null)
+     * en esas posiciones. Retorna el rechazo de la primera línea inválida (sin registrarlo)
+     * o null. Solo lee el carrito y el catálogo: los tramos pueden validarse en paralelo.
+     */
+    private static OrderResult.Rejected validateLines(Cart cart, EquipmentCatalog view, boolean rental,
+                                                      int from, int to, Equipment[] lines,
+                                                      OrderReceipt.OrderItem[] items,
+                                                      StockReservations.Hold[] holds) {
+        for (int i = from; i < to; i++) {
+            String id = cart.getId(i);
+            int qty = cart.getQuantity(i);
 
-            Equipment eq = catalog.get(id);
+            Equipment eq = view.get(id);
             if (eq == null) {
-                throw new IllegalArgumentException("equipment does not exist: " + id);
+                return new OrderResult.Rejected(RejectionReason.EQUIPMENT_NOT_FOUND, id);
             }
             if (qty <= 0) {
-                throw new IllegalArgumentException("quantity must be > 0 for item: " + id);
+                return new OrderResult.Rejected(RejectionReason.INVALID_QUANTITY, id);
             }
             if (rental && !eq.isRentalEligible()) {
-                throw new IllegalArgumentException("equipment not eligible for rental: " + id);
+                return new OrderResult.Rejected(RejectionReason.NOT_RENTAL_ELIGIBLE, id);
             }
-            if (qty > eq.getStock()) {
-                throw new IllegalArgumentException("insufficient stock for item: " + id);
+            int held = 0;
+            StockReservations.Hold hold = holds == null ? null : cart.holdOf(id);
+            if (hold != null && hold.getEquipment().sharesStockWith(eq) && hold.isActive()) {
+                holds[i] = hold;
+                held = Math.min(hold.getQuantity(), qty);
             }
+            if (qty - held > eq.getStock()) {
+                return new OrderResult.Rejected(RejectionReason.INSUFFICIENT_STOCK, id);
+            }
+            lines[i] = eq;
+            items[i] = new OrderReceipt.OrderItem(id, qty);
+        }
+        return null;
+    }
 
-            // Acumular subtotal y preparar items del recibo
-            BigDecimal line = eq.getPrice().multiply(BigDecimal.valueOf(qty));
-            subtotal = subtotal.add(line);
-            orderItems.add(new OrderReceipt.OrderItem(id, qty));
+    /**
+     * Reserva el stock de todas las líneas con CAS por ítem.
+     * Con holds, primero los reclama (el barrido no los vence mientras tanto) y solo
+     * reserva las unidades que no estaban apartadas; al confirmar, los holds quedan vendidos.
+     * Si una línea no alcanza (otro hilo consumió el stock tras la validación),
+     * devuelve lo ya reservado, libera el reclamo y retorna el rechazo; null si todo se reservó.
+     */
+    private OrderResult.Rejected reserveAll(Equipment[] lines, List<OrderReceipt.OrderItem> items,
+                                            StockReservations.Hold[] holds) {
+        int[] fromHold = holds == null ? null : claimHolds(holds, items);
+        for (int i = 0; i < lines.length; i++) {
+            int qty = items.get(i).getQuantity() - (fromHold == null ? 0 : fromHold[i]);
+            if (qty > 0 && !lines[i].tryDecreaseStock(qty)) {
+                // Rollback de las reservas parciales en orden inverso
+                for (int j = i - 1; j >= 0; j--) {
+                    int reserved = items.get(j).getQuantity() - (fromHold == null ? 0 : fromHold[j]);
+                    if (reserved > 0) {
+                        lines[j].increaseStock(reserved);
+                    }
+                }
+                if (fromHold != null) {
+                    for (StockReservations.Hold hold : holds) {
+                        if (hold != null) {
+                            hold.unclaim();
+                        }
+                    }
+                }
+                if (metrics.isEnabled()) {
+                    metrics.recordContention(items.get(i).getId());
+                }
+                return reject(RejectionReason.INSUFFICIENT_STOCK, items.get(i).getId());
+            }
         }
+        if (fromHold != null) {
+            for (int i = 0; i < holds.length; i++) {
+                if (holds[i] != null) {
+                    // Lo apartado de más (hold mayor que la línea) vuelve al catálogo
+                    int surplus = holds[i].getQuantity() - fromHold[i];
+                    holds[i].convert();
+                    if (surplus > 0) {
+                        lines[i].increaseStock(surplus);
+                    }
+                }
+            }
+        }
+        return null;
+    }
 
-        // Redondear subtotal a 2 decimales
-        subtotal = subtotal.setScale(2, RoundingMode.HALF_UP);
+    // Reclama los holds aún activos; los vencidos se descartan y su línea se reserva completa
+    private static int[] claimHolds(StockReservations.Hold[] holds, List<OrderReceipt.OrderItem> items) {
+        int[] fromHold = new int[holds.length];
+        for (int i = 0; i < holds.length; i++) {
+            if (holds[i] == null) {
+                continue;
+            }
+            if (holds[i].claim()) {
+                fromHold[i] = Math.min(holds[i].getQuantity(), items.get(i).getQuantity());
+            } else {
+                holds[i] = null;
+            }
+        }
+        return fromHold;
+    }
+
+    // Registra el rechazo y construye el resultado (sin mensaje ni excepción)
+    private OrderResult.Rejected reject(RejectionReason reason, String equipmentId) {
+        return reject(new OrderResult.Rejected(reason, equipmentId));
+    }
 
-        // Calcular depósito si rental
-        BigDecimal deposit = BigDecimal.ZERO;
-        if (rental) {
-            deposit = subtotal.multiply(RENTAL_DEPOSIT_RATE).setScale(2, RoundingMode.HALF_UP);
+    private OrderResult.Rejected reject(OrderResult.Rejected rejection) {
+        if (metrics.isEnabled()) {
+            metrics.recordRejection(rejection.getReason());
         }
-        BigDecimal total = subtotal.add(deposit).setScale(2, RoundingMode.HALF_UP);
+        return rejection;
+    }
 
-        // Efectivizar decremento de stock (todas las validaciones pasaron)
-        for (Map.Entry<String, Integer> e : cart.getItems().entrySet()) {
-            Equipment eq = Objects.requireNonNull(catalog.get(e.getKey()));
-            eq.decreaseStock(e.getValue());
+    /**
+     * Pedido validado y tasado: equipos resueltos (mismo orden que los items) y recibo;
+     * o bien el rechazo, con lines y receipt en null.
+     * holds: hold activo por línea al validar (null si el carrito no aparta stock).
+     */
+    private static final class PricedOrder {
+        private final Equipment[] lines;
+        private final OrderReceipt receipt;
+        private final StockReservations.Hold[] holds;
+        private final OrderResult.Rejected rejection;
+
+        private PricedOrder(Equipment[] lines, OrderReceipt receipt, StockReservations.Hold[] holds) {
+            this.lines = lines;
+            this.receipt = receipt;
+            this.holds = holds;
+            this.rejection = null;
         }
 
-        // Construir y retornar recibo
-        return new OrderReceipt(orderItems, subtotal, deposit, total, rental);
+        private PricedOrder(OrderResult.Rejected rejection) {
+            this.lines = null;
+            this.receipt = null;
+            this.holds = null;
+            this.rejection = rejection;
+        }
+    }
+
+    /** Demanda agregada de un id dentro de un lote y stock reservado para repartir. */
+    private static final class StockSlot {
+        private Equipment equipment;
+        private int demand;
+        private int available;
     }
 }
@@ -0,0 +1,58 @@
+package com.shop;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BinaryOperator;
+
+/**
+ * ParallelLines recorre las líneas [0, size) de un pedido grande con fork/join.
+ * - El rango se parte a la mitad hasta tramos de a lo sumo CHUNK líneas; cada tramo se
+ *   resuelve en orden con leaf y los resultados se combinan de izquierda a derecha
+ * - combine solo necesita ser asociativa (no conmutativa): el resultado no depende de
+ *   cómo se repartan los tramos entre hilos
+ * Lo usan PricingEngine (subtotales) y OrderService / Cart (validación) por encima del
+ * umbral de PricingEngine.withParallelism.
+ */
+final class ParallelLines {
+    // Líneas por tramo: suficiente para amortizar el fork (~microsegundos) con BigDecimal
+    static final int CHUNK = 2_048;
+
+    private ParallelLines() {
+    }
+
+    /** Resultado de un tramo [from, to) recorrido en orden. */
+    interface Leaf<T> {
+        T apply(int from, int to);
+    }
+
+    static <T> T reduce(ForkJoinPool pool, int size, Leaf<T> leaf, BinaryOperator<T> combine) {
+        return pool.invoke(new Task<>(0, size, leaf, combine));
+    }
+
+    @SuppressWarnings("serial") // nunca se serializa: solo vive dentro del pool
+    private static final class Task<T> extends RecursiveTask<T> {
+        private final int from;
+        private final int to;
+        private final Leaf<T> leaf;
+        private final BinaryOperator<T> combine;
+
+        Task(int from, int to, Leaf<T> leaf, BinaryOperator<T> combine) {
+            this.from = from;
+            this.to = to;
+            this.leaf = leaf;
+            this.combine = combine;
+        }
+
+        @Override
+        protected T compute() {
+            if (to - from <= CHUNK) {
+                return leaf.apply(from, to);
+            }
+            int mid = (from + to) >>> 1;
+            Task<T> left = new Task<>(from, mid, leaf, combine);
+            left.fork();
+            T right = new Task<>(mid, to, leaf, combine).compute();
+            return combine.apply(left.join(), right);
+        }
+    }
+}
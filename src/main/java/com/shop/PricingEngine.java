@@ -0,0 +1,294 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * PricingEngine tasa líneas de pedido con reglas compiladas una sola vez (ver PricingRule).
+ * Compilación: las reglas se agrupan por ordinal de EquipmentType en tablas planas:
+ * - typeDiscount[ordinal]: suma de los descuentos por tipo (puntos básicos)
+ * - breakMin[ordinal] / breakDiscount[ordinal]: escalones por cantidad, ordenados
+ * - bundleMask / bundleOff: un bitmask de tipos y un importe por combo
+ * Tasación de una línea: precio * cantidad menos (tipo + escalón) puntos básicos, con tope
+ * del 100%, redondeo HALF_UP al centavo. El costo por línea depende de los escalones de su
+ * tipo, no de la cantidad total de reglas; los combos se evalúan una vez por pedido.
+ * Subtotal = suma de líneas - combos (mínimo 0); el depósito de alquiler se calcula sobre
+ * ese subtotal. Sin reglas (LIST_PRICES) el resultado es el precio de lista de siempre.
+ * OrderService, RentalService y Cart.estimateSubtotal tasan con el mismo motor.
+ * Carritos grandes (si se activó con withParallelism): desde getParallelThreshold() líneas
+ * el subtotal se suma por tramos en un ForkJoinPool (ver ParallelLines) y OrderService /
+ * Cart validan las líneas igual. Cada línea se redondea por separado y las sumas parciales
+ * son exactas, así que el resultado (escala y redondeo HALF_UP incluidos) es idéntico al
+ * secuencial.
+ * Inmutable y thread-safe.
+ */
+public final class PricingEngine {
+    // Antes que LIST_PRICES: compile() los usa durante la inicialización de la clase
+    private static final int TYPES = EquipmentType.values().length;
+    private static final int[] NO_BREAKS = new int[0];
+
+    /**
+     * Umbral por defecto: modo paralelo apagado. Se activa con withParallelism y un umbral
+     * medido con ParallelPricingBenchmark en la máquina de destino.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = Integer.MAX_VALUE;
+
+    /** Motor sin reglas: precio de lista * cantidad. */
+    public static final PricingEngine LIST_PRICES = compile(List.of());
+
+    private final int[] typeDiscount;
+    private final int[][] breakMin;
+    private final int[][] breakDiscount;
+    private final int[] bundleMask;
+    private final long[] bundleOff;
+    private final boolean hasLineRules;
+    private final ForkJoinPool pool;
+    private final int parallelThreshold;
+
+    private PricingEngine(int[] typeDiscount, int[][] breakMin, int[][] breakDiscount,
+                          int[] bundleMask, long[] bundleOff, ForkJoinPool pool, int parallelThreshold) {
+        this.typeDiscount = typeDiscount;
+        this.breakMin = breakMin;
+        this.breakDiscount = breakDiscount;
+        this.bundleMask = bundleMask;
+        this.bundleOff = bundleOff;
+        boolean lineRules = false;
+        for (int t = 0; t < TYPES; t++) {
+            lineRules |= typeDiscount[t] != 0 || breakMin[t].length != 0;
+        }
+        this.hasLineRules = lineRules;
+        this.pool = pool;
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /**
+     * Compila las reglas en un motor inmutable.
+     * Lanza IllegalArgumentException si hay reglas nulas o dos escalones del mismo tipo
+     * con la misma cantidad mínima.
+     */
+    public static PricingEngine compile(Collection<PricingRule> rules) {
+        if (rules == null) {
+            throw new IllegalArgumentException("rules must not be null");
+        }
+        int[] typeDiscount = new int[TYPES];
+        List<List<PricingRule.QuantityBreak>> breaks = new ArrayList<>();
+        for (int t = 0; t < TYPES; t++) {
+            breaks.add(new ArrayList<>());
+        }
+        List<PricingRule.BundleDiscount> bundles = new ArrayList<>();
+        for (PricingRule rule : rules) {
+            if (rule instanceof PricingRule.TypeDiscount d) {
+                typeDiscount[d.getType().ordinal()] += d.getBasisPoints();
+            } else if (rule instanceof PricingRule.QuantityBreak b) {
+                breaks.get(b.getType().ordinal()).add(b);
+            } else if (rule instanceof PricingRule.BundleDiscount b) {
+                bundles.add(b);
+            } else {
+                throw new IllegalArgumentException("rule must not be null");
+            }
+        }
+
+        int[][] breakMin = new int[TYPES][];
+        int[][] breakDiscount = new int[TYPES][];
+        for (int t = 0; t < TYPES; t++) {
+            List<PricingRule.QuantityBreak> tiers = breaks.get(t);
+            tiers.sort((a, b) -> Integer.compare(a.getMinQuantity(), b.getMinQuantity()));
+            breakMin[t] = tiers.isEmpty() ? NO_BREAKS : new int[tiers.size()];
+            breakDiscount[t] = tiers.isEmpty() ? NO_BREAKS : new int[tiers.size()];
+            for (int i = 0; i < tiers.size(); i++) {
+                if (i > 0 && tiers.get(i).getMinQuantity() == tiers.get(i - 1).getMinQuantity()) {
+                    throw new IllegalArgumentException("duplicate quantity break for "
+                            + EquipmentType.values()[t] + ": " + tiers.get(i).getMinQuantity());
+                }
+                breakMin[t][i] = tiers.get(i).getMinQuantity();
+                breakDiscount[t][i] = tiers.get(i).getBasisPoints();
+            }
+        }
+
+        int[] bundleMask = new int[bundles.size()];
+        long[] bundleOff = new long[bundles.size()];
+        for (int i = 0; i < bundles.size(); i++) {
+            for (EquipmentType type : bundles.get(i).getTypes()) {
+                bundleMask[i] |= 1 << type.ordinal();
+            }
+            bundleOff[i] = bundles.get(i).getAmountOffCents();
+        }
+        return new PricingEngine(typeDiscount, breakMin, breakDiscount, bundleMask, bundleOff,
+                ForkJoinPool.commonPool(), DEFAULT_PARALLEL_THRESHOLD);
+    }
+
+    /**
+     * Copia del motor (mismas reglas) que reparte los pedidos de thresholdLines líneas o más
+     * en el pool dado; Integer.MAX_VALUE desactiva el modo paralelo. Un pool de paralelismo 1
+     * (p.ej. el común en una máquina de un núcleo) tasa siempre en secuencia.
+     */
+    public PricingEngine withParallelism(ForkJoinPool pool, int thresholdLines) {
+        if (pool == null) {
+            throw new IllegalArgumentException("pool must not be null");
+        }
+        if (thresholdLines <= 0) {
+            throw new IllegalArgumentException("thresholdLines must be > 0");
+        }
+        return new PricingEngine(typeDiscount, breakMin, breakDiscount, bundleMask, bundleOff, pool, thresholdLines);
+    }
+
+    /** Cantidad de líneas desde la que se tasa y valida en paralelo. */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    /** Si un pedido de esa cantidad de líneas se procesa en paralelo. */
+    boolean isParallel(int lines) {
+        return lines >= parallelThreshold && pool.getParallelism() > 1;
+    }
+
+    ForkJoinPool pool() {
+        return pool;
+    }
+
+    /** Descuento en puntos básicos de una línea de ese tipo y cantidad (tope 100%). */
+    public int lineDiscountBasisPoints(EquipmentType type, int quantity) {
+        int t = type.ordinal();
+        int bp = typeDiscount[t];
+        int[] mins = breakMin[t];
+        if (mins.length != 0) {
+            // Escalón de mayor mínimo alcanzado: binarySearch da la posición de inserción
+            int k = Arrays.binarySearch(mins, quantity);
+            int tier = k >= 0 ? k : -k - 2;
+            if (tier >= 0) {
+                bp += breakDiscount[t][tier];
+            }
+        }
+        return Math.min(bp, Cents.BASIS_POINTS_PER_UNIT);
+    }
+
+    /**
+     * Subtotal en centavos de las líneas (mismo orden en lines y quantities).
+     * Lanza ArithmeticException si desborda long.
+     */
+    public long subtotalCents(Equipment[] lines, int[] quantities) {
+        long subtotal = isParallel(lines.length)
+                ? ParallelLines.reduce(pool, lines.length, (from, to) -> linesCents(lines, quantities, from, to), Cents::add)
+                : linesCents(lines, quantities, 0, lines.length);
+        if (bundleMask.length != 0) {
+            subtotal = Math.max(0L, subtotal - bundleDiscountCents(lines, quantities));
+        }
+        return subtotal;
+    }
+
+    /** Subtotal con BigDecimal (sin límite de magnitud), escala 2. */
+    public BigDecimal subtotal(Equipment[] lines, int[] quantities) {
+        BigDecimal subtotal = isParallel(lines.length)
+                ? ParallelLines.reduce(pool, lines.length, (from, to) -> linesTotal(lines, quantities, from, to), BigDecimal::add)
+                : linesTotal(lines, quantities, 0, lines.length);
+        subtotal = subtotal.setScale(2, RoundingMode.HALF_UP);
+        if (bundleMask.length != 0) {
+            long off = bundleDiscountCents(lines, quantities);
+            if (off != 0) {
+                subtotal = subtotal.subtract(Cents.toBigDecimal(off)).max(BigDecimal.ZERO.setScale(2));
+            }
+        }
+        return subtotal;
+    }
+
+    /** Tasa líneas ya validadas y arma el recibo (depósito sobre el subtotal si rental). */
+    public OrderReceipt price(Equipment[] lines, List<OrderReceipt.OrderItem> items, boolean rental,
+                              MoneyMode moneyMode) {
+        int[] quantities = new int[lines.length];
+        for (int i = 0; i < quantities.length; i++) {
+            quantities[i] = items.get(i).getQuantity();
+        }
+        if (moneyMode == MoneyMode.CENTS) {
+            long subtotalCents = subtotalCents(lines, quantities);
+            // Depósito HALF_UP en centavos: mismo resultado que la rama BigDecimal
+            long depositCents = rental ? Cents.applyRate(subtotalCents, OrderService.RENTAL_DEPOSIT_BASIS_POINTS) : 0L;
+            long totalCents = Cents.add(subtotalCents, depositCents);
+            return new OrderReceipt(items, subtotalCents, depositCents, totalCents, rental);
+        }
+        BigDecimal subtotal = subtotal(lines, quantities);
+        BigDecimal deposit = BigDecimal.ZERO;
+        if (rental) {
+            deposit = subtotal.multiply(OrderService.RENTAL_DEPOSIT_RATE).setScale(2, RoundingMode.HALF_UP);
+        }
+        BigDecimal total = subtotal.add(deposit).setScale(2, RoundingMode.HALF_UP);
+        return new OrderReceipt(items, subtotal, deposit, total, rental);
+    }
+
+    /** Cantidad de combos (reglas de bundle) compilados. */
+    public int getBundleCount() {
+        return bundleMask.length;
+    }
+
+    // Suma de las líneas [from, to) en centavos, cada una con su descuento (sin combos)
+    private long linesCents(Equipment[] lines, int[] quantities, int from, int to) {
+        long sum = 0L;
+        for (int i = from; i < to; i++) {
+            sum = Cents.add(sum, lineCents(lines[i].getPriceCents(), lines[i].getType(), quantities[i]));
+        }
+        return sum;
+    }
+
+    // Importe de una línea en centavos con su descuento por tipo y escalón (lo usa BoundCart)
+    long lineCents(long priceCents, EquipmentType type, int quantity) {
+        long line = Cents.times(priceCents, quantity);
+        if (hasLineRules) {
+            line -= Cents.applyRate(line, lineDiscountBasisPoints(type, quantity));
+        }
+        return line;
+    }
+
+    // Suma exacta (sin redondear) de las líneas [from, to); cada descuento ya va a 2 decimales
+    private BigDecimal linesTotal(Equipment[] lines, int[] quantities, int from, int to) {
+        BigDecimal sum = BigDecimal.ZERO;
+        for (int i = from; i < to; i++) {
+            BigDecimal line = lines[i].getPrice().multiply(BigDecimal.valueOf(quantities[i]));
+            if (hasLineRules) {
+                int bp = lineDiscountBasisPoints(lines[i].getType(), quantities[i]);
+                if (bp != 0) {
+                    BigDecimal discount = line.multiply(BigDecimal.valueOf(bp)).movePointLeft(4)
+                            .setScale(2, RoundingMode.HALF_UP);
+                    line = line.subtract(discount);
+                }
+            }
+            sum = sum.add(line);
+        }
+        return sum;
+    }
+
+    // Suma de los descuentos de combo: unidades por tipo y, por combo, el mínimo entre sus tipos
+    private long bundleDiscountCents(Equipment[] lines, int[] quantities) {
+        long[] units = new long[TYPES];
+        for (int i = 0; i < lines.length; i++) {
+            units[lines[i].getType().ordinal()] += quantities[i];
+        }
+        return bundleDiscountCents(units);
+    }
+
+    // Descuento de combos dadas las unidades por tipo (índice = ordinal; lo usa BoundCart)
+    long bundleDiscountCents(long[] units) {
+        int present = 0;
+        for (int t = 0; t < units.length; t++) {
+            if (units[t] > 0) {
+                present |= 1 << t;
+            }
+        }
+        long off = 0L;
+        for (int b = 0; b < bundleMask.length; b++) {
+            int mask = bundleMask[b];
+            if ((present & mask) != mask) {
+                continue;
+            }
+            long bundles = Long.MAX_VALUE;
+            for (int m = mask; m != 0; m &= m - 1) {
+                bundles = Math.min(bundles, units[Integer.numberOfTrailingZeros(m)]);
+            }
+            off = Cents.add(off, Cents.times(bundleOff[b], (int) Math.min(Integer.MAX_VALUE, bundles)));
+        }
+        return off;
+    }
+}
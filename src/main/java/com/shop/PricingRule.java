@@ -0,0 +1,104 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Regla de precios que PricingEngine.compile convierte en tablas por EquipmentType.
+ * - TypeDiscount: porcentaje de descuento sobre todas las líneas de un tipo
+ * - QuantityBreak: porcentaje de descuento sobre una línea de un tipo cuando su cantidad
+ *   llega a minQuantity (escalones: aplica solo el de mayor minQuantity alcanzado)
+ * - BundleDiscount: importe fijo de descuento por cada combo completo (una unidad de
+ *   cada tipo del combo, p.ej. tabla + vela + mástil + botavara)
+ * Las tasas se expresan como fracción (0.15 = 15%) con a lo sumo 4 decimales.
+ */
+public sealed interface PricingRule
+        permits PricingRule.TypeDiscount, PricingRule.QuantityBreak, PricingRule.BundleDiscount {
+
+    /** Descuento de rate sobre cada línea de ese tipo. */
+    static PricingRule typeDiscount(EquipmentType type, BigDecimal rate) {
+        return new TypeDiscount(type, rate);
+    }
+
+    /** Descuento de rate sobre las líneas de ese tipo con cantidad >= minQuantity. */
+    static PricingRule quantityBreak(EquipmentType type, int minQuantity, BigDecimal rate) {
+        return new QuantityBreak(type, minQuantity, rate);
+    }
+
+    /** Descuento de amountOff por cada combo completo de los tipos dados (al menos dos). */
+    static PricingRule bundle(Set<EquipmentType> types, BigDecimal amountOff) {
+        return new BundleDiscount(types, amountOff);
+    }
+
+    /** Descuento porcentual por tipo de equipo. */
+    final class TypeDiscount implements PricingRule {
+        private final EquipmentType type;
+        private final int basisPoints;
+
+        private TypeDiscount(EquipmentType type, BigDecimal rate) {
+            this.type = requireType(type);
+            this.basisPoints = discountBasisPoints(rate);
+        }
+
+        public EquipmentType getType() { return type; }
+        public int getBasisPoints() { return basisPoints; }
+    }
+
+    /** Escalón de descuento por cantidad de una línea. */
+    final class QuantityBreak implements PricingRule {
+        private final EquipmentType type;
+        private final int minQuantity;
+        private final int basisPoints;
+
+        private QuantityBreak(EquipmentType type, int minQuantity, BigDecimal rate) {
+            if (minQuantity <= 1) {
+                throw new IllegalArgumentException("minQuantity must be > 1");
+            }
+            this.type = requireType(type);
+            this.minQuantity = minQuantity;
+            this.basisPoints = discountBasisPoints(rate);
+        }
+
+        public EquipmentType getType() { return type; }
+        public int getMinQuantity() { return minQuantity; }
+        public int getBasisPoints() { return basisPoints; }
+    }
+
+    /** Descuento fijo por combo completo. */
+    final class BundleDiscount implements PricingRule {
+        private final Set<EquipmentType> types;
+        private final long amountOffCents;
+
+        private BundleDiscount(Set<EquipmentType> types, BigDecimal amountOff) {
+            if (types == null || types.size() < 2 || types.contains(null)) {
+                throw new IllegalArgumentException("bundle needs at least two equipment types");
+            }
+            long cents = Cents.of(amountOff);
+            if (cents <= 0) {
+                throw new IllegalArgumentException("amountOff must be > 0");
+            }
+            this.types = Collections.unmodifiableSet(EnumSet.copyOf(types));
+            this.amountOffCents = cents;
+        }
+
+        public Set<EquipmentType> getTypes() { return types; }
+        public long getAmountOffCents() { return amountOffCents; }
+    }
+
+    private static EquipmentType requireType(EquipmentType type) {
+        if (type == null) {
+            throw new IllegalArgumentException("type must not be null");
+        }
+        return type;
+    }
+
+    private static int discountBasisPoints(BigDecimal rate) {
+        int bp = Cents.basisPoints(rate);
+        if (bp <= 0 || bp > Cents.BASIS_POINTS_PER_UNIT) {
+            throw new IllegalArgumentException("discount rate must be > 0 and <= 1: " + rate);
+        }
+        return bp;
+    }
+}
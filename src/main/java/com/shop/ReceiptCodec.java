@@ -0,0 +1,300 @@
+package com.shop;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+/**
+ * ReceiptCodec codifica OrderReceipt en un formato binario compacto.
+ * Formato de un recibo:
+ * [byte flags (bit 0 = rental)][varint cantidad de ítems]
+ * por ítem: [varint largo del id][id UTF-8][varint cantidad]
+ * [varlong zigzag subtotal][varlong zigzag depósito][varlong zigzag total] (centavos)
+ * El status no se codifica: un recibo siempre es "OK".
+ * encode escribe directo en el ByteBuffer (sin byte[] ni String intermedios) a partir de
+ * los importes en centavos que el recibo ya tiene; un buffer directo puede ir tal cual
+ * a un FileChannel o socket.
+ * Flujo por lotes (ver ReceiptWriter): [int MAGIC] y luego tramas
+ * [int largo del contenido][int cantidad de recibos][recibos][int crc32c del contenido].
+ * El largo de una trama no supera MAX_FRAME_BYTES: read rechaza uno mayor antes de reservar
+ * memoria, así una cabecera dañada no puede pedir un buffer de gigabytes.
+ * Los importes van en centavos: un recibo BIG_DECIMAL que no entra en long centavos
+ * (ver OrderReceipt.hasCents) no se puede codificar y encode lanza ArithmeticException.
+ */
+public final class ReceiptCodec {
+    // "SHRC": cabecera del flujo de recibos
+    public static final int MAGIC = 0x53485243;
+    // Cabecera y cola de cada trama
+    static final int FRAME_HEADER = 8;
+    static final int FRAME_TRAILER = 4;
+    /** Tope del contenido de una trama (16 MiB); ReceiptWriter no escribe tramas mayores. */
+    public static final int MAX_FRAME_BYTES = 16 * 1024 * 1024;
+
+    private static final int RENTAL_FLAG = 1;
+
+    private ReceiptCodec() {
+    }
+
+    /** Bytes exactos que ocupa el recibo codificado. */
+    public static int encodedSize(OrderReceipt receipt) {
+        List<OrderReceipt.OrderItem> items = receipt.getItems();
+        int size = 1 + varIntSize(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            OrderReceipt.OrderItem item = items.get(i);
+            int idLen = utf8Length(item.getId());
+            size += varIntSize(idLen) + idLen + varIntSize(item.getQuantity());
+        }
+        return size
+                + varLongSize(zigZag(receipt.getSubtotalCents()))
+                + varLongSize(zigZag(receipt.getDepositCents()))
+                + varLongSize(zigZag(receipt.getTotalCents()));
+    }
+
+    /**
+     * Escribe el recibo en la posición actual del buffer.
+     * Lanza BufferOverflowException si no entra (usar encodedSize para dimensionar);
+     * en ese caso la posición queda en un punto intermedio.
+     * Lanza ArithmeticException si los importes no entran en long centavos.
+     */
+    public static void encode(OrderReceipt receipt, ByteBuffer out) {
+        List<OrderReceipt.OrderItem> items = receipt.getItems();
+        out.put((byte) (receipt.isRental() ? RENTAL_FLAG : 0));
+        putVarInt(out, items.size());
+        for (int i = 0; i < items.size(); i++) {
+            OrderReceipt.OrderItem item = items.get(i);
+            String id = item.getId();
+            putVarInt(out, utf8Length(id));
+            putUtf8(out, id);
+            putVarInt(out, item.getQuantity());
+        }
+        putVarLong(out, zigZag(receipt.getSubtotalCents()));
+        putVarLong(out, zigZag(receipt.getDepositCents()));
+        putVarLong(out, zigZag(receipt.getTotalCents()));
+    }
+
+    /**
+     * Lee un recibo desde la posición actual del buffer.
+     * Lanza IllegalArgumentException si los datos no son un recibo válido.
+     */
+    public static OrderReceipt decode(ByteBuffer in) {
+        try {
+            int flags = in.get();
+            if ((flags & ~RENTAL_FLAG) != 0) {
+                throw new IllegalArgumentException("invalid receipt flags: " + flags);
+            }
+            int count = getVarInt(in);
+            if (count < 0 || count > in.remaining()) {
+                throw new IllegalArgumentException("invalid receipt item count: " + count);
+            }
+            List<OrderReceipt.OrderItem> items = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                String id = getUtf8(in, getVarInt(in));
+                items.add(new OrderReceipt.OrderItem(id, getVarInt(in)));
+            }
+            long subtotal = unZigZag(getVarLong(in));
+            long deposit = unZigZag(getVarLong(in));
+            long total = unZigZag(getVarLong(in));
+            return new OrderReceipt(items, subtotal, deposit, total, (flags & RENTAL_FLAG) != 0);
+        } catch (BufferUnderflowException e) {
+            throw new IllegalArgumentException("truncated receipt");
+        }
+    }
+
+    /**
+     * Lee un flujo escrito por ReceiptWriter y entrega cada recibo en orden.
+     * Retorna la cantidad de recibos leídos. Lanza IOException si la cabecera no coincide,
+     * si una trama está truncada, declara más de MAX_FRAME_BYTES o su CRC no es válido.
+     */
+    public static long read(ReadableByteChannel in, Consumer<OrderReceipt> sink) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(FRAME_HEADER);
+        if (!readFully(in, header.limit(4), true)) {
+            return 0L; // flujo vacío
+        }
+        if (header.getInt(0) != MAGIC) {
+            throw new IOException("not a receipt stream");
+        }
+        ByteBuffer frame = ByteBuffer.allocate(ReceiptWriter.DEFAULT_FRAME_BYTES);
+        CRC32C crc = new CRC32C();
+        long read = 0L;
+        while (readFully(in, header.clear(), true)) {
+            int length = header.getInt(0);
+            int count = header.getInt(4);
+            if (length < 0 || count < 0 || count > length) {
+                throw new IOException("corrupt receipt frame header");
+            }
+            if (length > MAX_FRAME_BYTES) {
+                throw new IOException("receipt frame too large: " + length + " bytes");
+            }
+            if (frame.capacity() < length + FRAME_TRAILER) {
+                frame = ByteBuffer.allocate(length + FRAME_TRAILER);
+            }
+            frame.clear().limit(length + FRAME_TRAILER);
+            readFully(in, frame, false);
+            crc.reset();
+            crc.update(frame.array(), 0, length);
+            if ((int) crc.getValue() != frame.getInt(length)) {
+                throw new IOException("corrupt receipt frame (crc mismatch)");
+            }
+            frame.flip().limit(length);
+            try {
+                for (int i = 0; i < count; i++) {
+                    sink.accept(decode(frame));
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IOException("corrupt receipt frame: " + e.getMessage(), e);
+            }
+            read += count;
+        }
+        return read;
+    }
+
+    // Llena el buffer; false si el canal termina antes del primer byte y eofAllowed
+    private static boolean readFully(ReadableByteChannel in, ByteBuffer buf, boolean eofAllowed) throws IOException {
+        while (buf.hasRemaining()) {
+            if (in.read(buf) < 0) {
+                if (eofAllowed && buf.position() == 0) {
+                    return false;
+                }
+                throw new EOFException("truncated receipt stream");
+            }
+        }
+        return true;
+    }
+
+    static int varIntSize(int value) {
+        int size = 1;
+        while ((value & ~0x7F) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static void putVarLong(ByteBuffer out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.put((byte) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    static int getVarInt(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varint too long");
+    }
+
+    static long getVarLong(ByteBuffer in) {
+        long value = 0L;
+        for (int shift = 0; shift < 70; shift += 7) {
+            byte b = in.get();
+            value |= (long) (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IllegalArgumentException("varlong too long");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Largo en bytes UTF-8 sin codificar (los pares sustitutos ocupan 4 bytes)
+    static int utf8Length(String s) {
+        int len = s.length();
+        int bytes = len;
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c >= 0x80) {
+                if (c < 0x800) {
+                    bytes += 1;
+                } else if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    bytes += 2; // 4 bytes por los dos chars
+                    i++;
+                } else {
+                    bytes += 2;
+                }
+            }
+        }
+        return bytes;
+    }
+
+    // Codifica en UTF-8 directo al buffer; un sustituto suelto se escribe como U+FFFD
+    private static void putUtf8(ByteBuffer out, String s) {
+        int len = s.length();
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 0x80) {
+                out.put((byte) c);
+            } else if (c < 0x800) {
+                out.put((byte) (0xC0 | (c >> 6)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            } else if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < len && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    int cp = Character.toCodePoint(c, s.charAt(++i));
+                    out.put((byte) (0xF0 | (cp >> 18)));
+                    out.put((byte) (0x80 | ((cp >> 12) & 0x3F)));
+                    out.put((byte) (0x80 | ((cp >> 6) & 0x3F)));
+                    out.put((byte) (0x80 | (cp & 0x3F)));
+                } else {
+                    out.put((byte) 0xEF).put((byte) 0xBF).put((byte) 0xBD);
+                }
+            } else {
+                out.put((byte) (0xE0 | (c >> 12)));
+                out.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+                out.put((byte) (0x80 | (c & 0x3F)));
+            }
+        }
+    }
+
+    private static String getUtf8(ByteBuffer in, int length) {
+        if (length < 0 || length > in.remaining()) {
+            throw new IllegalArgumentException("invalid receipt id length: " + length);
+        }
+        String s;
+        if (in.hasArray()) {
+            s = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+            in.position(in.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            in.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+}
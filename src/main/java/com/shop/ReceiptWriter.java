@@ -0,0 +1,118 @@
+package com.shop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.util.zip.CRC32C;
+
+/**
+ * ReceiptWriter exporta recibos a un canal (FileChannel, socket) en tramas de ReceiptCodec.
+ * - Los recibos se codifican directo en un buffer directo de tamaño fijo; cuando el
+ *   siguiente no entra, la trama se cierra (largo, cantidad, CRC) y se escribe de una vez
+ * - Un recibo más grande que la trama agranda el buffer
+ * - flush() cierra la trama en curso aunque no esté llena; close() hace flush y cierra el canal
+ * No es thread-safe: un escritor por hilo (o sincronizar por fuera).
+ */
+public class ReceiptWriter implements Closeable {
+    public static final int DEFAULT_FRAME_BYTES = 64 * 1024;
+
+    private final WritableByteChannel channel;
+    private final CRC32C crc = new CRC32C();
+    private ByteBuffer frame;
+    private int frameReceipts;
+    private long receipts;
+    private long bytesWritten;
+
+    public ReceiptWriter(WritableByteChannel channel) throws IOException {
+        this(channel, DEFAULT_FRAME_BYTES);
+    }
+
+    /**
+     * Escribe la cabecera del flujo; frameBytes es el tamaño de cada trama
+     * (entre 64 y ReceiptCodec.MAX_FRAME_BYTES).
+     */
+    public ReceiptWriter(WritableByteChannel channel, int frameBytes) throws IOException {
+        if (channel == null) {
+            throw new IllegalArgumentException("channel must not be null");
+        }
+        if (frameBytes < 64 || frameBytes > ReceiptCodec.MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("frameBytes must be between 64 and " + ReceiptCodec.MAX_FRAME_BYTES);
+        }
+        this.channel = channel;
+        this.frame = ByteBuffer.allocateDirect(frameBytes);
+        frame.putInt(ReceiptCodec.MAGIC).flip();
+        writeOut();
+        startFrame();
+    }
+
+    /**
+     * Agrega un recibo a la trama en curso (la escribe antes si no hay lugar).
+     * Lanza IllegalArgumentException si el recibo solo no entra en MAX_FRAME_BYTES.
+     */
+    public void write(OrderReceipt receipt) throws IOException {
+        if (receipt == null) {
+            throw new IllegalArgumentException("receipt must not be null");
+        }
+        int size = ReceiptCodec.encodedSize(receipt);
+        if (size > ReceiptCodec.MAX_FRAME_BYTES) {
+            throw new IllegalArgumentException("receipt too large for a frame: " + size + " bytes");
+        }
+        if (frame.remaining() - ReceiptCodec.FRAME_TRAILER < size) {
+            flush();
+            int needed = ReceiptCodec.FRAME_HEADER + size + ReceiptCodec.FRAME_TRAILER;
+            if (frame.capacity() < needed) {
+                frame = ByteBuffer.allocateDirect(needed);
+                startFrame();
+            }
+        }
+        ReceiptCodec.encode(receipt, frame);
+        frameReceipts++;
+        receipts++;
+    }
+
+    /** Escribe la trama en curso si tiene recibos. */
+    public void flush() throws IOException {
+        if (frameReceipts == 0) {
+            return;
+        }
+        int length = frame.position() - ReceiptCodec.FRAME_HEADER;
+        frame.putInt(0, length).putInt(4, frameReceipts);
+        ByteBuffer content = frame.duplicate().position(ReceiptCodec.FRAME_HEADER).limit(frame.position());
+        crc.reset();
+        crc.update(content);
+        frame.putInt((int) crc.getValue()).flip();
+        writeOut();
+        startFrame();
+    }
+
+    /** Recibos escritos (incluye los de la trama en curso). */
+    public long getReceiptCount() {
+        return receipts;
+    }
+
+    /** Bytes entregados al canal. */
+    public long getBytesWritten() {
+        return bytesWritten;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void writeOut() throws IOException {
+        while (frame.hasRemaining()) {
+            bytesWritten += channel.write(frame);
+        }
+    }
+
+    private void startFrame() {
+        frame.clear().position(ReceiptCodec.FRAME_HEADER);
+        frameReceipts = 0;
+    }
+}
@@ -0,0 +1,67 @@
+package com.shop;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * RecordingOrderMetrics acumula en memoria las métricas de OrderService:
+ * histogramas de latencia por fase, contadores LongAdder (striped) por motivo de
+ * rechazo y contadores de contención por SKU.
+ */
+public class RecordingOrderMetrics implements OrderMetrics {
+    private final EnumMap<Phase, LatencyHistogram> phases = new EnumMap<>(Phase.class);
+    private final EnumMap<RejectionReason, LongAdder> rejections = new EnumMap<>(RejectionReason.class);
+    private final ConcurrentHashMap<String, LongAdder> contention = new ConcurrentHashMap<>();
+
+    public RecordingOrderMetrics() {
+        // Se crean todos de antemano: los EnumMap sólo se leen después
+        for (Phase phase : Phase.values()) {
+            phases.put(phase, new LatencyHistogram());
+        }
+        for (RejectionReason reason : RejectionReason.values()) {
+            rejections.put(reason, new LongAdder());
+        }
+    }
+
+    @Override
+    public void recordPhase(Phase phase, long nanos) {
+        phases.get(phase).record(nanos);
+    }
+
+    @Override
+    public void recordRejection(RejectionReason reason) {
+        rejections.get(reason).increment();
+    }
+
+    @Override
+    public void recordContention(String equipmentId) {
+        contention.computeIfAbsent(equipmentId, id -> new LongAdder()).increment();
+    }
+
+    /** Histograma de latencias (ns) de una fase. */
+    public LatencyHistogram getLatency(Phase phase) {
+        return phases.get(phase);
+    }
+
+    /** Cantidad de rechazos por un motivo. */
+    public long getRejections(RejectionReason reason) {
+        return rejections.get(reason).sum();
+    }
+
+    /** Veces que un SKU perdió la carrera entre validación y commit. */
+    public long getContention(String equipmentId) {
+        LongAdder adder = contention.get(equipmentId);
+        return adder == null ? 0L : adder.sum();
+    }
+
+    /** Foto de la contención por SKU (id -> cantidad). */
+    public Map<String, Long> getContentionSnapshot() {
+        Map<String, Long> snapshot = new HashMap<>();
+        contention.forEach((id, adder) -> snapshot.put(id, adder.sum()));
+        return Collections.unmodifiableMap(snapshot);
+    }
+}
@@ -0,0 +1,26 @@
+package com.shop;
+
+/**
+ * Motivos de rechazo de un pedido por reglas de negocio.
+ * Cada motivo conoce el prefijo del mensaje que usa OrderService al informarlo.
+ */
+public enum RejectionReason {
+    NULL_CART("cart must not be null"),
+    EMPTY_CART("cart must not be empty"),
+    EQUIPMENT_NOT_FOUND("equipment does not exist: "),
+    INVALID_QUANTITY("quantity must be > 0 for item: "),
+    NOT_RENTAL_ELIGIBLE("equipment not eligible for rental: "),
+    INSUFFICIENT_STOCK("insufficient stock for item: "),
+    UNAVAILABLE_FOR_PERIOD("equipment not available for period: ");
+
+    private final String message;
+
+    RejectionReason(String message) {
+        this.message = message;
+    }
+
+    /** Mensaje legible; si hay id de equipo se agrega al final. */
+    public String describe(String equipmentId) {
+        return equipmentId == null ? message : message + equipmentId;
+    }
+}
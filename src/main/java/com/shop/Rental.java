@@ -0,0 +1,62 @@
+package com.shop;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Rental es un alquiler reservado en RentalService para un período [start, end).
+ * Ciclo de vida: BOOKED -> OUT (pickUp) -> RETURNED (returnRental), o BOOKED -> CANCELLED.
+ * El stock del equipo solo se descuenta mientras el alquiler está OUT.
+ */
+public final class Rental {
+    public enum State { BOOKED, OUT, RETURNED, CANCELLED }
+
+    private final long id; // inmutable
+    private final Instant start; // inmutable
+    private final Instant end; // inmutable
+    private final OrderReceipt receipt; // inmutable (rental = true)
+    private final AtomicReference<State> state = new AtomicReference<>(State.BOOKED);
+    private volatile Instant returnedAt;
+
+    // Datos de ocupación en el índice, mismo orden que receipt.getItems()
+    final Equipment[] lines;
+    final int fromSlot;
+    final int[] toSlots; // fin de ocupación por línea (incluye el tiempo de preparación)
+
+    Rental(long id, Instant start, Instant end, OrderReceipt receipt, Equipment[] lines, int fromSlot, int[] toSlots) {
+        this.id = id;
+        this.start = start;
+        this.end = end;
+        this.receipt = receipt;
+        this.lines = lines;
+        this.fromSlot = fromSlot;
+        this.toSlots = toSlots;
+    }
+
+    public long getId() { return id; }
+    public Instant getStart() { return start; }
+    public Instant getEnd() { return end; }
+    public OrderReceipt getReceipt() { return receipt; }
+    public State getState() { return state.get(); }
+    /** Momento de la devolución (null si no se devolvió). */
+    public Instant getReturnedAt() { return returnedAt; }
+
+    /** true si se devolvió después de end. */
+    public boolean isLate() {
+        Instant at = returnedAt;
+        return at != null && at.isAfter(end);
+    }
+
+    boolean transition(State from, State to) {
+        return state.compareAndSet(from, to);
+    }
+
+    void markReturned(Instant at) {
+        returnedAt = at;
+    }
+
+    @Override
+    public String toString() {
+        return "Rental{" + "id=" + id + ", start=" + start + ", end=" + end + ", state=" + getState() + '}';
+    }
+}
@@ -0,0 +1,341 @@
+package com.shop;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * RentalService gestiona alquileres con fecha de inicio y fin dentro de una temporada.
+ * Reglas:
+ * - La temporada [seasonStart, seasonEnd) se divide en franjas de duración fija;
+ *   los períodos se redondean hacia afuera (inicio hacia abajo, fin hacia arriba)
+ * - Cada equipo tiene una flota (por defecto, su stock al primer uso) y un AvailabilityIndex
+ *   con las unidades reservadas por franja
+ * - book valida existencia, cantidad y elegibilidad, y que haya flota libre en todo el período
+ *   (más el tiempo de preparación de su EquipmentType); tasa igual que un pedido rental
+ * - pickUp descuenta el stock; returnRental lo repone y libera las franjas que no se usaron
+ * - cancel libera la reserva de un alquiler que no se retiró
+ * Concurrencia: un lock por equipo; book los toma en orden de id para evitar deadlocks.
+ * pickUp descuenta el stock con los locks de checkout del catálogo tomados (ver ShardedCatalog).
+ */
+public class RentalService {
+    private final EquipmentCatalog catalog;
+    private final MoneyMode moneyMode;
+    private final Instant seasonStart;
+    private final long slotNanos;
+    private final int slots;
+    private final Map<String, Calendar> calendars = new ConcurrentHashMap<>();
+    private final EnumMap<EquipmentType, Integer> turnaroundSlots = new EnumMap<>(EquipmentType.class);
+    private final AtomicLong ids = new AtomicLong();
+    private volatile PricingEngine pricing = PricingEngine.LIST_PRICES;
+
+    public RentalService(Map<String, Equipment> catalog, Instant seasonStart, Instant seasonEnd, Duration slot) {
+        this(EquipmentCatalog.of(catalog), MoneyMode.BIG_DECIMAL, seasonStart, seasonEnd, slot);
+    }
+
+    public RentalService(EquipmentCatalog catalog, MoneyMode moneyMode, Instant seasonStart, Instant seasonEnd,
+                         Duration slot) {
+        if (catalog == null) {
+            throw new IllegalArgumentException("catalog must not be null");
+        }
+        if (moneyMode == null) {
+            throw new IllegalArgumentException("moneyMode must not be null");
+        }
+        if (seasonStart == null || seasonEnd == null || !seasonEnd.isAfter(seasonStart)) {
+            throw new IllegalArgumentException("season end must be after season start");
+        }
+        if (slot == null || slot.isNegative() || slot.isZero()) {
+            throw new IllegalArgumentException("slot must be > 0");
+        }
+        this.catalog = catalog;
+        this.moneyMode = moneyMode;
+        this.seasonStart = seasonStart;
+        this.slotNanos = slot.toNanos();
+        long count = ceilDiv(Duration.between(seasonStart, seasonEnd).toNanos(), slotNanos);
+        if (count > Integer.MAX_VALUE / 4) {
+            throw new IllegalArgumentException("too many slots in season: " + count);
+        }
+        this.slots = (int) count;
+        for (EquipmentType type : EquipmentType.values()) {
+            turnaroundSlots.put(type, 0);
+        }
+    }
+
+    /**
+     * Tiempo de preparación tras cada alquiler de un tipo (enjuague, reparación),
+     * durante el cual la unidad sigue ocupada. Configurar antes de reservar.
+     */
+    public synchronized void setTurnaround(EquipmentType type, Duration turnaround) {
+        if (type == null) {
+            throw new IllegalArgumentException("type must not be null");
+        }
+        if (turnaround == null || turnaround.isNegative()) {
+            throw new IllegalArgumentException("turnaround must be >= 0");
+        }
+        long n = ceilDiv(turnaround.toNanos(), slotNanos);
+        turnaroundSlots.put(type, (int) Math.min(slots, n));
+    }
+
+    /** Reglas de precios para tasar las reservas (por defecto, precio de lista). */
+    public void setPricingEngine(PricingEngine pricing) {
+        if (pricing == null) {
+            throw new IllegalArgumentException("pricing must not be null");
+        }
+        this.pricing = pricing;
+    }
+
+    /** Fija la cantidad de unidades de un equipo disponibles para alquiler. */
+    public void setFleetSize(String id, int units) {
+        Calendar calendar = calendarOf(requireEquipment(id));
+        calendar.lock.lock();
+        try {
+            calendar.index.setCapacity(units);
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /** Unidades del equipo libres durante todo [from, to); 0 si el id no existe. */
+    public int available(String id, Instant from, Instant to) {
+        Equipment eq = id == null ? null : catalog.get(id);
+        if (eq == null) {
+            return 0;
+        }
+        int fromSlot = floorSlot(from);
+        int toSlot = ceilSlot(to);
+        checkPeriod(fromSlot, toSlot);
+        Calendar calendar = calendarOf(eq);
+        calendar.lock.lock();
+        try {
+            return Math.max(0, calendar.index.available(fromSlot, toSlot));
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    /**
+     * Reserva los ítems del carrito para [start, end).
+     * Lanza IllegalArgumentException (mensajes de RejectionReason) si alguna regla no se cumple.
+     */
+    public Rental book(Cart cart, Instant start, Instant end) {
+        if (start == null || end == null || !end.isAfter(start)) {
+            throw new IllegalArgumentException("end must be after start");
+        }
+        int fromSlot = floorSlot(start);
+        int toSlot = ceilSlot(end);
+        checkPeriod(fromSlot, toSlot);
+        if (cart == null) {
+            throw new IllegalArgumentException(RejectionReason.NULL_CART.describe(null));
+        }
+        if (cart.isEmpty()) {
+            throw new IllegalArgumentException(RejectionReason.EMPTY_CART.describe(null));
+        }
+
+        List<OrderReceipt.OrderItem> items = new ArrayList<>();
+        Equipment[] lines = new Equipment[cart.size()];
+        int[] toSlots = new int[lines.length];
+        EquipmentCatalog view = catalog.snapshot();
+        synchronized (this) {
+            for (int i = 0; i < lines.length; i++) {
+                String id = cart.getId(i);
+                int qty = cart.getQuantity(i);
+                Equipment eq = view.get(id);
+                if (eq == null) {
+                    throw new IllegalArgumentException(RejectionReason.EQUIPMENT_NOT_FOUND.describe(id));
+                }
+                if (qty <= 0) {
+                    throw new IllegalArgumentException(RejectionReason.INVALID_QUANTITY.describe(id));
+                }
+                if (!eq.isRentalEligible()) {
+                    throw new IllegalArgumentException(RejectionReason.NOT_RENTAL_ELIGIBLE.describe(id));
+                }
+                toSlots[items.size()] = Math.min(slots, toSlot + turnaroundSlots.get(eq.getType()));
+                lines[items.size()] = eq;
+                items.add(new OrderReceipt.OrderItem(id, qty));
+            }
+        }
+        OrderReceipt receipt = pricing.price(lines, items, true, moneyMode);
+
+        Calendar[] locked = lockInIdOrder(lines);
+        try {
+            for (int i = 0; i < lines.length; i++) {
+                if (calendarOf(lines[i]).index.available(fromSlot, toSlots[i]) < items.get(i).getQuantity()) {
+                    throw new IllegalArgumentException(RejectionReason.UNAVAILABLE_FOR_PERIOD.describe(items.get(i).getId()));
+                }
+            }
+            for (int i = 0; i < lines.length; i++) {
+                calendarOf(lines[i]).index.add(fromSlot, toSlots[i], items.get(i).getQuantity());
+            }
+        } finally {
+            for (int i = locked.length - 1; i >= 0; i--) {
+                locked[i].lock.unlock();
+            }
+        }
+        return new Rental(ids.incrementAndGet(), start, end, receipt, lines, fromSlot, toSlots);
+    }
+
+    /**
+     * Entrega los equipos: descuenta el stock de cada línea (todo o nada).
+     * Lanza IllegalStateException si el alquiler no está BOOKED e IllegalArgumentException
+     * si ya no hay stock (p.ej. unidades vendidas después de reservar).
+     */
+    public void pickUp(Rental rental) {
+        if (rental == null) {
+            throw new IllegalArgumentException("rental must not be null");
+        }
+        if (!rental.transition(Rental.State.BOOKED, Rental.State.OUT)) {
+            throw new IllegalStateException("rental is not booked: " + rental.getState());
+        }
+        List<OrderReceipt.OrderItem> items = rental.getReceipt().getItems();
+        String missing = null;
+        EquipmentCatalog.CheckoutLock lock = catalog.lockForCheckout(rental.lines);
+        try {
+            for (int i = 0; i < rental.lines.length; i++) {
+                if (!rental.lines[i].tryDecreaseStock(items.get(i).getQuantity())) {
+                    for (int j = i - 1; j >= 0; j--) {
+                        rental.lines[j].increaseStock(items.get(j).getQuantity());
+                    }
+                    missing = items.get(i).getId();
+                    break;
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (missing != null) {
+            rental.transition(Rental.State.OUT, Rental.State.BOOKED);
+            throw new IllegalArgumentException(RejectionReason.INSUFFICIENT_STOCK.describe(missing));
+        }
+    }
+
+    /**
+     * Registra la devolución: repone el stock y, si se devuelve antes de end,
+     * libera las franjas restantes (conservando el tiempo de preparación).
+     * Lanza IllegalStateException si el alquiler no está OUT.
+     */
+    public void returnRental(Rental rental, Instant returnedAt) {
+        if (rental == null) {
+            throw new IllegalArgumentException("rental must not be null");
+        }
+        if (returnedAt == null) {
+            throw new IllegalArgumentException("returnedAt must not be null");
+        }
+        if (!rental.transition(Rental.State.OUT, Rental.State.RETURNED)) {
+            throw new IllegalStateException("rental is not out: " + rental.getState());
+        }
+        rental.markReturned(returnedAt);
+        List<OrderReceipt.OrderItem> items = rental.getReceipt().getItems();
+        long elapsed = Duration.between(seasonStart, returnedAt).toNanos();
+        int returnSlot = (int) Math.max(rental.fromSlot, Math.min(slots, ceilDiv(Math.max(0L, elapsed), slotNanos)));
+        for (int i = 0; i < rental.lines.length; i++) {
+            Equipment eq = rental.lines[i];
+            int qty = items.get(i).getQuantity();
+            eq.increaseStock(qty);
+            int freeFrom = Math.min(slots, returnSlot + turnaroundSlotsOf(eq));
+            if (freeFrom < rental.toSlots[i]) {
+                release(eq, freeFrom, rental.toSlots[i], qty);
+            }
+        }
+    }
+
+    /** Cancela un alquiler no retirado y libera su reserva. Retorna false si no estaba BOOKED. */
+    public boolean cancel(Rental rental) {
+        if (rental == null) {
+            throw new IllegalArgumentException("rental must not be null");
+        }
+        if (!rental.transition(Rental.State.BOOKED, Rental.State.CANCELLED)) {
+            return false;
+        }
+        List<OrderReceipt.OrderItem> items = rental.getReceipt().getItems();
+        for (int i = 0; i < rental.lines.length; i++) {
+            release(rental.lines[i], rental.fromSlot, rental.toSlots[i], items.get(i).getQuantity());
+        }
+        return true;
+    }
+
+    private void release(Equipment eq, int from, int to, int qty) {
+        Calendar calendar = calendarOf(eq);
+        calendar.lock.lock();
+        try {
+            calendar.index.add(from, to, -qty);
+        } finally {
+            calendar.lock.unlock();
+        }
+    }
+
+    // Toma los locks de los equipos (sin repetir) en orden de id
+    private Calendar[] lockInIdOrder(Equipment[] lines) {
+        Equipment[] sorted = lines.clone();
+        Arrays.sort(sorted, (a, b) -> a.getId().compareTo(b.getId()));
+        Calendar[] locked = new Calendar[sorted.length];
+        int n = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i > 0 && sorted[i].getId().equals(sorted[i - 1].getId())) {
+                continue;
+            }
+            Calendar calendar = calendarOf(sorted[i]);
+            calendar.lock.lock();
+            locked[n++] = calendar;
+        }
+        return Arrays.copyOf(locked, n);
+    }
+
+    private Calendar calendarOf(Equipment eq) {
+        return calendars.computeIfAbsent(eq.getId(), id -> new Calendar(new AvailabilityIndex(slots, eq.getStock())));
+    }
+
+    private Equipment requireEquipment(String id) {
+        Equipment eq = id == null ? null : catalog.get(id);
+        if (eq == null) {
+            throw new IllegalArgumentException(RejectionReason.EQUIPMENT_NOT_FOUND.describe(id));
+        }
+        return eq;
+    }
+
+    private synchronized int turnaroundSlotsOf(Equipment eq) {
+        return turnaroundSlots.get(eq.getType());
+    }
+
+    private int floorSlot(Instant at) {
+        if (at == null) {
+            throw new IllegalArgumentException("period must not be null");
+        }
+        long elapsed = Duration.between(seasonStart, at).toNanos();
+        return elapsed < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, elapsed / slotNanos);
+    }
+
+    private int ceilSlot(Instant at) {
+        if (at == null) {
+            throw new IllegalArgumentException("period must not be null");
+        }
+        long elapsed = Duration.between(seasonStart, at).toNanos();
+        return elapsed < 0 ? -1 : (int) Math.min(Integer.MAX_VALUE, ceilDiv(elapsed, slotNanos));
+    }
+
+    private void checkPeriod(int fromSlot, int toSlot) {
+        if (fromSlot < 0 || toSlot > slots || fromSlot >= toSlot) {
+            throw new IllegalArgumentException("rental period outside season");
+        }
+    }
+
+    private static long ceilDiv(long a, long b) {
+        return -Math.floorDiv(-a, b);
+    }
+
+    /** Índice de disponibilidad de un equipo y el lock que lo protege. */
+    private static final class Calendar {
+        private final AvailabilityIndex index;
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private Calendar(AvailabilityIndex index) {
+            this.index = index;
+        }
+    }
+}
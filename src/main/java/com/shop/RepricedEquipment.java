@@ -0,0 +1,53 @@
+package com.shop;
+
+import java.math.BigDecimal;
+
+/**
+ * RepricedEquipment es un equipo con precio actualizado que delega todo el manejo de stock
+ * en el original (contador, listeners y notificaciones), de modo que ambas versiones vean
+ * las mismas unidades.
+ * Lo usan VersionedCatalog.apply e InMemoryEquipmentRepository.setPrice.
+ */
+final class RepricedEquipment extends Equipment {
+    private final Equipment root;
+
+    RepricedEquipment(Equipment root, BigDecimal price) {
+        super(root.getId(), root.getName(), price, 0, root.getType(), root.isRentalEligible());
+        this.root = root;
+    }
+
+    @Override
+    Equipment stockRoot() {
+        return root;
+    }
+
+    @Override
+    public int getStock() {
+        return root.getStock();
+    }
+
+    @Override
+    protected boolean compareAndSetStock(int expected, int newValue) {
+        return root.compareAndSetStock(expected, newValue);
+    }
+
+    @Override
+    public boolean tryDecreaseStock(int qty) {
+        return root.tryDecreaseStock(qty);
+    }
+
+    @Override
+    public int decreaseStockUpTo(int max) {
+        return root.decreaseStockUpTo(max);
+    }
+
+    @Override
+    public void increaseStock(int qty) {
+        root.increaseStock(qty);
+    }
+
+    @Override
+    public void addStockListener(StockListener listener) {
+        root.addStockListener(listener);
+    }
+}
@@ -0,0 +1,114 @@
+package com.shop;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * ReservedCart es un carrito que aparta stock al agregar ítems (holds con TTL).
+ * - addItem y setQuantity toman o ajustan el hold de la línea; si no hay stock lanzan
+ *   IllegalArgumentException y el carrito no cambia
+ * - removeItem y releaseAll devuelven el stock apartado
+ * - OrderService.processOrder vende primero lo apartado y solo valida el resto
+ * - Si un hold venció, el próximo cambio de la línea lo vuelve a tomar completo
+ */
+public class ReservedCart extends Cart {
+    private final StockReservations reservations;
+    private final Map<String, StockReservations.Hold> holds = new HashMap<>();
+
+    public ReservedCart(StockReservations reservations) {
+        if (reservations == null) {
+            throw new IllegalArgumentException("reservations must not be null");
+        }
+        this.reservations = reservations;
+    }
+
+    @Override
+    public void addItem(Equipment equipment, int qty) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        if (qty <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
+        }
+        int total = Math.addExact(getQuantity(equipment.getId()), qty);
+        hold(equipment, total);
+        super.addItem(equipment, qty);
+    }
+
+    @Override
+    public boolean removeItem(String id) {
+        if (!super.removeItem(id)) {
+            return false;
+        }
+        StockReservations.Hold hold = holds.remove(id);
+        if (hold != null) {
+            reservations.release(hold);
+        }
+        return true;
+    }
+
+    @Override
+    public void setQuantity(String id, int qty) {
+        StockReservations.Hold hold = id == null ? null : holds.get(id);
+        if (hold == null) {
+            throw new IllegalArgumentException("item not in cart: " + id);
+        }
+        if (qty <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
+        }
+        hold(hold.getEquipment(), qty);
+        super.setQuantity(id, qty);
+    }
+
+    /** Renueva el vencimiento de todos los holds activos del carrito. */
+    public void extendAll() {
+        for (StockReservations.Hold hold : holds.values()) {
+            reservations.extend(hold);
+        }
+    }
+
+    /** Devuelve al catálogo todo el stock apartado; las líneas quedan en el carrito. */
+    public void releaseAll() {
+        for (StockReservations.Hold hold : holds.values()) {
+            reservations.release(hold);
+        }
+    }
+
+    /** Unidades actualmente apartadas para el id (0 si el hold venció o se vendió). */
+    public int getHeldQuantity(String id) {
+        StockReservations.Hold hold = id == null ? null : holds.get(id);
+        return hold != null && hold.isActive() ? hold.getQuantity() : 0;
+    }
+
+    @Override
+    StockReservations.Hold holdOf(String id) {
+        return holds.get(id);
+    }
+
+    @Override
+    boolean hasHolds() {
+        return !holds.isEmpty();
+    }
+
+    // Ajusta el hold de la línea a qty unidades, o toma uno nuevo si no hay uno activo
+    private void hold(Equipment equipment, int qty) {
+        StockReservations.Hold hold = holds.get(equipment.getId());
+        if (hold != null && hold.getEquipment().sharesStockWith(equipment)) {
+            if (reservations.resize(hold, qty)) {
+                return;
+            }
+            if (hold.isActive()) {
+                // Sin stock para el aumento: el hold anterior se conserva
+                throw new IllegalArgumentException("insufficient stock for item: " + equipment.getId());
+            }
+        }
+        StockReservations.Hold fresh = reservations.tryHold(equipment, qty);
+        if (fresh == null) {
+            throw new IllegalArgumentException("insufficient stock for item: " + equipment.getId());
+        }
+        if (hold != null) {
+            reservations.release(hold); // otra instancia del mismo id; no-op si ya no estaba activo
+        }
+        holds.put(equipment.getId(), fresh);
+    }
+}
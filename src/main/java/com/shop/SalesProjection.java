@@ -0,0 +1,82 @@
+package com.shop;
+
+/**
+ * SalesProjection acumula totales de venta desde el diario de pedidos:
+ * - Por EquipmentType: unidades vendidas e importe a precio de lista (en centavos)
+ * - Globales: pedidos, subtotal (con descuentos) y depósitos de alquiler
+ * Importes fuera de rango: los eventos sin importe (OrderEvent.hasAmount() = false) suman
+ * sus unidades y pedidos pero no su importe, y se cuentan en getUnrepresentableAmounts();
+ * las sumas se saturan en Long.MAX_VALUE en lugar de desbordar. Así un pedido enorme nunca
+ * deja el diario sin poder reproducirse.
+ * No es thread-safe.
+ */
+public class SalesProjection implements OrderProjection<SalesProjection> {
+    private static final int TYPES = EquipmentType.values().length;
+
+    private final long[] units = new long[TYPES];
+    private final long[] listAmountCents = new long[TYPES];
+    private long orders;
+    private long subtotalCents;
+    private long depositCents;
+    private long unrepresentable;
+    private long lastSequence;
+
+    @Override
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void apply(OrderEvent event) {
+        if (!event.hasAmount()) {
+            unrepresentable++;
+        }
+        long amount = event.hasAmount() ? event.getAmountCents() : 0L;
+        switch (event.getType()) {
+            case ORDER_ACCEPTED -> {
+                orders++;
+                subtotalCents = saturatedAdd(subtotalCents, amount);
+            }
+            case STOCK_DECREMENTED -> {
+                int t = event.getEquipmentType().ordinal();
+                units[t] += event.getQuantity();
+                listAmountCents[t] = saturatedAdd(listAmountCents[t], amount);
+            }
+            case DEPOSIT_APPLIED -> depositCents = saturatedAdd(depositCents, amount);
+        }
+        lastSequence = event.getSequence();
+    }
+
+    @Override
+    public SalesProjection newPartial() {
+        return new SalesProjection();
+    }
+
+    @Override
+    public void merge(SalesProjection later) {
+        for (int t = 0; t < TYPES; t++) {
+            units[t] += later.units[t];
+            listAmountCents[t] = saturatedAdd(listAmountCents[t], later.listAmountCents[t]);
+        }
+        orders += later.orders;
+        subtotalCents = saturatedAdd(subtotalCents, later.subtotalCents);
+        depositCents = saturatedAdd(depositCents, later.depositCents);
+        unrepresentable += later.unrepresentable;
+        lastSequence = Math.max(lastSequence, later.lastSequence);
+    }
+
+    // Suma de importes no negativos con tope en Long.MAX_VALUE
+    private static long saturatedAdd(long a, long b) {
+        long sum = a + b;
+        return ((a ^ sum) & (b ^ sum)) < 0 ? Long.MAX_VALUE : sum;
+    }
+
+    public long getUnits(EquipmentType type) { return units[type.ordinal()]; }
+    public long getListAmountCents(EquipmentType type) { return listAmountCents[type.ordinal()]; }
+    public long getOrders() { return orders; }
+    public long getSubtotalCents() { return subtotalCents; }
+    public long getDepositCents() { return depositCents; }
+
+    /** Eventos cuyo importe no cabía en un long de centavos (no sumados a los totales). */
+    public long getUnrepresentableAmounts() { return unrepresentable; }
+}
@@ -0,0 +1,170 @@
+package com.shop;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * ShardedCatalog reparte los equipos en shards según el hash de Equipment.getId().
+ * Reglas:
+ * - get no bloquea (mapa concurrente por shard)
+ * - add/remove y la confirmación de pedidos toman el lock del shard afectado
+ * - Un pedido con varias líneas toma sus shards en orden ascendente de índice
+ *   (orden global fijo: dos pedidos nunca se esperan en ciclo)
+ * OrderService (processOrder, processOrders y los ReservedCart) y RentalService.pickUp
+ * reservan con estos locks tomados: entre ellos no hay rechazos por reservas ajenas que
+ * luego se deshacen. Pedidos sobre shards distintos avanzan en paralelo.
+ * Límite: quien descuenta stock sin pasar por lockForCheckout (StockReservations.tryHold y
+ * resize, los ajustes de stock de VersionedCatalog.apply, llamadas directas a Equipment)
+ * sigue compitiendo por CAS; frente a ellos un checkout puede fallar por una reserva ajena
+ * que después se devuelve, igual que con un catálogo sin locks.
+ */
+public class ShardedCatalog implements EquipmentCatalog {
+    public static final int DEFAULT_SHARDS = 64;
+
+    private final Shard[] shards;
+    private final int mask;
+
+    public ShardedCatalog() {
+        this(DEFAULT_SHARDS);
+    }
+
+    /** Crea un catálogo vacío; la cantidad de shards se redondea a potencia de dos. */
+    public ShardedCatalog(int shardCount) {
+        if (shardCount <= 0 || shardCount > 1 << 16) {
+            throw new IllegalArgumentException("shardCount must be between 1 and 65536");
+        }
+        int size = Integer.highestOneBit(shardCount);
+        if (size < shardCount) {
+            size <<= 1;
+        }
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard();
+        }
+        this.mask = size - 1;
+    }
+
+    /** Crea un catálogo con los equipos dados. */
+    public ShardedCatalog(Collection<Equipment> equipment, int shardCount) {
+        this(shardCount);
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        for (Equipment eq : equipment) {
+            add(eq);
+        }
+    }
+
+    /**
+     * Agrega un equipo a su shard.
+     * Lanza IllegalArgumentException si es nulo o su id ya existe.
+     */
+    public void add(Equipment equipment) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        Shard shard = shards[shardOf(equipment.getId())];
+        shard.lock.lock();
+        try {
+            if (shard.byId.putIfAbsent(equipment.getId(), equipment) != null) {
+                throw new IllegalArgumentException("duplicate equipment id: " + equipment.getId());
+            }
+            shard.version++;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    /** Quita el equipo con ese id; retorna el removido o null si no existía. */
+    public Equipment remove(String id) {
+        if (id == null) {
+            throw new IllegalArgumentException("id must not be null");
+        }
+        Shard shard = shards[shardOf(id)];
+        shard.lock.lock();
+        try {
+            Equipment removed = shard.byId.remove(id);
+            if (removed != null) {
+                shard.version++;
+            }
+            return removed;
+        } finally {
+            shard.lock.unlock();
+        }
+    }
+
+    @Override
+    public Equipment get(String id) {
+        return id == null ? null : shards[shardOf(id)].byId.get(id);
+    }
+
+    /** Suma de las versiones de los shards: cambia con cada alta o baja. */
+    @Override
+    public long version() {
+        long sum = 0L;
+        for (Shard shard : shards) {
+            sum += shard.version;
+        }
+        return sum;
+    }
+
+    /** Toma los locks de los shards de las líneas en orden ascendente. */
+    @Override
+    public CheckoutLock lockForCheckout(Equipment[] lines) {
+        if (lines.length == 1) {
+            // Caso frecuente: un solo shard, sin arreglo intermedio
+            ReentrantLock lock = shards[shardOf(lines[0].getId())].lock;
+            lock.lock();
+            return lock::unlock;
+        }
+        int[] order = new int[lines.length];
+        for (int i = 0; i < lines.length; i++) {
+            order[i] = shardOf(lines[i].getId());
+        }
+        Arrays.sort(order);
+        int n = 0;
+        for (int i = 0; i < order.length; i++) {
+            if (n == 0 || order[n - 1] != order[i]) {
+                order[n++] = order[i];
+            }
+        }
+        int count = n;
+        for (int i = 0; i < count; i++) {
+            shards[order[i]].lock.lock();
+        }
+        return () -> {
+            for (int i = count - 1; i >= 0; i--) {
+                shards[order[i]].lock.unlock();
+            }
+        };
+    }
+
+    /** Cantidad de equipos en el catálogo. */
+    public int size() {
+        int size = 0;
+        for (Shard shard : shards) {
+            size += shard.byId.size();
+        }
+        return size;
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    /** Índice del shard de un id (hash dispersado, como HashMap). */
+    public int shardOf(String id) {
+        int h = id.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+
+    /** Un shard: mapa propio y el lock que serializa altas, bajas y checkouts. */
+    private static final class Shard {
+        private final Map<String, Equipment> byId = new ConcurrentHashMap<>();
+        private final ReentrantLock lock = new ReentrantLock();
+        private volatile long version; // escrito solo con el lock tomado
+    }
+}
@@ -0,0 +1,13 @@
+package com.shop;
+
+/**
+ * Observador de cambios de stock de un Equipment.
+ * Se invoca después de cada cambio aplicado, desde el hilo que lo aplicó;
+ * con varios hilos las notificaciones pueden llegar en distinto orden que los cambios.
+ */
+@FunctionalInterface
+public interface StockListener {
+
+    /** Notifica que el stock pasó de previous a current. */
+    void stockChanged(Equipment equipment, int previous, int current);
+}
@@ -0,0 +1,60 @@
+package com.shop;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * StockProjection acumula, por id de equipo, las unidades vendidas a través de
+ * OrderService (eventos STOCK_DECREMENTED): unsoldOf(id, inicial) = inicial - vendidas.
+ * No es el stock actual: el diario no registra RentalService.pickUp/returnRental, los
+ * ajustes de CatalogDelta.adjustStock ni los holds de StockReservations; solo coincide
+ * con Equipment.getStock() si todo el stock se movió por pedidos.
+ * No es thread-safe.
+ */
+public class StockProjection implements OrderProjection<StockProjection> {
+    private final Map<String, long[]> sold = new HashMap<>();
+    private long lastSequence;
+
+    @Override
+    public long getLastSequence() {
+        return lastSequence;
+    }
+
+    @Override
+    public void apply(OrderEvent event) {
+        if (event.getType() == OrderEvent.Type.STOCK_DECREMENTED) {
+            sold.computeIfAbsent(event.getEquipmentId(), id -> new long[1])[0] += event.getQuantity();
+        }
+        lastSequence = event.getSequence();
+    }
+
+    @Override
+    public StockProjection newPartial() {
+        return new StockProjection();
+    }
+
+    @Override
+    public void merge(StockProjection later) {
+        later.sold.forEach((id, units) -> sold.computeIfAbsent(id, k -> new long[1])[0] += units[0]);
+        lastSequence = Math.max(lastSequence, later.lastSequence);
+    }
+
+    /** Unidades vendidas del equipo (0 si no hubo pedidos). */
+    public long getSoldUnits(String id) {
+        long[] units = sold.get(id);
+        return units == null ? 0L : units[0];
+    }
+
+    /** initialStock menos las unidades vendidas por pedidos (ver la nota de la clase). */
+    public long unsoldOf(String id, int initialStock) {
+        return initialStock - getSoldUnits(id);
+    }
+
+    /** Unidades vendidas por id (copia). */
+    public Map<String, Long> getSoldUnits() {
+        Map<String, Long> copy = new HashMap<>();
+        sold.forEach((id, units) -> copy.put(id, units[0]));
+        return Collections.unmodifiableMap(copy);
+    }
+}
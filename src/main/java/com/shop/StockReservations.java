@@ -0,0 +1,314 @@
+package com.shop;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * StockReservations aparta stock de Equipment por un tiempo limitado (holds con TTL).
+ * Reglas:
+ * - tryHold descuenta el stock en el momento; si no alcanza retorna null
+ * - Un hold activo se libera (release), se redimensiona (resize) o se vende en
+ *   OrderService.processOrder; si vence, el barrido devuelve su stock al equipo
+ * - extend renueva el vencimiento (now + ttl)
+ * Barrido: rueda de tiempo con hashing (una lista enlazada intrusiva por tick).
+ * Cada tick solo recorre los holds que vencen en él, por lo que el costo no depende
+ * de la cantidad total de holds pendientes. Los holds liberados o vendidos se
+ * descartan de forma perezosa cuando el barrido llega a su tick.
+ */
+public class StockReservations implements AutoCloseable {
+    public static final Duration DEFAULT_TICK = Duration.ofMillis(100);
+    // Tope de ticks por vuelta; TTL más largos se reinsertan al pasar por su casillero
+    private static final int MAX_WHEEL_SIZE = 1 << 20;
+
+    private final long ttlTicks;
+    private final long tickNanos;
+    private final LongSupplier nanoClock;
+    private final long origin;
+    private final AtomicReferenceArray<Hold> wheel; // cabeza de la lista de cada casillero
+    private final int mask;
+    private final LongAdder active = new LongAdder();
+    private final LongAdder expired = new LongAdder();
+
+    private long lastSweptTick; // protegido por this
+    private ScheduledExecutorService sweeper; // protegido por this
+
+    public StockReservations(Duration ttl) {
+        this(ttl, DEFAULT_TICK, System::nanoTime);
+    }
+
+    /**
+     * @param ttl       vida de cada hold
+     * @param tick      resolución del barrido (un hold vence a lo sumo un tick tarde)
+     * @param nanoClock reloj monotónico en nanosegundos (inyectable para pruebas)
+     */
+    public StockReservations(Duration ttl, Duration tick, LongSupplier nanoClock) {
+        if (ttl == null || ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("ttl must be > 0");
+        }
+        if (tick == null || tick.isNegative() || tick.isZero()) {
+            throw new IllegalArgumentException("tick must be > 0");
+        }
+        if (nanoClock == null) {
+            throw new IllegalArgumentException("nanoClock must not be null");
+        }
+        this.tickNanos = tick.toNanos();
+        this.ttlTicks = Math.max(1L, (ttl.toNanos() + tickNanos - 1) / tickNanos);
+        this.nanoClock = nanoClock;
+        this.origin = nanoClock.getAsLong();
+        // Una vuelta cubre el TTL completo: los casilleros solo contienen holds que vencen en ese tick
+        int size = (int) Math.min(MAX_WHEEL_SIZE, Long.highestOneBit(ttlTicks) << 1);
+        this.wheel = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+    }
+
+    /**
+     * Aparta qty unidades del equipo.
+     * Reglas:
+     * - Equipment no nulo y qty > 0 (lanza IllegalArgumentException si no)
+     * - Retorna null, sin modificar el stock, si no hay stock suficiente
+     */
+    public Hold tryHold(Equipment equipment, int qty) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        if (!equipment.tryDecreaseStock(qty)) {
+            return null;
+        }
+        Hold hold = new Hold(this, equipment, qty, currentTick() + ttlTicks);
+        active.increment();
+        schedule(hold, hold.deadlineTick);
+        return hold;
+    }
+
+    /** Libera un hold activo devolviendo su stock. Retorna false si ya no estaba activo. */
+    public boolean release(Hold hold) {
+        if (hold == null) {
+            throw new IllegalArgumentException("hold must not be null");
+        }
+        if (!hold.transition(Hold.ACTIVE, Hold.RELEASED)) {
+            return false;
+        }
+        active.decrement();
+        hold.equipment.increaseStock(hold.quantity);
+        return true;
+    }
+
+    /**
+     * Cambia la cantidad apartada por un hold activo y renueva su vencimiento.
+     * Retorna false si el hold ya no está activo o no hay stock para el aumento
+     * (en ese caso el hold queda como estaba).
+     */
+    public boolean resize(Hold hold, int qty) {
+        if (hold == null) {
+            throw new IllegalArgumentException("hold must not be null");
+        }
+        if (qty <= 0) {
+            throw new IllegalArgumentException("quantity must be > 0");
+        }
+        if (!hold.claim()) {
+            return false;
+        }
+        int delta = qty - hold.quantity;
+        boolean resized = true;
+        if (delta > 0) {
+            resized = hold.equipment.tryDecreaseStock(delta);
+        } else if (delta < 0) {
+            hold.equipment.increaseStock(-delta);
+        }
+        if (resized) {
+            hold.quantity = qty;
+            hold.deadlineTick = currentTick() + ttlTicks;
+        }
+        hold.unclaim();
+        return resized;
+    }
+
+    /** Renueva el vencimiento de un hold activo. Retorna false si ya no estaba activo. */
+    public boolean extend(Hold hold) {
+        if (hold == null) {
+            throw new IllegalArgumentException("hold must not be null");
+        }
+        if (!hold.claim()) {
+            return false;
+        }
+        hold.deadlineTick = currentTick() + ttlTicks;
+        hold.unclaim();
+        return true;
+    }
+
+    /**
+     * Procesa los ticks transcurridos desde el último barrido y libera los holds vencidos.
+     * Retorna la cantidad de holds liberados. Lo llama startSweeper o, en pruebas, el test.
+     */
+    public synchronized int sweep() {
+        long now = currentTick();
+        // Tras una pausa larga basta una vuelta completa: cada casillero se visita una vez
+        long from = Math.max(lastSweptTick + 1, now - mask);
+        int released = 0;
+        for (long tick = from; tick <= now; tick++) {
+            Hold h = wheel.getAndSet((int) (tick & mask), null);
+            while (h != null) {
+                Hold next = h.next;
+                h.next = null;
+                released += expire(h, now);
+                h = next;
+            }
+        }
+        lastSweptTick = Math.max(lastSweptTick, now);
+        return released;
+    }
+
+    // Vence, reprograma o descarta un hold sacado de la rueda; retorna 1 si lo venció
+    private int expire(Hold h, long now) {
+        int state = h.state;
+        if (state == Hold.CLAIMED) {
+            // En uso (venta o resize en curso): revisar en el próximo tick
+            schedule(h, now + 1);
+            return 0;
+        }
+        if (state != Hold.ACTIVE) {
+            return 0; // liberado, vendido o vencido: se descarta
+        }
+        long deadline = h.deadlineTick;
+        if (deadline > now) {
+            schedule(h, deadline); // renovado o TTL mayor que una vuelta
+            return 0;
+        }
+        if (!h.transition(Hold.ACTIVE, Hold.EXPIRED)) {
+            schedule(h, now + 1); // reclamado justo ahora
+            return 0;
+        }
+        active.decrement();
+        expired.increment();
+        h.equipment.increaseStock(h.quantity);
+        return 1;
+    }
+
+    // Inserta el hold en la lista del casillero de su tick (push con CAS, sin locks)
+    private void schedule(Hold hold, long tick) {
+        int slot = (int) (tick & mask);
+        while (true) {
+            Hold head = wheel.get(slot);
+            hold.next = head;
+            if (wheel.compareAndSet(slot, head, hold)) {
+                return;
+            }
+        }
+    }
+
+    private long currentTick() {
+        return (nanoClock.getAsLong() - origin) / tickNanos;
+    }
+
+    /** Ejecuta sweep() en un hilo de fondo una vez por tick. */
+    public synchronized void startSweeper() {
+        if (sweeper != null) {
+            throw new IllegalStateException("sweeper already started");
+        }
+        sweeper = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-hold-sweeper");
+            t.setDaemon(true);
+            return t;
+        });
+        sweeper.scheduleAtFixedRate(this::sweep, tickNanos, tickNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Holds activos (apartados y aún no liberados, vendidos ni vencidos). */
+    public long getActiveHolds() {
+        return active.sum();
+    }
+
+    /** Holds liberados por vencimiento desde la creación. */
+    public long getExpiredHolds() {
+        return expired.sum();
+    }
+
+    /** Detiene el barrido de fondo; los holds activos conservan su stock. */
+    @Override
+    public synchronized void close() {
+        if (sweeper != null) {
+            sweeper.shutdownNow();
+        }
+    }
+
+    /**
+     * Hold: cantidad apartada de un equipo hasta su vencimiento.
+     * Estados: ACTIVE -> (CLAIMED -> ACTIVE)* -> RELEASED | EXPIRED | CONVERTED.
+     * CLAIMED marca una operación en curso (venta o resize) que el barrido no interrumpe.
+     */
+    public static final class Hold {
+        static final int ACTIVE = 0;
+        static final int CLAIMED = 1;
+        static final int RELEASED = 2;
+        static final int EXPIRED = 3;
+        static final int CONVERTED = 4;
+
+        private static final VarHandle STATE;
+
+        static {
+            try {
+                STATE = MethodHandles.lookup().findVarHandle(Hold.class, "state", int.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        private final StockReservations owner;
+        private final Equipment equipment;
+        private volatile int quantity; // escrito solo con el hold reclamado
+        private volatile long deadlineTick;
+        private volatile int state;
+        private Hold next; // siguiente en el casillero de la rueda
+
+        private Hold(StockReservations owner, Equipment equipment, int quantity, long deadlineTick) {
+            this.owner = owner;
+            this.equipment = equipment;
+            this.quantity = quantity;
+            this.deadlineTick = deadlineTick;
+        }
+
+        public Equipment getEquipment() { return equipment; }
+        public int getQuantity() { return quantity; }
+
+        /** true mientras el hold conserva su stock apartado. */
+        public boolean isActive() {
+            int s = state;
+            return s == ACTIVE || s == CLAIMED;
+        }
+
+        private boolean transition(int from, int to) {
+            return STATE.compareAndSet(this, from, to);
+        }
+
+        // Toma el hold para una operación exclusiva; false si ya no está activo
+        boolean claim() {
+            while (true) {
+                int s = state;
+                if (s == ACTIVE && transition(ACTIVE, CLAIMED)) {
+                    return true;
+                }
+                if (s != ACTIVE && s != CLAIMED) {
+                    return false;
+                }
+                Thread.onSpinWait();
+            }
+        }
+
+        void unclaim() {
+            state = ACTIVE;
+        }
+
+        // Venta confirmada de un hold reclamado: su stock ya no vuelve al equipo
+        void convert() {
+            state = CONVERTED;
+            owner.active.decrement();
+        }
+    }
+}
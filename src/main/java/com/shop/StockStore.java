@@ -0,0 +1,186 @@
+package com.shop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * StockStore persiste el stock del catálogo en un directorio:
+ * - catalog.snapshot: foto binaria del catálogo con la generación de log desde la que reproducir
+ * - wal-N.log: segmentos del write-ahead log de deltas de stock (uno por generación)
+ * Al abrir: carga la foto, reproduce los segmentos posteriores y empieza un segmento nuevo.
+ * checkpoint() rota el log y genera una foto nueva a partir de la anterior más los
+ * segmentos cerrados (no lee el estado vivo, así la foto siempre es consistente).
+ * El conjunto de equipos se fija al abrir; los cambios posteriores son sólo de stock.
+ */
+public class StockStore implements Closeable {
+    static final String SNAPSHOT_FILE = "catalog.snapshot";
+
+    private final Path dir;
+    private final Map<String, Equipment> catalog;
+    private final StockWriteAheadLog log;
+    private long generation; // segmento actual del log
+    private ScheduledExecutorService checkpointer;
+
+    private StockStore(Path dir, Map<String, Equipment> catalog, StockWriteAheadLog log, long generation) {
+        this.dir = dir;
+        this.catalog = catalog;
+        this.log = log;
+        this.generation = generation;
+    }
+
+    /**
+     * Abre el almacén. Si el directorio no tiene foto, se inicializa con initial
+     * (sus objetos pasan a ser el catálogo vivo); si la tiene, initial se ignora.
+     */
+    public static StockStore open(Path dir, Collection<Equipment> initial) throws IOException {
+        if (dir == null || initial == null) {
+            throw new IllegalArgumentException("dir and initial must not be null");
+        }
+        Files.createDirectories(dir);
+        Path snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        TreeMap<Long, Path> segments = listSegments(dir);
+        Map<String, Equipment> catalog;
+        long nextGeneration;
+        if (Files.exists(snapshotFile)) {
+            CatalogSnapshot snapshot = CatalogSnapshot.read(snapshotFile);
+            catalog = snapshot.getCatalog();
+            replaySegments(segments.tailMap(snapshot.getGeneration(), true).values(), catalog);
+            nextGeneration = Math.max(snapshot.getGeneration(), segments.isEmpty() ? 0 : segments.lastKey() + 1);
+        } else {
+            // Sin foto, los segmentos sueltos no tienen base: se descartan
+            for (Path orphan : segments.values()) {
+                Files.delete(orphan);
+            }
+            catalog = new LinkedHashMap<>();
+            for (Equipment eq : initial) {
+                catalog.put(eq.getId(), eq);
+            }
+            CatalogSnapshot.write(snapshotFile, catalog.values(), 0);
+            nextGeneration = 0;
+        }
+        StockWriteAheadLog log = new StockWriteAheadLog(segmentFile(dir, nextGeneration));
+        log.attach(catalog.values());
+        return new StockStore(dir, catalog, log, nextGeneration);
+    }
+
+    /** Catálogo vivo: sus cambios de stock se registran en el log. */
+    public Map<String, Equipment> getCatalog() {
+        return catalog;
+    }
+
+    /** Log subyacente (p.ej. para awaitDurable tras processOrder). */
+    public StockWriteAheadLog getLog() {
+        return log;
+    }
+
+    /** Espera a que los cambios de stock del hilo actual estén en disco. */
+    public void awaitDurable() {
+        log.awaitDurable();
+    }
+
+    /**
+     * Rota el log y compacta: foto anterior + segmentos cerrados -> foto nueva.
+     * Después borra los segmentos ya incluidos en la foto.
+     */
+    public synchronized void checkpoint() throws IOException {
+        long next = generation + 1;
+        log.rotate(segmentFile(dir, next));
+        Path snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        CatalogSnapshot base = CatalogSnapshot.read(snapshotFile);
+        TreeMap<Long, Path> closed = new TreeMap<>(listSegments(dir).subMap(base.getGeneration(), true, next, false));
+        replaySegments(closed.values(), base.getCatalog());
+        CatalogSnapshot.write(snapshotFile, base.getCatalog().values(), next);
+        for (Path segment : closed.values()) {
+            Files.deleteIfExists(segment);
+        }
+        generation = next;
+    }
+
+    /** Ejecuta checkpoint() periódicamente en un hilo de fondo. */
+    public synchronized void startPeriodicCheckpoints(Duration interval) {
+        if (interval == null || interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be > 0");
+        }
+        if (checkpointer != null) {
+            throw new IllegalStateException("periodic checkpoints already started");
+        }
+        checkpointer = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "stock-checkpointer");
+            t.setDaemon(true);
+            return t;
+        });
+        long millis = interval.toMillis();
+        checkpointer.scheduleWithFixedDelay(() -> {
+            try {
+                checkpoint();
+            } catch (IOException e) {
+                // Se reintenta en el próximo ciclo; el log sigue siendo la fuente de verdad
+            }
+        }, millis, millis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (checkpointer != null) {
+                checkpointer.shutdownNow();
+            }
+        }
+        log.close();
+    }
+
+    // Aplica la suma de deltas de los segmentos al catálogo
+    private static void replaySegments(Collection<Path> segments, Map<String, Equipment> catalog) throws IOException {
+        Map<String, long[]> net = new HashMap<>();
+        for (Path segment : segments) {
+            StockWriteAheadLog.replay(segment, 0, net);
+        }
+        for (Map.Entry<String, long[]> e : net.entrySet()) {
+            Equipment eq = catalog.get(e.getKey());
+            long delta = e.getValue()[0];
+            if (eq == null || delta == 0) {
+                continue;
+            }
+            long target = eq.getStock() + delta;
+            if (target < 0 || target > Integer.MAX_VALUE) {
+                throw new IOException("inconsistent stock log for item: " + e.getKey());
+            }
+            if (delta > 0) {
+                eq.increaseStock((int) delta);
+            } else {
+                eq.decreaseStock((int) -delta);
+            }
+        }
+    }
+
+    private static TreeMap<Long, Path> listSegments(Path dir) throws IOException {
+        TreeMap<Long, Path> segments = new TreeMap<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "wal-*.log")) {
+            for (Path p : stream) {
+                String name = p.getFileName().toString();
+                try {
+                    segments.put(Long.parseLong(name.substring(4, name.length() - 4)), p);
+                } catch (NumberFormatException ignored) {
+                    // archivo ajeno con nombre parecido
+                }
+            }
+        }
+        return segments;
+    }
+
+    private static Path segmentFile(Path dir, long generation) {
+        return dir.resolve("wal-" + generation + ".log");
+    }
+}
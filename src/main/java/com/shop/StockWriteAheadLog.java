@@ -0,0 +1,329 @@
+package com.shop;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+/**
+ * StockWriteAheadLog registra en un archivo append-only cada cambio de stock (delta).
+ * - Se registra como StockListener de los equipos: el checkout sólo copia el registro a memoria
+ * - Un hilo de fondo escribe con FileChannel y hace fsync por lotes (group commit):
+ *   todos los cambios acumulados durante un fsync se confirman en el siguiente
+ * - awaitDurable() espera a que los cambios del hilo actual estén en disco
+ * - rotate() continúa en un archivo nuevo; cada registro queda en exactamente un archivo
+ * Los offsets son lógicos (crecen a través de rotaciones), no posiciones de archivo.
+ * Formato de registro: [short idLen][id UTF-8][int delta][int crc32]. Al reproducir,
+ * un registro truncado o con CRC inválido marca el final del log (escritura interrumpida).
+ */
+public class StockWriteAheadLog implements StockListener, Closeable {
+    // Capacidad inicial de los buffers de grupo
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private final Thread flusher;
+    // lock protege los buffers y offsets; ioLock serializa escritura, fsync y rotación
+    private final Object lock = new Object();
+    private final Object ioLock = new Object();
+    private FileChannel channel; // protegido por ioLock
+    // Último offset confirmado por el hilo actual (para awaitDurable)
+    private final ThreadLocal<long[]> lastAppended = ThreadLocal.withInitial(() -> new long[1]);
+
+    // Estado protegido por lock
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER);
+    private long appendedOffset; // fin lógico de lo agregado (en memoria o en disco)
+    private long durableOffset;  // fin de lo confirmado con fsync
+    private IOException failure; // tras un error de escritura append deja de aceptar registros
+    private final CRC32 crc = new CRC32(); // reutilizado por append
+    private boolean closed;      // no acepta más registros
+    private boolean terminated;  // archivo cerrado tras la última confirmación
+
+    /** Abre (o crea) el log y comienza a escribir al final del archivo. */
+    public StockWriteAheadLog(Path file) throws IOException {
+        if (file == null) {
+            throw new IllegalArgumentException("file must not be null");
+        }
+        this.channel = openForAppend(file);
+        this.appendedOffset = channel.size();
+        this.durableOffset = appendedOffset;
+        this.flusher = new Thread(this::flushLoop, "stock-wal-flusher");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /** Registra este log como observador de stock de todos los equipos dados. */
+    public void attach(Iterable<Equipment> equipment) {
+        for (Equipment eq : equipment) {
+            eq.addStockListener(this);
+        }
+    }
+
+    @Override
+    public void stockChanged(Equipment equipment, int previous, int current) {
+        append(equipment.getId(), current - previous);
+    }
+
+    /**
+     * Agrega un registro de delta de stock; retorna el offset final del registro.
+     * Lanza UncheckedIOException si una escritura anterior falló: un registro aceptado
+     * después del error nunca llegaría a disco.
+     */
+    public long append(String id, int delta) {
+        byte[] idBytes = id.getBytes(StandardCharsets.UTF_8);
+        if (idBytes.length > 0xFFFF) {
+            throw new IllegalArgumentException("id too long for log: " + id.length());
+        }
+        long end;
+        synchronized (lock) {
+            if (closed) {
+                throw new IllegalStateException("log is closed");
+            }
+            if (failure != null) {
+                throw new UncheckedIOException("write-ahead log failed", failure);
+            }
+            int size = recordSize(idBytes.length);
+            if (pending.remaining() < size) {
+                pending = grow(pending, size);
+            }
+            int checksum = checksum(crc, idBytes, delta);
+            pending.putShort((short) idBytes.length).put(idBytes).putInt(delta).putInt(checksum);
+            appendedOffset += size;
+            end = appendedOffset;
+            lock.notifyAll();
+        }
+        lastAppended.get()[0] = end;
+        return end;
+    }
+
+    /** Espera a que todo lo agregado por el hilo actual esté confirmado en disco. */
+    public void awaitDurable() {
+        awaitDurable(lastAppended.get()[0]);
+    }
+
+    /** Espera a que el log esté confirmado en disco al menos hasta offset. */
+    public void awaitDurable(long offset) {
+        synchronized (lock) {
+            while (durableOffset < offset) {
+                if (failure != null) {
+                    throw new UncheckedIOException("write-ahead log failed", failure);
+                }
+                if (terminated) {
+                    throw new IllegalStateException("log is closed");
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("interrupted while waiting for durability", e);
+                }
+            }
+        }
+    }
+
+    /** Offset lógico hasta el que se ha agregado (incluye lo pendiente de fsync). */
+    public long appendedOffset() {
+        synchronized (lock) {
+            return appendedOffset;
+        }
+    }
+
+    /**
+     * Confirma lo pendiente en el archivo actual y continúa escribiendo en newFile.
+     * Los cambios agregados después de esta llamada quedan en el archivo nuevo.
+     */
+    public void rotate(Path newFile) throws IOException {
+        FileChannel next = openForAppend(newFile);
+        synchronized (ioLock) {
+            try {
+                flushPending();
+            } catch (IOException e) {
+                next.close();
+                throw e;
+            }
+            FileChannel old = channel;
+            channel = next;
+            old.close();
+        }
+    }
+
+    /** Confirma lo pendiente y cierra el archivo. */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (ioLock) {
+            try {
+                flushPending();
+            } finally {
+                channel.close();
+                synchronized (lock) {
+                    terminated = true;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    // Bucle del hilo de group commit: espera trabajo y confirma todo lo acumulado con un solo fsync
+    private void flushLoop() {
+        while (true) {
+            synchronized (lock) {
+                while (pending.position() == 0 && !closed) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                }
+                if (closed) {
+                    return; // close() confirma lo que quede
+                }
+            }
+            try {
+                synchronized (ioLock) {
+                    flushPending();
+                }
+            } catch (IOException e) {
+                return; // failure ya registrado; los que esperan reciben la excepción
+            }
+        }
+    }
+
+    // Escribe y sincroniza el lote pendiente; requiere ioLock
+    private void flushPending() throws IOException {
+        ByteBuffer batch;
+        long batchEnd;
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (pending.position() == 0) {
+                return;
+            }
+            batch = pending;
+            pending = spare;
+            batchEnd = appendedOffset;
+        }
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                channel.write(batch);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            synchronized (lock) {
+                failure = e;
+                lock.notifyAll();
+            }
+            throw e;
+        }
+        batch.clear();
+        synchronized (lock) {
+            spare = batch;
+            durableOffset = batchEnd;
+            lock.notifyAll();
+        }
+    }
+
+    private static FileChannel openForAppend(Path file) throws IOException {
+        FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        ch.position(ch.size());
+        return ch;
+    }
+
+    /**
+     * Lee el log desde fromOffset (posición en el archivo) y acumula el delta neto por id.
+     * Se acumula en lugar de aplicar registro a registro porque, con varios hilos, el orden
+     * del log puede diferir del orden real de los cambios (sólo la suma es significativa).
+     * Retorna la posición del final del último registro válido.
+     */
+    public static long replay(Path file, long fromOffset, Map<String, long[]> netDeltas) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocate(INITIAL_BUFFER);
+            long offset = fromOffset;
+            in.position(fromOffset);
+            buf.limit(0);
+            CRC32 crc = new CRC32();
+            while (true) {
+                // Asegurar que el registro completo esté en el buffer
+                if (!ensure(in, buf, 2)) {
+                    return offset;
+                }
+                int idLen = buf.getShort(buf.position()) & 0xFFFF;
+                int size = recordSize(idLen);
+                if (size > buf.capacity()) {
+                    ByteBuffer bigger = ByteBuffer.allocate(size * 2);
+                    bigger.put(buf).flip();
+                    buf = bigger;
+                }
+                if (!ensure(in, buf, size)) {
+                    return offset;
+                }
+                buf.getShort();
+                byte[] idBytes = new byte[idLen];
+                buf.get(idBytes);
+                int delta = buf.getInt();
+                int storedCrc = buf.getInt();
+                if (checksum(crc, idBytes, delta) != storedCrc) {
+                    return offset; // cola corrupta: se descarta
+                }
+                netDeltas.computeIfAbsent(new String(idBytes, StandardCharsets.UTF_8), id -> new long[1])[0] += delta;
+                offset += size;
+            }
+        }
+    }
+
+    // Rellena el buffer hasta tener al menos n bytes legibles; false si el archivo termina antes
+    private static boolean ensure(FileChannel in, ByteBuffer buf, int n) throws IOException {
+        if (buf.remaining() >= n) {
+            return true;
+        }
+        buf.compact();
+        while (buf.position() < n) {
+            if (in.read(buf) < 0) {
+                buf.flip();
+                return false;
+            }
+        }
+        buf.flip();
+        return true;
+    }
+
+    // CRC32 de [id][delta big-endian] sin buffers intermedios
+    private static int checksum(CRC32 crc, byte[] idBytes, int delta) {
+        crc.reset();
+        crc.update(idBytes);
+        crc.update(delta >>> 24);
+        crc.update(delta >>> 16);
+        crc.update(delta >>> 8);
+        crc.update(delta);
+        return (int) crc.getValue();
+    }
+
+    private static int recordSize(int idLen) {
+        return 2 + idLen + 4 + 4;
+    }
+
+    private static ByteBuffer grow(ByteBuffer buf, int needed) {
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(buf.capacity() * 2, buf.position() + needed));
+        buf.flip();
+        bigger.put(buf);
+        return bigger;
+    }
+}
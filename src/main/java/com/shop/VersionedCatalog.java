@@ -0,0 +1,158 @@
+package com.shop;
+
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * VersionedCatalog publica el catálogo como fotos inmutables (copy-on-write, estilo RCU).
+ * Reglas:
+ * - Los lectores no bloquean: get/snapshot leen la foto vigente de una referencia volatile
+ * - apply(delta) arma la foto siguiente sobre una copia y la publica de una vez; si alguna
+ *   parte del delta es inválida lanza IllegalArgumentException y no publica nada
+ * - Un precio nuevo crea otra instancia de Equipment que comparte el contador de stock
+ *   con la original: las reservas en curso sobre la versión anterior siguen siendo válidas
+ * - Los ajustes de stock no se versionan: se aplican sobre los contadores vivos (CAS) antes
+ *   de publicar; una resta mayor que el stock lo deja en 0. Si una suma desborda, se deshacen
+ *   los ajustes ya hechos y no se publica nada
+ * OrderService lee cada pedido sobre snapshot(): todas sus líneas ven la misma versión de precios.
+ * Los escritores se serializan entre sí; apply copia el mapa (O(n) por delta).
+ */
+public class VersionedCatalog implements EquipmentCatalog {
+    private volatile Snapshot current;
+
+    public VersionedCatalog(Collection<Equipment> equipment) {
+        if (equipment == null) {
+            throw new IllegalArgumentException("equipment must not be null");
+        }
+        Map<String, Equipment> byId = new HashMap<>(Math.max(16, (int) (equipment.size() / 0.75f) + 1));
+        for (Equipment eq : equipment) {
+            if (eq == null) {
+                throw new IllegalArgumentException("equipment must not be null");
+            }
+            if (byId.putIfAbsent(eq.getId(), eq) != null) {
+                throw new IllegalArgumentException("duplicate equipment id: " + eq.getId());
+            }
+        }
+        this.current = new Snapshot(0L, byId);
+    }
+
+    @Override
+    public Equipment get(String id) {
+        return current.get(id);
+    }
+
+    @Override
+    public long version() {
+        return current.version;
+    }
+
+    /** Foto vigente: inmutable, se puede leer sin límite de tiempo. */
+    @Override
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    public int size() {
+        return current.byId.size();
+    }
+
+    /**
+     * Aplica el delta de forma atómica respecto de los lectores y retorna la nueva versión.
+     * Orden: bajas, altas, precios y ajustes de stock; la foto se publica al final.
+     * Lanza IllegalArgumentException (sin publicar) si un id no existe, un alta está duplicada
+     * o un ajuste desborda el stock.
+     */
+    public synchronized long apply(CatalogDelta delta) {
+        if (delta == null) {
+            throw new IllegalArgumentException("delta must not be null");
+        }
+        Snapshot base = current;
+        Map<String, Equipment> next = new HashMap<>(base.byId);
+        for (String id : delta.getRemovals()) {
+            if (next.remove(id) == null) {
+                throw new IllegalArgumentException("equipment does not exist: " + id);
+            }
+        }
+        for (Equipment eq : delta.getAdditions()) {
+            if (next.putIfAbsent(eq.getId(), eq) != null) {
+                throw new IllegalArgumentException("duplicate equipment id: " + eq.getId());
+            }
+        }
+        for (Map.Entry<String, BigDecimal> e : delta.getPrices().entrySet()) {
+            Equipment eq = next.get(e.getKey());
+            if (eq == null) {
+                throw new IllegalArgumentException("equipment does not exist: " + e.getKey());
+            }
+            next.put(e.getKey(), new RepricedEquipment(eq.stockRoot(), e.getValue()));
+        }
+        for (String id : delta.getStockDeltas().keySet()) {
+            if (!next.containsKey(id)) {
+                throw new IllegalArgumentException("equipment does not exist: " + id);
+            }
+        }
+        applyStock(delta.getStockDeltas(), next);
+        Snapshot published = new Snapshot(base.version + 1, next);
+        current = published;
+        return published.version;
+    }
+
+    // Aplica los ajustes de stock en orden; si uno falla (p.ej. "stock overflow") deshace los ya hechos
+    private static void applyStock(Map<String, Integer> deltas, Map<String, Equipment> next) {
+        Equipment[] adjusted = new Equipment[deltas.size()];
+        int[] applied = new int[deltas.size()]; // unidades sumadas (> 0) o quitadas (< 0)
+        int n = 0;
+        try {
+            for (Map.Entry<String, Integer> e : deltas.entrySet()) {
+                Equipment eq = next.get(e.getKey());
+                int units = e.getValue();
+                if (units > 0) {
+                    eq.increaseStock(units);
+                    adjusted[n] = eq;
+                    applied[n++] = units;
+                } else if (units < 0) {
+                    int removed = eq.decreaseStockUpTo(units == Integer.MIN_VALUE ? Integer.MAX_VALUE : -units);
+                    adjusted[n] = eq;
+                    applied[n++] = -removed;
+                }
+            }
+        } catch (RuntimeException e) {
+            for (int i = n - 1; i >= 0; i--) {
+                if (applied[i] > 0) {
+                    adjusted[i].decreaseStockUpTo(applied[i]);
+                } else if (applied[i] < 0) {
+                    adjusted[i].increaseStock(-applied[i]);
+                }
+            }
+            throw e;
+        }
+    }
+
+    /** Foto inmutable del catálogo en una versión. */
+    public static final class Snapshot implements EquipmentCatalog {
+        private final long version;
+        private final Map<String, Equipment> byId;
+
+        private Snapshot(long version, Map<String, Equipment> byId) {
+            this.version = version;
+            this.byId = Collections.unmodifiableMap(byId);
+        }
+
+        @Override
+        public Equipment get(String id) {
+            return byId.get(id);
+        }
+
+        @Override
+        public long version() {
+            return version;
+        }
+
+        /** Vista de solo lectura de los equipos de esta versión. */
+        public Map<String, Equipment> asMap() {
+            return byId;
+        }
+    }
+}
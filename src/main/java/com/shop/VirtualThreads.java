@@ -0,0 +1,55 @@
+package com.shop;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * VirtualThreads crea ejecutores de "un hilo virtual por tarea" cuando la JVM lo permite.
+ * El proyecto compila para Java 17, así que el API se busca por reflexión: en Java 21+
+ * se usan hilos virtuales y en versiones anteriores un pool fijo de hilos de plataforma.
+ */
+public final class VirtualThreads {
+    // Executors.newVirtualThreadPerTaskExecutor() si existe en esta JVM
+    private static final Method PER_TASK_FACTORY = findPerTaskFactory();
+
+    private VirtualThreads() {
+    }
+
+    /** Indica si la JVM actual soporta hilos virtuales. */
+    public static boolean isAvailable() {
+        return PER_TASK_FACTORY != null;
+    }
+
+    /**
+     * Crea un ejecutor: hilos virtuales si preferVirtual y están disponibles,
+     * si no un pool fijo de platformThreads hilos daemon con el prefijo dado.
+     */
+    public static ExecutorService newExecutor(boolean preferVirtual, int platformThreads, String namePrefix) {
+        if (platformThreads <= 0) {
+            throw new IllegalArgumentException("platformThreads must be > 0");
+        }
+        if (preferVirtual && PER_TASK_FACTORY != null) {
+            try {
+                return (ExecutorService) PER_TASK_FACTORY.invoke(null);
+            } catch (ReflectiveOperationException e) {
+                // Se cae al pool de plataforma
+            }
+        }
+        AtomicInteger counter = new AtomicInteger();
+        return Executors.newFixedThreadPool(platformThreads, r -> {
+            Thread t = new Thread(r, namePrefix + "-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    private static Method findPerTaskFactory() {
+        try {
+            return Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+        } catch (NoSuchMethodException e) {
+            return null;
+        }
+    }
+}
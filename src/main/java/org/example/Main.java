@@ -1,17 +1,37 @@
 package org.example;
 
-//TIP To <b>Run</b> code, press <shortcut actionId="Run"/> or
-// click the <icon src="AllIcons.Actions.Execute"/> icon in the gutter.
-public class Main {
-    public static void main(String[] args) {
-        //TIP Press <shortcut actionId="ShowIntentionActions"/> with your caret at the highlighted text
-        // to see how IntelliJ IDEA suggests fixing it.
-        System.out.printf("Hello and welcome!");
+import com.shop.LoadGenerator;
+import com.shop.LoadProfile;
+import com.shop.LoadReport;
 
-        for (int i = 1; i <= 5; i++) {
-            //TIP Press <shortcut actionId="Debug"/> to start debugging your code. We have set one <icon src="AllIcons.Debugger.Db_set_breakpoint"/> breakpoint
-            // for you, but you can always add more by pressing <shortcut actionId="ToggleLineBreakpoint"/>.
-            System.out.println("i = " + i);
+/**
+ * Generador de carga de línea de comandos para OrderService (soak test antes de cada deploy).
+ * Opciones: ver LoadProfile.usage() o --help. Imprime el perfil y el LoadReport.
+ * Código de salida: 0 si no hubo sobreventa, 1 si el control de stock falló, 2 si los
+ * argumentos son inválidos (así se puede usar como paso de CI).
+ */
+public class Main {
+    public static void main(String[] args) throws InterruptedException {
+        for (String arg : args) {
+            if (arg.equals("--help") || arg.equals("-h")) {
+                System.out.println(LoadProfile.usage());
+                return;
+            }
+        }
+        LoadProfile profile;
+        try {
+            profile = LoadProfile.fromArgs(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadProfile.usage());
+            System.exit(2);
+            return;
+        }
+        System.out.println(profile);
+        LoadReport report = new LoadGenerator(profile).run();
+        System.out.print(report.format());
+        if (!report.isConsistent()) {
+            System.exit(1);
         }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,110 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para AsyncCheckoutService.
+ */
+class AsyncCheckoutServiceTest {
+
+    private final Equipment board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 50, EquipmentType.BOARD, true);
+    private final Equipment mast = new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 2, EquipmentType.MAST, false);
+
+    private Map<String, Equipment> catalog() {
+        Map<String, Equipment> catalog = new HashMap<>();
+        catalog.put(board.getId(), board);
+        catalog.put(mast.getId(), mast);
+        return catalog;
+    }
+
+    @Test
+    void submitShouldCompleteWithReceiptOrBusinessFailure() throws Exception {
+        try (AsyncCheckoutService async = new AsyncCheckoutService(new OrderService(catalog()))) {
+            Cart cart = new Cart();
+            cart.addItem(board, 2);
+            assertEquals(new BigDecimal("1000.00"), async.submit(cart, false).get(5, TimeUnit.SECONDS).getTotal());
+
+            Cart rental = new Cart();
+            rental.addItem(mast, 1);
+            ExecutionException ex = assertThrows(ExecutionException.class,
+                    () -> async.submit(rental, true).get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalArgumentException.class, ex.getCause());
+            assertTrue(async.submit(null, false).isCompletedExceptionally());
+        }
+        assertEquals(48, board.getStock());
+    }
+
+    @Test
+    void submitShouldRejectWhenSaturated() throws Exception {
+        CountDownLatch entered = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Map<String, Equipment> map = catalog();
+        // Catálogo que bloquea la primera consulta para mantener ocupado el único lugar
+        EquipmentCatalog blocking = id -> {
+            entered.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return map.get(id);
+        };
+        try (AsyncCheckoutService async = new AsyncCheckoutService(
+                new OrderService(blocking), 1, Duration.ZERO, 16, 2)) {
+            Cart cart = new Cart();
+            cart.addItem(board, 1);
+            CompletableFuture<OrderReceipt> first = async.submit(cart, false);
+            assertTrue(entered.await(5, TimeUnit.SECONDS));
+
+            CompletableFuture<OrderReceipt> second = async.submit(cart, false);
+            ExecutionException ex = assertThrows(ExecutionException.class, second::get);
+            assertInstanceOf(RejectedExecutionException.class, ex.getCause());
+            assertEquals(1, async.getRejectedCount());
+
+            release.countDown();
+            assertNotNull(first.get(5, TimeUnit.SECONDS));
+        }
+    }
+
+    @Test
+    void hotSkuOrdersShouldNeverOversell() throws Exception {
+        List<CompletableFuture<OrderReceipt>> futures = new ArrayList<>();
+        try (AsyncCheckoutService async = new AsyncCheckoutService(
+                new OrderService(catalog()), 500, Duration.ofSeconds(5), 4, 8)) {
+            for (int i = 0; i < 200; i++) {
+                Cart cart = new Cart();
+                cart.addItem(board, 1);
+                cart.addItem(mast, 1);
+                futures.add(async.submit(cart, false));
+            }
+        }
+        long ok = futures.stream().filter(f -> !f.isCompletedExceptionally()).count();
+        assertEquals(2, ok);
+        assertEquals(0, mast.getStock());
+        assertEquals(48, board.getStock());
+    }
+
+    @Test
+    void constructorShouldValidateArguments() {
+        OrderService service = new OrderService(catalog());
+        assertThrows(IllegalArgumentException.class, () -> new AsyncCheckoutService(null));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncCheckoutService(service, 0, Duration.ZERO, 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncCheckoutService(service, 1, Duration.ofMillis(-1), 1, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncCheckoutService(service, 1, Duration.ZERO, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new AsyncCheckoutService(service, 1, Duration.ZERO, 1, 0));
+    }
+}
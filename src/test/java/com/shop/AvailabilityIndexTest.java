@@ -0,0 +1,62 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para AvailabilityIndex (árbol de segmentos con rangos).
+ */
+class AvailabilityIndexTest {
+
+    @Test
+    void shouldTrackOverlappingRanges() {
+        AvailabilityIndex index = new AvailabilityIndex(24, 3);
+        index.add(10, 14, 2);
+        index.add(12, 18, 1);
+        assertEquals(3, index.maxBooked(0, 24));
+        assertEquals(0, index.available(12, 14));
+        assertEquals(1, index.available(10, 12));
+        assertEquals(3, index.available(0, 10));
+        assertEquals(2, index.available(14, 18));
+        index.add(12, 18, -1);
+        assertEquals(1, index.available(12, 14));
+    }
+
+    @Test
+    void shouldMatchBruteForceOnRandomOperations() {
+        int slots = 257;
+        AvailabilityIndex index = new AvailabilityIndex(slots, 100);
+        int[] booked = new int[slots];
+        Random rnd = new Random(42);
+        for (int op = 0; op < 5_000; op++) {
+            int from = rnd.nextInt(slots);
+            int to = from + 1 + rnd.nextInt(slots - from);
+            if (rnd.nextBoolean()) {
+                int delta = rnd.nextInt(5) - 2;
+                index.add(from, to, delta);
+                for (int i = from; i < to; i++) {
+                    booked[i] += delta;
+                }
+            } else {
+                int expected = Integer.MIN_VALUE;
+                for (int i = from; i < to; i++) {
+                    expected = Math.max(expected, booked[i]);
+                }
+                assertEquals(expected, index.maxBooked(from, to));
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectInvalidArguments() {
+        AvailabilityIndex index = new AvailabilityIndex(10, 1);
+        assertThrows(IllegalArgumentException.class, () -> index.add(5, 5, 1));
+        assertThrows(IllegalArgumentException.class, () -> index.maxBooked(-1, 3));
+        assertThrows(IllegalArgumentException.class, () -> index.available(0, 11));
+        assertThrows(IllegalArgumentException.class, () -> index.setCapacity(-1));
+        assertThrows(IllegalArgumentException.class, () -> new AvailabilityIndex(0, 1));
+    }
+}
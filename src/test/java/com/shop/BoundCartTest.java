@@ -0,0 +1,135 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para BoundCart (subtotal incremental).
+ */
+class BoundCartTest {
+
+    private Map<String, Equipment> map;
+    private long version;
+    private EquipmentCatalog catalog;
+    private Equipment board;
+    private Equipment sail;
+
+    @BeforeEach
+    void setUp() {
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 10, EquipmentType.BOARD, true);
+        sail = new Equipment("S1", "Sail A", new BigDecimal("200.00"), 5, EquipmentType.SAIL, true);
+        map = new HashMap<>(Map.of("B1", board, "S1", sail));
+        // Catálogo de prueba con versión controlada por el test
+        catalog = new EquipmentCatalog() {
+            @Override
+            public Equipment get(String id) {
+                return map.get(id);
+            }
+
+            @Override
+            public long version() {
+                return version;
+            }
+        };
+    }
+
+    @Test
+    void subtotalShouldFollowAddRemoveAndQuantityChanges() {
+        BoundCart cart = new BoundCart(catalog);
+        cart.addItem(board, 1);
+        cart.addItem(sail, 3);
+        assertEquals(new BigDecimal("1100.00"), cart.getSubtotal());
+
+        cart.setQuantity("S1", 1);
+        assertEquals(70000L, cart.getSubtotalCents());
+        cart.addItem(board, 2);
+        assertEquals(170000L, cart.getSubtotalCents());
+        assertTrue(cart.removeItem("B1"));
+        assertFalse(cart.removeItem("B1"));
+        assertEquals(20000L, cart.getSubtotalCents());
+        assertEquals(cart.estimateSubtotalCents(catalog), cart.getSubtotalCents());
+    }
+
+    @Test
+    void priceChangedShouldAdjustSingleLine() {
+        BoundCart cart = new BoundCart(catalog);
+        cart.addItem(board, 2);
+        cart.addItem(sail, 1);
+        map.put("B1", new Equipment("B1", "Board X", new BigDecimal("450.00"), 10, EquipmentType.BOARD, true));
+        // Sin versión ni aviso el subtotal acumulado sigue igual
+        assertEquals(120000L, cart.getSubtotalCents());
+        cart.priceChanged("B1");
+        assertEquals(110000L, cart.getSubtotalCents());
+        cart.priceChanged("missing"); // no está en el carrito: sin efecto
+        assertEquals(110000L, cart.getSubtotalCents());
+    }
+
+    @Test
+    void versionChangeShouldTriggerFullRecompute() {
+        BoundCart cart = new BoundCart(catalog);
+        cart.addItem(board, 1);
+        cart.addItem(sail, 2);
+        map.put("S1", new Equipment("S1", "Sail A", new BigDecimal("250.00"), 5, EquipmentType.SAIL, true));
+        version++;
+        assertEquals(100000L, cart.getSubtotalCents());
+        // Agregar más de una línea repreciada usa el precio vigente para toda la línea
+        cart.addItem(sail, 1);
+        assertEquals(125000L, cart.getSubtotalCents());
+        map.remove("B1");
+        cart.invalidate();
+        assertThrows(IllegalArgumentException.class, cart::getSubtotalCents);
+    }
+
+    @Test
+    void subtotalShouldApplyThePricingRules() {
+        PricingEngine pricing = PricingEngine.compile(List.of(
+                PricingRule.typeDiscount(EquipmentType.SAIL, new BigDecimal("0.10")),
+                PricingRule.quantityBreak(EquipmentType.BOARD, 3, new BigDecimal("0.05")),
+                PricingRule.bundle(EnumSet.of(EquipmentType.BOARD, EquipmentType.SAIL), new BigDecimal("50.00"))));
+        BoundCart cart = new BoundCart(catalog, pricing);
+        cart.addItem(board, 2);
+        // Sin sail todavía no hay combo
+        assertEquals(100_000L, cart.getSubtotalCents());
+        cart.addItem(sail, 1);
+        assertEquals(cart.estimateSubtotalCents(catalog, pricing), cart.getSubtotalCents());
+        cart.addItem(board, 1); // alcanza el escalón: la línea se reprecia completa
+        assertEquals(cart.estimateSubtotalCents(catalog, pricing), cart.getSubtotalCents());
+        cart.setQuantity("S1", 3);
+        assertEquals(142_500L + 54_000L - 15_000L, cart.getSubtotalCents());
+
+        map.put("S1", new Equipment("S1", "Sail A", new BigDecimal("100.00"), 5, EquipmentType.SAIL, true));
+        cart.priceChanged("S1");
+        assertEquals(cart.estimateSubtotalCents(catalog, pricing), cart.getSubtotalCents());
+        assertTrue(cart.removeItem("B1"));
+        assertEquals(27_000L, cart.getSubtotalCents());
+        version++;
+        assertEquals(cart.estimateSubtotalCents(catalog, pricing), cart.getSubtotalCents());
+
+        // Igual que el recibo de OrderService con las mismas reglas
+        OrderService service = new OrderService(catalog, MoneyMode.CENTS, pricing);
+        cart.addItem(board, 4);
+        assertEquals(service.processOrder(cart, false).getSubtotalCents(), cart.getSubtotalCents());
+    }
+
+    @Test
+    void shouldValidateInputs() {
+        assertThrows(IllegalArgumentException.class, () -> new BoundCart((EquipmentCatalog) null));
+        assertThrows(IllegalArgumentException.class, () -> new BoundCart(catalog, null));
+        BoundCart cart = new BoundCart(map);
+        assertThrows(IllegalArgumentException.class, () -> cart.addItem(null, 1));
+        assertThrows(IllegalArgumentException.class, () -> cart.addItem(board, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> cart.addItem(new Equipment("X", "Other", BigDecimal.ONE, 1, EquipmentType.BOOM, false), 1));
+        assertThrows(IllegalArgumentException.class, () -> cart.setQuantity("B1", 2));
+        assertTrue(cart.isEmpty());
+        assertEquals(0L, cart.getSubtotalCents());
+    }
+}
@@ -0,0 +1,244 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para CachingCatalog sobre InMemoryEquipmentRepository.
+ * Las recargas anticipadas corren en el hilo que lee (executor directo) con reloj manual.
+ */
+class CachingCatalogTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicBoolean failing = new AtomicBoolean();
+    private InMemoryEquipmentRepository store;
+    private EquipmentRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        List<Equipment> equipment = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            equipment.add(new Equipment("E" + i, "Item " + i, new BigDecimal("100.00"), 50, EquipmentType.BOARD, true));
+        }
+        store = new InMemoryEquipmentRepository(equipment);
+        repository = id -> {
+            if (failing.get()) {
+                throw new UncheckedIOException(new IOException("store unavailable"));
+            }
+            return store.load(id);
+        };
+    }
+
+    private CachingCatalog cache(int maximumSize, Duration refreshAfter) {
+        return new CachingCatalog(repository, maximumSize, refreshAfter, Runnable::run, clock::get);
+    }
+
+    @Test
+    void shouldReadThroughAndCountHits() {
+        CachingCatalog catalog = cache(10, Duration.ZERO);
+
+        Equipment first = catalog.get("E1");
+        assertSame(first, catalog.get("E1"));
+        assertNull(catalog.get("missing"));
+        assertNull(catalog.get("missing")); // los inexistentes no se guardan
+        assertNull(catalog.get(null));
+
+        CatalogCacheStats stats = catalog.getStats();
+        assertEquals(1, stats.getHits());
+        assertEquals(3, stats.getMisses());
+        assertEquals(3, stats.getLoads());
+        assertEquals(0.25, stats.getHitRate());
+        assertTrue(stats.getMaxLoadNanos() >= stats.getP50LoadNanos());
+        assertEquals(1, catalog.size());
+        assertTrue(catalog.invalidate("E1"));
+        assertFalse(catalog.invalidate("E1"));
+        assertEquals(0, catalog.size());
+    }
+
+    @Test
+    void concurrentMissesShouldShareOneLoad() throws Exception {
+        InMemoryEquipmentRepository slow = new InMemoryEquipmentRepository(
+                List.of(new Equipment("B1", "Board X", new BigDecimal("500.00"), 10, EquipmentType.BOARD, true)),
+                Duration.ofMillis(200));
+        CachingCatalog catalog = new CachingCatalog(slow, 10);
+        int threads = 16;
+        CyclicBarrier start = new CyclicBarrier(threads);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<Equipment>> reads = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                reads.add(pool.submit(() -> {
+                    start.await();
+                    return catalog.get("B1");
+                }));
+            }
+            Equipment loaded = reads.get(0).get();
+            for (Future<Equipment> read : reads) {
+                assertSame(loaded, read.get());
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, slow.getLoadCount());
+        assertEquals(1, catalog.getStats().getLoads());
+        assertTrue(catalog.getStats().getP50LoadNanos() >= Duration.ofMillis(150).toNanos());
+    }
+
+    @Test
+    void failedLoadShouldPropagateAndNotBeCached() {
+        CachingCatalog catalog = cache(10, Duration.ZERO);
+        failing.set(true);
+        assertThrows(UncheckedIOException.class, () -> catalog.get("E1"));
+        failing.set(false);
+
+        assertNotNull(catalog.get("E1"));
+        assertEquals(1, catalog.getStats().getLoadFailures());
+        assertEquals(2, catalog.getStats().getLoads());
+    }
+
+    @Test
+    void scanOfColdSkusShouldNotEvictHotOnes() {
+        CachingCatalog catalog = cache(100, Duration.ZERO);
+        for (int round = 0; round < 20; round++) {
+            for (int i = 0; i < 20; i++) {
+                catalog.get("E" + i);
+            }
+        }
+        Equipment hot = catalog.get("E0");
+        hot.decreaseStock(5);
+
+        // Barrido de SKUs fríos; los calientes se siguen pidiendo, pero cada uno recién cada
+        // 200 lecturas (más que el tamaño de la caché: un LRU los perdería a todos)
+        for (int i = 100; i < 2_000; i++) {
+            catalog.get("E" + i);
+            if (i % 10 == 0) {
+                catalog.get("E" + (i / 10) % 20);
+            }
+        }
+        assertTrue(catalog.size() <= 100);
+        assertTrue(catalog.getStats().getEvictions() >= 1_800);
+
+        long loads = catalog.getStats().getLoads();
+        for (int i = 0; i < 20; i++) {
+            catalog.get("E" + i);
+        }
+        assertEquals(loads, catalog.getStats().getLoads(), "hot SKUs were evicted by the scan");
+        assertEquals(45, catalog.get("E0").getStock());
+
+        // Un equipo desalojado se vuelve a cargar con su mismo stock
+        Equipment cold = catalog.get("E150");
+        cold.decreaseStock(7);
+        catalog.invalidate("E150");
+        assertEquals(43, catalog.get("E150").getStock());
+    }
+
+    @Test
+    void refreshAheadShouldServeNewPricesAndKeepStock() {
+        CachingCatalog catalog = cache(10, Duration.ofMinutes(1));
+        Equipment original = catalog.get("E1");
+        store.setPrice("E1", new BigDecimal("120.00"));
+
+        clock.addAndGet(Duration.ofSeconds(30).toNanos());
+        assertSame(original, catalog.get("E1")); // todavía fresco
+
+        clock.addAndGet(Duration.ofSeconds(31).toNanos());
+        Equipment refreshed = catalog.get("E1");
+        assertEquals(new BigDecimal("120.00"), refreshed.getPrice());
+        refreshed.decreaseStock(3);
+        assertEquals(47, original.getStock()); // la versión nueva comparte el stock
+        assertEquals(1, catalog.getStats().getRefreshes());
+
+        // Recarga fallida: se conserva el valor y no se reintenta hasta otro refreshAfter
+        failing.set(true);
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        assertSame(refreshed, catalog.get("E1"));
+        assertSame(refreshed, catalog.get("E1"));
+        assertEquals(1, catalog.getStats().getLoadFailures());
+        failing.set(false);
+
+        // Si el id desaparece del repositorio, la recarga lo invalida
+        store.remove("E1");
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        catalog.get("E1");
+        assertEquals(0, catalog.size());
+        assertNull(catalog.get("E1"));
+    }
+
+    @Test
+    void boundCartShouldSeeRefreshedAndReloadedPrices() {
+        CachingCatalog catalog = cache(1, Duration.ofMinutes(1));
+        BoundCart cart = new BoundCart(catalog);
+        cart.addItem(store.load("E1"), 1);
+        assertEquals(new BigDecimal("100.00"), cart.getSubtotal());
+
+        // Recarga anticipada con otro precio
+        store.setPrice("E1", new BigDecimal("200.00"));
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        long before = catalog.version();
+        catalog.get("E1");
+        assertEquals(new BigDecimal("200.00"), catalog.get("E1").getPrice());
+        assertNotEquals(before, catalog.version());
+        assertEquals(new BigDecimal("200.00"), cart.getSubtotal());
+
+        // Recarga sin cambios: la versión no se mueve
+        clock.addAndGet(Duration.ofMinutes(2).toNanos());
+        before = catalog.version();
+        catalog.get("E1");
+        assertEquals(before, catalog.version());
+
+        // E2 pierde contra E1 (más frecuente) y se desaloja; su recarga trae el precio nuevo
+        cart.addItem(store.load("E2"), 1);
+        assertEquals(new BigDecimal("300.00"), cart.getSubtotal());
+        assertEquals(1, catalog.size());
+        store.setPrice("E2", new BigDecimal("150.00"));
+        assertEquals(new BigDecimal("350.00"), cart.getSubtotal());
+
+        // invalidate
+        store.setPrice("E1", new BigDecimal("175.00"));
+        assertTrue(catalog.invalidate("E1"));
+        assertEquals(new BigDecimal("325.00"), cart.getSubtotal());
+    }
+
+    @Test
+    void orderServiceShouldCheckoutThroughTheCache() {
+        CachingCatalog catalog = cache(10, Duration.ZERO);
+        OrderService service = new OrderService(catalog, MoneyMode.CENTS);
+        Cart cart = new Cart();
+        cart.addItem(store.load("E1"), 2);
+        cart.addItem(store.load("E2"), 1);
+
+        OrderReceipt receipt = service.processOrder(cart, false);
+
+        assertEquals(new BigDecimal("300.00"), receipt.getTotal());
+        assertEquals(48, store.load("E1").getStock());
+        assertEquals(2, catalog.getStats().getMisses());
+    }
+
+    @Test
+    void invalidArgumentsShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new CachingCatalog(null, 10));
+        assertThrows(IllegalArgumentException.class, () -> new CachingCatalog(repository, 0));
+        assertThrows(IllegalArgumentException.class, () -> new CachingCatalog(repository, 10, Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new CachingCatalog(repository, 10, Duration.ZERO, null, clock::get));
+        assertThrows(IllegalArgumentException.class, () -> store.setPrice("nope", BigDecimal.ONE));
+        assertThrows(IllegalArgumentException.class, () -> store.add(store.load("E1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> new InMemoryEquipmentRepository(List.of(), Duration.ofMillis(-1)));
+    }
+}
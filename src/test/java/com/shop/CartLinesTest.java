@@ -0,0 +1,75 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para CartLines, contrastadas con un LinkedHashMap.
+ */
+class CartLinesTest {
+
+    @Test
+    void randomOperationsShouldMatchLinkedHashMap() {
+        Random random = new Random(42);
+        CartLines lines = new CartLines();
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        for (int op = 0; op < 200_000; op++) {
+            String id = "SKU-" + random.nextInt(5_000);
+            int qty = 1 + random.nextInt(9);
+            switch (random.nextInt(4)) {
+                case 0, 1 -> assertEquals(expected.merge(id, qty, Integer::sum), lines.add(id, qty));
+                case 2 -> assertEquals(expected.remove(id) != null, lines.remove(id));
+                default -> {
+                    boolean present = expected.containsKey(id);
+                    if (present) {
+                        expected.put(id, qty);
+                    }
+                    assertEquals(present, lines.set(id, qty));
+                }
+            }
+            if (op % 20_000 == 0) {
+                assertSameLines(expected, lines);
+            }
+        }
+        assertSameLines(expected, lines);
+        assertEquals(expected, lines.asMap());
+    }
+
+    @Test
+    void hugeCartShouldKeepOrderAndLookups() {
+        CartLines lines = new CartLines();
+        for (int i = 0; i < 50_000; i++) {
+            lines.add("L" + i, i + 1);
+        }
+        for (int i = 0; i < 50_000; i += 2) {
+            assertTrue(lines.remove("L" + i));
+        }
+        assertEquals(25_000, lines.size());
+        for (int i = 0; i < lines.size(); i++) {
+            assertEquals("L" + (2 * i + 1), lines.idAt(i));
+            assertEquals(2 * i + 2, lines.quantityAt(i));
+        }
+        assertEquals(0, lines.get("L0"));
+        assertEquals(50_000, lines.get("L49999"));
+    }
+
+    private static void assertSameLines(Map<String, Integer> expected, CartLines lines) {
+        assertEquals(expected.size(), lines.size());
+        List<String> ids = new ArrayList<>();
+        for (int i = 0; i < lines.size(); i++) {
+            ids.add(lines.idAt(i));
+            assertEquals(expected.get(lines.idAt(i)), lines.quantityAt(i));
+        }
+        assertEquals(new ArrayList<>(expected.keySet()), ids);
+        for (String id : expected.keySet()) {
+            assertEquals(expected.get(id), lines.get(id));
+        }
+    }
+}
@@ -3,7 +3,9 @@ package com.shop;
 import org.junit.jupiter.api.*;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -43,6 +45,20 @@ class CartTest {
         assertThrows(IllegalArgumentException.class, () -> cart.addItem(board, -5));
     }
 
+    @Test
+    void removeItemAndSetQuantityShouldUpdateLines() {
+        cart.addItem(board, 1);
+        cart.addItem(sail, 2);
+        cart.setQuantity("S1", 5);
+        assertEquals(5, cart.getItems().get("S1"));
+        assertTrue(cart.removeItem("B1"));
+        assertFalse(cart.removeItem("B1"));
+        assertEquals(1, cart.getItems().size());
+        assertThrows(IllegalArgumentException.class, () -> cart.setQuantity("B1", 1));
+        assertThrows(IllegalArgumentException.class, () -> cart.setQuantity("S1", 0));
+        assertThrows(IllegalArgumentException.class, () -> cart.removeItem(null));
+    }
+
     @Test
     void estimateSubtotalShouldSumLineTotals() {
         cart.addItem(board, 1); // 500
@@ -50,6 +66,14 @@ class CartTest {
         assertEquals(new BigDecimal("1100.00"), cart.estimateSubtotal(catalog));
     }
 
+    @Test
+    void estimateSubtotalCentsShouldMatchBigDecimalSubtotal() {
+        cart.addItem(board, 1);
+        cart.addItem(sail, 3);
+        assertEquals(110000L, cart.estimateSubtotalCents(catalog));
+        assertEquals(cart.estimateSubtotal(catalog), Cents.toBigDecimal(cart.estimateSubtotalCents(catalog)));
+    }
+
     @Test
     void estimateSubtotalShouldFailWhenIdMissingInCatalog() {
         cart.addItem(board, 1);
@@ -57,4 +81,26 @@ class CartTest {
         catalog.remove("S1");
         assertThrows(IllegalArgumentException.class, () -> cart.estimateSubtotal(catalog));
     }
+
+    @Test
+    void indexApiShouldFollowInsertionOrderAfterRemovals() {
+        Equipment mast = new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 2, EquipmentType.MAST, false);
+        cart.addItem(board, 1);
+        cart.addItem(sail, 2);
+        cart.addItem(mast, 3);
+        cart.removeItem("S1");
+        cart.addItem(sail, 4);
+        cart.addItem(board, 1);
+
+        assertEquals(3, cart.size());
+        assertEquals("B1", cart.getId(0));
+        assertEquals(2, cart.getQuantity(0));
+        assertEquals("M1", cart.getId(1));
+        assertEquals("S1", cart.getId(2));
+        assertEquals(4, cart.getQuantity("S1"));
+        assertEquals(0, cart.getQuantity("X"));
+        assertEquals(List.of("B1", "M1", "S1"), new ArrayList<>(cart.getItems().keySet()));
+        assertThrows(IndexOutOfBoundsException.class, () -> cart.getId(3));
+        assertThrows(UnsupportedOperationException.class, () -> cart.getItems().put("X", 1));
+    }
 }
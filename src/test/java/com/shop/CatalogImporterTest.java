@@ -0,0 +1,171 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para CatalogImporter (CSV y binario en streaming).
+ */
+class CatalogImporterTest {
+
+    @TempDir
+    Path dir;
+
+    private Path csv(String content) throws IOException {
+        Path file = dir.resolve("prices.csv");
+        Files.writeString(file, content, StandardCharsets.UTF_8);
+        return file;
+    }
+
+    // Destino de prueba: rechaza ids duplicados como IndexedCatalog/ShardedCatalog
+    private static void put(Map<String, Equipment> map, Equipment eq) {
+        if (map.putIfAbsent(eq.getId(), eq) != null) {
+            throw new IllegalArgumentException("duplicate equipment id: " + eq.getId());
+        }
+    }
+
+    @Test
+    void csvShouldImportValidRowsAndReportInvalidOnes() throws IOException {
+        Path file = csv(CatalogImporter.CSV_HEADER + "\n"
+                + "B1,Board X,500,10,BOARD,true\n"
+                + "S1,\"Sail, 5.8m\",199.995,3,sail,false\r\n"
+                + "X1,Bad price,12a,1,BOARD,true\n"
+                + "X2,Negative,-1.00,1,BOARD,true\n"
+                + "X3,Bad type,1.00,1,KITE,true\n"
+                + "X4,Too few,1.00\n"
+                + "   ,Blank id,1.00,1,BOARD,true\n"
+                + "X5,Negative stock,1.00,-2,BOARD,true\n"
+                + "\n"
+                + "B1,Duplicate,1.00,1,BOARD,true\n"
+                + "X6,Rounds to zero,-0.004,1,BOARD,true\n"
+                + "M1,Mast Z,150,2,MAST,false");
+        Map<String, Equipment> catalog = new ConcurrentHashMap<>();
+        ImportReport report = new CatalogImporter().importCsv(file, eq -> put(catalog, eq));
+
+        assertEquals(11, report.getRowsRead());
+        assertEquals(3, report.getImported());
+        assertEquals(8, report.getRejected());
+        assertEquals(List.of(4L, 5L, 6L, 7L, 8L, 9L, 11L, 12L),
+                report.getErrors().stream().map(ImportReport.RowError::getRow).collect(Collectors.toList()));
+        assertEquals("invalid price: 12a", report.getErrors().get(0).getMessage());
+        assertEquals("price must be >= 0", report.getErrors().get(1).getMessage());
+        assertEquals("id must not be blank", report.getErrors().get(4).getMessage());
+        assertEquals("stock must be >= 0", report.getErrors().get(5).getMessage());
+        assertEquals("duplicate equipment id: B1", report.getErrors().get(6).getMessage());
+        assertEquals("price must be >= 0", report.getErrors().get(7).getMessage()); // como new Equipment
+
+        Equipment sail = catalog.get("S1");
+        assertEquals("Sail, 5.8m", sail.getName());
+        assertEquals(new BigDecimal("200.00"), sail.getPrice());
+        assertEquals(EquipmentType.SAIL, sail.getType());
+        assertFalse(sail.isRentalEligible());
+        assertEquals(new BigDecimal("500.00"), catalog.get("B1").getPrice());
+        assertEquals(2, catalog.get("M1").getStock());
+        assertTrue(report.getRowsPerSecond() > 0);
+    }
+
+    @Test
+    void smallBufferShouldHandleRowsAcrossBlocksAndSkipOversizedRows() throws IOException {
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 50; i++) {
+            content.append("E").append(i).append(",Equipment ").append(i).append(",1.50,1,BOOM,true\n");
+            if (i == 20) {
+                content.append("LONG,").append("x".repeat(200)).append(",1.00,1,BOOM,true\n");
+            }
+        }
+        Map<String, Equipment> catalog = new ConcurrentHashMap<>();
+        ImportReport report = new CatalogImporter(1, 10, 64).importCsv(csv(content.toString()), eq -> put(catalog, eq));
+
+        assertEquals(50, report.getImported());
+        assertEquals(1, report.getRejected());
+        assertEquals(22, report.getErrors().get(0).getRow());
+        assertNotNull(catalog.get("E49"));
+        assertNull(catalog.get("LONG"));
+    }
+
+    @Test
+    void parallelImportShouldMatchSequential() throws IOException {
+        StringBuilder content = new StringBuilder(CatalogImporter.CSV_HEADER).append('\n');
+        for (int i = 0; i < 20_000; i++) {
+            String price = i % 1000 == 0 ? "oops" : (i % 997) + "." + (i % 100);
+            content.append("SKU-").append(i).append(",Item ").append(i).append(',').append(price)
+                    .append(',').append(i % 50).append(',').append(EquipmentType.values()[i % 4]).append(",true\n");
+        }
+        Path file = csv(content.toString());
+        Map<String, Equipment> sequential = new ConcurrentHashMap<>();
+        Map<String, Equipment> parallel = new ConcurrentHashMap<>();
+        ImportReport one = new CatalogImporter(1, 5, 4096).importCsv(file, eq -> put(sequential, eq));
+        ImportReport four = new CatalogImporter(4, 5, 4096).importCsv(file, eq -> put(parallel, eq));
+
+        assertEquals(20_000, four.getRowsRead());
+        assertEquals(one.getImported(), four.getImported());
+        assertEquals(20, four.getRejected());
+        assertEquals(5, four.getErrors().size());
+        assertEquals(List.of(2L, 1002L, 2002L, 3002L, 4002L),
+                four.getErrors().stream().map(ImportReport.RowError::getRow).collect(Collectors.toList()));
+        assertEquals(sequential.keySet(), parallel.keySet());
+        sequential.forEach((id, eq) -> assertEquals(eq.getPrice(), parallel.get(id).getPrice()));
+    }
+
+    @Test
+    void binaryShouldRoundTripAndReportBadRecords() throws IOException {
+        List<Equipment> source = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            source.add(new Equipment("SKU-" + i, "Ítem " + i, BigDecimal.valueOf(1_000 + i, 2), i,
+                    EquipmentType.values()[i % 4], i % 2 == 0));
+        }
+        Path file = dir.resolve("prices.bin");
+        CatalogImporter.writeBinary(file, source);
+        // Corromper el tipo del último registro
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 2] = 42;
+        Files.write(file, bytes);
+
+        Map<String, Equipment> catalog = new ConcurrentHashMap<>();
+        ImportReport report = new CatalogImporter(2, 10, 256).importBinary(file, eq -> put(catalog, eq));
+        assertEquals(1_000, report.getRowsRead());
+        assertEquals(999, report.getImported());
+        assertEquals("unknown type ordinal: 42", report.getErrors().get(0).getMessage());
+        assertEquals(1_000, report.getErrors().get(0).getRow());
+        Equipment eq = catalog.get("SKU-7");
+        assertEquals("Ítem 7", eq.getName());
+        assertEquals(new BigDecimal("10.07"), eq.getPrice());
+        assertEquals(7, eq.getStock());
+        assertFalse(eq.isRentalEligible());
+
+        // Archivo truncado: la última fila incompleta se reporta
+        Files.write(file, java.util.Arrays.copyOf(bytes, bytes.length - 3));
+        ImportReport truncated = new CatalogImporter().importBinary(file, e -> { });
+        assertEquals("truncated record", truncated.getErrors().get(truncated.getErrors().size() - 1).getMessage());
+    }
+
+    @Test
+    void binaryShouldRejectUnknownFiles() throws IOException {
+        Path file = csv("id,name\n");
+        assertThrows(IOException.class, () -> new CatalogImporter().importBinary(file, e -> { }));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogImporter(0, 1));
+    }
+
+    @Test
+    void splitCsvShouldHandleQuotes() {
+        String[] out = new String[3];
+        assertEquals(3, CatalogImporter.splitCsv("a, \"b \"\"q\"\", c\" ,d", out));
+        assertEquals("b \"q\", c", out[1]);
+        assertEquals("d", out[2]);
+        assertEquals(-1, CatalogImporter.splitCsv("a,\"open", out));
+        assertEquals(5, CatalogImporter.splitCsv("a,b,c,d,e", out));
+    }
+}
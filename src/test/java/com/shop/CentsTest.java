@@ -0,0 +1,106 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para Cents (aritmética en centavos).
+ */
+class CentsTest {
+
+    @Test
+    void ofShouldRoundHalfUpToCents() {
+        assertEquals(49990L, Cents.of(new BigDecimal("499.90")));
+        assertEquals(1L, Cents.of(new BigDecimal("0.005")));
+        assertEquals(0L, Cents.of(new BigDecimal("0.004")));
+        assertEquals(new BigDecimal("499.90"), Cents.toBigDecimal(49990L));
+    }
+
+    @Test
+    void ofShouldRejectNullAndOutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> Cents.of(null));
+        assertThrows(IllegalArgumentException.class, () -> Cents.of(new BigDecimal("1E+30")));
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"0", "499.90", "-0.005", "92233720368547758.07", "92233720368547758.075",
+            "-92233720368547758.08", "-92233720368547758.085", "1E+16", "1E+30", "1E+1000000", "1E-1000000"})
+    void fitsShouldAgreeWithOf(String text) {
+        BigDecimal amount = new BigDecimal(text);
+        boolean converts;
+        try {
+            Cents.of(amount);
+            converts = true;
+        } catch (IllegalArgumentException e) {
+            converts = false;
+        }
+        assertEquals(converts, Cents.fits(amount), text);
+    }
+
+    @Test
+    void fitsShouldCheckTheLongBoundaries() {
+        assertTrue(Cents.fits(Cents.toBigDecimal(Long.MAX_VALUE)));
+        assertTrue(Cents.fits(Cents.toBigDecimal(Long.MIN_VALUE)));
+        assertFalse(Cents.fits(new BigDecimal("92233720368547758.075")));
+        assertFalse(Cents.fits(null));
+    }
+
+    @Test
+    void arithmeticShouldDetectOverflow() {
+        assertThrows(ArithmeticException.class, () -> Cents.add(Long.MAX_VALUE, 1));
+        assertThrows(ArithmeticException.class, () -> Cents.times(Long.MAX_VALUE / 2, 3));
+        assertThrows(ArithmeticException.class, () -> Cents.applyRate(Long.MAX_VALUE, 1000));
+    }
+
+    @Test
+    void basisPointsShouldConvertRentalRate() {
+        assertEquals(1000, Cents.basisPoints(OrderService.RENTAL_DEPOSIT_RATE));
+        assertThrows(IllegalArgumentException.class, () -> Cents.basisPoints(new BigDecimal("0.00001")));
+    }
+
+    @ParameterizedTest(name = "applyRate({0}) should match BigDecimal HALF_UP")
+    @ValueSource(longs = {0, 1, 4, 5, 6, 15, 25, 35, 45, 55, 99, 105, 12345, 49995, -5, -15, -105})
+    void applyRateShouldMatchBigDecimalOnBoundaries(long cents) {
+        assertEquals(bigDecimalDeposit(cents), Cents.applyRate(cents, 1000));
+    }
+
+    @Test
+    void applyRateShouldMatchBigDecimalOnRandomAmounts() {
+        Random rnd = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long cents = rnd.nextInt(100_000_000);
+            assertEquals(bigDecimalDeposit(cents), Cents.applyRate(cents, 1000), "cents=" + cents);
+        }
+    }
+
+    @ParameterizedTest(name = "parse({0}) should match Cents.of(new BigDecimal)")
+    @ValueSource(strings = {"0", "12", "12.5", "12.34", "12.345", "12.344", "0.005", "0.0049", "-1.235", "7.", ".5",
+            "92233720368547758.07"})
+    void parseShouldMatchBigDecimalConversion(String text) {
+        assertEquals(Cents.of(new BigDecimal(text)), Cents.parse(text));
+    }
+
+    @Test
+    void parseShouldRejectInvalidText() {
+        assertThrows(IllegalArgumentException.class, () -> Cents.parse(""));
+        assertThrows(IllegalArgumentException.class, () -> Cents.parse("."));
+        assertThrows(IllegalArgumentException.class, () -> Cents.parse("1.2.3"));
+        assertThrows(IllegalArgumentException.class, () -> Cents.parse("12a"));
+        assertThrows(IllegalArgumentException.class, () -> Cents.parse("92233720368547758.08"));
+        assertThrows(IllegalArgumentException.class, () -> Cents.parse(null));
+    }
+
+    // Referencia: cálculo original de OrderService con BigDecimal
+    private static long bigDecimalDeposit(long cents) {
+        return Cents.of(Cents.toBigDecimal(cents)
+                .multiply(OrderService.RENTAL_DEPOSIT_RATE)
+                .setScale(2, RoundingMode.HALF_UP));
+    }
+}
@@ -31,6 +31,7 @@ class EquipmentTest {
         assertEquals("B1", board.getId());
         assertEquals("Board X", board.getName());
         assertEquals(new BigDecimal("499.90"), board.getPrice());
+        assertEquals(49990L, board.getPriceCents());
         assertEquals(5, board.getStock());
         assertEquals(EquipmentType.BOARD, board.getType());
         assertTrue(board.isRentalEligible());
@@ -54,6 +55,15 @@ class EquipmentTest {
                 () -> new Equipment("X", "Ok", new BigDecimal("0.00"), 0, null, false));
     }
 
+    @Test
+    void priceWithoutCentsRepresentationShouldBeAccepted() {
+        Equipment huge = new Equipment("X", "Ok", new BigDecimal("1E+17"), 1, EquipmentType.BOARD, false);
+        assertEquals(new BigDecimal("1E+17").setScale(2), huge.getPrice());
+        assertFalse(huge.hasPriceCents());
+        assertThrows(ArithmeticException.class, huge::getPriceCents);
+        assertTrue(new Equipment("Y", "Ok", new BigDecimal("1.00"), 1, EquipmentType.BOARD, false).hasPriceCents());
+    }
+
     @Test
     void decreaseStockShouldSucceedWhenEnoughStock() {
         board.decreaseStock(3);
@@ -70,4 +80,41 @@ class EquipmentTest {
     void decreaseStockShouldRejectWhenInsufficient() {
         assertThrows(IllegalArgumentException.class, () -> board.decreaseStock(6));
     }
+
+    @Test
+    void tryDecreaseStockShouldReturnFalseWithoutChangingStockWhenInsufficient() {
+        assertFalse(board.tryDecreaseStock(6));
+        assertEquals(5, board.getStock());
+        assertTrue(board.tryDecreaseStock(5));
+        assertEquals(0, board.getStock());
+    }
+
+    @Test
+    void increaseStockShouldRestoreStockAndValidateInputs() {
+        board.decreaseStock(2);
+        board.increaseStock(2);
+        assertEquals(5, board.getStock());
+        assertThrows(IllegalArgumentException.class, () -> board.increaseStock(0));
+        assertThrows(IllegalArgumentException.class, () -> board.increaseStock(Integer.MAX_VALUE));
+    }
+
+    @Test
+    void decreaseStockUpToShouldTakeOnlyWhatIsAvailable() {
+        assertEquals(3, board.decreaseStockUpTo(3));
+        assertEquals(2, board.decreaseStockUpTo(10));
+        assertEquals(0, board.decreaseStockUpTo(1));
+        assertEquals(0, board.getStock());
+        assertThrows(IllegalArgumentException.class, () -> board.decreaseStockUpTo(0));
+    }
+
+    @Test
+    void stockListenersShouldBeNotifiedOfEachChange() {
+        StringBuilder log = new StringBuilder();
+        board.addStockListener((eq, previous, current) -> log.append(previous).append("->").append(current).append(' '));
+        board.decreaseStock(2);
+        board.tryDecreaseStock(10); // falla: no notifica
+        board.increaseStock(1);
+        assertEquals("5->3 3->4 ", log.toString());
+        assertThrows(IllegalArgumentException.class, () -> board.addStockListener(null));
+    }
 }
@@ -0,0 +1,180 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para IdempotentOrderService, con reloj manual.
+ */
+class IdempotentOrderServiceTest {
+
+    private final AtomicLong clock = new AtomicLong();
+    private Equipment board;
+    private OrderService service;
+    private IdempotentOrderService idempotent;
+
+    @BeforeEach
+    void setUp() {
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 10, EquipmentType.BOARD, true);
+        service = new OrderService(Map.of("B1", board));
+        idempotent = new IdempotentOrderService(service, Duration.ofMinutes(10), 100, clock::get);
+    }
+
+    private Cart cartOf(int qty) {
+        Cart cart = new Cart();
+        cart.addItem(board, qty);
+        return cart;
+    }
+
+    @Test
+    void retryShouldReturnStoredReceiptWithoutTouchingStock() {
+        OrderReceipt first = idempotent.processOrder("k1", cartOf(2), false);
+        OrderReceipt retry = idempotent.processOrder("k1", cartOf(2), false);
+
+        assertSame(first, retry);
+        assertEquals(8, board.getStock());
+        assertEquals(1, idempotent.getDuplicateCount());
+
+        idempotent.processOrder("k2", cartOf(2), false);
+        assertEquals(6, board.getStock());
+        assertEquals(2, idempotent.getKeyCount());
+        assertThrows(IllegalArgumentException.class, () -> idempotent.processOrder(null, cartOf(1), false));
+    }
+
+    @Test
+    void rejectionShouldBeRememberedToo() {
+        OrderResult rejected = idempotent.tryProcessOrder("k1", cartOf(11), false);
+        assertInstanceOf(OrderResult.Rejected.class, rejected);
+        board.increaseStock(5);
+        // El reintento con la misma clave no vuelve a evaluar el pedido
+        assertSame(rejected, idempotent.tryProcessOrder("k1", cartOf(11), false));
+        assertEquals(15, board.getStock());
+        assertThrows(IllegalArgumentException.class, () -> idempotent.processOrder("k1", cartOf(11), false));
+    }
+
+    @Test
+    void duplicateShouldWaitForTheRequestInFlight() throws Exception {
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        board.addStockListener((eq, previous, current) -> {
+            inside.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<OrderReceipt> first = pool.submit(() -> idempotent.processOrder("k1", cartOf(3), false));
+            assertTrue(inside.await(10, TimeUnit.SECONDS));
+            Future<OrderReceipt> duplicate = pool.submit(() -> idempotent.processOrder("k1", cartOf(3), false));
+            while (idempotent.getDuplicateCount() == 0) {
+                Thread.onSpinWait();
+            }
+            assertFalse(duplicate.isDone());
+            release.countDown();
+
+            assertSame(first.get(10, TimeUnit.SECONDS), duplicate.get(10, TimeUnit.SECONDS));
+            assertEquals(7, board.getStock());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void keysShouldExpireAfterTtl() {
+        idempotent.processOrder("k1", cartOf(1), false);
+        clock.addAndGet(Duration.ofMinutes(10).toNanos() - 1);
+        idempotent.processOrder("k1", cartOf(1), false);
+        assertEquals(9, board.getStock());
+
+        clock.addAndGet(1);
+        idempotent.processOrder("k1", cartOf(1), false);
+        assertEquals(8, board.getStock());
+        assertEquals(1, idempotent.getKeyCount());
+    }
+
+    @Test
+    void keyCountShouldStayBounded() {
+        Equipment bulk = new Equipment("B2", "Board Y", new BigDecimal("1.00"), 1_000_000, EquipmentType.BOARD, false);
+        IdempotentOrderService bounded = new IdempotentOrderService(
+                new OrderService(Map.of("B2", bulk)), Duration.ofHours(1), 100, clock::get);
+        for (int i = 0; i < 10_000; i++) {
+            Cart cart = new Cart();
+            cart.addItem(bulk, 1);
+            bounded.processOrder("key-" + i, cart, false);
+        }
+        assertTrue(bounded.getKeyCount() <= 101, "keys: " + bounded.getKeyCount());
+        assertEquals(1_000_000 - 10_000, bulk.getStock());
+    }
+
+    @Test
+    void keyInFlightShouldNeverBeEvictedOrExpire() throws Exception {
+        Equipment bulk = new Equipment("B2", "Board Y", new BigDecimal("1.00"), 1_000, EquipmentType.BOARD, false);
+        IdempotentOrderService small = new IdempotentOrderService(
+                new OrderService(Map.of("B1", board, "B2", bulk)), Duration.ofMinutes(10), 2, clock::get);
+        CountDownLatch inside = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        board.addStockListener((eq, previous, current) -> {
+            inside.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<OrderReceipt> first = pool.submit(() -> small.processOrder("k1", cartOf(3), false));
+            assertTrue(inside.await(10, TimeUnit.SECONDS));
+            // Más claves que maxKeys y el ttl cumplido mientras k1 sigue en curso
+            clock.addAndGet(Duration.ofMinutes(10).toNanos());
+            for (int i = 0; i < 5; i++) {
+                Cart cart = new Cart();
+                cart.addItem(bulk, 1);
+                small.processOrder("other-" + i, cart, false);
+            }
+            assertTrue(small.getKeyCount() <= 3, "keys: " + small.getKeyCount());
+            Future<OrderReceipt> retry = pool.submit(() -> small.processOrder("k1", cartOf(3), false));
+            while (small.getDuplicateCount() == 0) {
+                Thread.onSpinWait();
+            }
+            release.countDown();
+
+            assertSame(first.get(10, TimeUnit.SECONDS), retry.get(10, TimeUnit.SECONDS));
+            assertEquals(7, board.getStock());
+        } finally {
+            pool.shutdownNow();
+        }
+        // Ya terminada, la clave vencida se descarta como cualquier otra
+        clock.addAndGet(Duration.ofMinutes(10).toNanos());
+        Cart cart = new Cart();
+        cart.addItem(bulk, 1);
+        small.processOrder("last", cart, false);
+        assertEquals(1, small.getKeyCount());
+    }
+
+    @Test
+    void exceptionShouldNotBeRemembered() {
+        Equipment huge = new Equipment("H1", "Huge", new BigDecimal("90000000000000000.00"), 10, EquipmentType.BOARD, false);
+        IdempotentOrderService cents = new IdempotentOrderService(
+                new OrderService(Map.of("H1", huge), MoneyMode.CENTS), Duration.ofHours(1), 100, clock::get);
+        Cart cart = new Cart();
+        cart.addItem(huge, 10);
+        assertThrows(ArithmeticException.class, () -> cents.processOrder("k1", cart, false));
+        assertEquals(0, cents.getKeyCount());
+    }
+}
@@ -0,0 +1,100 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para IndexedCatalog y su integración con OrderService.
+ */
+class IndexedCatalogTest {
+
+    private IndexedCatalog catalog;
+    private Equipment sailA;   // elegible, stock 1
+    private Equipment sailB;   // no elegible
+    private Equipment sailC;   // elegible, sin stock
+    private Equipment board;   // elegible
+
+    @BeforeEach
+    void setUp() {
+        sailA = new Equipment("S1", "Sail A", new BigDecimal("200.00"), 1, EquipmentType.SAIL, true);
+        sailB = new Equipment("S2", "Sail B", new BigDecimal("210.00"), 4, EquipmentType.SAIL, false);
+        sailC = new Equipment("S3", "Sail C", new BigDecimal("220.00"), 0, EquipmentType.SAIL, true);
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 3, EquipmentType.BOARD, true);
+        catalog = new IndexedCatalog(List.of(sailA, sailB, sailC, board));
+    }
+
+    @Test
+    void findShouldCombineTypeRentalAndStockIndexes() {
+        assertThat(catalog.find(EquipmentType.SAIL, true, true), contains(sailA));
+        assertThat(catalog.find(EquipmentType.SAIL, true, false), contains(sailA, sailC));
+        assertThat(catalog.find(EquipmentType.SAIL, false, false), contains(sailA, sailB, sailC));
+        assertThat(catalog.find(null, true, true), contains(sailA, board));
+        assertThat(catalog.find(EquipmentType.BOOM, false, false), is(empty()));
+        assertEquals(3, catalog.count(null, false, true));
+    }
+
+    @Test
+    void inStockIndexShouldFollowStockChanges() {
+        sailA.decreaseStock(1);
+        assertThat(catalog.find(EquipmentType.SAIL, true, true), is(empty()));
+        sailC.increaseStock(2);
+        assertThat(catalog.find(EquipmentType.SAIL, true, true), contains(sailC));
+    }
+
+    @Test
+    void stockChangesShouldNotWaitForTheCatalogLock() throws Exception {
+        Thread seller = new Thread(() -> {
+            sailA.decreaseStock(1);
+            sailC.increaseStock(1);
+        });
+        synchronized (catalog) { // lo que toman add, find y count
+            seller.start();
+            seller.join(5_000);
+            assertFalse(seller.isAlive());
+        }
+        assertThat(catalog.find(EquipmentType.SAIL, true, true), contains(sailC));
+    }
+
+    @Test
+    void inStockIndexShouldSpanSeveralBlocks() {
+        IndexedCatalog large = new IndexedCatalog();
+        Equipment last = null;
+        for (int i = 0; i < 70_000; i++) {
+            last = new Equipment("E" + i, "Equipment " + i, BigDecimal.ONE, i % 2, EquipmentType.MAST, false);
+            large.add(last);
+        }
+        assertEquals(35_000, large.count(EquipmentType.MAST, false, true));
+        last.decreaseStock(1);
+        assertEquals(34_999, large.count(null, false, true));
+    }
+
+    @Test
+    void orderServiceShouldAcceptIndexedCatalog() {
+        OrderService service = new OrderService(catalog);
+        Cart cart = new Cart();
+        cart.addItem(sailA, 1);
+        cart.addItem(board, 1);
+
+        OrderReceipt receipt = service.processOrder(cart, true);
+
+        assertThat(receipt.getTotal(), comparesEqualTo(new BigDecimal("770.00")));
+        assertEquals(new BigDecimal("700.00"), cart.estimateSubtotal(catalog));
+        assertThat(catalog.find(EquipmentType.SAIL, false, true), contains(sailB));
+    }
+
+    @Test
+    void addShouldRejectNullAndDuplicates() {
+        assertThrows(IllegalArgumentException.class, () -> catalog.add(null));
+        assertThrows(IllegalArgumentException.class,
+                () -> catalog.add(new Equipment("S1", "Dup", new BigDecimal("1.00"), 1, EquipmentType.SAIL, true)));
+        assertEquals(4, catalog.size());
+        assertNull(catalog.get("missing"));
+    }
+}
@@ -0,0 +1,247 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para InventoryAnalytics (y HourlySales) alimentado por OrderService.
+ */
+class InventoryAnalyticsTest {
+
+    private static final Instant T0 = Instant.parse("2026-03-01T10:15:00Z");
+
+    private final AtomicLong clock = new AtomicLong(T0.toEpochMilli());
+    private Equipment board;
+    private Equipment sail;
+    private Equipment mast;
+    private Map<String, Equipment> catalog;
+    private OrderService service;
+    private InventoryAnalytics analytics;
+
+    @BeforeEach
+    void setUp() {
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 100, EquipmentType.BOARD, true);
+        sail = new Equipment("S1", "Sail A", new BigDecimal("200.00"), 100, EquipmentType.SAIL, true);
+        mast = new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 100, EquipmentType.MAST, false);
+        catalog = Map.of("B1", board, "S1", sail, "M1", mast);
+        PricingEngine pricing = PricingEngine.compile(List.of(
+                PricingRule.bundle(EnumSet.of(EquipmentType.BOARD, EquipmentType.SAIL), new BigDecimal("50.00"))));
+        service = new OrderService(EquipmentCatalog.of(catalog), MoneyMode.CENTS, pricing);
+        analytics = new InventoryAnalytics(clock::get);
+        service.setOrderListener(analytics);
+    }
+
+    private OrderReceipt order(Instant at, Equipment eq, int qty, Object... more) {
+        clock.set(at.toEpochMilli());
+        Cart cart = new Cart();
+        cart.addItem(eq, qty);
+        for (int i = 0; i < more.length; i += 2) {
+            cart.addItem((Equipment) more[i], (Integer) more[i + 1]);
+        }
+        return service.processOrder(cart, false);
+    }
+
+    @Test
+    void salesShouldBeGroupedByTypeAndHour() {
+        OrderReceipt bundle = order(T0, board, 1, sail, 1);                        // 10:15
+        order(Instant.parse("2026-03-01T11:59:59Z"), mast, 2);                     // 11:59
+        order(Instant.parse("2026-03-01T12:00:00Z"), board, 3);                    // fuera del rango
+        assertEquals(0, analytics.getRowCount()); // todavía en la cola
+
+        HourlySales sales = analytics.salesByTypeAndHour(Instant.parse("2026-03-01T10:30:00Z"),
+                Instant.parse("2026-03-01T12:00:00Z"));
+
+        assertEquals(Instant.parse("2026-03-01T10:00:00Z"), sales.getStart());
+        assertEquals(2, sales.getHours());
+        assertEquals(Instant.parse("2026-03-01T11:00:00Z"), sales.getHourStart(1));
+        assertEquals(1, sales.getUnits(0, EquipmentType.BOARD));
+        assertEquals(50_000, sales.getListAmountCents(0, EquipmentType.BOARD));
+        // El descuento del bundle se reparte en proporción al precio de lista
+        assertEquals(46_429, sales.getNetAmountCents(0, EquipmentType.BOARD));
+        assertEquals(18_571, sales.getNetAmountCents(0, EquipmentType.SAIL));
+        assertEquals(bundle.getSubtotalCents(), sales.getNetAmountCents(0, EquipmentType.BOARD)
+                + sales.getNetAmountCents(0, EquipmentType.SAIL));
+        assertEquals(2, sales.getUnits(1, EquipmentType.MAST));
+        assertEquals(0, sales.getUnits(1, EquipmentType.BOARD));
+        assertEquals(1, sales.getTotalUnits(EquipmentType.BOARD));
+        assertEquals(30_000, sales.getTotalNetAmountCents(EquipmentType.MAST));
+        assertEquals(4, analytics.getRowCount());
+        assertEquals(3, analytics.getSkuCount());
+    }
+
+    @Test
+    void belowReorderShouldSubtractSalesAfterTheSnapshot() {
+        order(T0, board, 10);
+        analytics.captureStock(catalog.values());
+        assertTrue(analytics.belowReorder(50).isEmpty());
+
+        order(T0.plusSeconds(60), board, 45, sail, 30);
+        order(T0.plusSeconds(120), sail, 25);
+
+        // board: 90 - 45 = 45; sail: 100 - 55 = 45; mast: 100
+        Map<String, Long> low = analytics.belowReorder(50);
+        assertEquals(List.of("B1", "S1"), new ArrayList<>(low.keySet()));
+        assertEquals(45L, low.get("B1"));
+        assertEquals(Map.of("S1", 45L), analytics.belowReorder(EquipmentType.SAIL, 50));
+        assertEquals(Long.valueOf(board.getStock()), low.get("B1"));
+        assertTrue(analytics.belowReorder(EquipmentType.MAST, 100).isEmpty());
+
+        // Una foto nueva parte de cero otra vez
+        analytics.captureStock(List.of(mast));
+        assertEquals(Map.of("M1", 100L), analytics.belowReorder(101));
+    }
+
+    @Test
+    void topSellersShouldRankSkusInRange() {
+        order(T0, sail, 2, mast, 2);
+        order(T0.plusSeconds(60), board, 1, sail, 1);
+        order(T0.plusSeconds(3_600), board, 5);
+
+        Map<String, Long> top = analytics.topSellers(2, T0, T0.plusSeconds(120));
+        assertEquals(List.of("S1", "M1"), new ArrayList<>(top.keySet()));
+        assertEquals(3L, top.get("S1"));
+        assertEquals(Map.of("B1", 6L, "S1", 3L, "M1", 2L), analytics.topSellers(10, T0, T0.plusSeconds(7_200)));
+    }
+
+    @Test
+    void retentionShouldDropOldChunksAndKeepReorderEstimates() {
+        mast.increaseStock(InventoryAnalytics.CHUNK);
+        analytics.captureStock(catalog.values());
+        for (int i = 0; i < InventoryAnalytics.CHUNK; i++) {
+            order(T0, mast, 1);                                                    // un bloque lleno a las 10:15
+        }
+        Instant later = T0.plus(Duration.ofHours(3));
+        order(later, board, 2);
+        analytics.drain();
+        assertEquals(InventoryAnalytics.CHUNK + 1, analytics.getRowCount());
+
+        assertEquals(0, analytics.dropBefore(T0));
+        assertEquals(InventoryAnalytics.CHUNK, analytics.dropBefore(T0.plus(Duration.ofHours(1))));
+        assertEquals(1, analytics.getRowCount());
+        assertTrue(analytics.topSellers(10, T0, T0.plusSeconds(60)).isEmpty());
+        assertEquals(Map.of("B1", 2L), analytics.topSellers(10, T0, later.plusSeconds(60)));
+        // Las ventas posteriores a la foto que estaban en el bloque descartado se siguen descontando
+        assertEquals(Map.of("M1", 100L), analytics.belowReorder(EquipmentType.MAST, 101));
+
+        // Con ventana de 4 horas, cinco horas después se descarta también el bloque en curso
+        analytics.setRetention(Duration.ofHours(4));
+        clock.set(later.plus(Duration.ofHours(5)).toEpochMilli());
+        analytics.drain();
+        assertEquals(0, analytics.getRowCount());
+        order(later.plus(Duration.ofHours(5)), sail, 1);
+        assertEquals(Map.of("S1", 1L), analytics.topSellers(10, T0, later.plus(Duration.ofHours(6))));
+        assertEquals(Map.of("B1", 98L, "S1", 99L, "M1", 100L), analytics.belowReorder(101));
+        assertEquals(1, analytics.getRowCount());
+    }
+
+    @Test
+    void concurrentCheckoutsShouldAllBeIngested() throws Exception {
+        for (Equipment eq : catalog.values()) {
+            eq.increaseStock(1_000_000);
+        }
+        int threads = 4;
+        int orders = 2_500;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                done.add(pool.submit(() -> {
+                    for (int i = 0; i < orders; i++) {
+                        Cart cart = new Cart();
+                        cart.addItem(board, 1);
+                        cart.addItem(mast, 2);
+                        service.processOrder(cart, false);
+                        if (i % 500 == 0) {
+                            analytics.drain(); // consultas mientras se sigue vendiendo
+                        }
+                    }
+                }));
+            }
+            for (Future<?> f : done) {
+                f.get();
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        HourlySales sales = analytics.salesByTypeAndHour(T0, T0.plusSeconds(1));
+        assertEquals(threads * orders * 2L, analytics.getRowCount());
+        assertEquals(threads * orders, sales.getTotalUnits(EquipmentType.BOARD));
+        assertEquals(threads * orders * 2L, sales.getTotalUnits(EquipmentType.MAST));
+        assertTrue(analytics.getRowCount() > InventoryAnalytics.CHUNK); // varios bloques
+    }
+
+    @Test
+    void queueShouldBeDrainedInBackgroundAndBounded() {
+        // Drenado en el hilo que cruza el umbral (executor directo), junto a otro listener
+        InventoryAnalytics eager = new InventoryAnalytics(clock::get, 2, Runnable::run);
+        AtomicLong notified = new AtomicLong();
+        service.setOrderListener(OrderListener.of(eager, (receipt, lines) -> notified.incrementAndGet()));
+        order(T0, board, 1, mast, 1);
+        assertEquals(0, eager.getRowCount());
+        order(T0, sail, 1);
+        assertEquals(3, eager.getRowCount());
+        assertEquals(2, notified.get());
+
+        // Un drenado que nunca corre: la cola se corta en 64 * drainThreshold pedidos
+        mast.increaseStock(1_000);
+        InventoryAnalytics stalled = new InventoryAnalytics(clock::get, 1, task -> { });
+        service.setOrderListener(stalled);
+        for (int i = 0; i < 100; i++) {
+            order(T0, mast, 1);
+        }
+        assertEquals(100 - InventoryAnalytics.MAX_PENDING_FACTOR, stalled.getDroppedOrders());
+        assertEquals(InventoryAnalytics.MAX_PENDING_FACTOR, stalled.drain());
+        assertEquals(0, stalled.drain());
+    }
+
+    @Test
+    void ordersBeyondLongCentsShouldBeSkipped() {
+        Equipment yacht = new Equipment("Y1", "Yacht", new BigDecimal("9E+16"), 100, EquipmentType.BOARD, true);
+        OrderService bigDecimal = new OrderService(Map.of("Y1", yacht, "B1", board));
+        bigDecimal.setOrderListener(analytics);
+        Cart huge = new Cart();
+        huge.addItem(yacht, 50);
+        Cart normal = new Cart();
+        normal.addItem(board, 1);
+
+        bigDecimal.processOrder(huge, false);
+        bigDecimal.processOrder(normal, false);
+
+        assertEquals(1, analytics.drain());
+        assertEquals(1, analytics.getSkippedOrders());
+        assertEquals(1, analytics.topSellers(5, T0, T0.plusSeconds(60)).size());
+    }
+
+    @Test
+    void invalidArgumentsShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new InventoryAnalytics(null));
+        assertThrows(IllegalArgumentException.class, () -> new InventoryAnalytics(clock::get, 0, Runnable::run));
+        assertThrows(IllegalArgumentException.class, () -> new InventoryAnalytics(clock::get, 1, null));
+        assertThrows(IllegalArgumentException.class, () -> OrderListener.of(analytics, null));
+        assertThrows(IllegalArgumentException.class, () -> analytics.salesByTypeAndHour(T0, T0));
+        assertThrows(IllegalArgumentException.class, () -> analytics.salesByTypeAndHour(null, T0));
+        assertThrows(IllegalArgumentException.class,
+                () -> analytics.salesByTypeAndHour(Instant.EPOCH, Instant.parse("3000-01-01T00:00:00Z")));
+        assertThrows(IllegalArgumentException.class, () -> analytics.topSellers(0, T0, T0.plusSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> analytics.captureStock(null));
+        assertThrows(IllegalArgumentException.class, () -> analytics.dropBefore(null));
+        assertThrows(IllegalArgumentException.class, () -> analytics.setRetention(Duration.ofHours(-1)));
+        HourlySales sales = analytics.salesByTypeAndHour(T0, T0.plusSeconds(1));
+        assertThrows(IllegalArgumentException.class, () -> sales.getUnits(1, EquipmentType.BOARD));
+        assertThrows(IllegalArgumentException.class, () -> sales.getUnits(0, null));
+    }
+}
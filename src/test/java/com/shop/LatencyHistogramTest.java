@@ -0,0 +1,49 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para LatencyHistogram.
+ */
+class LatencyHistogramTest {
+
+    @Test
+    void percentilesShouldBeWithinRelativeError() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 100_000; v++) {
+            histogram.record(v * 1_000);
+        }
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000L, histogram.getMax());
+        assertEquals(50_000_500.0, histogram.getMean(), 0.001);
+        assertEquals(50_000_000.0, histogram.getValueAtPercentile(50), 50_000_000 * 0.035);
+        assertEquals(99_000_000.0, histogram.getValueAtPercentile(99), 99_000_000 * 0.035);
+        assertEquals(100_000_000L, histogram.getValueAtPercentile(100));
+    }
+
+    @ParameterizedTest(name = "value {0} should fall inside its bucket")
+    @ValueSource(longs = {0, 1, 63, 64, 65, 127, 128, 1_000, 123_456_789, Long.MAX_VALUE})
+    void bucketsShouldContainTheirValues(long value) {
+        int index = LatencyHistogram.indexOf(value);
+        assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+        if (index > 0) {
+            assertTrue(LatencyHistogram.highestValueOf(index - 1) < value);
+        }
+    }
+
+    @Test
+    void emptyAndResetShouldReportZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0L, histogram.getValueAtPercentile(99));
+        histogram.record(-5);
+        histogram.record(42);
+        assertEquals(42L, histogram.getValueAtPercentile(100));
+        histogram.reset();
+        assertEquals(0L, histogram.getCount());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+}
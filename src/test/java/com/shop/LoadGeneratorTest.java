@@ -0,0 +1,79 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para LoadGenerator y LoadProfile (corridas cortas).
+ */
+class LoadGeneratorTest {
+
+    private static LoadProfile shortRun() {
+        return new LoadProfile().setWarmup(Duration.ZERO).setDuration(Duration.ofMillis(300)).setThreads(4);
+    }
+
+    @Test
+    void scarceStockShouldNeverOversell() throws InterruptedException {
+        // Pocas unidades en SKUs calientes: muchos rechazos por stock compitiendo entre hilos
+        LoadProfile profile = shortRun().setCatalogSize(20).setStockPerSku(50).setSkew(1.2)
+                .setCartMeanLines(3).setMaxQuantity(3).setCatalogKind(LoadProfile.CatalogKind.SHARDED);
+
+        LoadReport report = new LoadGenerator(profile).run();
+
+        assertTrue(report.isConsistent(), report.format());
+        assertTrue(report.getStockDecrements() > 0);
+        assertTrue(report.getStockDecrements() <= 20 * 50);
+        assertTrue(report.getRejections().get(RejectionReason.INSUFFICIENT_STOCK) > 0);
+        assertEquals(report.getAccepted() + report.getRejected(), report.getLatency().getCount());
+        assertFalse(report.getGc().isEmpty());
+    }
+
+    @Test
+    void targetRateShouldPaceOrders() throws InterruptedException {
+        LoadProfile profile = shortRun().setDuration(Duration.ofMillis(500)).setTargetRate(200)
+                .setCatalogKind(LoadProfile.CatalogKind.VERSIONED).setRentalRatio(1.0);
+
+        LoadReport report = new LoadGenerator(profile).run();
+
+        // 200/s durante 0,5 s: unos 100 pedidos, nunca miles
+        long orders = report.getAccepted() + report.getRejected();
+        assertTrue(orders >= 50 && orders <= 150, "orders=" + orders);
+        assertEquals(0L, report.getRejected());
+        assertTrue(report.isConsistent());
+    }
+
+    @Test
+    void fromArgsShouldParseOptions() {
+        LoadProfile profile = LoadProfile.fromArgs("--catalog-size=500", "--skew", "0", "--cart-mean=2.5",
+                "--cart-max", "8", "--rental-ratio=0.5", "--threads=16", "--virtual", "--duration=2m",
+                "--warmup", "500ms", "--rate=1000", "--catalog=versioned", "--money=big-decimal");
+
+        assertEquals(500, profile.getCatalogSize());
+        assertEquals(0.0, profile.getSkew());
+        assertEquals(2.5, profile.getCartMeanLines());
+        assertEquals(8, profile.getCartMaxLines());
+        assertEquals(0.5, profile.getRentalRatio());
+        assertEquals(16, profile.getThreads());
+        assertTrue(profile.isVirtualThreads());
+        assertEquals(Duration.ofMinutes(2), profile.getDuration());
+        assertEquals(Duration.ofMillis(500), profile.getWarmup());
+        assertEquals(1000.0, profile.getTargetRate());
+        assertEquals(LoadProfile.CatalogKind.VERSIONED, profile.getCatalogKind());
+        assertEquals(MoneyMode.BIG_DECIMAL, profile.getMoneyMode());
+    }
+
+    @Test
+    void fromArgsShouldRejectInvalidOptions() {
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.fromArgs("--nope=1"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.fromArgs("--threads=x"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.fromArgs("--threads=0"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.fromArgs("--rental-ratio=1.5"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.fromArgs("--catalog=tree"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.fromArgs("--duration"));
+        assertThrows(IllegalArgumentException.class, () -> LoadProfile.fromArgs("threads"));
+        assertThrows(IllegalArgumentException.class, () -> new LoadGenerator(null));
+    }
+}
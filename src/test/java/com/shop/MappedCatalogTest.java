@@ -0,0 +1,125 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para MappedCatalog (catálogo fuera del heap).
+ */
+class MappedCatalogTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Equipment> sample() {
+        return List.of(
+                new Equipment("B1", "Board X", new BigDecimal("499.90"), 10, EquipmentType.BOARD, true),
+                new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 2, EquipmentType.MAST, false));
+    }
+
+    @Test
+    void getShouldReturnViewsWithStoredFields() throws IOException {
+        try (MappedCatalog catalog = MappedCatalog.create(dir.resolve("catalog.bin"), sample())) {
+            Equipment board = catalog.get("B1");
+            assertEquals("Board X", board.getName());
+            assertEquals(new BigDecimal("499.90"), board.getPrice());
+            assertEquals(10, board.getStock());
+            assertEquals(EquipmentType.BOARD, board.getType());
+            assertTrue(board.isRentalEligible());
+            assertFalse(catalog.get("M1").isRentalEligible());
+            assertSame(board, catalog.get("B1"));
+            assertNull(catalog.get("X"));
+            assertEquals(2, catalog.size());
+        }
+    }
+
+    @Test
+    void orderServiceShouldWorkUnchangedAndStockShouldPersist() throws IOException {
+        Path file = dir.resolve("catalog.bin");
+        try (MappedCatalog catalog = MappedCatalog.create(file, sample())) {
+            Cart cart = new Cart();
+            cart.addItem(catalog.get("B1"), 3);
+            cart.addItem(catalog.get("M1"), 2);
+            OrderReceipt receipt = new OrderService(catalog).processOrder(cart, false);
+            assertThat(receipt.getTotal(), comparesEqualTo(new BigDecimal("1799.70")));
+
+            Cart tooMuch = new Cart();
+            tooMuch.addItem(catalog.get("M1"), 1);
+            assertThrows(IllegalArgumentException.class, () -> new OrderService(catalog).processOrder(tooMuch, false));
+        }
+        try (MappedCatalog reopened = MappedCatalog.open(file)) {
+            assertEquals(7, reopened.get("B1").getStock());
+            assertEquals(0, reopened.get("M1").getStock());
+        }
+    }
+
+    @Test
+    void addShouldEnforceRecordLimits() throws IOException {
+        try (MappedCatalog catalog = MappedCatalog.create(dir.resolve("small.bin"), 2)) {
+            catalog.add(sample().get(0));
+            assertThrows(IllegalArgumentException.class, () -> catalog.add(sample().get(0)));
+            assertThrows(IllegalArgumentException.class, () -> catalog.add(
+                    new Equipment("X".repeat(33), "Long id", BigDecimal.ONE, 1, EquipmentType.BOOM, false)));
+            catalog.add(sample().get(1));
+            assertThrows(IllegalArgumentException.class, () -> catalog.add(
+                    new Equipment("S9", "Sail", BigDecimal.ONE, 1, EquipmentType.SAIL, false)));
+        }
+    }
+
+    @Test
+    void shouldHandleManyEntriesAndRejectInvalidFiles() throws IOException {
+        try (MappedCatalog catalog = MappedCatalog.create(dir.resolve("many.bin"), 5_000)) {
+            for (int i = 0; i < 5_000; i++) {
+                catalog.add(new Equipment("SKU-" + i, "Item " + i, BigDecimal.valueOf(i, 2), i % 7, EquipmentType.SAIL, true));
+            }
+            assertEquals(4_999 % 7, catalog.get("SKU-4999").getStock());
+            assertEquals(new BigDecimal("12.34"), catalog.get("SKU-1234").getPrice());
+
+            // La caché de vistas es acotada: un registro del mismo casillero desplaza la vista
+            Equipment first = catalog.get("SKU-1");
+            assertSame(first, catalog.get("SKU-1"));
+            catalog.get("SKU-" + (1 + MappedCatalog.VIEW_CACHE_SIZE));
+            Equipment again = catalog.get("SKU-1");
+            assertNotSame(first, again);
+            first.increaseStock(5);
+            assertEquals(6, again.getStock()); // el stock vive en el archivo
+        }
+        Path bogus = Files.write(dir.resolve("bogus.bin"), new byte[128]);
+        assertThrows(IOException.class, () -> MappedCatalog.open(bogus));
+        assertThrows(IllegalArgumentException.class, () -> MappedCatalog.create(dir.resolve("zero.bin"), 0));
+    }
+
+    @Test
+    void holdsShouldSurviveARecycledView() throws IOException {
+        int skus = 2 * MappedCatalog.VIEW_CACHE_SIZE;
+        try (MappedCatalog catalog = MappedCatalog.create(dir.resolve("holds.bin"), skus);
+             StockReservations reservations = new StockReservations(Duration.ofMinutes(5))) {
+            for (int i = 0; i < skus; i++) {
+                catalog.add(new Equipment("E" + i, "Item " + i, BigDecimal.ONE, 5, EquipmentType.SAIL, true));
+            }
+            ReservedCart cart = new ReservedCart(reservations);
+            Equipment held = catalog.get("E0");
+            cart.addItem(held, 4);
+            for (int i = 1; i < skus; i++) {
+                catalog.get("E" + i); // recicla el casillero de E0
+            }
+            assertNotSame(held, catalog.get("E0"));
+
+            OrderResult result = new OrderService(catalog).tryProcessOrder(cart, false);
+            assertTrue(result.isAccepted(), result.toString());
+            assertEquals(1, catalog.get("E0").getStock());
+            assertEquals(0, reservations.getActiveHolds());
+        }
+    }
+}
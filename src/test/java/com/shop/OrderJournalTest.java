@@ -0,0 +1,210 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para OrderJournal y las proyecciones de stock y ventas.
+ */
+class OrderJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private Equipment board;
+    private Equipment sail;
+    private Equipment mast;
+    private Map<String, Equipment> catalog;
+    private OrderService service;
+
+    @BeforeEach
+    void setUp() {
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 100_000, EquipmentType.BOARD, true);
+        sail = new Equipment("S1", "Sail A", new BigDecimal("200.00"), 100_000, EquipmentType.SAIL, true);
+        mast = new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 100_000, EquipmentType.MAST, false);
+        catalog = Map.of("B1", board, "S1", sail, "M1", mast);
+        service = new OrderService(catalog);
+    }
+
+    // Pedidos al azar (compras y alquileres); retorna la cantidad aceptada
+    private int placeOrders(int count, long seed) {
+        Random random = new Random(seed);
+        int accepted = 0;
+        for (int i = 0; i < count; i++) {
+            Cart cart = new Cart();
+            cart.addItem(board, 1 + random.nextInt(3));
+            if (random.nextBoolean()) {
+                cart.addItem(sail, 1 + random.nextInt(2));
+            }
+            if (random.nextInt(4) == 0) {
+                cart.addItem(mast, 1);
+            }
+            if (service.tryProcessOrder(cart, random.nextBoolean()) instanceof OrderResult.Accepted) {
+                accepted++;
+            }
+        }
+        return accepted;
+    }
+
+    @Test
+    void parallelReplayShouldRebuildStockAndSales() throws IOException {
+        int accepted;
+        SalesProjection sequential;
+        try (OrderJournal journal = new OrderJournal(dir, 4 * 1024)) {
+            service.setOrderListener(journal);
+            accepted = placeOrders(2_000, 1L);
+            assertTrue(journal.getSegments().size() > 10);
+            sequential = journal.replay(new SalesProjection(), 1);
+        }
+        StockProjection stock = OrderJournal.replay(dir, new StockProjection(), 4);
+        SalesProjection sales = OrderJournal.replay(dir, new SalesProjection(), 4);
+
+        for (Equipment eq : catalog.values()) {
+            assertEquals(eq.getStock(), stock.unsoldOf(eq.getId(), 100_000));
+        }
+        assertEquals(accepted, sales.getOrders());
+        assertEquals(100_000 - board.getStock(), sales.getUnits(EquipmentType.BOARD));
+        assertEquals((100_000 - sail.getStock()) * 20_000L, sales.getListAmountCents(EquipmentType.SAIL));
+        assertEquals(0, sales.getUnits(EquipmentType.BOOM));
+        assertTrue(sales.getDepositCents() > 0);
+        assertEquals(sequential.getSubtotalCents(), sales.getSubtotalCents());
+        assertEquals(sequential.getDepositCents(), sales.getDepositCents());
+        assertEquals(sequential.getLastSequence(), sales.getLastSequence());
+    }
+
+    @Test
+    void amountsBeyondLongCentsShouldStillBeRecorded() throws IOException {
+        Equipment yacht = new Equipment("Y1", "Yacht", new BigDecimal("9E+16"), 100, EquipmentType.BOARD, true);
+        OrderService bigDecimal = new OrderService(Map.of("Y1", yacht));
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            bigDecimal.setOrderListener(journal);
+            Cart cart = new Cart();
+            cart.addItem(yacht, 50);
+            assertFalse(bigDecimal.processOrder(cart, true).hasCents());
+            journal.flush(); // el registro no falló
+        }
+        StockProjection stock = OrderJournal.replay(dir, new StockProjection(), 1);
+        assertEquals(50, stock.getSoldUnits("Y1"));
+        assertEquals(3, stock.getLastSequence()); // pedido, línea y depósito
+    }
+
+    @Test
+    void salesShouldSkipAmountsBeyondLongCents() throws IOException {
+        Equipment yacht = new Equipment("Y1", "Yacht", new BigDecimal("1E+30"), 100, EquipmentType.BOARD, false);
+        OrderService bigDecimal = new OrderService(Map.of("Y1", yacht, "B1", board));
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            bigDecimal.setOrderListener(journal);
+            Cart huge = new Cart();
+            huge.addItem(yacht, 1);
+            bigDecimal.processOrder(huge, false);
+            Cart normal = new Cart();
+            normal.addItem(board, 2);
+            bigDecimal.processOrder(normal, false);
+        }
+        for (int threads : new int[] {1, 4}) {
+            SalesProjection sales = OrderJournal.replay(dir, new SalesProjection(), threads);
+            assertEquals(2, sales.getOrders());
+            assertEquals(3, sales.getUnits(EquipmentType.BOARD));
+            assertEquals(100_000, sales.getSubtotalCents()); // solo el pedido representable
+            assertEquals(100_000, sales.getListAmountCents(EquipmentType.BOARD));
+            assertEquals(2, sales.getUnrepresentableAmounts()); // subtotal y línea del yate
+        }
+    }
+
+    @Test
+    void replayShouldResumeFromCheckpoint() throws IOException {
+        try (OrderJournal journal = new OrderJournal(dir, 2 * 1024)) {
+            service.setOrderListener(journal);
+            placeOrders(500, 2L);
+            StockProjection checkpoint = journal.replay(new StockProjection(), 3);
+            long firstPass = checkpoint.getLastSequence();
+            assertEquals(journal.getLastSequence(), firstPass);
+
+            placeOrders(500, 3L);
+            journal.replay(checkpoint, 3);
+            assertTrue(checkpoint.getLastSequence() > firstPass);
+            assertEquals(journal.getLastSequence(), checkpoint.getLastSequence());
+            // Repetir sin eventos nuevos no cambia nada
+            journal.replay(checkpoint, 3);
+            for (Equipment eq : catalog.values()) {
+                assertEquals(eq.getStock(), checkpoint.unsoldOf(eq.getId(), 100_000));
+            }
+        }
+    }
+
+    @Test
+    void reopenShouldContinueAfterLastValidEventAndDropTornTail() throws IOException {
+        long lastSequence;
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            service.setOrderListener(journal);
+            placeOrders(10, 4L);
+            lastSequence = journal.getLastSequence();
+        }
+        Path segment = segments().get(0);
+        // Escritura interrumpida: basura al final del segmento
+        Files.write(segment, new byte[] {0, 0, 0, 60, 1, 2, 3}, StandardOpenOption.APPEND);
+
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            assertEquals(lastSequence, journal.getLastSequence());
+            service.setOrderListener(journal);
+            Cart cart = new Cart();
+            cart.addItem(mast, 2);
+            service.processOrder(cart, false);
+            assertEquals(lastSequence + 2, journal.getLastSequence());
+            StockProjection stock = journal.replay(new StockProjection(), 2);
+            assertEquals(mast.getStock(), stock.unsoldOf("M1", 100_000));
+        }
+    }
+
+    @Test
+    void corruptionBeforeTheLastSegmentShouldFailReplay() throws IOException {
+        try (OrderJournal journal = new OrderJournal(dir, 512)) {
+            service.setOrderListener(journal);
+            placeOrders(50, 5L);
+        }
+        List<Path> segments = segments();
+        assertTrue(segments.size() > 2);
+        try (FileChannel ch = FileChannel.open(segments.get(0), StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 1);
+        }
+        assertThrows(IOException.class, () -> OrderJournal.replay(dir, new StockProjection(), 1));
+        assertThrows(IOException.class, () -> OrderJournal.replay(dir, new StockProjection(), 4));
+    }
+
+    @Test
+    void depositEventShouldOnlyBeWrittenForRentals() throws IOException {
+        try (OrderJournal journal = new OrderJournal(dir)) {
+            service.setOrderListener(journal);
+            Cart cart = new Cart();
+            cart.addItem(board, 1);
+            service.processOrder(cart, false);
+            assertEquals(2, journal.getLastSequence());
+            service.processOrder(cart, true);
+            assertEquals(5, journal.getLastSequence());
+            SalesProjection sales = journal.replay(new SalesProjection(), 1);
+            assertEquals(5_000, sales.getDepositCents());
+            assertEquals(100_000, sales.getSubtotalCents());
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().collect(Collectors.toList());
+        }
+    }
+}
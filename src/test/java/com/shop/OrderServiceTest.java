@@ -4,7 +4,13 @@ import org.junit.jupiter.api.*;
 
 import java.math.BigDecimal;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
@@ -93,4 +99,190 @@ class OrderServiceTest {
         assertThat(receipt.getTotal(), comparesEqualTo(new BigDecimal("550.00")));
         assertEquals(9, board.getStock());
     }
+
+    @Test
+    void processOrderInCentsModeShouldMatchBigDecimalMode() {
+        Equipment odd = new Equipment("O1", "Odd price", new BigDecimal("33.35"), 10, EquipmentType.BOOM, true);
+        catalog.put(odd.getId(), odd);
+        cart.addItem(board, 1);
+        cart.addItem(odd, 3); // 500 + 100.05 = 600.05 -> depósito 60.005 -> 60.01
+
+        OrderReceipt big = service.processOrder(cart, true);
+        OrderReceipt cents = new OrderService(catalog, MoneyMode.CENTS).processOrder(cart, true);
+
+        assertThat(cents.getSubtotal(), equalTo(big.getSubtotal()));
+        assertThat(cents.getDeposit(), equalTo(new BigDecimal("60.01")));
+        assertThat(cents.getDeposit(), equalTo(big.getDeposit()));
+        assertThat(cents.getTotal(), equalTo(big.getTotal()));
+        assertEquals(66006L, cents.getTotalCents());
+        assertEquals(big.getTotalCents(), cents.getTotalCents());
+        assertEquals(8, board.getStock());
+    }
+
+    @Test
+    void processOrdersShouldReturnOneResultPerCartWithoutAbortingBatch() {
+        Cart first = new Cart();
+        first.addItem(board, 4);
+        first.addItem(mast, 1);
+        Cart rejected = new Cart();
+        rejected.addItem(mast, 2); // sólo queda 1 mast tras el primer carrito
+        Cart empty = new Cart();
+        Cart last = new Cart();
+        last.addItem(board, 6);
+
+        List<BatchOrderResult> results = service.processOrders(List.of(first, rejected, empty, last), false);
+
+        assertThat(results, hasSize(4));
+        assertTrue(results.get(0).isSuccess());
+        assertThat(results.get(0).getReceipt().getTotal(), comparesEqualTo(new BigDecimal("2150.00")));
+        assertFalse(results.get(1).isSuccess());
+        assertThat(results.get(1).getError(), is("insufficient stock for item: M1"));
+        assertThat(results.get(2).getError(), is("cart must not be empty"));
+        assertTrue(results.get(3).isSuccess());
+        // Stock descontado sólo por los carritos aceptados; el sobrante de mast vuelve al catálogo
+        assertEquals(0, board.getStock());
+        assertEquals(1, mast.getStock());
+    }
+
+    @Test
+    void processOrdersShouldKeepHugeAmountsPerCart() {
+        // 9e16 * 50 no cabe en un long de centavos: BIG_DECIMAL lo tasa sin tope, CENTS lo rechaza por carrito
+        Equipment yacht = new Equipment("Y1", "Yacht", new BigDecimal("9E+16"), 100, EquipmentType.BOARD, true);
+        catalog.put(yacht.getId(), yacht);
+        Cart valid = new Cart();
+        valid.addItem(board, 1);
+        Cart huge = new Cart();
+        huge.addItem(yacht, 50);
+
+        List<BatchOrderResult> results = service.processOrders(List.of(valid, huge), false);
+
+        assertTrue(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        OrderReceipt receipt = results.get(1).getReceipt();
+        assertThat(receipt.getTotal(), comparesEqualTo(new BigDecimal("4.5E+18")));
+        assertFalse(receipt.hasCents());
+        assertThrows(ArithmeticException.class, receipt::getTotalCents);
+        assertEquals(50, yacht.getStock());
+
+        OrderService cents = new OrderService(catalog, MoneyMode.CENTS);
+        results = cents.processOrders(List.of(valid, huge), false);
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals(8, board.getStock());
+        assertEquals(50, yacht.getStock());
+        assertThrows(ArithmeticException.class, () -> cents.tryProcessOrder(huge, false));
+    }
+
+    @Test
+    void processOrdersShouldValidateRentalPerCart() {
+        Cart boardCart = new Cart();
+        boardCart.addItem(board, 1);
+        Cart mastCart = new Cart();
+        mastCart.addItem(mast, 1);
+
+        List<BatchOrderResult> results = service.processOrders(List.of(boardCart, mastCart), true);
+
+        assertThat(results.get(0).getReceipt().getDeposit(), comparesEqualTo(new BigDecimal("50.00")));
+        assertThat(results.get(1).getError(), is("equipment not eligible for rental: M1"));
+        assertEquals(9, board.getStock());
+        assertEquals(2, mast.getStock());
+        assertThrows(IllegalArgumentException.class, () -> service.processOrders(null, false));
+    }
+
+    @Test
+    void metricsShouldRecordPhasesAndRejectionReasons() {
+        RecordingOrderMetrics metrics = new RecordingOrderMetrics();
+        service.setMetrics(metrics);
+        cart.addItem(board, 1);
+        service.processOrder(cart, false);
+        Cart rentalMast = new Cart();
+        rentalMast.addItem(mast, 1);
+        assertThrows(IllegalArgumentException.class, () -> service.processOrder(rentalMast, true));
+        assertThrows(IllegalArgumentException.class, () -> service.processOrder(new Cart(), false));
+
+        assertEquals(1, metrics.getLatency(OrderMetrics.Phase.VALIDATION).getCount());
+        assertEquals(1, metrics.getLatency(OrderMetrics.Phase.PRICING).getCount());
+        assertEquals(1, metrics.getLatency(OrderMetrics.Phase.STOCK_COMMIT).getCount());
+        assertEquals(1, metrics.getRejections(RejectionReason.NOT_RENTAL_ELIGIBLE));
+        assertEquals(1, metrics.getRejections(RejectionReason.EMPTY_CART));
+        assertEquals(0, metrics.getRejections(RejectionReason.INSUFFICIENT_STOCK));
+        assertEquals(0, metrics.getContention("B1"));
+        assertThrows(IllegalArgumentException.class, () -> service.setMetrics(null));
+    }
+
+    @Test
+    void tryProcessOrderShouldReturnAcceptedWithReceipt() {
+        cart.addItem(board, 2);
+        OrderResult result = service.tryProcessOrder(cart, false);
+        assertTrue(result.isAccepted());
+        OrderReceipt receipt = ((OrderResult.Accepted) result).getReceipt();
+        assertThat(receipt.getTotal(), comparesEqualTo(new BigDecimal("1000.00")));
+        assertEquals(8, board.getStock());
+    }
+
+    @Test
+    void tryProcessOrderShouldReturnRejectionWithoutTouchingStock() {
+        cart.addItem(board, 1);
+        cart.addItem(mast, 3); // stock 2
+        OrderResult result = service.tryProcessOrder(cart, false);
+        OrderResult.Rejected rejected = assertInstanceOf(OrderResult.Rejected.class, result);
+        assertEquals(RejectionReason.INSUFFICIENT_STOCK, rejected.getReason());
+        assertEquals("M1", rejected.getEquipmentId());
+        assertEquals("insufficient stock for item: M1", rejected.describe());
+        assertEquals(10, board.getStock());
+        assertEquals(2, mast.getStock());
+
+        OrderResult.Rejected empty = assertInstanceOf(OrderResult.Rejected.class,
+                service.tryProcessOrder(new Cart(), false));
+        assertEquals(RejectionReason.EMPTY_CART, empty.getReason());
+        assertNull(empty.getEquipmentId());
+        assertEquals(RejectionReason.NULL_CART,
+                ((OrderResult.Rejected) service.tryProcessOrder(null, false)).getReason());
+    }
+
+    @Test
+    void processOrderShouldThrowSameMessageAsRejection() {
+        cart.addItem(mast, 1);
+        OrderResult.Rejected rejected = (OrderResult.Rejected) service.tryProcessOrder(cart, true);
+        assertEquals(RejectionReason.NOT_RENTAL_ELIGIBLE, rejected.getReason());
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> service.processOrder(cart, true));
+        assertEquals(rejected.describe(), ex.getMessage());
+    }
+
+    @Test
+    void concurrentCheckoutsShouldNeverOversellAndCommitAllOrNothing() throws Exception {
+        // board stock 10, mast stock 2: cada pedido lleva 1 board + 1 mast
+        int threads = 8;
+        int attemptsPerThread = 50;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    Cart c = new Cart();
+                    c.addItem(board, 1);
+                    c.addItem(mast, 1);
+                    try {
+                        service.processOrder(c, false);
+                        accepted.incrementAndGet();
+                    } catch (IllegalArgumentException expected) {
+                        // sin stock: rechazo esperado
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        // Sólo 2 pedidos caben (limita el mast) y el board no pierde stock por reservas parciales
+        assertEquals(2, accepted.get());
+        assertEquals(0, mast.getStock());
+        assertEquals(8, board.getStock());
+    }
 }
@@ -0,0 +1,222 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para PricingEngine y PricingRule.
+ */
+class PricingEngineTest {
+
+    private Equipment board;
+    private Equipment sail;
+    private Equipment mast;
+    private Equipment boom;
+    private Map<String, Equipment> catalog;
+    private PricingEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 100, EquipmentType.BOARD, true);
+        sail = new Equipment("S1", "Sail A", new BigDecimal("200.00"), 100, EquipmentType.SAIL, true);
+        mast = new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 100, EquipmentType.MAST, true);
+        boom = new Equipment("O1", "Boom Q", new BigDecimal("99.99"), 100, EquipmentType.BOOM, true);
+        catalog = Map.of("B1", board, "S1", sail, "M1", mast, "O1", boom);
+        engine = PricingEngine.compile(List.of(
+                PricingRule.typeDiscount(EquipmentType.SAIL, new BigDecimal("0.10")),
+                PricingRule.quantityBreak(EquipmentType.BOOM, 5, new BigDecimal("0.05")),
+                PricingRule.quantityBreak(EquipmentType.BOOM, 10, new BigDecimal("0.125")),
+                PricingRule.bundle(EnumSet.of(EquipmentType.BOARD, EquipmentType.SAIL), new BigDecimal("50.00"))));
+    }
+
+    @Test
+    void listPricesShouldMatchPriceTimesQuantity() {
+        Cart cart = new Cart();
+        cart.addItem(board, 2);
+        cart.addItem(boom, 3);
+        assertEquals(new BigDecimal("1299.97"), cart.estimateSubtotal(catalog));
+        assertEquals(129_997, cart.estimateSubtotalCents(EquipmentCatalog.of(catalog), PricingEngine.LIST_PRICES));
+        assertEquals(0, PricingEngine.LIST_PRICES.getBundleCount());
+        for (EquipmentType type : EquipmentType.values()) {
+            assertEquals(0, PricingEngine.LIST_PRICES.lineDiscountBasisPoints(type, 100));
+        }
+    }
+
+    @Test
+    void lineDiscountsShouldCombineTypeAndHighestTier() {
+        assertEquals(1_000, engine.lineDiscountBasisPoints(EquipmentType.SAIL, 1));
+        assertEquals(0, engine.lineDiscountBasisPoints(EquipmentType.BOOM, 4));
+        assertEquals(500, engine.lineDiscountBasisPoints(EquipmentType.BOOM, 9));
+        assertEquals(1_250, engine.lineDiscountBasisPoints(EquipmentType.BOOM, 10));
+        assertEquals(1_250, engine.lineDiscountBasisPoints(EquipmentType.BOOM, 1_000));
+
+        PricingEngine capped = PricingEngine.compile(List.of(
+                PricingRule.typeDiscount(EquipmentType.MAST, new BigDecimal("0.80")),
+                PricingRule.quantityBreak(EquipmentType.MAST, 2, new BigDecimal("0.50"))));
+        assertEquals(10_000, capped.lineDiscountBasisPoints(EquipmentType.MAST, 2));
+    }
+
+    @Test
+    void subtotalShouldApplyRulesIdenticallyInBothRepresentations() {
+        Equipment[] lines = {board, sail, boom, mast};
+        int[] quantities = {2, 3, 10, 1};
+        // board 1000 + sail 600 - 10% + boom 999.90 - 12.5% (124.9875 -> 124.99) + mast 150 - 2 combos
+        BigDecimal expected = new BigDecimal("1000.00").add(new BigDecimal("540.00"))
+                .add(new BigDecimal("874.91")).add(new BigDecimal("150.00")).subtract(new BigDecimal("100.00"));
+        assertEquals(expected, engine.subtotal(lines, quantities));
+        assertEquals(Cents.of(expected), engine.subtotalCents(lines, quantities));
+    }
+
+    @Test
+    void bundleDiscountShouldNeverMakeSubtotalNegative() {
+        PricingEngine generous = PricingEngine.compile(List.of(
+                PricingRule.bundle(EnumSet.of(EquipmentType.MAST, EquipmentType.BOOM), new BigDecimal("1000.00"))));
+        Equipment[] lines = {mast, boom};
+        int[] quantities = {1, 1};
+        assertEquals(new BigDecimal("0.00"), generous.subtotal(lines, quantities));
+        assertEquals(0, generous.subtotalCents(lines, quantities));
+        // Sin un tipo del combo no hay descuento
+        assertEquals(15_000, generous.subtotalCents(new Equipment[] {mast}, new int[] {1}));
+    }
+
+    @Test
+    void orderServiceAndCartShouldShareTheEngine() {
+        for (MoneyMode mode : MoneyMode.values()) {
+            OrderService service = new OrderService(EquipmentCatalog.of(catalog), mode, engine);
+            Cart cart = new Cart();
+            cart.addItem(board, 1);
+            cart.addItem(sail, 1);
+            BigDecimal estimate = cart.estimateSubtotal(EquipmentCatalog.of(catalog), service.getPricingEngine());
+
+            OrderReceipt receipt = service.processOrder(cart, true);
+            // 500 + 180 - 50 = 630; depósito del 10% sobre el subtotal con descuentos
+            assertEquals(new BigDecimal("630.00"), receipt.getSubtotal());
+            assertEquals(estimate, receipt.getSubtotal());
+            assertEquals(new BigDecimal("63.00"), receipt.getDeposit());
+            assertEquals(new BigDecimal("693.00"), receipt.getTotal());
+        }
+    }
+
+    @Test
+    void invalidRulesShouldBeRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> PricingRule.typeDiscount(EquipmentType.BOARD, new BigDecimal("1.5")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PricingRule.typeDiscount(EquipmentType.BOARD, new BigDecimal("0.00001")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PricingRule.quantityBreak(EquipmentType.BOARD, 1, new BigDecimal("0.1")));
+        assertThrows(IllegalArgumentException.class,
+                () -> PricingRule.bundle(EnumSet.of(EquipmentType.BOARD), new BigDecimal("10")));
+        assertThrows(IllegalArgumentException.class, () -> PricingEngine.compile(List.of(
+                PricingRule.quantityBreak(EquipmentType.SAIL, 3, new BigDecimal("0.1")),
+                PricingRule.quantityBreak(EquipmentType.SAIL, 3, new BigDecimal("0.2")))));
+        assertThrows(IllegalArgumentException.class,
+                () -> new OrderService(EquipmentCatalog.of(catalog), MoneyMode.CENTS, null));
+    }
+
+    // Catálogo de n equipos con precios de centavos impares, tipos rotativos y stock 1000
+    private static Map<String, Equipment> bigCatalog(int n) {
+        Map<String, Equipment> big = new HashMap<>();
+        EquipmentType[] types = EquipmentType.values();
+        for (int i = 0; i < n; i++) {
+            BigDecimal price = BigDecimal.valueOf(995 + (i * 7919L) % 100_003, 2);
+            Equipment eq = new Equipment("P" + i, "Part " + i, price, 1_000, types[i % types.length], i % 7 != 0);
+            big.put(eq.getId(), eq);
+        }
+        return big;
+    }
+
+    private static Cart bigCart(Map<String, Equipment> big, int n, long seed) {
+        Random rnd = new Random(seed);
+        Cart cart = new Cart();
+        for (int i = 0; i < n; i++) {
+            cart.addItem(big.get("P" + i), 1 + rnd.nextInt(15));
+        }
+        return cart;
+    }
+
+    @Test
+    void parallelPricingShouldMatchSequentialExactly() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PricingEngine sequential = engine.withParallelism(pool, Integer.MAX_VALUE);
+            PricingEngine parallel = engine.withParallelism(pool, 1_000);
+            int n = 20_000;
+            Map<String, Equipment> big = bigCatalog(n);
+            Cart cart = bigCart(big, n, 7);
+            // Quitar líneas deja huecos en el carrito: la validación en paralelo los compacta antes
+            cart.removeItem("P10");
+            cart.removeItem("P19999");
+
+            BigDecimal expected = cart.estimateSubtotal(EquipmentCatalog.of(big), sequential);
+            assertEquals(expected, cart.estimateSubtotal(EquipmentCatalog.of(big), parallel));
+            assertEquals(2, expected.scale());
+            assertEquals(cart.estimateSubtotalCents(EquipmentCatalog.of(big), sequential),
+                    cart.estimateSubtotalCents(EquipmentCatalog.of(big), parallel));
+
+            for (MoneyMode mode : MoneyMode.values()) {
+                OrderReceipt seq = new OrderService(EquipmentCatalog.of(bigCatalog(n)), mode, sequential)
+                        .processOrder(cart, false);
+                Map<String, Equipment> parCatalog = bigCatalog(n);
+                OrderReceipt par = new OrderService(EquipmentCatalog.of(parCatalog), mode, parallel)
+                        .processOrder(cart, false);
+                assertEquals(seq.getSubtotal(), par.getSubtotal());
+                assertEquals(seq.getTotal(), par.getTotal());
+                assertEquals(seq.getItems().size(), par.getItems().size());
+                assertEquals(seq.getItems().get(n / 2).getId(), par.getItems().get(n / 2).getId());
+                assertEquals(1_000 - cart.getQuantity("P500"), parCatalog.get("P500").getStock());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelValidationShouldReportTheFirstInvalidLine() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            PricingEngine parallel = PricingEngine.LIST_PRICES.withParallelism(pool, 1_000);
+            int n = 20_000;
+            Map<String, Equipment> big = bigCatalog(n);
+            Cart cart = bigCart(big, n, 11);
+            big.get("P4000").decreaseStock(1_000); // sin stock
+            big.remove("P15000");                  // ya no está en el catálogo
+            OrderService service = new OrderService(EquipmentCatalog.of(big), MoneyMode.CENTS, parallel);
+
+            OrderResult.Rejected rejected = (OrderResult.Rejected) service.tryProcessOrder(cart, false);
+            assertEquals(RejectionReason.INSUFFICIENT_STOCK, rejected.getReason());
+            assertEquals("P4000", rejected.getEquipmentId());
+            // En alquiler, P0 no es elegible y va antes que el resto
+            rejected = (OrderResult.Rejected) service.tryProcessOrder(cart, true);
+            assertEquals(RejectionReason.NOT_RENTAL_ELIGIBLE, rejected.getReason());
+            assertEquals("P0", rejected.getEquipmentId());
+            assertEquals(1_000, big.get("P1").getStock());
+
+            IllegalArgumentException missing = assertThrows(IllegalArgumentException.class,
+                    () -> cart.estimateSubtotal(EquipmentCatalog.of(big), parallel));
+            assertEquals("equipment not found in catalog: P15000", missing.getMessage());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void parallelismSettingsShouldBeValidated() {
+        assertEquals(PricingEngine.DEFAULT_PARALLEL_THRESHOLD, engine.getParallelThreshold());
+        assertFalse(engine.isParallel(1_000_000)); // apagado hasta medir el umbral
+        assertEquals(500, engine.withParallelism(ForkJoinPool.commonPool(), 500).getParallelThreshold());
+        assertFalse(engine.withParallelism(new ForkJoinPool(1), 1).isParallel(10_000));
+        assertThrows(IllegalArgumentException.class, () -> engine.withParallelism(null, 100));
+        assertThrows(IllegalArgumentException.class, () -> engine.withParallelism(ForkJoinPool.commonPool(), 0));
+    }
+}
@@ -0,0 +1,150 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para ReceiptCodec y ReceiptWriter.
+ */
+class ReceiptCodecTest {
+
+    @TempDir
+    Path dir;
+
+    private static OrderReceipt receipt(int n, boolean rental) {
+        List<OrderReceipt.OrderItem> items = List.of(
+                new OrderReceipt.OrderItem("B" + n, 1 + n % 7),
+                new OrderReceipt.OrderItem("Vela-ñ-€-🏄", 300));
+        long subtotal = 12_345L + n;
+        long deposit = rental ? subtotal / 10 : 0L;
+        return new OrderReceipt(items, subtotal, deposit, subtotal + deposit, rental);
+    }
+
+    private static void assertSameReceipt(OrderReceipt expected, OrderReceipt actual) {
+        assertEquals(expected.getStatus(), actual.getStatus());
+        assertEquals(expected.isRental(), actual.isRental());
+        assertEquals(expected.getItems().size(), actual.getItems().size());
+        for (int i = 0; i < expected.getItems().size(); i++) {
+            assertEquals(expected.getItems().get(i).getId(), actual.getItems().get(i).getId());
+            assertEquals(expected.getItems().get(i).getQuantity(), actual.getItems().get(i).getQuantity());
+        }
+        assertEquals(expected.getSubtotal(), actual.getSubtotal());
+        assertEquals(expected.getDeposit(), actual.getDeposit());
+        assertEquals(expected.getTotal(), actual.getTotal());
+    }
+
+    @Test
+    void encodeDecodeShouldRoundTripOnHeapAndDirectBuffers() {
+        OrderReceipt original = new OrderReceipt(
+                List.of(new OrderReceipt.OrderItem("B1", 2)),
+                new BigDecimal("1000.00"), new BigDecimal("100.00"), new BigDecimal("1100.00"), true);
+        for (OrderReceipt r : List.of(original, receipt(1, false), receipt(2, true))) {
+            int size = ReceiptCodec.encodedSize(r);
+            for (ByteBuffer buf : List.of(ByteBuffer.allocate(size), ByteBuffer.allocateDirect(size))) {
+                ReceiptCodec.encode(r, buf);
+                assertEquals(size, buf.position());
+                assertSameReceipt(r, ReceiptCodec.decode(buf.flip()));
+                assertFalse(buf.hasRemaining());
+            }
+        }
+        // 1 flag + 1 cantidad + (1 + 2 + 1) ítem + 3 + 3 + 3 importes
+        assertEquals(15, ReceiptCodec.encodedSize(original));
+    }
+
+    @Test
+    void decodeShouldRejectTruncatedInput() {
+        OrderReceipt r = receipt(3, true);
+        ByteBuffer buf = ByteBuffer.allocate(ReceiptCodec.encodedSize(r));
+        ReceiptCodec.encode(r, buf);
+        buf.flip().limit(buf.limit() - 2);
+        assertThrows(IllegalArgumentException.class, () -> ReceiptCodec.decode(buf));
+    }
+
+    @Test
+    void writerShouldStreamFramesThroughFileChannel() throws IOException {
+        Path file = dir.resolve("receipts.bin");
+        List<OrderReceipt> written = new ArrayList<>();
+        try (ReceiptWriter writer = new ReceiptWriter(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE), 128)) {
+            for (int i = 0; i < 1_000; i++) {
+                OrderReceipt r = receipt(i, i % 3 == 0);
+                writer.write(r);
+                written.add(r);
+            }
+            // Un recibo más grande que la trama
+            List<OrderReceipt.OrderItem> many = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                many.add(new OrderReceipt.OrderItem("SKU-" + i, i + 1));
+            }
+            OrderReceipt big = new OrderReceipt(many, 1L, 0L, 1L, false);
+            writer.write(big);
+            written.add(big);
+            assertEquals(1_001, writer.getReceiptCount());
+        }
+
+        List<OrderReceipt> read = new ArrayList<>();
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            assertEquals(1_001, ReceiptCodec.read(in, read::add));
+        }
+        assertEquals(written.size(), read.size());
+        for (int i = 0; i < written.size(); i++) {
+            assertSameReceipt(written.get(i), read.get(i));
+        }
+    }
+
+    @Test
+    void readShouldDetectCorruptionAndTruncation() throws IOException {
+        Path file = dir.resolve("receipts.bin");
+        try (ReceiptWriter writer = new ReceiptWriter(FileChannel.open(file,
+                StandardOpenOption.CREATE, StandardOpenOption.WRITE))) {
+            for (int i = 0; i < 10; i++) {
+                writer.write(receipt(i, false));
+            }
+        }
+        byte[] bytes = Files.readAllBytes(file);
+
+        byte[] corrupt = bytes.clone();
+        corrupt[20] ^= 0x01;
+        Files.write(file, corrupt);
+        IOException crc = assertThrows(IOException.class, () -> readAll(file));
+        assertTrue(crc.getMessage().contains("crc"));
+
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        assertThrows(IOException.class, () -> readAll(file));
+
+        Files.write(file, new byte[] {1, 2, 3, 4});
+        assertThrows(IOException.class, () -> readAll(file));
+
+        Files.write(file, new byte[0]);
+        assertEquals(0, readAll(file));
+
+        // Un largo dañado se rechaza sin reservar el buffer (ni desbordar length + trailer)
+        for (int length : new int[] {ReceiptCodec.MAX_FRAME_BYTES + 1, Integer.MAX_VALUE}) {
+            Files.write(file, ByteBuffer.allocate(12).putInt(ReceiptCodec.MAGIC).putInt(length).putInt(1).array());
+            IOException tooLarge = assertThrows(IOException.class, () -> readAll(file));
+            assertTrue(tooLarge.getMessage().contains("too large"), tooLarge.getMessage());
+        }
+        try (FileChannel out = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            assertThrows(IllegalArgumentException.class, () -> new ReceiptWriter(out, ReceiptCodec.MAX_FRAME_BYTES + 1));
+        }
+    }
+
+    private static long readAll(Path file) throws IOException {
+        try (FileChannel in = FileChannel.open(file, StandardOpenOption.READ)) {
+            return ReceiptCodec.read(in, r -> { });
+        }
+    }
+}
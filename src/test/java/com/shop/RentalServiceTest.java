@@ -0,0 +1,139 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.comparesEqualTo;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para RentalService (reservas por período y devolución).
+ */
+class RentalServiceTest {
+
+    private static final Instant DAY = Instant.parse("2026-07-01T00:00:00Z");
+
+    private Equipment board;
+    private Equipment mast;
+    private RentalService service;
+
+    @BeforeEach
+    void setUp() {
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 2, EquipmentType.BOARD, true);
+        mast = new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 2, EquipmentType.MAST, false);
+        service = new RentalService(Map.of("B1", board, "M1", mast), DAY, DAY.plus(Duration.ofDays(90)),
+                Duration.ofMinutes(30));
+    }
+
+    private static Instant at(int hour) {
+        return DAY.plus(Duration.ofHours(hour));
+    }
+
+    private static Cart cartOf(Equipment eq, int qty) {
+        Cart cart = new Cart();
+        cart.addItem(eq, qty);
+        return cart;
+    }
+
+    @Test
+    void bookShouldReserveThePeriodWithoutTouchingStock() {
+        Rental rental = service.book(cartOf(board, 2), at(10), at(14));
+        assertEquals(Rental.State.BOOKED, rental.getState());
+        assertEquals(2, board.getStock());
+        assertEquals(0, service.available("B1", at(10), at(14)));
+        assertEquals(0, service.available("B1", at(13), at(15)));
+        assertEquals(2, service.available("B1", at(14), at(18)));
+        assertEquals(2, service.available("B1", at(6), at(10)));
+        // Mismo recibo que un pedido rental: subtotal + 10% de depósito
+        assertThat(rental.getReceipt().getTotal(), comparesEqualTo(new BigDecimal("1100.00")));
+        assertTrue(rental.getReceipt().isRental());
+    }
+
+    @Test
+    void bookShouldRejectOverlapButAllowConsecutivePeriods() {
+        service.book(cartOf(board, 2), at(10), at(14));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> service.book(cartOf(board, 1), at(12), at(16)));
+        assertEquals("equipment not available for period: B1", ex.getMessage());
+        assertNotNull(service.book(cartOf(board, 2), at(14), at(18)));
+    }
+
+    @Test
+    void turnaroundShouldKeepUnitsBusyAfterTheRental() {
+        service.setTurnaround(EquipmentType.BOARD, Duration.ofHours(1));
+        service.book(cartOf(board, 2), at(10), at(14));
+        assertThrows(IllegalArgumentException.class, () -> service.book(cartOf(board, 1), at(14), at(16)));
+        assertNotNull(service.book(cartOf(board, 1), at(15), at(16)));
+    }
+
+    @Test
+    void pickUpAndReturnShouldMoveStockAndFreeUnusedSlots() {
+        Rental rental = service.book(cartOf(board, 1), at(10), at(18));
+        service.pickUp(rental);
+        assertEquals(Rental.State.OUT, rental.getState());
+        assertEquals(1, board.getStock());
+        assertThrows(IllegalStateException.class, () -> service.pickUp(rental));
+
+        service.returnRental(rental, at(12));
+        assertEquals(Rental.State.RETURNED, rental.getState());
+        assertEquals(2, board.getStock());
+        assertFalse(rental.isLate());
+        assertEquals(2, service.available("B1", at(12), at(18)));
+        assertEquals(1, service.available("B1", at(11), at(12)));
+        assertThrows(IllegalStateException.class, () -> service.returnRental(rental, at(13)));
+    }
+
+    @Test
+    void lateReturnShouldBeFlagged() {
+        Rental rental = service.book(cartOf(board, 1), at(10), at(12));
+        service.pickUp(rental);
+        service.returnRental(rental, at(15));
+        assertTrue(rental.isLate());
+        assertEquals(2, board.getStock());
+    }
+
+    @Test
+    void cancelShouldReleaseBookingOnlyBeforePickUp() {
+        Rental rental = service.book(cartOf(board, 2), at(10), at(14));
+        assertTrue(service.cancel(rental));
+        assertFalse(service.cancel(rental));
+        assertEquals(2, service.available("B1", at(10), at(14)));
+        Rental other = service.book(cartOf(board, 1), at(10), at(14));
+        service.pickUp(other);
+        assertFalse(service.cancel(other));
+    }
+
+    @Test
+    void pickUpShouldFailWhenUnitsWereSold() {
+        Rental rental = service.book(cartOf(board, 2), at(10), at(14));
+        board.decreaseStock(1);
+        assertThrows(IllegalArgumentException.class, () -> service.pickUp(rental));
+        assertEquals(Rental.State.BOOKED, rental.getState());
+        assertEquals(1, board.getStock());
+    }
+
+    @Test
+    void fleetSizeShouldBoundAvailability() {
+        service.setFleetSize("B1", 5);
+        assertEquals(5, service.available("B1", at(0), at(1)));
+        assertNotNull(service.book(cartOf(board, 5), at(0), at(1)));
+        assertEquals(0, service.available("NOPE", at(0), at(1)));
+    }
+
+    @Test
+    void bookShouldValidateRulesAndPeriod() {
+        assertThrows(IllegalArgumentException.class, () -> service.book(cartOf(mast, 1), at(10), at(12)));
+        assertThrows(IllegalArgumentException.class, () -> service.book(new Cart(), at(10), at(12)));
+        assertThrows(IllegalArgumentException.class, () -> service.book(cartOf(board, 1), at(12), at(10)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.book(cartOf(board, 1), DAY.minusSeconds(1), at(2)));
+        assertThrows(IllegalArgumentException.class,
+                () -> service.book(cartOf(board, 1), at(10), DAY.plus(Duration.ofDays(91))));
+    }
+}
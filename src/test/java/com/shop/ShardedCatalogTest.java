@@ -0,0 +1,141 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para ShardedCatalog (shards por hash de id y locks por shard).
+ */
+class ShardedCatalogTest {
+
+    private ShardedCatalog catalog;
+    private List<Equipment> equipment;
+
+    @BeforeEach
+    void setUp() {
+        equipment = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            equipment.add(new Equipment("E" + i, "Equipment " + i, new BigDecimal("10.00"), 20,
+                    EquipmentType.values()[i % EquipmentType.values().length], true));
+        }
+        catalog = new ShardedCatalog(equipment, 8);
+    }
+
+    @Test
+    void shouldStoreAndRemoveAcrossShards() {
+        assertEquals(100, catalog.size());
+        assertSame(equipment.get(42), catalog.get("E42"));
+        assertNull(catalog.get("missing"));
+        assertNull(catalog.get(null));
+        long version = catalog.version();
+        assertSame(equipment.get(7), catalog.remove("E7"));
+        assertNull(catalog.remove("E7"));
+        assertNull(catalog.get("E7"));
+        assertEquals(99, catalog.size());
+        assertTrue(catalog.version() > version);
+        assertThrows(IllegalArgumentException.class, () -> catalog.add(equipment.get(0)));
+        assertThrows(IllegalArgumentException.class, () -> catalog.add(null));
+    }
+
+    @Test
+    void shardCountShouldRoundUpToPowerOfTwo() {
+        assertEquals(8, catalog.getShardCount());
+        assertEquals(16, new ShardedCatalog(9).getShardCount());
+        assertEquals(1, new ShardedCatalog(1).getShardCount());
+        assertThrows(IllegalArgumentException.class, () -> new ShardedCatalog(0));
+        int shard = catalog.shardOf("E1");
+        assertTrue(shard >= 0 && shard < 8);
+    }
+
+    @Test
+    void checkoutLockShouldReleaseAllShards() {
+        Equipment[] lines = equipment.subList(0, 10).toArray(new Equipment[0]);
+        EquipmentCatalog.CheckoutLock lock = catalog.lockForCheckout(lines);
+        lock.unlock();
+        // Tras liberar, otro hilo puede tomar los mismos shards
+        assertDoesNotThrow(() -> {
+            Thread t = new Thread(() -> catalog.lockForCheckout(lines).unlock());
+            t.start();
+            t.join(5_000);
+            assertFalse(t.isAlive());
+        });
+    }
+
+    @Test
+    void concurrentMultiShardOrdersShouldNotDeadlockOrOversell() throws Exception {
+        OrderService service = new OrderService(catalog);
+        int threads = 8;
+        int attemptsPerThread = 200;
+        AtomicInteger accepted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int t = 0; t < threads; t++) {
+            boolean reversed = t % 2 == 1;
+            pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < attemptsPerThread; i++) {
+                    // Mismos equipos en distinto orden de inserción según el hilo
+                    Cart cart = new Cart();
+                    for (int j = 0; j < 5; j++) {
+                        cart.addItem(equipment.get(reversed ? 4 - j : j), 1);
+                    }
+                    if (service.tryProcessOrder(cart, false).isAccepted()) {
+                        accepted.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+
+        assertEquals(20, accepted.get());
+        for (int j = 0; j < 5; j++) {
+            assertEquals(0, equipment.get(j).getStock());
+        }
+    }
+
+    @Test
+    void batchesShouldReserveWithTheShardLocksHeld() throws Exception {
+        OrderService service = new OrderService(catalog);
+        Cart cart = new Cart();
+        cart.addItem(equipment.get(0), 5);
+        cart.addItem(equipment.get(1), 30); // no alcanza: su reserva parcial vuelve en la fase 4
+        Cart other = new Cart();
+        other.addItem(equipment.get(1), 5);
+
+        EquipmentCatalog.CheckoutLock lock = catalog.lockForCheckout(new Equipment[] {equipment.get(1)});
+        Thread batch;
+        List<List<BatchOrderResult>> out = new CopyOnWriteArrayList<>();
+        try {
+            batch = new Thread(() -> out.add(service.processOrders(List.of(cart, other), false)));
+            batch.start();
+            batch.join(200);
+            // Mientras otro checkout tiene el shard, el lote no toca el stock
+            assertTrue(batch.isAlive());
+            assertEquals(20, equipment.get(1).getStock());
+        } finally {
+            lock.unlock();
+        }
+        batch.join(5_000);
+        assertFalse(batch.isAlive());
+        List<BatchOrderResult> results = out.get(0);
+        assertFalse(results.get(0).isSuccess());
+        assertTrue(results.get(1).isSuccess());
+        assertEquals(20, equipment.get(0).getStock());
+        assertEquals(15, equipment.get(1).getStock());
+    }
+}
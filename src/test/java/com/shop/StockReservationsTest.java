@@ -0,0 +1,180 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para StockReservations y ReservedCart, con reloj manual.
+ */
+class StockReservationsTest {
+
+    private static final long TICK = TimeUnit.SECONDS.toNanos(1);
+
+    private final AtomicLong clock = new AtomicLong();
+    private StockReservations reservations;
+    private Equipment board;
+    private Equipment sail;
+
+    @BeforeEach
+    void setUp() {
+        reservations = new StockReservations(Duration.ofSeconds(10), Duration.ofSeconds(1), clock::get);
+        board = new Equipment("B1", "Board X", new BigDecimal("500.00"), 10, EquipmentType.BOARD, true);
+        sail = new Equipment("S1", "Sail A", new BigDecimal("200.00"), 5, EquipmentType.SAIL, true);
+    }
+
+    private void advanceSeconds(int seconds) {
+        clock.addAndGet(seconds * TICK);
+    }
+
+    @Test
+    void holdShouldTakeStockAndReleaseShouldReturnIt() {
+        StockReservations.Hold hold = reservations.tryHold(board, 4);
+        assertNotNull(hold);
+        assertEquals(6, board.getStock());
+        assertEquals(1, reservations.getActiveHolds());
+        assertNull(reservations.tryHold(board, 7));
+        assertEquals(6, board.getStock());
+
+        assertTrue(reservations.release(hold));
+        assertFalse(reservations.release(hold));
+        assertEquals(10, board.getStock());
+        assertEquals(0, reservations.getActiveHolds());
+        assertThrows(IllegalArgumentException.class, () -> reservations.tryHold(board, 0));
+    }
+
+    @Test
+    void sweepShouldExpireHoldsOnlyAfterTtl() {
+        StockReservations.Hold hold = reservations.tryHold(board, 3);
+        advanceSeconds(9);
+        assertEquals(0, reservations.sweep());
+        assertTrue(hold.isActive());
+        advanceSeconds(1);
+        assertEquals(1, reservations.sweep());
+        assertFalse(hold.isActive());
+        assertEquals(10, board.getStock());
+        assertEquals(1, reservations.getExpiredHolds());
+        assertFalse(reservations.release(hold));
+    }
+
+    @Test
+    void extendAndResizeShouldPushDeadline() {
+        StockReservations.Hold hold = reservations.tryHold(board, 3);
+        advanceSeconds(8);
+        assertTrue(reservations.resize(hold, 5));
+        assertEquals(5, board.getStock());
+        advanceSeconds(8);
+        assertEquals(0, reservations.sweep());
+        assertTrue(reservations.extend(hold));
+        advanceSeconds(9);
+        assertEquals(0, reservations.sweep());
+        advanceSeconds(1);
+        assertEquals(1, reservations.sweep());
+        assertEquals(10, board.getStock());
+        assertFalse(reservations.resize(hold, 1));
+    }
+
+    @Test
+    void resizeWithoutStockShouldKeepPreviousHold() {
+        StockReservations.Hold hold = reservations.tryHold(sail, 2);
+        assertFalse(reservations.resize(hold, 6));
+        assertEquals(2, hold.getQuantity());
+        assertEquals(3, sail.getStock());
+        assertTrue(reservations.resize(hold, 1));
+        assertEquals(4, sail.getStock());
+    }
+
+    @Test
+    void sweepAfterLongPauseShouldExpireEverything() {
+        List<StockReservations.Hold> holds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            holds.add(reservations.tryHold(board, 1));
+            advanceSeconds(1);
+        }
+        assertEquals(0, board.getStock());
+        advanceSeconds(1000);
+        assertEquals(10, reservations.sweep());
+        assertEquals(10, board.getStock());
+        assertTrue(holds.stream().noneMatch(StockReservations.Hold::isActive));
+    }
+
+    @Test
+    void reservedCartShouldHoldStockWhileBuilding() {
+        ReservedCart cart = new ReservedCart(reservations);
+        cart.addItem(board, 2);
+        cart.addItem(board, 3);
+        cart.addItem(sail, 1);
+        assertEquals(5, board.getStock());
+        assertEquals(5, cart.getHeldQuantity("B1"));
+        assertThrows(IllegalArgumentException.class, () -> cart.addItem(sail, 5));
+        assertEquals(1, cart.getItems().get("S1"));
+        assertEquals(4, sail.getStock());
+
+        cart.setQuantity("B1", 1);
+        assertEquals(9, board.getStock());
+        assertTrue(cart.removeItem("S1"));
+        assertEquals(5, sail.getStock());
+        cart.releaseAll();
+        assertEquals(10, board.getStock());
+        assertEquals(0, reservations.getActiveHolds());
+    }
+
+    @Test
+    void processOrderShouldConvertHoldsIntoSale() {
+        OrderService service = new OrderService(java.util.Map.of("B1", board, "S1", sail));
+        ReservedCart cart = new ReservedCart(reservations);
+        cart.addItem(board, 4);
+        // Otro cliente compra todo el stock libre: lo apartado sigue disponible para este carrito
+        Cart other = new Cart();
+        other.addItem(board, 6);
+        service.processOrder(other, false);
+        assertEquals(0, board.getStock());
+
+        OrderReceipt receipt = service.processOrder(cart, false);
+        assertEquals(4, receipt.getItems().get(0).getQuantity());
+        assertEquals(0, board.getStock());
+        assertEquals(0, reservations.getActiveHolds());
+        advanceSeconds(60);
+        assertEquals(0, reservations.sweep());
+        assertEquals(0, board.getStock());
+    }
+
+    @Test
+    void processOrderShouldReserveExpiredHoldsAgainAndKeepHoldsOnRejection() {
+        OrderService service = new OrderService(java.util.Map.of("B1", board, "S1", sail));
+        ReservedCart cart = new ReservedCart(reservations);
+        cart.addItem(board, 2);
+        advanceSeconds(5);
+        cart.addItem(sail, 1);
+        advanceSeconds(5);
+        assertEquals(1, reservations.sweep()); // vence B1, S1 sigue apartado
+        assertEquals(10, board.getStock());
+        assertEquals(0, cart.getHeldQuantity("B1"));
+
+        sail.decreaseStock(4); // sin stock libre de S1: solo queda lo apartado
+        OrderResult result = service.tryProcessOrder(cart, false);
+        assertTrue(result.isAccepted());
+        assertEquals(8, board.getStock());
+        assertEquals(0, sail.getStock());
+
+        ReservedCart second = new ReservedCart(reservations);
+        second.addItem(board, 3);
+        Cart free = new Cart();
+        free.addItem(board, 5);
+        service.processOrder(free, false);
+        // Hold sobre otra instancia con el mismo id: OrderService lo ignora y S1 no alcanza
+        second.addItem(new Equipment("S1", "Sail A", new BigDecimal("200.00"), 1, EquipmentType.SAIL, true), 1);
+        OrderResult rejected = service.tryProcessOrder(second, false);
+        assertFalse(rejected.isAccepted());
+        assertEquals(3, second.getHeldQuantity("B1"));
+        assertEquals(0, board.getStock());
+    }
+}
@@ -0,0 +1,115 @@
+package com.shop;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de persistencia de stock: write-ahead log, fotos y recuperación.
+ */
+class StockStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private static List<Equipment> initialCatalog() {
+        return List.of(
+                new Equipment("B1", "Board X", new BigDecimal("500.00"), 10, EquipmentType.BOARD, true),
+                new Equipment("S1", "Sail A", new BigDecimal("200.50"), 5, EquipmentType.SAIL, false));
+    }
+
+    @Test
+    void reopenShouldRecoverStockChangesFromLog() throws IOException {
+        try (StockStore store = StockStore.open(dir, initialCatalog())) {
+            Cart cart = new Cart();
+            cart.addItem(store.getCatalog().get("B1"), 3);
+            cart.addItem(store.getCatalog().get("S1"), 1);
+            new OrderService(store.getCatalog()).processOrder(cart, false);
+            store.awaitDurable();
+        }
+
+        try (StockStore reopened = StockStore.open(dir, List.of())) {
+            Equipment board = reopened.getCatalog().get("B1");
+            Equipment sail = reopened.getCatalog().get("S1");
+            assertEquals(7, board.getStock());
+            assertEquals(4, sail.getStock());
+            assertEquals(new BigDecimal("200.50"), sail.getPrice());
+            assertFalse(sail.isRentalEligible());
+        }
+    }
+
+    @Test
+    void checkpointShouldCompactLogIntoSnapshot() throws IOException {
+        try (StockStore store = StockStore.open(dir, initialCatalog())) {
+            store.getCatalog().get("B1").decreaseStock(2);
+            store.checkpoint();
+            store.getCatalog().get("B1").decreaseStock(1);
+            store.getCatalog().get("S1").increaseStock(3);
+        }
+        // Sólo queda el segmento posterior a la foto
+        assertFalse(Files.exists(dir.resolve("wal-0.log")));
+        assertTrue(Files.exists(dir.resolve("wal-1.log")));
+        assertEquals(8, CatalogSnapshot.read(dir.resolve(StockStore.SNAPSHOT_FILE)).getCatalog().get("B1").getStock());
+
+        try (StockStore reopened = StockStore.open(dir, List.of())) {
+            assertEquals(7, reopened.getCatalog().get("B1").getStock());
+            assertEquals(8, reopened.getCatalog().get("S1").getStock());
+        }
+    }
+
+    @Test
+    void recoveryShouldIgnoreTornTail() throws IOException {
+        try (StockStore store = StockStore.open(dir, initialCatalog())) {
+            store.getCatalog().get("B1").decreaseStock(4);
+        }
+        // Simular una escritura interrumpida al final del segmento
+        Files.write(dir.resolve("wal-0.log"), new byte[]{0, 2, 'B', '1', 0, 0}, StandardOpenOption.APPEND);
+
+        try (StockStore reopened = StockStore.open(dir, List.of())) {
+            assertEquals(6, reopened.getCatalog().get("B1").getStock());
+            reopened.getCatalog().get("B1").decreaseStock(1);
+        }
+        try (StockStore again = StockStore.open(dir, List.of())) {
+            assertEquals(5, again.getCatalog().get("B1").getStock());
+        }
+    }
+
+    @Test
+    void concurrentChangesShouldAllBeDurable() throws Exception {
+        try (StockStore store = StockStore.open(dir, List.of(
+                new Equipment("B1", "Board X", new BigDecimal("1.00"), 10_000, EquipmentType.BOARD, true)))) {
+            Equipment board = store.getCatalog().get("B1");
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            for (int t = 0; t < 4; t++) {
+                pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        board.decreaseStock(1);
+                        store.awaitDurable();
+                    }
+                });
+            }
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(30, TimeUnit.SECONDS));
+        }
+        try (StockStore reopened = StockStore.open(dir, List.of())) {
+            assertEquals(8_000, reopened.getCatalog().get("B1").getStock());
+        }
+    }
+
+    @Test
+    void openShouldValidateArguments() {
+        assertThrows(IllegalArgumentException.class, () -> StockStore.open(null, List.of()));
+        assertThrows(IllegalArgumentException.class, () -> StockStore.open(dir, null));
+    }
+}
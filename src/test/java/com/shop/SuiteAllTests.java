@@ -12,7 +12,28 @@ import org.junit.platform.suite.api.Suite;
         CartTest.class,
         ParametrizedStockTest.class,
         AssumptionsTest.class,
-        OrderServiceTest.class
+        OrderServiceTest.class,
+        CentsTest.class,
+        IndexedCatalogTest.class,
+        StockStoreTest.class,
+        MappedCatalogTest.class,
+        BoundCartTest.class,
+        AsyncCheckoutServiceTest.class,
+        LatencyHistogramTest.class,
+        StockReservationsTest.class,
+        AvailabilityIndexTest.class,
+        RentalServiceTest.class,
+        ShardedCatalogTest.class,
+        CatalogImporterTest.class,
+        VersionedCatalogTest.class,
+        IdempotentOrderServiceTest.class,
+        ReceiptCodecTest.class,
+        PricingEngineTest.class,
+        CartLinesTest.class,
+        OrderJournalTest.class,
+        LoadGeneratorTest.class,
+        CachingCatalogTest.class,
+        InventoryAnalyticsTest.class
 })
 public class SuiteAllTests {
     // Intencionalmente vacío: la anotación @Suite orquesta la ejecución
@@ -0,0 +1,154 @@
+package com.shop;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Pruebas de unidad para VersionedCatalog (deltas atómicos y fotos inmutables).
+ */
+class VersionedCatalogTest {
+
+    private Equipment board;
+    private Equipment sail;
+    private VersionedCatalog catalog;
+
+    @BeforeEach
+    void setUp() {
+        board = new Equipment("B1", "Board X", new BigDecimal("10.00"), 1_000_000, EquipmentType.BOARD, true);
+        sail = new Equipment("S1", "Sail A", new BigDecimal("10.00"), 1_000_000, EquipmentType.SAIL, true);
+        catalog = new VersionedCatalog(List.of(board, sail));
+    }
+
+    @Test
+    void applyShouldPublishNewPricesAndKeepOldSnapshots() {
+        VersionedCatalog.Snapshot before = catalog.snapshot();
+        long version = catalog.apply(new CatalogDelta().setPrice("B1", new BigDecimal("12.345")));
+
+        assertEquals(1, version);
+        assertEquals(1, catalog.version());
+        assertEquals(new BigDecimal("12.35"), catalog.get("B1").getPrice());
+        assertEquals(1235, catalog.get("B1").getPriceCents());
+        assertSame(board, before.get("B1"));
+        assertEquals(0, before.version());
+        assertSame(sail, catalog.get("S1"));
+    }
+
+    @Test
+    void repricedEquipmentShouldShareStockAndListeners() {
+        catalog.apply(new CatalogDelta().setPrice("B1", new BigDecimal("20.00")));
+        catalog.apply(new CatalogDelta().setPrice("B1", new BigDecimal("30.00")));
+        Equipment repriced = catalog.get("B1");
+        AtomicInteger notifications = new AtomicInteger();
+        board.addStockListener((eq, previous, current) -> notifications.incrementAndGet());
+        repriced.addStockListener((eq, previous, current) -> notifications.incrementAndGet());
+
+        assertTrue(repriced.tryDecreaseStock(10));
+        assertEquals(999_990, board.getStock());
+        board.increaseStock(5);
+        assertEquals(999_995, repriced.getStock());
+        assertEquals(4, notifications.get());
+    }
+
+    @Test
+    void invalidDeltaShouldNotPublishAnything() {
+        CatalogDelta delta = new CatalogDelta()
+                .setPrice("B1", new BigDecimal("99.00"))
+                .adjustStock("NOPE", 5);
+        assertThrows(IllegalArgumentException.class, () -> catalog.apply(delta));
+        assertEquals(0, catalog.version());
+        assertSame(board, catalog.get("B1"));
+        assertThrows(IllegalArgumentException.class, () -> catalog.apply(new CatalogDelta().add(board)));
+        assertThrows(IllegalArgumentException.class, () -> new CatalogDelta().setPrice("B1", new BigDecimal("-1")));
+    }
+
+    @Test
+    void stockOverflowShouldUndoAdjustmentsAndNotPublish() {
+        CatalogDelta delta = new CatalogDelta()
+                .setPrice("B1", new BigDecimal("99.00"))
+                .adjustStock("B1", -400_000)
+                .adjustStock("S1", Integer.MAX_VALUE);
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> catalog.apply(delta));
+        assertEquals("stock overflow", e.getMessage());
+        assertEquals(0, catalog.version());
+        assertSame(board, catalog.get("B1"));
+        assertEquals(1_000_000, board.getStock());
+        assertEquals(1_000_000, sail.getStock());
+    }
+
+    @Test
+    void applyShouldAddRemoveAndAdjustStock() {
+        Equipment mast = new Equipment("M1", "Mast Z", new BigDecimal("150.00"), 2, EquipmentType.MAST, false);
+        catalog.apply(new CatalogDelta()
+                .remove("S1")
+                .add(mast)
+                .adjustStock("M1", 3)
+                .adjustStock("B1", -2_000_000));
+        assertNull(catalog.get("S1"));
+        assertEquals(2, catalog.size());
+        assertEquals(5, mast.getStock());
+        assertEquals(0, board.getStock()); // una resta mayor que el stock lo deja en 0
+    }
+
+    @Test
+    void ordersShouldSeeOneConsistentPriceVersionPerCart() throws Exception {
+        OrderService service = new OrderService(catalog);
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(3);
+        // Escritor: ambos precios cambian juntos entre 10 y 20
+        Future<?> writer = pool.submit(() -> {
+            int i = 0;
+            while (running.get()) {
+                BigDecimal price = (i++ % 2 == 0) ? new BigDecimal("20.00") : new BigDecimal("10.00");
+                catalog.apply(new CatalogDelta().setPrice("B1", price).setPrice("S1", price));
+            }
+        });
+        Runnable buyer = () -> {
+            for (int i = 0; i < 5_000; i++) {
+                Cart cart = new Cart();
+                cart.addItem(board, 1);
+                cart.addItem(sail, 1);
+                BigDecimal total = service.processOrder(cart, false).getTotal();
+                assertThat(total, anyOf(comparesEqualTo(new BigDecimal("20.00")), comparesEqualTo(new BigDecimal("40.00"))));
+            }
+        };
+        Future<?> first = pool.submit(buyer);
+        Future<?> second = pool.submit(buyer);
+        first.get(30, TimeUnit.SECONDS);
+        second.get(30, TimeUnit.SECONDS);
+        running.set(false);
+        writer.get(30, TimeUnit.SECONDS);
+        pool.shutdown();
+
+        assertEquals(1_000_000 - 10_000, board.getStock());
+        assertEquals(1_000_000 - 10_000, catalog.get("S1").getStock());
+    }
+
+    @Test
+    void holdsShouldSurviveARepricing() {
+        StockReservations reservations = new StockReservations(Duration.ofMinutes(10));
+        ReservedCart cart = new ReservedCart(reservations);
+        cart.addItem(catalog.get("B1"), 999_999);
+        catalog.apply(new CatalogDelta().setPrice("B1", new BigDecimal("11.00")));
+        cart.addItem(catalog.get("B1"), 1);
+        assertEquals(0, board.getStock());
+
+        OrderReceipt receipt = new OrderService(catalog).processOrder(cart, false);
+        assertThat(receipt.getTotal(), comparesEqualTo(new BigDecimal("11000000.00")));
+        assertEquals(0, board.getStock());
+        assertEquals(0, reservations.getActiveHolds());
+    }
+}